@@ -192,7 +192,8 @@ public class MegaCreative extends JavaPlugin {
             getServer().getPluginManager().registerEvents(serviceRegistry.getGuiManager(), this);
             */
             
-            // Essential script trigger manager
+            // Essential script trigger manager and the per-world compiled script cache it reads from
+            getServer().getPluginManager().registerEvents(serviceRegistry.getCompiledScriptRegistry(), this);
             getServer().getPluginManager().registerEvents(serviceRegistry.getScriptTriggerManager(), this);
             
             // Essential custom event manager
@@ -35,8 +35,10 @@ public class ActionBlockExecutor implements BlockExecutor {
         }
         
         
-        LOGGER.fine("Executing action: " + actionId + " for player: " + 
-                   (context.getPlayer() != null ? context.getPlayer().getName() : "unknown"));
+        if (LOGGER.isLoggable(java.util.logging.Level.FINE)) {
+            LOGGER.fine("Executing action: " + actionId + " for player: " + 
+                       (context.getPlayer() != null ? context.getPlayer().getName() : "unknown"));
+        }
         
         BlockAction actionHandler = actionFactory.createAction(actionId);
         if (actionHandler != null) {
@@ -44,7 +46,9 @@ public class ActionBlockExecutor implements BlockExecutor {
                 ExecutionResult result = actionHandler.execute(block, context);
                 if (result != null) {
                     if (result.isSuccess()) {
-                        LOGGER.fine("Action " + actionId + " executed successfully: " + result.getMessage());
+                        if (LOGGER.isLoggable(java.util.logging.Level.FINE)) {
+                            LOGGER.fine("Action " + actionId + " executed successfully: " + result.getMessage());
+                        }
                     } else {
                         LOGGER.warning("Action " + actionId + " failed: " + result.getMessage());
                     }
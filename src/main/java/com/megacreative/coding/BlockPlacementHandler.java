@@ -30,7 +30,6 @@ import org.bukkit.World;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 /**
@@ -42,7 +41,7 @@ public class BlockPlacementHandler implements Listener {
     private final MegaCreative plugin;
     
     
-    private final Map<Location, CodeBlock> blockCodeBlocks = new ConcurrentHashMap<>();
+    private final CodeBlockStore blockStore = new CodeBlockStore();
     
     
     private ITrustedPlayerManager trustedPlayerManager;
@@ -258,7 +257,7 @@ public class BlockPlacementHandler implements Listener {
         }
 
         // Store the code block
-        blockCodeBlocks.put(block.getLocation(), newCodeBlock);
+        blockStore.put(block.getLocation(), newCodeBlock);
         log.fine("Created CodeBlock at " + block.getLocation() + " with material " + newCodeBlock.getMaterialName());
         
         // Fire the custom event
@@ -302,8 +301,8 @@ public class BlockPlacementHandler implements Listener {
         }
 
         // Check if this is a code block
-        if (blockCodeBlocks.containsKey(loc)) {
-            CodeBlock removedBlock = blockCodeBlocks.remove(loc);
+        if (blockStore.get(loc) != null) {
+            CodeBlock removedBlock = blockStore.remove(loc);
             
             // Fire the custom event
             CodeBlockBrokenEvent brokenEvent = new CodeBlockBrokenEvent(player, removedBlock, loc);
@@ -327,7 +326,7 @@ public class BlockPlacementHandler implements Listener {
             }
             
             // Remove the code block if it exists
-            CodeBlock removedBlock = blockCodeBlocks.remove(loc);
+            CodeBlock removedBlock = blockStore.remove(loc);
             
             if (removedBlock != null) {
                 CodeBlockBrokenEvent brokenEvent = new CodeBlockBrokenEvent(player, removedBlock, loc);
@@ -405,12 +404,12 @@ public class BlockPlacementHandler implements Listener {
         if (!isInDevWorld(player)) return;
 
         Location location = event.getClickedBlock().getLocation();
-        if (!blockCodeBlocks.containsKey(location)) {
+        if (blockStore.get(location) == null) {
             return;
         }
         
         event.setCancelled(true); 
-        CodeBlock codeBlock = blockCodeBlocks.get(location);
+        CodeBlock codeBlock = blockStore.get(location);
 
         // Add debug logging
         player.sendMessage("§aInteracted with code block: " + codeBlock.getMaterialName() + " with action: " + codeBlock.getAction());
@@ -546,7 +545,7 @@ public class BlockPlacementHandler implements Listener {
      */
     private boolean isProtectedBracket(Location location) {
         
-        CodeBlock codeBlock = blockCodeBlocks.get(location);
+        CodeBlock codeBlock = blockStore.get(location);
         
         
         if (codeBlock != null && codeBlock.isBracket()) {
@@ -566,7 +565,7 @@ public class BlockPlacementHandler implements Listener {
      * @return true if there's already a bracket at this location, false otherwise
      */
     private boolean hasExistingBracket(Location location) {
-        CodeBlock existingBlock = blockCodeBlocks.get(location);
+        CodeBlock existingBlock = blockStore.get(location);
         return existingBlock != null && existingBlock.isBracket();
     }
     
@@ -580,7 +579,7 @@ public class BlockPlacementHandler implements Listener {
         for (int x = -3; x <= 3; x++) {
             for (int z = -3; z <= 3; z++) {
                 Location checkLoc = bracketLocation.clone().add(x, 0, z);
-                CodeBlock checkBlock = blockCodeBlocks.get(checkLoc);
+                CodeBlock checkBlock = blockStore.get(checkLoc);
                 
                 if (checkBlock != null) {
                     
@@ -633,7 +632,7 @@ public class BlockPlacementHandler implements Listener {
      * Gets CodeBlock by location
      */
     public CodeBlock getCodeBlock(Location location) {
-        return blockCodeBlocks.get(location);
+        return blockStore.get(location);
     }
     
     /**
@@ -670,7 +669,7 @@ public class BlockPlacementHandler implements Listener {
                 }
                 
                 bracketBlock.setLocation(location.getWorld().getName(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
-                blockCodeBlocks.put(location, bracketBlock);
+                blockStore.put(location, bracketBlock);
                 return bracketBlock;
             }
             return null;
@@ -733,7 +732,7 @@ public class BlockPlacementHandler implements Listener {
         }
         
         
-        blockCodeBlocks.put(location, codeBlock);
+        blockStore.put(location, codeBlock);
         return codeBlock;
     }
     
@@ -741,30 +740,60 @@ public class BlockPlacementHandler implements Listener {
      * Checks if there's a CodeBlock at location
      */
     public boolean hasCodeBlock(Location location) {
-        return blockCodeBlocks.containsKey(location);
+        return blockStore.get(location) != null;
     }
 
     /**
-     * Gets all CodeBlocks
+     * Gets the per-world block store, for position and line lookups without copying
+     */
+    public CodeBlockStore getBlockStore() {
+        return blockStore;
+    }
+
+    /**
+     * Finds the location a CodeBlock is placed at
+     * @return The location, or null if the block is not placed
+     */
+    public Location findCodeBlockLocation(CodeBlock codeBlock) {
+        return blockStore.locate(codeBlock);
+    }
+
+    /**
+     * Places a CodeBlock at a location, replacing the block there
+     */
+    public void putCodeBlock(Location location, CodeBlock codeBlock) {
+        blockStore.put(location, codeBlock);
+    }
+
+    /**
+     * Removes the CodeBlock at a location
+     * @return The removed block, or null
+     */
+    public CodeBlock removeCodeBlock(Location location) {
+        return blockStore.remove(location);
+    }
+
+    /**
+     * Gets a snapshot copy of all CodeBlocks
      */
     public Map<Location, CodeBlock> getAllCodeBlocks() {
-        return new HashMap<>(blockCodeBlocks);
+        Map<Location, CodeBlock> copy = new HashMap<>();
+        blockStore.forEach(copy::put);
+        return copy;
     }
 
     /**
-     * Gets all CodeBlocks (for compatibility)
+     * Gets a snapshot copy of all CodeBlocks (for compatibility)
      */
     public Map<Location, CodeBlock> getBlockCodeBlocks() {
-        return new HashMap<>(blockCodeBlocks);
+        return getAllCodeBlocks();
     }
     
     /**
      * Clears all CodeBlocks in world
      */
     public void clearAllCodeBlocksInWorld(World world) {
-        blockCodeBlocks.entrySet().removeIf(entry -> entry.getKey().getWorld().equals(world));
-        
-        
+        blockStore.clearWorld(world.getName());
     }
     
     /**
@@ -772,8 +801,7 @@ public class BlockPlacementHandler implements Listener {
      * Used during world hydration to register existing blocks
      */
     public void addCodeBlock(Location location, CodeBlock codeBlock) {
-        if (!blockCodeBlocks.containsKey(location)) {
-            blockCodeBlocks.put(location, codeBlock);
+        if (blockStore.putIfAbsent(location, codeBlock)) {
             plugin.getLogger().fine("Added CodeBlock to tracking at " + location);
         }
     }
@@ -46,10 +46,27 @@ public class ChestParser {
     private static final Logger LOGGER = Logger.getLogger(ChestParser.class.getName());
     
     private final Inventory chestInventory;
+    private final ItemStack[] contents;
     private final Location chestLocation;
     
     public ChestParser(Inventory chestInventory, Location chestLocation) {
         this.chestInventory = chestInventory;
+        this.contents = null;
+        this.chestLocation = chestLocation;
+    }
+    
+    /**
+     * Creates a ChestParser over a copy of the chest contents, for parsing off the main thread
+     * @param contents Copied chest contents, one entry per slot
+     * @param chestLocation The location of the chest
+     * 
+     * Создает ChestParser над копией содержимого сундука, для разбора вне основного потока
+     * @param contents Скопированное содержимое сундука, по одному элементу на слот
+     * @param chestLocation Расположение сундука
+     */
+    public ChestParser(ItemStack[] contents, Location chestLocation) {
+        this.chestInventory = null;
+        this.contents = contents;
         this.chestLocation = chestLocation;
     }
     
@@ -87,11 +104,11 @@ public class ChestParser {
      * @return Текстовое значение или null, если не найдено
      */
     public String getText(int slot) {
-        if (slot < 0 || slot >= chestInventory.getSize()) {
+        if (slot < 0 || slot >= getSize()) {
             return null;
         }
         
-        ItemStack item = chestInventory.getItem(slot);
+        ItemStack item = itemAt(slot);
         if (item == null || item.getType() == Material.AIR) {
             return null;
         }
@@ -117,11 +134,11 @@ public class ChestParser {
      * @return Числовое значение или 0, если не найдено
      */
     public double getNumber(int slot) {
-        if (slot < 0 || slot >= chestInventory.getSize()) {
+        if (slot < 0 || slot >= getSize()) {
             return 0;
         }
         
-        ItemStack item = chestInventory.getItem(slot);
+        ItemStack item = itemAt(slot);
         if (item == null || item.getType() == Material.AIR) {
             return 0;
         }
@@ -151,11 +168,11 @@ public class ChestParser {
      * @return Значение местоположения или null, если не найдено
      */
     public Location getLocation(int slot) {
-        if (slot < 0 || slot >= chestInventory.getSize()) {
+        if (slot < 0 || slot >= getSize()) {
             return null;
         }
         
-        ItemStack item = chestInventory.getItem(slot);
+        ItemStack item = itemAt(slot);
         if (item == null || item.getType() == Material.AIR) {
             return null;
         }
@@ -193,11 +210,11 @@ public class ChestParser {
      * @return Стек предметов или null, если не найден
      */
     public ItemStack getItem(int slot) {
-        if (slot < 0 || slot >= chestInventory.getSize()) {
+        if (slot < 0 || slot >= getSize()) {
             return null;
         }
         
-        return chestInventory.getItem(slot);
+        return itemAt(slot);
     }
     
     /**
@@ -209,8 +226,8 @@ public class ChestParser {
      */
     public List<ItemStack> getAllItems() {
         List<ItemStack> items = new ArrayList<>();
-        for (int i = 0; i < chestInventory.getSize(); i++) {
-            ItemStack item = chestInventory.getItem(i);
+        for (int i = 0; i < getSize(); i++) {
+            ItemStack item = itemAt(i);
             if (item != null && item.getType() != Material.AIR) {
                 items.add(item);
             }
@@ -218,12 +235,27 @@ public class ChestParser {
         return items;
     }
     
+    /**
+     * Gets the number of slots
+     * @return The slot count
+     * 
+     * Получает количество слотов
+     * @return Количество слотов
+     */
+    public int getSize() {
+        return contents != null ? contents.length : chestInventory.getSize();
+    }
+    
+    private ItemStack itemAt(int slot) {
+        return contents != null ? contents[slot] : chestInventory.getItem(slot);
+    }
+    
     /**
      * Gets the chest inventory
-     * @return The chest inventory
+     * @return The chest inventory, or null for a parser over copied contents
      * 
      * Получает инвентарь сундука
-     * @return Инвентарь сундука
+     * @return Инвентарь сундука или null для парсера над скопированным содержимым
      */
     public Inventory getChestInventory() {
         return chestInventory;
@@ -1,9 +1,11 @@
 package com.megacreative.coding;
 
+import com.megacreative.coding.placeholders.PlaceholderTemplate;
 import com.megacreative.coding.values.DataValue;
 import org.bukkit.Location;
 import org.bukkit.inventory.ItemStack;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Represents a single code block in the visual programming system
@@ -14,7 +16,6 @@ import java.util.*;
  */
 public class CodeBlock {
     
-    
     /** Unique block identifier 
      *  Уникальний ідентифікатор блоку */
     private UUID id;
@@ -49,6 +50,14 @@ public class CodeBlock {
      *  Групи предметів для складних конфігурацій */
     private Map<String, List<Integer>> itemGroups;
     
+    /** Compiled placeholder templates of the parameters, checked against the current parameter text 
+     *  Скомпільовані шаблони плейсхолдерів параметрів, звіряються з поточним текстом параметра */
+    private transient volatile Map<String, PlaceholderTemplate> parameterTemplates;
+    
+    /** Structural version of the block graph, bumped whenever links, actions or parameters of this block change
+     *  Структурна версія графа блоків, збільшується при зміні зв'язків, дій або параметрів цього блоку */
+    private transient volatile StructureVersion structure;
+    
     /** Bracket type for grouping blocks 
      *  Тип дужок для групування блоків */
     private BracketType bracketType = null;
@@ -162,6 +171,7 @@ public class CodeBlock {
     
     public void setAction(String action) { 
         this.action = action; 
+        markStructureChanged();
     }
     
     public String getEvent() { 
@@ -170,6 +180,7 @@ public class CodeBlock {
     
     public void setEvent(String event) { 
         this.event = event; 
+        markStructureChanged();
     }
     
     public Map<String, DataValue> getParameters() { 
@@ -178,6 +189,7 @@ public class CodeBlock {
     
     public void setParameters(Map<String, DataValue> parameters) { 
         this.parameters = parameters; 
+        markStructureChanged();
     }
     
     public List<CodeBlock> getChildren() { 
@@ -186,6 +198,7 @@ public class CodeBlock {
     
     public void setChildren(List<CodeBlock> children) { 
         this.children = children; 
+        markStructureChanged();
     }
     
     public CodeBlock getNextBlock() { 
@@ -194,6 +207,7 @@ public class CodeBlock {
     
     public void setNextBlock(CodeBlock nextBlock) { 
         this.nextBlock = nextBlock; 
+        markStructureChanged();
     }
     
     public Map<Integer, ItemStack> getConfigItems() { 
@@ -218,12 +232,85 @@ public class CodeBlock {
     
     public void setBracketType(BracketType bracketType) {
         this.bracketType = bracketType;
+        markStructureChanged();
     }
     
     public boolean isBracket() {
         return bracketType != null;
     }
     
+    /**
+     * Gets the structural version of the graph this block was last joined into.
+     * Anything derived from the block graph (validation, compiled form) stays valid while it is unchanged.
+     * @return Current structural version
+     * 
+     * Отримує структурну версію графа, до якого блок востаннє приєднано.
+     * Усе, що обчислено з графа блоків (валідація, скомпільована форма), дійсне, поки вона не змінилась.
+     */
+    long getStructureVersion() {
+        return structure().current();
+    }
+    
+    /**
+     * Joins every block reachable from this one into its structural version, so that editing any of them
+     * changes the version read from this block; called before something is derived from the graph
+     * @return Structural version of the joined graph
+     * 
+     * Приєднує всі блоки, досяжні з цього, до його структурної версії, щоб зміна будь-якого з них
+     * змінювала версію цього блоку; викликається перед обчисленням чогось із графа
+     */
+    long joinStructure() {
+        StructureVersion version = structure();
+        Set<CodeBlock> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<CodeBlock> pending = new ArrayDeque<>();
+        pending.push(this);
+        while (!pending.isEmpty()) {
+            CodeBlock block = pending.pop();
+            if (!visited.add(block)) {
+                continue;
+            }
+            version.join(block.structure());
+            if (block.nextBlock != null) {
+                pending.push(block.nextBlock);
+            }
+            if (block.elseBlock != null) {
+                pending.push(block.elseBlock);
+            }
+            if (block.children != null) {
+                for (CodeBlock child : block.children) {
+                    if (child != null) {
+                        pending.push(child);
+                    }
+                }
+            }
+        }
+        return version.current();
+    }
+    
+    /**
+     * Marks the block graph as changed, for edits made directly on the children list or parameter map
+     * 
+     * Позначає граф блоків як змінений, для змін безпосередньо у списку дочірніх блоків або карті параметрів
+     */
+    public void markStructureChanged() {
+        structure().bump();
+    }
+    
+    private StructureVersion structure() {
+        StructureVersion version = structure;
+        if (version == null) {
+            synchronized (this) {
+                version = structure;
+                if (version == null) {
+                    // Created lazily: deserialized blocks skip the constructors
+                    version = new StructureVersion();
+                    structure = version;
+                }
+            }
+        }
+        return version;
+    }
+    
     /**
      * Gets the location of this block (removed Bukkit dependency)
      * @return Block location data as separate components
@@ -321,6 +408,7 @@ public class CodeBlock {
     
     public void setMaterialName(String materialName) {
         this.materialName = materialName;
+        markStructureChanged();
     }
     
     public CodeBlock getElseBlock() {
@@ -329,6 +417,7 @@ public class CodeBlock {
     
     public void setElseBlock(CodeBlock elseBlock) {
         this.elseBlock = elseBlock;
+        markStructureChanged();
     }
     
     
@@ -340,6 +429,7 @@ public class CodeBlock {
      */
     public void setParameter(String key, DataValue value) {
         parameters.put(key, value);
+        markStructureChanged();
     }
     
     /**
@@ -349,6 +439,7 @@ public class CodeBlock {
      */
     public void setParameter(String key, Object value) {
         parameters.put(key, DataValue.fromObject(value));
+        markStructureChanged();
     }
     
     /**
@@ -371,6 +462,32 @@ public class CodeBlock {
         return value != null ? value : defaultValue;
     }
     
+    /**
+     * Gets a parameter compiled as a placeholder template. The template is parsed once and reused until the parameter text changes.
+     * @param key Parameter key
+     * @return Template or null if the parameter is missing or empty
+     * 
+     * Отримує параметр, скомпільований як шаблон плейсхолдерів. Шаблон розбирається один раз і використовується, доки текст параметра не зміниться.
+     */
+    public PlaceholderTemplate getParameterTemplate(String key) {
+        DataValue value = parameters.get(key);
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        String text = value.asString();
+        Map<String, PlaceholderTemplate> templates = parameterTemplates;
+        if (templates == null) {
+            templates = new ConcurrentHashMap<>();
+            parameterTemplates = templates;
+        }
+        PlaceholderTemplate template = templates.get(key);
+        if (template == null || !template.getSource().equals(text)) {
+            template = PlaceholderTemplate.compile(text);
+            templates.put(key, template);
+        }
+        return template;
+    }
+    
     /**
      * Gets a parameter value as a specific type
      * @param key Parameter key
@@ -439,6 +556,7 @@ public class CodeBlock {
     public void addChild(CodeBlock child) {
         if (child != null) {
             children.add(child);
+            markStructureChanged();
         }
     }
     
@@ -448,6 +566,7 @@ public class CodeBlock {
      */
     public void setNext(CodeBlock next) {
         this.nextBlock = next;
+        markStructureChanged();
     }
     
     
@@ -0,0 +1,250 @@
+package com.megacreative.coding;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Code blocks of all dev worlds, stored per world under packed (x, y, z) block positions.
+ * Besides the position lookup each world keeps a reverse index from block id to position and
+ * the blocks of every code line (same y and z) ordered by x, so compiling and neighbour searches
+ * are constant-time lookups instead of scans over every placed block.
+ * Reads are lock-free; changes to one world are serialized so the indexes stay consistent.
+ *
+ * Блоки кода всех миров разработки, хранящиеся по мирам под упакованными позициями (x, y, z).
+ * Кроме поиска по позиции каждый мир хранит обратный индекс от id блока к позиции и
+ * блоки каждой строки кода (одинаковые y и z), упорядоченные по x, поэтому компиляция и поиск соседей
+ * выполняются поиском за константное время вместо перебора всех установленных блоков.
+ * Чтение выполняется без блокировок; изменения одного мира сериализуются, чтобы индексы оставались согласованными.
+ */
+public final class CodeBlockStore {
+
+    /**
+     * Returned by {@link #positionOf} for blocks that are not stored
+     */
+    public static final long NO_POSITION = Long.MIN_VALUE;
+
+    private final Map<String, WorldBlocks> worlds = new ConcurrentHashMap<>();
+
+    /**
+     * Packs block coordinates into one long: 26 bits x, 26 bits z, 12 bits y
+     */
+    public static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    public static int unpackX(long position) {
+        return (int) (position >> 38);
+    }
+
+    public static int unpackY(long position) {
+        return (int) (position << 52 >> 52);
+    }
+
+    public static int unpackZ(long position) {
+        return (int) (position << 26 >> 38);
+    }
+
+    private static long lineKey(int y, int z) {
+        return ((long) y << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Gets the blocks of one world
+     *
+     * @return The world's blocks, or null if no block was ever stored in it
+     */
+    public WorldBlocks world(String worldName) {
+        return worldName != null ? worlds.get(worldName) : null;
+    }
+
+    public CodeBlock get(Location location) {
+        WorldBlocks blocks = location.getWorld() != null ? worlds.get(location.getWorld().getName()) : null;
+        return blocks != null ? blocks.get(location.getBlockX(), location.getBlockY(), location.getBlockZ()) : null;
+    }
+
+    /**
+     * Stores a block, replacing and unindexing whatever was at the location
+     *
+     * @return The block previously stored at the location, or null
+     */
+    public CodeBlock put(Location location, CodeBlock block) {
+        return worlds.computeIfAbsent(location.getWorld().getName(), WorldBlocks::new)
+            .put(location.getBlockX(), location.getBlockY(), location.getBlockZ(), block, false);
+    }
+
+    /**
+     * Stores a block unless the location is taken
+     *
+     * @return true if the block was stored
+     */
+    public boolean putIfAbsent(Location location, CodeBlock block) {
+        return worlds.computeIfAbsent(location.getWorld().getName(), WorldBlocks::new)
+            .put(location.getBlockX(), location.getBlockY(), location.getBlockZ(), block, true) == null;
+    }
+
+    public CodeBlock remove(Location location) {
+        WorldBlocks blocks = location.getWorld() != null ? worlds.get(location.getWorld().getName()) : null;
+        return blocks != null ? blocks.remove(location.getBlockX(), location.getBlockY(), location.getBlockZ()) : null;
+    }
+
+    /**
+     * Finds where a block is stored
+     *
+     * @return The block's location, or null if it is not stored or its world is not loaded
+     */
+    public Location locate(CodeBlock block) {
+        if (block == null) {
+            return null;
+        }
+        for (WorldBlocks blocks : worlds.values()) {
+            long position = blocks.positionOf(block);
+            if (position != NO_POSITION) {
+                World world = Bukkit.getWorld(blocks.worldName);
+                return world != null ? new Location(world, unpackX(position), unpackY(position), unpackZ(position)) : null;
+            }
+        }
+        return null;
+    }
+
+    public void clearWorld(String worldName) {
+        worlds.remove(worldName);
+    }
+
+    /**
+     * Passes every stored block with its location to the consumer; blocks of unloaded worlds are skipped
+     */
+    public void forEach(BiConsumer<Location, CodeBlock> consumer) {
+        for (WorldBlocks blocks : worlds.values()) {
+            World world = Bukkit.getWorld(blocks.worldName);
+            if (world == null) {
+                continue;
+            }
+            blocks.byPosition.forEach((position, block) -> consumer.accept(
+                new Location(world, unpackX(position), unpackY(position), unpackZ(position)), block));
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (WorldBlocks blocks : worlds.values()) {
+            size += blocks.size();
+        }
+        return size;
+    }
+
+    /**
+     * Code blocks of one world
+     */
+    public static final class WorldBlocks {
+        private final String worldName;
+        private final Map<Long, CodeBlock> byPosition = new ConcurrentHashMap<>();
+        private final Map<UUID, Long> positionsById = new ConcurrentHashMap<>();
+        private final Map<Long, NavigableMap<Integer, CodeBlock>> lines = new ConcurrentHashMap<>();
+
+        private WorldBlocks(String worldName) {
+            this.worldName = worldName;
+        }
+
+        public String getWorldName() {
+            return worldName;
+        }
+
+        public CodeBlock get(int x, int y, int z) {
+            return byPosition.get(pack(x, y, z));
+        }
+
+        /**
+         * Gets the packed position of a block
+         *
+         * @return The position, or {@link #NO_POSITION} if the block is not stored in this world
+         */
+        public long positionOf(CodeBlock block) {
+            Long position = block.getId() != null ? positionsById.get(block.getId()) : null;
+            return position != null ? position : NO_POSITION;
+        }
+
+        /**
+         * Finds the first block of a code line whose x lies in [fromX, toX]
+         *
+         * @return The block with the smallest x in range, or null
+         */
+        public CodeBlock firstOnLine(int y, int z, int fromX, int toX) {
+            NavigableMap<Integer, CodeBlock> line = lines.get(lineKey(y, z));
+            if (line == null) {
+                return null;
+            }
+            Map.Entry<Integer, CodeBlock> entry = line.ceilingEntry(fromX);
+            return entry != null && entry.getKey() <= toX ? entry.getValue() : null;
+        }
+
+        /**
+         * Gets the blocks of a code line ordered by x, as a read-only live view
+         */
+        public NavigableMap<Integer, CodeBlock> line(int y, int z) {
+            NavigableMap<Integer, CodeBlock> line = lines.get(lineKey(y, z));
+            return line != null ? Collections.unmodifiableNavigableMap(line) : Collections.emptyNavigableMap();
+        }
+
+        /**
+         * Gets all blocks of this world as a read-only live view
+         */
+        public Collection<CodeBlock> blocks() {
+            return Collections.unmodifiableCollection(byPosition.values());
+        }
+
+        public int size() {
+            return byPosition.size();
+        }
+
+        private synchronized CodeBlock put(int x, int y, int z, CodeBlock block, boolean onlyIfAbsent) {
+            long position = pack(x, y, z);
+            CodeBlock previous = byPosition.get(position);
+            if (previous != null && onlyIfAbsent) {
+                return previous;
+            }
+            if (previous != null) {
+                positionsById.remove(previous.getId(), position);
+            }
+            // A block moved here is unlinked from its old position first
+            Long oldPosition = positionsById.get(block.getId());
+            if (oldPosition != null && oldPosition != position) {
+                unlink(oldPosition);
+            }
+            byPosition.put(position, block);
+            positionsById.put(block.getId(), position);
+            lines.computeIfAbsent(lineKey(y, z), key -> new ConcurrentSkipListMap<>()).put(x, block);
+            return previous;
+        }
+
+        private synchronized CodeBlock remove(int x, int y, int z) {
+            return unlink(pack(x, y, z));
+        }
+
+        private CodeBlock unlink(long position) {
+            CodeBlock removed = byPosition.remove(position);
+            if (removed == null) {
+                return null;
+            }
+            positionsById.remove(removed.getId(), position);
+            long lineKey = lineKey(unpackY(position), unpackZ(position));
+            NavigableMap<Integer, CodeBlock> line = lines.get(lineKey);
+            if (line != null) {
+                line.remove(unpackX(position));
+                if (line.isEmpty()) {
+                    lines.remove(lineKey, line);
+                }
+            }
+            return removed;
+        }
+    }
+}
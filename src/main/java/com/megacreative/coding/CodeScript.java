@@ -1,5 +1,7 @@
 package com.megacreative.coding;
 
+import com.megacreative.coding.compiler.CompiledScript;
+
 import java.util.Objects;
 import java.util.UUID;
 import java.util.ArrayList;
@@ -30,6 +32,12 @@ public class CodeScript {
     private String author;
     private String description;
     
+    /** Lowered instruction form, built lazily by the script engine */
+    private volatile Versioned<CompiledScript> compiledScript;
+    
+    /** Last validation result, reused while the block graph is unchanged */
+    private volatile Versioned<ScriptValidator.ValidationResult> validationResult;
+    
     
     public CodeScript(String name, boolean enabled, CodeBlock rootBlock) {
         this.id = UUID.randomUUID();
@@ -52,7 +60,10 @@ public class CodeScript {
     public void setId(UUID id) { this.id = id; }
     
     public String getName() { return name; }
-    public void setName(String name) { this.name = name; }
+    public void setName(String name) {
+        this.name = name;
+        this.validationResult = null;
+    }
     
     public boolean isEnabled() { return enabled; }
     public void setEnabled(boolean enabled) { this.enabled = enabled; }
@@ -71,6 +82,66 @@ public class CodeScript {
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
     
+    /**
+     * Получает скомпилированную форму, если она построена для текущей структурной версии блоков
+     * @return Скомпилированный скрипт или null, если его нужно перестроить
+     */
+    public CompiledScript getCompiledScript() { return current(compiledScript); }
+    
+    /**
+     * Сохраняет скомпилированную форму
+     * @param compiledScript Скомпилированный скрипт
+     * @param structureVersion Структурная версия блоков, прочитанная до компиляции
+     */
+    public void setCompiledScript(CompiledScript compiledScript, long structureVersion) {
+        this.compiledScript = compiledScript != null ? new Versioned<>(structureVersion, compiledScript) : null;
+    }
+    
+    /**
+     * Получает кэшированный результат валидации, если граф блоков с тех пор не менялся
+     * @return Результат валидации или null, если скрипт нужно проверить заново
+     */
+    public ScriptValidator.ValidationResult getCachedValidation() { return current(validationResult); }
+    
+    /**
+     * Сохраняет результат валидации
+     * @param result Результат валидации
+     * @param structureVersion Структурная версия блоков, прочитанная до валидации
+     */
+    public void setCachedValidation(ScriptValidator.ValidationResult result, long structureVersion) {
+        this.validationResult = result != null ? new Versioned<>(structureVersion, result) : null;
+    }
+    
+    /**
+     * Связывает все блоки скрипта в одну структурную версию и возвращает ее;
+     * читается перед валидацией или компиляцией, чтобы изменение любого блока сбросило результат
+     * @return Структурная версия графа блоков скрипта
+     */
+    public long captureStructureVersion() {
+        return rootBlock != null ? rootBlock.joinStructure() : 0L;
+    }
+    
+    private <T> T current(Versioned<T> cached) {
+        if (cached == null) {
+            return null;
+        }
+        long version = rootBlock != null ? rootBlock.getStructureVersion() : 0L;
+        return cached.version == version ? cached.value : null;
+    }
+    
+    /**
+     * Значение, вычисленное для определенной структурной версии блоков
+     */
+    private static final class Versioned<T> {
+        private final long version;
+        private final T value;
+        
+        private Versioned(long version, T value) {
+            this.version = version;
+            this.value = value;
+        }
+    }
+    
     
     
     /**
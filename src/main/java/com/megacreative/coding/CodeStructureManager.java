@@ -51,6 +51,7 @@ public class CodeStructureManager implements Listener {
         // 1. Отсоединяем его от родителя
         findParentBlock(location).ifPresent(parent -> {
             parent.getChildren().remove(brokenBlock);
+            parent.markStructureChanged();
             player.sendMessage("§e[Debug] Detached from parent at " + formatLoc(parent.getX(), parent.getZ()));
         });
         
@@ -122,6 +122,7 @@ public class CodingManagerImpl implements ICodingManager {
             world.setScripts(new java.util.ArrayList<>());
         } else {
             world.getScripts().clear();
+            world.markDirty(CreativeWorld.DirtySection.SCRIPTS);
         }
         
         
@@ -136,6 +137,7 @@ public class CodingManagerImpl implements ICodingManager {
                             
                             script.setWorldName(world.getName());
                             world.getScripts().add(script);
+                            world.markDirty(CreativeWorld.DirtySection.SCRIPTS);
                             logger.fine("Loaded script: " + script.getName() + " for world: " + worldName);
                         }
                     } catch (Exception e) {
@@ -158,6 +160,7 @@ public class CodingManagerImpl implements ICodingManager {
                 saveScript(script);
             }
             world.getScripts().clear();
+            world.markDirty(CreativeWorld.DirtySection.SCRIPTS);
         }
         logger.fine("Unloaded scripts for world: " + world.getName());
     }
@@ -319,6 +322,7 @@ public class CodingManagerImpl implements ICodingManager {
         CodeScript scriptToRemove = findScriptByName(world.getScripts(), scriptName);
         if (scriptToRemove != null) {
             world.getScripts().remove(scriptToRemove);
+            world.markDirty(CreativeWorld.DirtySection.SCRIPTS);
             deleteScriptFile(world, scriptName);
         }
     }
@@ -0,0 +1,165 @@
+package com.megacreative.coding;
+
+import com.megacreative.MegaCreative;
+import com.megacreative.events.CodeBlockBrokenEvent;
+import com.megacreative.events.CodeBlockPlacedEvent;
+import com.megacreative.events.ScriptStructureChangedEvent;
+import com.megacreative.interfaces.IWorldManager;
+import com.megacreative.models.CreativeWorld;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the compiled scripts of every CreativeWorld grouped by their event action,
+ * so triggers resolve their scripts with a single map lookup instead of recompiling the dev world.
+ * A world's scripts are compiled once on first use and dropped again when one of its code blocks
+ * is placed, broken or relinked; other worlds keep their compiled scripts.
+ *
+ * Хранит скомпилированные скрипты каждого CreativeWorld, сгруппированные по событию,
+ * чтобы триггеры находили свои скрипты одним обращением к карте вместо перекомпиляции мира разработки.
+ * Скрипты мира компилируются один раз при первом использовании и сбрасываются, когда в этом мире
+ * ставят, ломают или переподключают блок кода; остальные миры сохраняют свои скрипты.
+ */
+public class CompiledScriptRegistry implements Listener {
+    private static final Logger LOGGER = Logger.getLogger(CompiledScriptRegistry.class.getName());
+
+    private final MegaCreative plugin;
+    private final IWorldManager worldManager;
+    private final Map<String, Map<String, List<CodeScript>>> scriptsByWorld = new ConcurrentHashMap<>();
+    /** Bumped by every invalidation, so a compile that raced with one does not publish stale scripts */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public CompiledScriptRegistry(MegaCreative plugin, IWorldManager worldManager) {
+        this.plugin = plugin;
+        this.worldManager = worldManager;
+    }
+
+    /**
+     * Gets the scripts of a world that start with the given event block
+     *
+     * The code blocks are read from the dev world of the creative world, whichever world the trigger happened in.
+     * A world is compiled outside the map, so a long compile never blocks lookups of other worlds;
+     * if two triggers compile the same world at once, the first result is kept.
+     *
+     * @param creativeWorld The creative world owning the scripts
+     * @param eventAction The event action of the root block (e.g. onJoin)
+     * @return Unmodifiable list of scripts, empty if none or if the dev world is not loaded
+     */
+    public List<CodeScript> getScripts(CreativeWorld creativeWorld, String eventAction) {
+        String worldId = creativeWorld.getId();
+        Map<String, List<CodeScript>> byEvent = scriptsByWorld.get(worldId);
+        if (byEvent == null) {
+            World devWorld = findDevWorld(creativeWorld);
+            if (devWorld == null) {
+                // Nothing is cached, so the scripts are compiled once the dev world is loaded
+                return Collections.emptyList();
+            }
+            long version = invalidations.get();
+            Map<String, List<CodeScript>> compiled = compileWorld(devWorld);
+            Map<String, List<CodeScript>> existing = scriptsByWorld.putIfAbsent(worldId, compiled);
+            byEvent = existing != null ? existing : compiled;
+            if (existing == null && invalidations.get() != version) {
+                // A block changed while compiling; use this result once but compile again on the next lookup
+                scriptsByWorld.remove(worldId, compiled);
+            }
+        }
+        return byEvent.getOrDefault(eventAction, Collections.emptyList());
+    }
+
+    /**
+     * Drops the compiled scripts of a world; they are rebuilt on the next lookup
+     *
+     * @param worldId The creative world id
+     */
+    public void invalidate(String worldId) {
+        if (worldId == null) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        if (scriptsByWorld.remove(worldId) != null) {
+            LOGGER.fine("Invalidated compiled scripts of world " + worldId);
+        }
+    }
+
+    /**
+     * Drops the compiled scripts of all worlds
+     */
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        scriptsByWorld.clear();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onCodeBlockPlaced(CodeBlockPlacedEvent event) {
+        invalidateAt(event.getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onCodeBlockBroken(CodeBlockBrokenEvent event) {
+        invalidateAt(event.getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onScriptStructureChanged(ScriptStructureChangedEvent event) {
+        if (event.getCreativeWorld() != null) {
+            invalidate(event.getCreativeWorld().getId());
+        }
+    }
+
+    private void invalidateAt(Location location) {
+        if (location == null || location.getWorld() == null) {
+            return;
+        }
+        CreativeWorld creativeWorld = worldManager.findCreativeWorldByBukkit(location.getWorld());
+        if (creativeWorld != null) {
+            invalidate(creativeWorld.getId());
+        }
+    }
+
+    /**
+     * Gets the loaded Bukkit world holding the code blocks of a creative world
+     *
+     * @return The dev world, the world itself for a standalone world, or null if it is not loaded
+     */
+    private World findDevWorld(CreativeWorld creativeWorld) {
+        // A standalone world codes and plays in the same Bukkit world
+        if (creativeWorld.getDualMode() == CreativeWorld.WorldDualMode.STANDALONE) {
+            return creativeWorld.getBukkitWorld();
+        }
+        String devWorldName = creativeWorld.isDevWorld() ? creativeWorld.getWorldName() : creativeWorld.getDevWorldName();
+        return Bukkit.getWorld(devWorldName);
+    }
+
+    private Map<String, List<CodeScript>> compileWorld(World devWorld) {
+        ScriptCompiler compiler = new ScriptCompiler(
+            plugin,
+            plugin.getServiceRegistry().getBlockConfigService(),
+            plugin.getServiceRegistry().getBlockPlacementHandler()
+        );
+
+        Map<String, List<CodeScript>> byEvent = new HashMap<>();
+        for (CodeScript script : compiler.compileWorldScripts(devWorld)) {
+            CodeBlock root = script.getRootBlock();
+            if (root != null && root.getAction() != null) {
+                byEvent.computeIfAbsent(root.getAction(), action -> new ArrayList<>()).add(script);
+            }
+        }
+        byEvent.replaceAll((action, scripts) -> Collections.unmodifiableList(scripts));
+
+        LOGGER.fine("Compiled " + byEvent.size() + " event script groups for world " + devWorld.getName());
+        return byEvent;
+    }
+}
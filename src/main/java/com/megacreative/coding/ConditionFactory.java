@@ -1,6 +1,7 @@
 package com.megacreative.coding;
 
 import com.megacreative.MegaCreative;
+import com.megacreative.coding.annotations.BlockIndex;
 import com.megacreative.coding.annotations.BlockMeta;
 import com.megacreative.coding.executors.ExecutionResult;
 import com.megacreative.coding.values.DataValue;
@@ -9,7 +10,9 @@ import com.megacreative.coding.events.EventPublisher;
 import com.megacreative.coding.events.CustomEvent;
 import com.megacreative.interfaces.IConditionFactory;
 import com.megacreative.coding.events.CustomEventManager;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
 import java.util.logging.Logger;
@@ -29,42 +32,82 @@ public class ConditionFactory implements IConditionFactory {
     }
     
     /**
-     * Scans for annotated conditions and registers them
+     * Registers all annotated conditions, from the build-time block index when present and by scanning the plugin jar otherwise
      * 
-     * Сканирует аннотированные условия и регистрирует их
+     * Регистрирует все аннотированные условия: из индекса блоков, созданного при сборке, если он есть, иначе сканированием jar плагина
      * 
-     * Scannt nach annotierten Bedingungen und registriert sie
+     * Registriert alle annotierten Bedingungen, aus dem beim Build erzeugten Blockindex falls vorhanden, sonst durch Scannen des Plugin-Jars
      */
     public void registerAllConditions() {
         conditionRegistry.clear();
         conditionDisplayNames.clear();
-        String basePackage = "com.megacreative.coding.conditions";
         
         if (plugin == null) {
             LOGGER.severe("Plugin instance not available for condition scanning");
             return;
         }
 
-        for (Class<?> clazz : ClassScanner.findClasses(plugin, basePackage)) {
-            if (BlockCondition.class.isAssignableFrom(clazz) && !clazz.isInterface() && clazz.isAnnotationPresent(BlockMeta.class)) {
-                BlockMeta meta = clazz.getAnnotation(BlockMeta.class);
-                if (meta.type() == BlockType.CONDITION) {
+        long start = System.nanoTime();
+        BlockIndex index = BlockIndex.load();
+        if (index != null) {
+            registerIndexedConditions(index);
+        } else {
+            scanConditions();
+        }
+        LOGGER.info(String.format("Registered %d block conditions from the %s in %.1f ms",
+            conditionRegistry.size(), index != null ? "block index" : "class scan", (System.nanoTime() - start) / 1_000_000.0));
+        if (index != null && LOGGER.isLoggable(Level.FINE)) {
+            // Times the jar scan the index replaced, so both paths can be compared on the same server
+            long scanStart = System.nanoTime();
+            int scanned = findConditionClasses().size();
+            LOGGER.fine(String.format("Class scan for comparison found %d block conditions in %.1f ms",
+                scanned, (System.nanoTime() - scanStart) / 1_000_000.0));
+        }
+    }
+    
+    private void registerIndexedConditions(BlockIndex index) {
+        for (BlockIndex.Entry entry : index.entries()) {
+            if (entry.getType() == BlockType.CONDITION && BlockCondition.class.isAssignableFrom(entry.getBlockClass())) {
+                register(entry.getId(), entry.getDisplayName(), () -> {
                     try {
-                        
-                        String conditionId = meta.id();
-                        String displayName = meta.displayName();
-                        String className = clazz.getName();
-                        
-                        Supplier<BlockCondition> supplier = createConditionSupplier(clazz, className);
-                        register(conditionId, displayName, supplier);
-                    } catch (Exception e) {
-                        LOGGER.warning("Не удалось зарегистрировать условие из класса (нужен пустой конструктор): " + clazz.getName());
+                        return (BlockCondition) entry.create(plugin);
+                    } catch (RuntimeException e) {
+                        LOGGER.log(Level.WARNING, "Не удалось создать экземпляр условия: " + entry.getBlockClass().getName(), e);
+                        return null;
                     }
-                }
+                });
             }
         }
-        
-        LOGGER.fine("Загружено " + conditionRegistry.size() + " условий блоков.");
+    }
+    
+    private void scanConditions() {
+        for (Class<?> clazz : findConditionClasses()) {
+            BlockMeta meta = clazz.getAnnotation(BlockMeta.class);
+            try {
+                
+                String conditionId = meta.id();
+                String displayName = meta.displayName();
+                String className = clazz.getName();
+                
+                Supplier<BlockCondition> supplier = createConditionSupplier(clazz, className);
+                register(conditionId, displayName, supplier);
+            } catch (Exception e) {
+                LOGGER.warning("Не удалось зарегистрировать условие из класса (нужен пустой конструктор): " + clazz.getName());
+            }
+        }
+    }
+    
+    private List<Class<?>> findConditionClasses() {
+        String basePackage = "com.megacreative.coding.conditions";
+
+        List<Class<?>> conditionClasses = new ArrayList<>();
+        for (Class<?> clazz : ClassScanner.findClasses(plugin, basePackage)) {
+            if (BlockCondition.class.isAssignableFrom(clazz) && !clazz.isInterface() && clazz.isAnnotationPresent(BlockMeta.class)
+                    && clazz.getAnnotation(BlockMeta.class).type() == BlockType.CONDITION) {
+                conditionClasses.add(clazz);
+            }
+        }
+        return conditionClasses;
     }
     
     private void register(String conditionId, String displayName, Supplier<BlockCondition> supplier) {
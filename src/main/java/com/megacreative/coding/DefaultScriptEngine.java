@@ -7,6 +7,8 @@ import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
 import org.bukkit.Material;
@@ -15,11 +17,17 @@ import org.bukkit.scheduler.BukkitRunnable;
 
 import com.megacreative.MegaCreative;
 import com.megacreative.coding.cache.BlockExecutionCache;
+import com.megacreative.coding.annotations.BlockMeta;
+import com.megacreative.coding.compiler.CompiledScript;
+import com.megacreative.coding.compiler.InstructionCompiler;
+import com.megacreative.coding.compiler.InstructionInterpreter;
 import com.megacreative.coding.debug.VisualDebugger;
 import com.megacreative.coding.events.CustomEvent;
 import com.megacreative.coding.events.EventPublisher;
 import com.megacreative.coding.executors.AdvancedExecutionEngine;
 import com.megacreative.coding.executors.ExecutionResult;
+import com.megacreative.coding.executors.MainThreadCommandBuffer;
+import com.megacreative.coding.functions.FunctionCallFrame;
 import com.megacreative.coding.values.DataValue;
 import com.megacreative.coding.values.types.ListValue;
 import com.megacreative.coding.variables.VariableManager;
@@ -90,6 +98,7 @@ public class DefaultScriptEngine implements ScriptEngine, EnhancedScriptEngine,
     
     private long maxExecutionTimeMs = 5000; 
     private int maxInstructionsPerTick = 1000;
+    private static final long DEFAULT_TICK_BUDGET_MS = 10;
     
     
     // This field needs to remain as a class field since it maintains state across method calls
@@ -101,6 +110,12 @@ public class DefaultScriptEngine implements ScriptEngine, EnhancedScriptEngine,
     
     private ConditionFactory conditionFactory;
     
+    
+    private InstructionCompiler instructionCompiler;
+    private final InstructionInterpreter interpreter = new InstructionInterpreter();
+    private final ScriptWaitQueue waitQueue = new ScriptWaitQueue();
+    private final ScriptTickScheduler tickScheduler = new ScriptTickScheduler(DEFAULT_TICK_BUDGET_MS);
+    
     public DefaultScriptEngine(MegaCreative plugin, VariableManager variableManager, VisualDebugger debugger,
                                BlockConfigService blockConfigService, ScriptValidator scriptValidator) {
         this.plugin = plugin;
@@ -109,7 +124,7 @@ public class DefaultScriptEngine implements ScriptEngine, EnhancedScriptEngine,
         this.blockConfigService = blockConfigService;
         
         
-        this.advancedExecutionEngine = new AdvancedExecutionEngine(plugin);
+        this.advancedExecutionEngine = new AdvancedExecutionEngine(plugin, this);
         
         
         this.scriptValidator = scriptValidator != null ? scriptValidator : new ScriptValidator(blockConfigService);
@@ -119,6 +134,12 @@ public class DefaultScriptEngine implements ScriptEngine, EnhancedScriptEngine,
         
         
         plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, executionCache::cleanup, 600, 600);
+        tickScheduler.setBudgetMillis(plugin.getConfig().getLong("coding.tick_budget_ms", DEFAULT_TICK_BUDGET_MS));
+        // Runs whose wait ended this tick are queued first, then the tick's budget is sliced
+        plugin.getServer().getScheduler().runTaskTimer(plugin, () -> {
+            waitQueue.tick();
+            tickScheduler.tick();
+        }, 1L, 1L);
         
         
         initializeExecutors();
@@ -144,6 +165,8 @@ public class DefaultScriptEngine implements ScriptEngine, EnhancedScriptEngine,
         executors.put(BlockType.CONDITION, new ConditionBlockExecutor(conditionFactory));
         executors.put(BlockType.CONTROL, new ControlFlowBlockExecutor(actionFactory, conditionFactory));
         executors.put(BlockType.FUNCTION, new FunctionBlockExecutor());
+        
+        this.instructionCompiler = new InstructionCompiler(actionFactory, conditionFactory, executors, this::determineBlockType);
     }
     
     public void initialize() {
@@ -242,12 +265,54 @@ public class DefaultScriptEngine implements ScriptEngine, EnhancedScriptEngine,
     
     @Override
     public CompletableFuture<ExecutionResult> executeScript(CodeScript script, Player player, String trigger) {
-        // Use fine logging instead of info to reduce spam
-        if (player != null) {
-            player.sendMessage("§aScript engine executing script with trigger: " + trigger);
-            plugin.getLogger().fine("DefaultScriptEngine: Executing script with trigger " + trigger + " for player " + (player != null ? player.getName() : "null"));
-        }
-        
+        return runScript(script, player, trigger, AdvancedExecutionEngine.Priority.NORMAL, null, null, null);
+    }
+    
+    @Override
+    public CompletableFuture<ExecutionResult> executeFunctionBody(CodeScript body, Player player, FunctionCallFrame frame) {
+        return runScript(body, player, "function_call", AdvancedExecutionEngine.Priority.NORMAL, null, null, frame);
+    }
+    
+    /**
+     * Runs a script on the main thread. The first slice runs right away; if the script is still running
+     * after it, the rest is carried over to later ticks and shares the tick budget according to the priority.
+     * 
+     * Выполняет скрипт в основном потоке. Первый срез выполняется сразу; если после него скрипт еще работает,
+     * остаток переносится на следующие тики и делит бюджет тика в соответствии с приоритетом.
+     *
+     * @param priority Weight of the run against other runs of its world
+     */
+    public CompletableFuture<ExecutionResult> executeScript(CodeScript script, Player player, String trigger,
+                                                           AdvancedExecutionEngine.Priority priority) {
+        return runScript(script, player, trigger, priority, null, null, null);
+    }
+    
+    /**
+     * Runs a script off the main thread when every block of it is marked safe to, see {@link BlockMeta#offThreadSafe()}.
+     * Must be called on the main thread, which validates the script and looks up its world; the script then runs on
+     * the executor, with the world changes of its actions recorded in the command buffer and applied on the main thread.
+     * A script with any other block runs on the main thread right away, as a synchronous run would.
+     * Off-thread runs are not traced by the visual debugger, whose markers touch the world.
+     * 
+     * Выполняет скрипт вне основного потока, если все его блоки помечены как безопасные для этого, см. {@link BlockMeta#offThreadSafe()}.
+     * Должен вызываться в основном потоке, который проверяет скрипт и находит его мир; затем скрипт выполняется в исполнителе,
+     * а изменения мира его действий записываются в буфер команд и применяются в основном потоке.
+     * Скрипт с любым другим блоком сразу выполняется в основном потоке, как при синхронном выполнении.
+     * Выполнения вне основного потока не трассируются визуальным отладчиком, чьи маркеры затрагивают мир.
+     *
+     * @param commandBuffer Receives the world changes
+     * @param executor Runs the script and continues it after a wait
+     * @return Future completed on the executor or main thread once the script has finished computing
+     */
+    public CompletableFuture<ExecutionResult> executeScriptOffMainThread(CodeScript script, Player player, String trigger,
+                                                                        MainThreadCommandBuffer commandBuffer, Executor executor) {
+        return runScript(script, player, trigger, AdvancedExecutionEngine.Priority.NORMAL, commandBuffer, executor, null);
+    }
+    
+    private CompletableFuture<ExecutionResult> runScript(CodeScript script, Player player, String trigger,
+                                                         AdvancedExecutionEngine.Priority priority,
+                                                         MainThreadCommandBuffer commandBuffer, Executor executor,
+                                                         FunctionCallFrame callFrame) {
         if (script == null || !script.isEnabled() || script.getRootBlock() == null) {
             if (player != null) {
                 player.sendMessage("§cScript is invalid or disabled");
@@ -256,7 +321,7 @@ public class DefaultScriptEngine implements ScriptEngine, EnhancedScriptEngine,
         }
 
         
-        ScriptValidator.ValidationResult validationResult = scriptValidator.validateScript(script);
+        ScriptValidator.ValidationResult validationResult = scriptValidator.validateScriptCached(script);
         if (!validationResult.isValid()) {
             String errorMessage = ERROR_SCRIPT_VALIDATION_FAILED + 
                 validationResult.getErrorCount() + " errors found. " +
@@ -269,28 +334,56 @@ public class DefaultScriptEngine implements ScriptEngine, EnhancedScriptEngine,
 
         // Simplified synchronous execution for debugging
         try {
-            ExecutionContext context = new ExecutionContext.Builder()
+            CompiledScript program = getCompiledScript(script);
+            // Blocks not marked safe would touch the world from the executor, so such scripts stay on the main thread
+            boolean offMainThread = commandBuffer != null && executor != null && program.isOffThreadSafe();
+            ExecutionContext.Builder builder = new ExecutionContext.Builder()
                 .plugin(plugin)
                 .player(player)
                 .creativeWorld(plugin.getServiceRegistry().getWorldManager().findCreativeWorldByBukkit(player != null ? player.getWorld() : null))
                 .currentBlock(script.getRootBlock())
-                .build();
-            
-            // Add debug logging
-            if (player != null) {
-                player.sendMessage("§aStarting script execution with root block action: " + script.getRootBlock().getAction());
-                plugin.getLogger().fine("DefaultScriptEngine: Starting script execution with root block action " + script.getRootBlock().getAction());
+                .priority(priority)
+                .callFrame(callFrame);
+            if (offMainThread) {
+                builder.executionMode(AdvancedExecutionEngine.ExecutionMode.ASYNCHRONOUS)
+                    .deferWorldChanges(commandBuffer, executor);
+            }
+            ExecutionContext context = builder.build();
+            
+            if (offMainThread) {
+                CompletableFuture<ExecutionResult> future = new CompletableFuture<>();
+                continueOn(context, () -> {
+                    try {
+                        ExecutionResult result = interpreter.run(program, context, maxInstructionsPerTick, maxExecutionTimeMs, null);
+                        continueOrComplete(script, program, context, result, future);
+                    } catch (Exception e) {
+                        String errorMsg = "Script execution error: " + e.getMessage();
+                        plugin.getLogger().log(java.util.logging.Level.SEVERE, errorMsg, e);
+                        future.complete(ExecutionResult.error(errorMsg));
+                    }
+                });
+                return future;
             }
             
-            ExecutionResult result = simplifiedProcessBlock(script.getRootBlock(), context, 0);
+            // Tracing goes to the debugger only; untraced runs build no diagnostic strings
+            VisualDebugger tracer = getTracer(context);
+            if (tracer != null) {
+                tracer.onScriptStart(player, script);
+            }
             
-            // Add debug logging
-            if (player != null) {
-                player.sendMessage("§aScript execution completed with result: " + (result.isSuccess() ? "SUCCESS" : "ERROR"));
-                plugin.getLogger().fine("DefaultScriptEngine: Script execution completed with result: " + (result.isSuccess() ? "SUCCESS" : "ERROR"));
+            // The first slice runs now, so event scripts act while their event is handled, but within the tick budget
+            boolean budgeted = plugin.getServer().isPrimaryThread();
+            long deadline = budgeted ? tickScheduler.beginSlice(worldKeyOf(context)) : 0L;
+            ExecutionResult result;
+            try {
+                result = interpreter.run(program, context, maxInstructionsPerTick, maxExecutionTimeMs, deadline, tracer);
+            } finally {
+                if (budgeted) {
+                    tickScheduler.endSlice();
+                }
             }
             
-            return CompletableFuture.completedFuture(result);
+            return continueOrComplete(script, program, context, result, new CompletableFuture<>());
         } catch (Exception e) {
             String errorMsg = "Script execution error: " + e.getMessage();
             plugin.getLogger().log(java.util.logging.Level.SEVERE, errorMsg, e);
@@ -301,102 +394,157 @@ public class DefaultScriptEngine implements ScriptEngine, EnhancedScriptEngine,
         }
     }
     
-    // Simplified processBlock method for debugging
     /**
-     * Checks if a block is an event block
+     * Completes the future of a finished run, or parks a suspended one until its wait is over.
+     * A pause result waits in the tick-indexed wait queue, an await result until its future completes,
+     * and a yield result is carried over to the next free slice.
      * 
-     * @param block The block to check
-     * @return true if the block is an event block, false otherwise
+     * Завершает future законченного выполнения или откладывает приостановленное до конца ожидания.
+     * Результат паузы ждет в очереди ожидания по тикам, результат await - до завершения его future,
+     * а результат уступки переносится на следующий свободный срез.
      */
-    private boolean isEventBlock(CodeBlock block) {
-        if (block == null || block.getAction() == null) {
-            return false;
-        }
-        // Event blocks have actions that start with "on"
-        return block.getAction().startsWith("on");
-    }
-
-    private ExecutionResult simplifiedProcessBlock(CodeBlock block, ExecutionContext context, int depth) {
-        // Add debug logging
-        Player player = context.getPlayer();
-        if (player != null) {
-            player.sendMessage("§aProcessing block at depth " + depth + " with action: " + (block != null ? block.getAction() : "null"));
-            plugin.getLogger().fine("DefaultScriptEngine: Processing block at depth " + depth + " with action: " + (block != null ? block.getAction() : "null"));
-        }
-        
-        if (block == null || depth > MAX_RECURSION_DEPTH) {
-            if (player != null) {
-                player.sendMessage("§cBlock is null or max depth exceeded");
+    private CompletableFuture<ExecutionResult> continueOrComplete(CodeScript script, CompiledScript program, ExecutionContext context,
+                                                                  ExecutionResult result, CompletableFuture<ExecutionResult> future) {
+        if (context.getResumePoint() < 0) {
+            VisualDebugger tracer = getTracer(context);
+            if (tracer != null) {
+                tracer.onScriptEnd(context.getPlayer(), script);
             }
-            return ExecutionResult.success(); // End of chain
+            future.complete(result);
+            return future;
         }
         
-        // Check if this is an event block - if so, skip execution and go to next block
-        if (isEventBlock(block)) {
-            if (player != null) {
-                player.sendMessage("§aRecognized as EVENT block (" + block.getAction() + "), moving to next block.");
-            }
-            plugin.getLogger().fine("Skipping event block: " + block.getAction() + ", executing nextBlock in chain.");
-            return simplifiedProcessBlock(block.getNextBlock(), context, depth + 1);
+        if (result.isAwait()) {
+            result.getAwaitFuture().whenComplete((value, error) -> {
+                if (error != null) {
+                    continueOn(context, () -> {
+                        context.setResumePoint(-1);
+                        future.complete(ExecutionResult.error("Awaited operation failed: " + error.getMessage(), error));
+                    });
+                } else {
+                    resumeLater(script, program, context, future, 0L);
+                }
+            });
+        } else if (result.isYield()) {
+            // Running time carries over, so a runaway loop still reaches the time limit
+            resumeLater(script, program, context, future, System.currentTimeMillis() - context.getStartTime());
+        } else {
+            waitQueue.schedule(result.getPauseTicks(), () -> resumeLater(script, program, context, future, 0L));
         }
-
-        // 1. Execute the current block
-        BlockType blockType = determineBlockType(block);
-        BlockExecutor executor = executors.get(blockType);
-        if (executor == null) {
-            if (player != null) {
-                player.sendMessage("§cNo executor found for block type: " + blockType);
-            }
-            return ExecutionResult.error("No executor found for block type: " + blockType);
+        return future;
+    }
+    
+    /**
+     * Queues the next slice of a suspended run: on the executor of an off-main-thread run,
+     * otherwise in the tick scheduler under the run's world and priority
+     *
+     * @param elapsedMs Running time the run has already used
+     */
+    private void resumeLater(CodeScript script, CompiledScript program, ExecutionContext context,
+                             CompletableFuture<ExecutionResult> future, long elapsedMs) {
+        if (context.getResumeExecutor() != null) {
+            continueOn(context, () -> resumeScript(script, program, context, future, elapsedMs, 0L));
+        } else {
+            tickScheduler.submit(worldKeyOf(context), context.getPriority(),
+                deadline -> resumeScript(script, program, context, future, elapsedMs, deadline));
         }
-        
-        ExecutionResult result = executor.execute(block, context);
-        
-        // Add debug logging
-        if (player != null) {
-            player.sendMessage("§aBlock execution result: " + (result.isSuccess() ? "SUCCESS" : "ERROR") + " - " + result.getMessage());
-            plugin.getLogger().fine("DefaultScriptEngine: Block execution result: " + (result.isSuccess() ? "SUCCESS" : "ERROR") + " - " + result.getMessage());
+    }
+    
+    /**
+     * Gets the key runs of the same world share a scheduler lane under
+     */
+    private static String worldKeyOf(ExecutionContext context) {
+        if (context.getCreativeWorld() != null) {
+            return context.getCreativeWorld().getId();
         }
-
-        // If this was an error, exit
-        if (!result.isSuccess()) {
-            if (player != null) {
-                player.sendMessage("§cBlock execution error: " + result.getMessage());
+        Player player = context.getPlayer();
+        return player != null ? player.getWorld().getName() : null;
+    }
+    
+    /**
+     * Hands a continuation to the executor of an off-main-thread run, or to the main thread
+     */
+    private void continueOn(ExecutionContext context, Runnable continuation) {
+        Executor executor = context.getResumeExecutor();
+        if (executor != null) {
+            try {
+                executor.execute(continuation);
+                return;
+            } catch (RejectedExecutionException e) {
+                // Executor shut down while the run waited; finish it on the main thread instead
+                plugin.getLogger().fine("Async executor rejected a script continuation, resuming on the main thread");
             }
-            return result;
         }
-        
-        // 2. Determine where to go next (the most important part!)
-        if (blockType == BlockType.CONDITION) {
-             Object conditionResultObj = result.getDetail("condition_result");
-             if (conditionResultObj instanceof Boolean) {
-                 boolean conditionMet = (Boolean) conditionResultObj;
-                 if (conditionMet) {
-                     // Go into the child block (inside IF)
-                     if (!block.getChildren().isEmpty()) {
-                         if (player != null) {
-                             player.sendMessage("§aCondition met, going to child block");
-                         }
-                         return simplifiedProcessBlock(block.getChildren().get(0), context, depth + 1);
-                     }
-                 } else {
-                     // Skip IF, look for ELSE or go to next block in main chain
-                     if (player != null) {
-                         player.sendMessage("§aCondition not met, looking for else or next block");
-                     }
-                     // For now, just go to the next block
-                     return simplifiedProcessBlock(block.getNextBlock(), context, depth + 1);
-                 }
-             }
+        plugin.getServer().getScheduler().runTask(plugin, continuation);
+    }
+    
+    /**
+     * Continues a suspended run on the main thread, or on the executor of an off-main-thread run
+     *
+     * @param elapsedMs Running time the run has already used
+     * @param deadlineNanos End of the current tick budget, or 0 for none
+     */
+    private void resumeScript(CodeScript script, CompiledScript program, ExecutionContext context,
+                              CompletableFuture<ExecutionResult> future, long elapsedMs, long deadlineNanos) {
+        Player player = context.getPlayer();
+        if (player != null && !player.isOnline()) {
+            context.setCancelled(true);
         }
-        
-        // For regular blocks, just go to the next block
-        if (player != null) {
-            player.sendMessage("§aGoing to next block");
+        try {
+            // The time limit applies to the time spent running, not to the time spent waiting
+            context.setStartTime(System.currentTimeMillis() - elapsedMs);
+            ExecutionResult result = interpreter.resume(program, context, maxInstructionsPerTick, maxExecutionTimeMs,
+                deadlineNanos, getTracer(context));
+            continueOrComplete(script, program, context, result, future);
+        } catch (Exception e) {
+            String errorMsg = "Script execution error: " + e.getMessage();
+            plugin.getLogger().log(java.util.logging.Level.SEVERE, errorMsg, e);
+            future.complete(ExecutionResult.error(errorMsg));
         }
-        return simplifiedProcessBlock(block.getNextBlock(), context, depth + 1);
     }
-
+    
+    /**
+     * Gets the number of script runs currently suspended in a wait
+     */
+    public int getWaitingScriptCount() {
+        return waitQueue.size();
+    }
+    
+    /**
+     * Gets the number of script runs carried over and waiting for main thread time
+     */
+    public int getRunnableScriptCount() {
+        return tickScheduler.size();
+    }
+    
+    /**
+     * Gets the debugger a run should report to: only in DEBUG trace mode and only while the player has a session attached
+     * 
+     * Получает отладчик для трассировки: только в режиме DEBUG и только пока у игрока открыта сессия отладки
+     */
+    private VisualDebugger getTracer(ExecutionContext context) {
+        Player player = context.getPlayer();
+        if (player == null || debugger == null || context.getTraceMode() == ScriptTraceMode.QUIET
+                || context.isDeferringWorldChanges()) {
+            return null;
+        }
+        return debugger.isDebugging(player) ? debugger : null;
+    }
+    
+    /**
+     * Gets the lowered form of a script, compiling it on first use and after the block graph changed
+     * 
+     * Получает пониженную форму скрипта, компилируя ее при первом использовании и после изменения графа блоков
+     */
+    private CompiledScript getCompiledScript(CodeScript script) {
+        CompiledScript compiled = script.getCompiledScript();
+        if (compiled == null) {
+            long structureVersion = script.captureStructureVersion();
+            compiled = instructionCompiler.compile(script);
+            script.setCompiledScript(compiled, structureVersion);
+        }
+        return compiled;
+    }
     
     /**
      * Completes script execution and handles cleanup
@@ -454,45 +602,7 @@ public class DefaultScriptEngine implements ScriptEngine, EnhancedScriptEngine,
                         "block_execution_" + player.getName() + "_" + block.getAction()
                     );
                     ExecutionResult result = processBlock(block, context, 0);
-                    
-                    
-                    switch (getResultType(result)) {
-                        case PAUSE:
-                            
-                            long ticks = result.getPauseTicks();
-                            plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-                                try {
-                                    ExecutionResult nextResult = processBlock(block.getNextBlock(), context, 0);
-                                    future.complete(nextResult);
-                                } catch (Exception e) {
-                                    future.completeExceptionally(e);
-                                }
-                            }, ticks);
-                            return; 
-                        case AWAIT:
-                            
-                            result.getAwaitFuture().thenRun(() -> {
-                                plugin.getServer().getScheduler().runTask(plugin, () -> {
-                                    try {
-                                        ExecutionResult nextResult = processBlock(block.getNextBlock(), context, 0);
-                                        future.complete(nextResult);
-                                    } catch (Exception e) {
-                                        future.completeExceptionally(e);
-                                    }
-                                });
-                            }).exceptionally(throwable -> {
-                                plugin.getServer().getScheduler().runTask(plugin, () -> {
-                                    future.completeExceptionally(throwable);
-                                });
-                                return null;
-                            });
-                            return; 
-                        case NORMAL:
-                        default:
-                            
-                            future.complete(result);
-                            break;
-                    }
+                    completeOrResumeBlock(result, context, future);
                 } catch (Exception e) {
                     String errorMsg = "Block execution error: " + e.getMessage();
                     plugin.getLogger().log(java.util.logging.Level.SEVERE, errorMsg, e);
@@ -508,6 +618,45 @@ public class DefaultScriptEngine implements ScriptEngine, EnhancedScriptEngine,
         return future;
     }
     
+    /**
+     * Completes the future of a block run, or parks it and resumes after the block that paused or awaited
+     * 
+     * Завершает future выполнения блока или откладывает его и продолжает после блока, вызвавшего паузу или ожидание
+     */
+    private void completeOrResumeBlock(ExecutionResult result, ExecutionContext context, CompletableFuture<ExecutionResult> future) {
+        ResultType resultType = getResultType(result);
+        if (resultType == ResultType.NORMAL) {
+            future.complete(result);
+            return;
+        }
+        
+        CodeBlock suspendedBlock = context.getCurrentBlock();
+        CodeBlock nextBlock = suspendedBlock != null ? suspendedBlock.getNextBlock() : null;
+        if (nextBlock == null) {
+            future.complete(ExecutionResult.success());
+            return;
+        }
+        
+        Runnable resume = () -> {
+            try {
+                completeOrResumeBlock(processBlock(nextBlock, context, 0), context, future);
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        };
+        if (resultType == ResultType.PAUSE) {
+            waitQueue.schedule(result.getPauseTicks(), resume);
+        } else {
+            result.getAwaitFuture().whenComplete((value, error) -> plugin.getServer().getScheduler().runTask(plugin, () -> {
+                if (error != null) {
+                    future.completeExceptionally(error);
+                } else {
+                    resume.run();
+                }
+            }));
+        }
+    }
+    
     @Override
     public CompletableFuture<ExecutionResult> executeBlockChain(CodeBlock startBlock, Player player, String trigger) {
         // Removed redundant null check for startBlock - static analysis flagged it as always non-null when this method is called
@@ -600,8 +749,10 @@ public class DefaultScriptEngine implements ScriptEngine, EnhancedScriptEngine,
     }
     
     private ExecutionResult processBlock(CodeBlock block, ExecutionContext context, int recursionDepth) {
-        plugin.getLogger().fine("Processing block at recursion depth " + recursionDepth + 
-                              " with action: " + block.getAction());
+        VisualDebugger tracer = getTracer(context);
+        if (tracer != null) {
+            tracer.onBlockExecute(context.getPlayer(), block, block.getLocation());
+        }
         
         // Handle caching
         ExecutionResult cachedResult = handleCaching(block, context);
@@ -628,7 +779,6 @@ public class DefaultScriptEngine implements ScriptEngine, EnhancedScriptEngine,
         Map<String, Object> cacheContext = createCacheContext(context);
         ExecutionResult cachedResult = executionCache.get(block, cacheContext);
         if (cachedResult != null) {
-            plugin.getLogger().fine("Returning cached result for block with action: " + block.getAction());
             return cachedResult;
         }
         return null;
@@ -744,13 +894,11 @@ public class DefaultScriptEngine implements ScriptEngine, EnhancedScriptEngine,
         BlockType blockType = determineBlockType(block);
         
         try {
-            plugin.getLogger().fine("Processing block of type: " + blockType + " with action: " + block.getAction());
-            
             ExecutionResult result = executeBlockWithExecutor(block, context, blockType);
             
             // Handle special result types
             ResultType resultType = getResultType(result);
-            ExecutionResult specialResult = handleSpecialResultTypes(result, resultType);
+            ExecutionResult specialResult = handleSpecialResultTypes(block, context, result, resultType);
             if (specialResult != null) {
                 return specialResult;
             }
@@ -768,7 +916,6 @@ public class DefaultScriptEngine implements ScriptEngine, EnhancedScriptEngine,
             }
             
             // Continue to next block
-            plugin.getLogger().fine("Continuing to next block in chain");
             return processBlock(block.getNextBlock(), context, recursionDepth + 1);
         } catch (Exception e) {
             return handleBlockExecutionException(block, context, e);
@@ -781,12 +928,17 @@ public class DefaultScriptEngine implements ScriptEngine, EnhancedScriptEngine,
      * Determines the block type
      */
     private BlockType determineBlockType(CodeBlock block) {
-        BlockType blockType = BlockType.ACTION; 
-        BlockType type = getBlockType(Material.getMaterial(block.getMaterialName()), block.getAction());
-        if (type != null) {
-            blockType = type;
-        }
-        return blockType;
+        // The type only depends on the config whose id is the block's action, so the material is never resolved
+        BlockType type = getBlockTypeFromString(blockTypeOf(block.getAction()));
+        return type != null ? type : BlockType.ACTION;
+    }
+    
+    /**
+     * Gets the configured type of the block config whose id is the given action, from the current config snapshot
+     */
+    private String blockTypeOf(String actionName) {
+        BlockConfigService.BlockConfig config = blockConfigService.getSnapshot().getBlockConfig(actionName);
+        return config != null ? config.getType() : null;
     }
     
     /**
@@ -814,7 +966,11 @@ public class DefaultScriptEngine implements ScriptEngine, EnhancedScriptEngine,
     /**
      * Handles special result types (PAUSE, AWAIT)
      */
-    private ExecutionResult handleSpecialResultTypes(ExecutionResult result, ResultType resultType) {
+    private ExecutionResult handleSpecialResultTypes(CodeBlock block, ExecutionContext context, ExecutionResult result, ResultType resultType) {
+        if (resultType != ResultType.NORMAL) {
+            // The suspended block stays current, so the run resumes at the block after it
+            context.setCurrentBlock(block);
+        }
         switch (resultType) {
             case PAUSE:
                 plugin.getLogger().fine("Block execution paused for " + result.getPauseTicks() + " ticks");
@@ -1084,9 +1240,6 @@ public class DefaultScriptEngine implements ScriptEngine, EnhancedScriptEngine,
      */
     private ExecutionResult processBlockChain(CodeBlock block, ExecutionContext context, List<CodeBlock> executionChain, int recursionDepth) {
         
-        plugin.getLogger().fine("Processing block chain at recursion depth " + recursionDepth + 
-                              " with block action: " + (block != null ? block.getAction() : "null"));
-        
         
         // According to static analysis, block is never null when this method is called
         // The condition "block == null" is always false, so this check is redundant
@@ -1156,7 +1309,6 @@ public class DefaultScriptEngine implements ScriptEngine, EnhancedScriptEngine,
             
             CodeBlock nextBlock = block.getNextBlock();
             if (nextBlock != null) {
-                plugin.getLogger().fine("Continuing to next block in chain with action: " + nextBlock.getAction());
                 return processBlockChain(nextBlock, context, executionChain, recursionDepth + 1);
             }
             
@@ -1240,37 +1392,9 @@ public class DefaultScriptEngine implements ScriptEngine, EnhancedScriptEngine,
     
     @Override
     public BlockType getBlockType(Material material, String actionName) {
-        
-        
-        if (material != null && actionName != null) {
-            
-            java.util.List<BlockConfigService.BlockConfig> configs = blockConfigService.getBlockConfigsForMaterial(material);
-            
-            
-            BlockType blockType = findBlockTypeInConfigs(configs, actionName);
-            if (blockType != null) {
-                return blockType;
-            }
-        }
-        
-        
-        BlockConfigService.BlockConfig config = blockConfigService.getBlockConfig(actionName);
-        if (config != null) {
-            return getBlockTypeFromString(config.getType());
-        }
-        return null;
-    }
-    
-    /**
-     * Find block type in a list of configurations
-     */
-    private BlockType findBlockTypeInConfigs(java.util.List<BlockConfigService.BlockConfig> configs, String actionName) {
-        for (BlockConfigService.BlockConfig config : configs) {
-            if (actionName.equals(config.getId())) {
-                return getBlockTypeFromString(config.getType());
-            }
-        }
-        return null;
+        // A config listed for the material is only chosen when its id equals the action,
+        // which is exactly the config found by id, so one snapshot lookup covers both cases
+        return getBlockTypeFromString(blockTypeOf(actionName));
     }
     
     /**
@@ -1393,10 +1517,21 @@ public class DefaultScriptEngine implements ScriptEngine, EnhancedScriptEngine,
         return maxInstructionsPerTick;
     }
     
+    /**
+     * Gets the main thread time all carried-over runs may use per tick
+     */
+    public long getTickBudgetMs() {
+        return tickScheduler.getBudgetMillis();
+    }
+    
+    public void setTickBudgetMs(long tickBudgetMs) {
+        tickScheduler.setBudgetMillis(tickBudgetMs);
+    }
+    
     /**
      * Set the maximum instructions per tick to prevent lag
      * 
-     * @param maxInstructions Maximum instructions per server tick
+     * @param maxInstructions Maximum instructions per slice; a run that uses them up continues in a later slice
      */
     @Override
     public void setMaxInstructionsPerTick(int maxInstructions) {
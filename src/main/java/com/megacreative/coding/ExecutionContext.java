@@ -1,6 +1,7 @@
 package com.megacreative.coding;
 
 import com.megacreative.MegaCreative;
+import com.megacreative.coding.variables.LocalFrame;
 import com.megacreative.coding.variables.VariableManager;
 import com.megacreative.coding.variables.IVariableManager.VariableScope;
 import com.megacreative.coding.values.DataValue;
@@ -10,6 +11,8 @@ import com.megacreative.coding.events.CustomEvent;
 import com.megacreative.coding.executors.AdvancedExecutionEngine.ExecutionMode;
 import com.megacreative.coding.executors.AdvancedExecutionEngine.Priority;
 import com.megacreative.coding.executors.ExecutionResult;
+import com.megacreative.coding.executors.MainThreadCommandBuffer;
+import com.megacreative.coding.functions.FunctionCallFrame;
 import com.megacreative.coding.Constants;
 import com.megacreative.coding.ChestParser;
 import org.bukkit.Location;
@@ -22,6 +25,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Executor;
 
 /**
  * Хранит всю информацию, необходимую для выполнения одного скрипта.
@@ -62,12 +66,23 @@ public class ExecutionContext {
     private ExecutionMode executionMode = ExecutionMode.SYNCHRONOUS;
     private Priority priority = Priority.NORMAL;
     private int maxInstructions = 1000;
+    private MainThreadCommandBuffer commandBuffer;
+    private Executor resumeExecutor;
     private long executionTimeout = 0;
+    private ScriptTraceMode traceMode;
     private final long executionStartTime = System.currentTimeMillis();
 
 	
     private final VariableManager variableManager;
     
+    /** Slot storage for the locals of the running compiled script, null when it binds none */
+    private LocalFrame localFrame;
+    private int currentLocalSlot = -1;
+    /** Instruction a suspended compiled run continues at, -1 while the context is not suspended */
+    private int resumePoint = -1;
+    /** Call of the user function whose body is running, null outside function bodies */
+    private FunctionCallFrame callFrame;
+    
 	
     private final String scriptId; 
     private final String worldId;  
@@ -206,11 +221,17 @@ public class ExecutionContext {
         if (scriptId == null) {
             throw new IllegalStateException("Cannot set variable: script ID is not available");
         }
-        variableManager.setLocalVariable(scriptId, name, DataValue.fromObject(value));
+        int slot = localFrame != null ? localFrame.slotOf(name) : -1;
+        if (slot >= 0) {
+            // A slotted parameter or "return" reaches the call frame when the local frame is flushed
+            localFrame.set(slot, DataValue.fromObject(value));
+        } else if (callFrame == null || !storeInCallFrame(name, DataValue.fromObject(value))) {
+            variableManager.setLocalVariable(scriptId, name, DataValue.fromObject(value));
+        }
 
         // Condition plugin.getLogger() != null is always true when reached
         // Removed redundant null check
-        if (plugin != null) {
+        if (plugin != null && plugin.getLogger().isLoggable(java.util.logging.Level.FINE)) {
             plugin.getLogger().fine("Debug: Variable '" + name + "' set to '" + value + "' for player " + (player != null ? player.getName() : "null"));
         }
     }
@@ -226,6 +247,18 @@ public class ExecutionContext {
         }
         
 		
+        DataValue local = getFrameValue(name);
+        if (local != null) {
+            return local.getValue();
+        }
+        
+        if (callFrame != null) {
+            DataValue argument = callFrame.getArgument(name);
+            if (argument != null) {
+                return argument.getValue();
+            }
+        }
+        
         String context = getPlayerContext();
         DataValue value = variableManager.resolveVariable(name, context);
         return value != null ? value.getValue() : null;
@@ -632,6 +665,26 @@ public class ExecutionContext {
         this.executionMode = executionMode;
     }
     
+    /**
+     * Gets the trace mode of this run. Unless set explicitly it follows the world's quiet scripts flag.
+     * 
+     * Получает режим трассировки этого выполнения. Если он не задан явно, он следует флагу тихих скриптов мира.
+     */
+    public ScriptTraceMode getTraceMode() {
+        if (traceMode != null) {
+            return traceMode;
+        }
+        return creativeWorld != null && creativeWorld.getFlags() != null && creativeWorld.getFlags().isQuietScripts()
+            ? ScriptTraceMode.QUIET : ScriptTraceMode.DEBUG;
+    }
+    
+    /**
+     * Sets the trace mode, overriding the world setting; null restores the world setting
+     */
+    public void setTraceMode(ScriptTraceMode traceMode) {
+        this.traceMode = traceMode;
+    }
+    
     /**
      * Gets the execution priority
      */
@@ -660,6 +713,44 @@ public class ExecutionContext {
         this.maxInstructions = maxInstructions;
     }
     
+    /**
+     * Applies a change to the world, players or inventories. Runs it right away, or, when this run executes
+     * off the main thread, records it in the command buffer so it is applied on the main thread in order.
+     * Actions should compute everything first and pass only the Bukkit call itself.
+     * 
+     * Применяет изменение мира, игроков или инвентарей. Выполняет его сразу, а если это выполнение идет
+     * вне основного потока, записывает его в буфер команд, чтобы оно было применено в основном потоке по порядку.
+     * Действия должны сначала все вычислить и передавать только сам вызов Bukkit.
+     */
+    public void applyWorldChange(Runnable change) {
+        if (commandBuffer != null) {
+            commandBuffer.submit(change);
+        } else {
+            change.run();
+        }
+    }
+    
+    /**
+     * Checks if world changes of this run are deferred to the main thread
+     */
+    public boolean isDeferringWorldChanges() {
+        return commandBuffer != null;
+    }
+    
+    /**
+     * Gets the buffer receiving the world changes of an asynchronous run, or null when changes apply directly
+     */
+    public MainThreadCommandBuffer getCommandBuffer() {
+        return commandBuffer;
+    }
+    
+    /**
+     * Gets the executor that continues this run after a pause or await, or null to continue on the main thread
+     */
+    public Executor getResumeExecutor() {
+        return resumeExecutor;
+    }
+    
     /**
      * Gets the execution timeout timestamp
      */
@@ -712,10 +803,153 @@ public class ExecutionContext {
             return null;
         }
 		
+        DataValue local = getFrameValue(name);
+        if (local != null) {
+            return local;
+        }
+        
+        if (callFrame != null) {
+            DataValue argument = callFrame.getArgument(name);
+            if (argument != null) {
+                return argument;
+            }
+        }
+        
         String context = getPlayerContext();
         return variableManager.resolveVariable(name, context);
     }
     
+    /**
+     * Attaches the local frame of the compiled script about to run
+     * 
+     * Подключает фрейм локальных переменных скомпилированного скрипта перед запуском
+     */
+    public void setLocalFrame(LocalFrame localFrame) {
+        this.localFrame = localFrame;
+    }
+    
+    public LocalFrame getLocalFrame() {
+        return localFrame;
+    }
+    
+    /**
+     * Writes the locals changed during this run back to the VariableManager
+     * 
+     * Записывает измененные за выполнение локальные переменные обратно в VariableManager
+     */
+    public void flushLocalFrame() {
+        if (localFrame != null && scriptId != null && variableManager != null) {
+            localFrame.flush((name, value) -> {
+                if (callFrame == null || !storeInCallFrame(name, value)) {
+                    variableManager.setLocalVariable(scriptId, name, value);
+                }
+            });
+        }
+    }
+    
+    /**
+     * Gets the call of the user function whose body runs in this context
+     * @return The call frame, or null outside function bodies
+     */
+    public FunctionCallFrame getCallFrame() {
+        return callFrame;
+    }
+    
+    /**
+     * Keeps a write to a parameter or to "return" inside the running function call
+     * @return true if the call frame took the value
+     */
+    private boolean storeInCallFrame(String name, DataValue value) {
+        if ("return".equals(name)) {
+            callFrame.setReturnValue(value.getValue());
+            return true;
+        }
+        return callFrame.setArgument(name, value);
+    }
+    
+    /**
+     * Remembers where a compiled run continues after it was suspended (e.g. by a wait block)
+     * 
+     * Запоминает, где продолжится скомпилированное выполнение после приостановки (например, блоком ожидания)
+     */
+    public void setResumePoint(int resumePoint) {
+        this.resumePoint = resumePoint;
+    }
+    
+    /**
+     * Gets the instruction a suspended compiled run continues at
+     * @return The instruction index, or -1 if the context is not suspended
+     */
+    public int getResumePoint() {
+        return resumePoint;
+    }
+    
+    /**
+     * Sets the frame slot bound to the instruction being executed, -1 if none
+     */
+    public void setCurrentLocalSlot(int currentLocalSlot) {
+        this.currentLocalSlot = currentLocalSlot;
+    }
+    
+    /**
+     * Gets the frame slot the compiler bound to the current block's variable
+     * @return The slot, or -1 if the variable has to be accessed by name
+     */
+    public int getCurrentLocalSlot() {
+        return localFrame != null ? currentLocalSlot : -1;
+    }
+    
+    public double getLocalNumber(int slot) {
+        ensureLocalLoaded(slot);
+        return localFrame.getDouble(slot);
+    }
+    
+    public void setLocalNumber(int slot, double value) {
+        localFrame.setDouble(slot, value);
+    }
+    
+    public long getLocalLong(int slot) {
+        ensureLocalLoaded(slot);
+        return localFrame.getLong(slot);
+    }
+    
+    public void setLocalLong(int slot, long value) {
+        localFrame.setLong(slot, value);
+    }
+    
+    public boolean getLocalBoolean(int slot) {
+        ensureLocalLoaded(slot);
+        return localFrame.getBoolean(slot);
+    }
+    
+    public void setLocalBoolean(int slot, boolean value) {
+        localFrame.setBoolean(slot, value);
+    }
+    
+    private DataValue getFrameValue(String name) {
+        int slot = localFrame != null ? localFrame.slotOf(name) : -1;
+        if (slot < 0) {
+            return null;
+        }
+        ensureLocalLoaded(slot);
+        return localFrame.get(slot);
+    }
+    
+    private void ensureLocalLoaded(int slot) {
+        if (localFrame.isLoaded(slot)) {
+            return;
+        }
+        String name = localFrame.getName(slot);
+        DataValue value = callFrame != null ? callFrame.getArgument(name) : null;
+        if (value == null && scriptId != null) {
+            value = variableManager.getLocalVariable(scriptId, name);
+        }
+        if (value == null) {
+            value = variableManager.resolveVariable(name, getPlayerContext());
+        }
+        localFrame.load(slot, value);
+    }
+    
     /**
      * Gets a variable with explicit scope, returning the raw DataValue.
      * @param name The name of the variable
@@ -805,6 +1039,10 @@ public class ExecutionContext {
         private ExecutionMode executionMode = ExecutionMode.SYNCHRONOUS;
         private Priority priority = Priority.NORMAL;
         private int maxInstructions = 1000;
+        private ScriptTraceMode traceMode;
+        private MainThreadCommandBuffer commandBuffer;
+        private Executor resumeExecutor;
+        private FunctionCallFrame callFrame;
         
         public Builder plugin(MegaCreative plugin) {
             this.plugin = plugin;
@@ -851,11 +1089,37 @@ public class ExecutionContext {
             return this;
         }
         
+        public Builder traceMode(ScriptTraceMode traceMode) {
+            this.traceMode = traceMode;
+            return this;
+        }
+        
+        /**
+         * Runs the script off the main thread: world changes go to the buffer, waits resume on the executor
+         */
+        public Builder deferWorldChanges(MainThreadCommandBuffer commandBuffer, Executor resumeExecutor) {
+            this.commandBuffer = commandBuffer;
+            this.resumeExecutor = resumeExecutor;
+            return this;
+        }
+        
+        /**
+         * Runs the script as the body of a user function call: parameters read from and "return" writes to the frame
+         */
+        public Builder callFrame(FunctionCallFrame callFrame) {
+            this.callFrame = callFrame;
+            return this;
+        }
+        
         public ExecutionContext build() {
             ExecutionContext context = new ExecutionContext(plugin, player, creativeWorld, event, blockLocation, currentBlock);
             context.executionMode = this.executionMode;
             context.priority = this.priority;
             context.maxInstructions = this.maxInstructions;
+            context.traceMode = this.traceMode;
+            context.commandBuffer = this.commandBuffer;
+            context.resumeExecutor = this.resumeExecutor;
+            context.callFrame = this.callFrame;
             return context;
         }
     }
@@ -5,10 +5,16 @@ import com.megacreative.coding.values.types.LocationValue;
 import com.megacreative.coding.values.types.PlayerValue;
 import com.megacreative.coding.variables.VariableManager;
 import com.megacreative.coding.variables.IVariableManager;
+import com.megacreative.coding.variables.LocalFrame;
+import com.megacreative.coding.expressions.CompiledExpression;
+import com.megacreative.coding.expressions.ExpressionTemplate;
+import com.megacreative.coding.placeholders.PlaceholderTemplate;
 import com.megacreative.coding.placeholders.ReferenceSystemPlaceholderResolver;
+import com.megacreative.exceptions.ScriptException;
 import org.bukkit.entity.Player;
 import org.bukkit.Location;
 
+import java.util.function.DoubleBinaryOperator;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -46,6 +52,102 @@ public class ParameterResolver {
         return DataValue.of(resolvedText);
     }
 
+    /**
+     * Resolves a numeric parameter as an arithmetic expression, e.g. "5", "score * 2" or "max(%hp%, 1)".
+     * The expression is compiled once and cached; placeholders are bound as its parameters, and variables it names
+     * are read from the script's local frame where the compiler bound them.
+     * A single token that names an existing variable, such as "my-var", reads that variable rather than being
+     * parsed as an expression, and a bare name that is no known variable is an error, as it was before expressions
+     * 
+     * @param context The execution context
+     * @param value The raw parameter value
+     * @return The number
+     * @throws NumberFormatException if the value is empty, names no variable or a variable is not a number
+     * @throws com.megacreative.exceptions.ScriptException if the value is not a valid expression
+     */
+    public static double resolveNumber(ExecutionContext context, DataValue value) {
+        if (value == null || value.isEmpty()) {
+            throw new NumberFormatException("Empty numeric parameter");
+        }
+        String text = value.asString().trim();
+        if (hasPlaceholders(text)) {
+            ExpressionTemplate template = ExpressionTemplate.cached(text);
+            if (template.getPlaceholderCount() > 0) {
+                return template.evaluate(context);
+            }
+            // Only '%' used as the modulo operator, nothing to bind
+        }
+        
+        CompiledExpression expression;
+        try {
+            expression = CompiledExpression.cached(text);
+        } catch (ScriptException e) {
+            // Variable names may contain characters the expression syntax does not allow
+            DataValue named = CompiledExpression.couldBeVariableName(text) ? context.getVariableAsDataValue(text) : null;
+            if (named == null || named.isEmpty()) {
+                throw e;
+            }
+            return named.asNumber().doubleValue();
+        }
+        if (expression.isConstant()) {
+            return expression.evaluate(context);
+        }
+        if (expression.isVariable()) {
+            // A bound frame slot always holds a value; anything else has to exist to be read
+            LocalFrame frame = context.getLocalFrame();
+            if ((frame == null || frame.slotOf(text) < 0) && context.getVariableAsDataValue(text) == null) {
+                throw new NumberFormatException("'" + text + "' is neither a number nor a known variable");
+            }
+        } else if (CompiledExpression.couldBeVariableName(text)) {
+            DataValue named = context.getVariableAsDataValue(text);
+            if (named != null && !named.isEmpty()) {
+                return named.asNumber().doubleValue();
+            }
+        }
+        return expression.evaluate(context);
+    }
+
+    /**
+     * Updates the variable of a variable action in place when the compiler bound it to a frame slot.
+     * The slot is read and written without boxing and the caller builds no result message.
+     * 
+     * @param context The execution context
+     * @param value The resolved operand
+     * @param operator Combines the current value with the operand
+     * @return true if the variable was updated, false if it is not bound to a slot
+     */
+    public static boolean applyToLocalSlot(ExecutionContext context, double value, DoubleBinaryOperator operator) {
+        int slot = context.getCurrentLocalSlot();
+        if (slot < 0) {
+            return false;
+        }
+        context.setLocalNumber(slot, operator.applyAsDouble(context.getLocalNumber(slot), value));
+        return true;
+    }
+
+    /**
+     * Checks if a text contains any placeholder syntax (%name%, ${name} or name[...]~)
+     * 
+     * @param text The text to check
+     * @return true if the text has to be resolved at run time
+     */
+    public static boolean hasPlaceholders(String text) {
+        return PlaceholderTemplate.mayContainPlaceholders(text);
+    }
+
+    /**
+     * Resolves a block parameter through the block's cached template, so the text is only parsed when it changes
+     * 
+     * @param context The execution context
+     * @param block The block owning the parameter
+     * @param key The parameter key
+     * @return The resolved string, or null if the parameter is missing or empty
+     */
+    public static String resolveParameter(ExecutionContext context, CodeBlock block, String key) {
+        PlaceholderTemplate template = block.getParameterTemplate(key);
+        return template != null ? template.render(context) : null;
+    }
+
     /**
      * 🎆 ENHANCED: Resolves placeholders in a string using reference system
      * 
@@ -110,6 +212,15 @@ public class ParameterResolver {
         }
 
         
+        // Inside a function body, parameters shadow variables of the same name
+        if (context.getCallFrame() != null) {
+            DataValue argument = context.getCallFrame().getArgument(placeholder);
+            if (argument != null) {
+                return argument.asString();
+            }
+        }
+
+        
         VariableManager variableManager = context.getPlugin().getServiceRegistry().getVariableManager();
         // Removed redundant null check - static analysis flagged it as always non-null when this method is called
         if (variableManager != null) {
@@ -5,13 +5,10 @@ import com.megacreative.interfaces.IWorldManager;
 import com.megacreative.models.CreativeWorld;
 import com.megacreative.services.BlockConfigService;
 import com.megacreative.worlds.DevWorldGenerator;
-import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.HashMap;
 import java.util.UUID;
 import java.util.logging.Logger;
 
@@ -45,20 +42,24 @@ public class ScriptCompiler {
      */
     public List<CodeScript> compileWorldScripts(World world) {
         List<CodeScript> scripts = new ArrayList<>();
+        CodeBlockStore.WorldBlocks blocks = placementHandler.getBlockStore().world(world.getName());
+        if (blocks == null) {
+            return scripts;
+        }
         
         // Find all event blocks in the world
-        List<CodeBlock> eventBlocks = findEventBlocksInWorld(world);
+        List<CodeBlock> eventBlocks = findEventBlocksInWorld(blocks);
         
         // For each event block, build its complete script
         for (CodeBlock eventBlock : eventBlocks) {
             try {
-                CodeScript script = compileScriptFromEventBlock(eventBlock, world);
+                CodeScript script = compileScriptFromEventBlock(eventBlock, blocks);
                 if (script != null) {
                     scripts.add(script);
                 }
             } catch (Exception e) {
                 LOGGER.warning("Error compiling script from event block at " + 
-                    formatLocation(eventBlock) + ": " + e.getMessage());
+                    formatLocation(eventBlock, blocks) + ": " + e.getMessage());
             }
         }
         
@@ -68,20 +69,15 @@ public class ScriptCompiler {
     /**
      * Finds all event blocks (blocks with actions starting with "on") in a world
      * 
-     * @param world The world to search in
+     * @param blocks The code blocks of the world
      * @return List of event blocks
      */
-    private List<CodeBlock> findEventBlocksInWorld(World world) {
+    private List<CodeBlock> findEventBlocksInWorld(CodeBlockStore.WorldBlocks blocks) {
         List<CodeBlock> eventBlocks = new ArrayList<>();
         
-        // Iterate through all code blocks in the placement handler
-        for (Location location : placementHandler.getBlockCodeBlocks().keySet()) {
-            // Check if this block is in the specified world
-            if (location.getWorld().equals(world)) {
-                CodeBlock block = placementHandler.getCodeBlock(location);
-                if (block != null && isEventBlock(block)) {
-                    eventBlocks.add(block);
-                }
+        for (CodeBlock block : blocks.blocks()) {
+            if (isEventBlock(block)) {
+                eventBlocks.add(block);
             }
         }
         
@@ -103,111 +99,56 @@ public class ScriptCompiler {
      * Compiles a complete script starting from an event block
      * 
      * @param eventBlock The root event block
-     * @param world The world the block is in
+     * @param blocks The code blocks of the world the block is in
      * @return The compiled script
      */
-    private CodeScript compileScriptFromEventBlock(CodeBlock eventBlock, World world) {
+    private CodeScript compileScriptFromEventBlock(CodeBlock eventBlock, CodeBlockStore.WorldBlocks blocks) {
         // Create a new script with the event block as root
         CodeScript script = new CodeScript(eventBlock);
         
-        // Build the horizontal chain (next blocks)
-        buildHorizontalChain(eventBlock);
-        
-        // Build vertical chains (children/parents)
-        buildVerticalChains(eventBlock);
+        // Link the horizontal chain (next blocks) and the children of control blocks
+        linkBlocks(eventBlock, blocks);
         
         return script;
     }
     
     /**
-     * Builds the horizontal chain of blocks (nextBlock relationships)
-     * by scanning to the right from the starting block
+     * Links a chain of blocks: each block to its right-hand neighbour, and control blocks
+     * to the first indented block of the next code line. Every step is a position or line lookup.
      * 
-     * @param startBlock The block to start from
+     * @param start The first block of the chain
+     * @param blocks The code blocks of the world
      */
-    private void buildHorizontalChain(CodeBlock startBlock) {
-        CodeBlock currentBlock = startBlock;
-        Location currentLocation = findBlockLocation(startBlock);
-        
-        if (currentLocation == null) return;
-        
-        // Keep scanning to the right until we find no more blocks
-        while (currentBlock != null) {
-            // Get the next location to the right
-            Location nextLocation = currentLocation.clone().add(1, 0, 0);
-            CodeBlock nextBlock = placementHandler.getCodeBlock(nextLocation);
+    private void linkBlocks(CodeBlock start, CodeBlockStore.WorldBlocks blocks) {
+        for (CodeBlock current = start; current != null; current = current.getNextBlock()) {
+            long position = blocks.positionOf(current);
+            if (position == CodeBlockStore.NO_POSITION) {
+                return;
+            }
+            int x = CodeBlockStore.unpackX(position);
+            int y = CodeBlockStore.unpackY(position);
+            int z = CodeBlockStore.unpackZ(position);
             
-            // If we found a next block, connect it
+            // 1. Связываем горизонтальную цепочку (nextBlock)
+            CodeBlock nextBlock = blocks.get(x + 1, y, z);
             if (nextBlock != null) {
-                currentBlock.setNextBlock(nextBlock);
-                LOGGER.info("Linked horizontal: " + formatLocation(currentBlock) + " -> " + formatLocation(nextBlock));
-                currentBlock = nextBlock;
-                currentLocation = nextLocation;
-            } else {
-                // No more blocks to the right, stop
-                break;
+                current.setNextBlock(nextBlock);
+                LOGGER.info("Linked horizontal: " + formatPosition(position) + " -> " + formatPosition(blocks.positionOf(nextBlock)));
             }
-        }
-    }
-    
-    /**
-     * Builds vertical chains (parent-child relationships) for control blocks
-     * 
-     * @param rootBlock The root block to start from
-     */
-    private void buildVerticalChains(CodeBlock rootBlock) {
-        // Build the complete tree structure by linking all blocks
-        Map<Location, CodeBlock> allBlocks = placementHandler.getBlockCodeBlocks();
-        linkBlocks(rootBlock, allBlocks);
-    }
-    
-    /**
-     * Recursively links blocks to build the complete script structure
-     * 
-     * @param current The current block to process
-     * @param allBlocks Map of all blocks in the world
-     */
-    private void linkBlocks(CodeBlock current, Map<Location, CodeBlock> allBlocks) {
-        if (current == null) return;
-
-        Location currentLocation = findBlockLocation(current);
-        if (currentLocation == null) return;
-        
-        // 1. Связываем горизонтальную цепочку (nextBlock)
-        Location nextLocation = currentLocation.clone().add(1, 0, 0);
-        CodeBlock nextBlock = allBlocks.get(nextLocation);
-        if (nextBlock != null) {
-            current.setNextBlock(nextBlock);
-            LOGGER.info("Linked horizontal: " + formatLocation(current) + " -> " + formatLocation(nextBlock));
-        }
-
-        // 2. Если это блок-контейнер (IF, REPEAT), ищем его дочерние элементы
-        if (isControlBlock(current)) {
-            // Дочерние блоки должны быть на следующей линии (например, Z+2)
-            // и их X должен быть больше, чем у родителя (отступ)
-            int parentX = currentLocation.getBlockX();
-            int parentZ = currentLocation.getBlockZ();
-            
-            // Ищем дочерние блоки на следующей линии (Z + LINES_SPACING)
-            int childLineZ = parentZ + DevWorldGenerator.getLinesSpacing();
             
-            // Ищем первый блок с отступом (X > parentX) на следующей линии
-            for (int childX = parentX + 1; childX < parentX + 20; childX++) { // Ограничиваем поиск 20 блоками вправо
-                Location childLocation = new Location(currentLocation.getWorld(), childX, currentLocation.getBlockY(), childLineZ);
-                CodeBlock childBlock = allBlocks.get(childLocation);
-                
+            // 2. Если это блок-контейнер (IF, REPEAT), ищем его дочерние элементы
+            if (isControlBlock(current)) {
+                // Дочерние блоки на следующей линии (Z + LINES_SPACING) с отступом (X > parentX),
+                // не дальше 20 блоков вправо; берем только первый
+                int childLineZ = z + DevWorldGenerator.getLinesSpacing();
+                CodeBlock childBlock = blocks.firstOnLine(y, childLineZ, x + 1, x + 19);
                 if (childBlock != null) {
                     current.addChild(childBlock);
-                    LOGGER.info("Linked child: " + formatLocation(current) + " -> " + formatLocation(childBlock));
-                    // Рекурсивно строим цепочку для дочернего блока
-                    linkBlocks(childBlock, allBlocks);
-                    break; // Берем только первый дочерний блок
+                    LOGGER.info("Linked child: " + formatPosition(position) + " -> " + formatPosition(blocks.positionOf(childBlock)));
+                    linkBlocks(childBlock, blocks);
                 }
             }
         }
-
-        // 3. Рекурсивно идем по основной (горизонтальной) цепочке
-        linkBlocks(current.getNextBlock(), allBlocks);
     }
     
     /**
@@ -234,37 +175,21 @@ public class ScriptCompiler {
     }
     
     /**
-     * Finds the location of a specific code block
-     * 
-     * @param block The block to find
-     * @return The location, or null if not found
-     */
-    private Location findBlockLocation(CodeBlock block) {
-        if (block == null) return null;
-        
-        // Search through all locations to find this block
-        for (Location location : placementHandler.getBlockCodeBlocks().keySet()) {
-            CodeBlock storedBlock = placementHandler.getCodeBlock(location);
-            if (storedBlock != null && storedBlock.getId().equals(block.getId())) {
-                return location;
-            }
-        }
-        
-        return null;
-    }
-    
-    /**
-     * Formats a location for logging
+     * Formats the location of a block for logging
      * 
      * @param block The block to get location for
+     * @param blocks The code blocks of the block's world
      * @return Formatted location string
      */
-    private String formatLocation(CodeBlock block) {
-        Location location = findBlockLocation(block);
-        if (location != null) {
-            return "(" + location.getBlockX() + ", " + location.getBlockY() + ", " + location.getBlockZ() + ")";
+    private String formatLocation(CodeBlock block, CodeBlockStore.WorldBlocks blocks) {
+        return formatPosition(blocks.positionOf(block));
+    }
+    
+    private static String formatPosition(long position) {
+        if (position == CodeBlockStore.NO_POSITION) {
+            return "unknown";
         }
-        return "unknown";
+        return "(" + CodeBlockStore.unpackX(position) + ", " + CodeBlockStore.unpackY(position) + ", " + CodeBlockStore.unpackZ(position) + ")";
     }
     
     /**
@@ -5,6 +5,7 @@ import com.megacreative.coding.CodeBlock;
 import com.megacreative.coding.CodeScript;
 import com.megacreative.coding.debug.VisualDebugger;
 import com.megacreative.coding.executors.ExecutionResult;
+import com.megacreative.coding.functions.FunctionCallFrame;
 import com.megacreative.coding.variables.VariableManager;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
@@ -40,6 +41,27 @@ public interface ScriptEngine {
      */
     CompletableFuture<ExecutionResult> executeScript(CodeScript script, Player player, String trigger);
     
+    /**
+     * Executes the body of a user function inside its call frame.
+     * The parameters of the call are visible to the body as variables, and a value the body
+     * stores into "return" is kept in the frame.
+     *
+     * @param body The script of the function, reused across calls
+     * @param player The player who called the function
+     * @param frame The call frame holding the arguments and the return value
+     * @return A CompletableFuture that completes when the body finishes
+     * 
+     * Выполняет тело пользовательской функции внутри ее кадра вызова.
+     * Параметры вызова видны телу как переменные, а значение, которое тело
+     * записывает в "return", сохраняется в кадре.
+     *
+     * @param body Скрипт функции, переиспользуемый между вызовами
+     * @param player Игрок, который вызвал функцию
+     * @param frame Кадр вызова с аргументами и возвращаемым значением
+     * @return CompletableFuture, который завершается по окончании тела
+     */
+    CompletableFuture<ExecutionResult> executeFunctionBody(CodeScript body, Player player, FunctionCallFrame frame);
+    
     /**
      * Executes a single code block asynchronously.
      * This is used for executing individual blocks within a script.
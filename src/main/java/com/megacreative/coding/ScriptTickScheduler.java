@@ -0,0 +1,232 @@
+package com.megacreative.coding;
+
+import com.megacreative.coding.executors.AdvancedExecutionEngine.Priority;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Script runs that are ready to continue on the main thread, sliced into a fixed time budget per tick.
+ * Worlds take turns, one slice each, so a runaway script in one world only delays that world's scripts.
+ * Within a world, priorities are picked by smooth weighted round-robin: a higher priority gets more slices,
+ * but a lower one is never starved. Slices that do not fit into the budget are carried over to the next tick.
+ * The first slice of a new run executes right away, so event scripts still act while their event is handled,
+ * but it is charged to the same budget: it only gets what carried over slices and earlier runs left of the tick.
+ * {@link #tick()} is driven once per server tick by the script engine.
+ *
+ * Выполнения скриптов, готовые продолжиться в основном потоке, нарезанные в фиксированный бюджет времени на тик.
+ * Миры ходят по очереди, по одному срезу, поэтому зациклившийся скрипт одного мира задерживает только скрипты этого мира.
+ * Внутри мира приоритеты выбираются сглаженным взвешенным циклическим перебором: более высокий приоритет получает
+ * больше срезов, но более низкий никогда не голодает. Срезы, не поместившиеся в бюджет, переносятся на следующий тик.
+ * Первый срез нового выполнения запускается сразу, чтобы скрипты событий успевали действовать во время обработки события,
+ * но учитывается в том же бюджете: он получает лишь то, что оставили перенесенные срезы и более ранние выполнения.
+ * {@link #tick()} вызывается движком скриптов один раз за тик сервера.
+ */
+final class ScriptTickScheduler {
+    private static final Logger LOGGER = Logger.getLogger(ScriptTickScheduler.class.getName());
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final Map<String, WorldLane> lanes = new HashMap<>();
+    private final ArrayDeque<WorldLane> rotation = new ArrayDeque<>();
+    private volatile long budgetNanos;
+    private int queued;
+    /** Main thread time used by slices since the current tick began */
+    private long usedNanos;
+    /** Slices open on the main thread; a function called from a slice runs inside it */
+    private int openSlices;
+    private long sliceStart;
+    private long sliceDeadline;
+
+    /**
+     * @param budgetMillis Main thread time all slices of one tick may use together
+     */
+    ScriptTickScheduler(long budgetMillis) {
+        setBudgetMillis(budgetMillis);
+    }
+
+    void setBudgetMillis(long budgetMillis) {
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, budgetMillis));
+    }
+
+    long getBudgetMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(budgetNanos);
+    }
+
+    /**
+     * Queues a slice; may be called from any thread
+     *
+     * @param worldKey World the run belongs to; runs without a world share one lane
+     * @param priority Weight of the slice within its world
+     * @param slice Runs the slice on the main thread and receives the tick deadline in {@link System#nanoTime()} units
+     */
+    synchronized void submit(String worldKey, Priority priority, LongConsumer slice) {
+        String key = worldKey != null ? worldKey : "";
+        WorldLane lane = lanes.get(key);
+        if (lane == null) {
+            lane = new WorldLane(key);
+            lanes.put(key, lane);
+            rotation.addLast(lane);
+        }
+        lane.add(priority != null ? priority : Priority.NORMAL, slice);
+        queued++;
+    }
+
+    /**
+     * Opens a slice that runs right away on the main thread, such as the first slice of a new run.
+     * Its deadline is the part of the tick budget that is left, and its world's waiting slices move behind
+     * the other worlds. A slice opened inside another one, e.g. by a function call, shares the outer deadline.
+     * Every call must be paired with {@link #endSlice()}.
+     *
+     * @param worldKey World the run belongs to
+     * @return The deadline in {@link System#nanoTime()} units; already passed if the budget is used up
+     */
+    synchronized long beginSlice(String worldKey) {
+        if (openSlices++ > 0) {
+            return sliceDeadline;
+        }
+        WorldLane lane = lanes.get(worldKey != null ? worldKey : "");
+        if (lane != null && rotation.peekLast() != lane) {
+            rotation.remove(lane);
+            rotation.addLast(lane);
+        }
+        sliceStart = System.nanoTime();
+        sliceDeadline = sliceStart + Math.max(0L, budgetNanos - usedNanos);
+        return sliceDeadline;
+    }
+
+    /**
+     * Closes a slice opened by {@link #beginSlice(String)} and charges its time to the tick budget
+     */
+    synchronized void endSlice() {
+        if (--openSlices == 0) {
+            usedNanos += System.nanoTime() - sliceStart;
+        }
+    }
+
+    /**
+     * Runs queued slices until the budget of this tick is used up; at least one slice runs.
+     * A slice that yields again is queued behind the others and may run again in the same tick.
+     * The time used here starts the budget of the new tick, which slices opened until the next call share.
+     */
+    void tick() {
+        long deadline;
+        synchronized (this) {
+            usedNanos = 0L;
+            openSlices++;
+            sliceStart = System.nanoTime();
+            sliceDeadline = sliceStart + budgetNanos;
+            deadline = sliceDeadline;
+        }
+        try {
+            runQueued(deadline);
+        } finally {
+            endSlice();
+        }
+    }
+
+    private void runQueued(long deadline) {
+        do {
+            LongConsumer slice;
+            synchronized (this) {
+                WorldLane lane = rotation.pollFirst();
+                if (lane == null) {
+                    return;
+                }
+                slice = lane.next();
+                queued--;
+                if (lane.isEmpty()) {
+                    lanes.remove(lane.worldKey);
+                } else {
+                    rotation.addLast(lane);
+                }
+            }
+            // Slices run outside the lock; a yielding one submits its continuation again
+            try {
+                slice.accept(deadline);
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Failed to run a script slice", e);
+            }
+        } while (System.nanoTime() - deadline < 0);
+    }
+
+    /**
+     * Gets the number of slices waiting for main thread time
+     */
+    synchronized int size() {
+        return queued;
+    }
+
+    /**
+     * Gets the number of worlds with waiting slices
+     */
+    synchronized int getWorldCount() {
+        return lanes.size();
+    }
+
+    /**
+     * Weight of a priority: each level above IDLE doubles the share of slices
+     */
+    static int weightOf(Priority priority) {
+        return 1 << (PRIORITIES.length - 1 - priority.getLevel());
+    }
+
+    /**
+     * Waiting slices of one world, one queue per priority
+     */
+    private static final class WorldLane {
+        private final String worldKey;
+        @SuppressWarnings("unchecked")
+        private final ArrayDeque<LongConsumer>[] queues = new ArrayDeque[PRIORITIES.length];
+        private final int[] credits = new int[PRIORITIES.length];
+        private int size;
+
+        private WorldLane(String worldKey) {
+            this.worldKey = worldKey;
+        }
+
+        private void add(Priority priority, LongConsumer slice) {
+            int index = priority.ordinal();
+            if (queues[index] == null) {
+                queues[index] = new ArrayDeque<>();
+            }
+            queues[index].addLast(slice);
+            size++;
+        }
+
+        /**
+         * Picks the next slice: every waiting priority earns its weight, the richest is served and pays the total
+         */
+        private LongConsumer next() {
+            int total = 0;
+            int best = -1;
+            for (int i = 0; i < PRIORITIES.length; i++) {
+                if (queues[i] == null || queues[i].isEmpty()) {
+                    continue;
+                }
+                int weight = weightOf(PRIORITIES[i]);
+                credits[i] += weight;
+                total += weight;
+                if (best < 0 || credits[i] > credits[best]) {
+                    best = i;
+                }
+            }
+            credits[best] -= total;
+            size--;
+            LongConsumer slice = queues[best].pollFirst();
+            if (queues[best].isEmpty()) {
+                // A priority that runs dry starts over, so an old surplus or debt does not carry into its next burst
+                credits[best] = 0;
+            }
+            return slice;
+        }
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.megacreative.coding;
+
+/**
+ * Controls how much diagnostic output a script run produces
+ *
+ * Определяет, сколько диагностического вывода создает выполнение скрипта
+ */
+public enum ScriptTraceMode {
+    /**
+     * No tracing at all: no chat, no log strings, no debugger callbacks.
+     * Intended for published worlds and high-frequency events.
+     *
+     * Никакой трассировки: ни чата, ни строк логов, ни вызовов отладчика.
+     * Предназначен для опубликованных миров и частых событий.
+     */
+    QUIET,
+
+    /**
+     * Blocks and condition results are reported to the VisualDebugger, but only while the player has a debug session attached
+     *
+     * Блоки и результаты условий передаются в VisualDebugger, но только пока у игрока открыта сессия отладки
+     */
+    DEBUG
+}
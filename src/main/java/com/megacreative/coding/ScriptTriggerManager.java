@@ -20,11 +20,13 @@ public class ScriptTriggerManager implements Listener {
     private final MegaCreative plugin;
     private final IWorldManager worldManager;
     private final ScriptEngine scriptEngine;
+    private final CompiledScriptRegistry scriptRegistry;
     
-    public ScriptTriggerManager(MegaCreative plugin, IWorldManager worldManager) {
+    public ScriptTriggerManager(MegaCreative plugin, IWorldManager worldManager, CompiledScriptRegistry scriptRegistry) {
         this.plugin = plugin;
         this.worldManager = worldManager;
         this.scriptEngine = plugin.getServiceRegistry().getScriptEngine();
+        this.scriptRegistry = scriptRegistry;
     }
     
     // ----- Пример для события входа игрока -----
@@ -41,28 +43,12 @@ public class ScriptTriggerManager implements Listener {
 
         LOGGER.info("[Trigger] Player " + player.getName() + " joined, searching for '" + eventAction + "' scripts in " + creativeWorld.getName());
         
-        // ВАЖНО: В реальном коде скрипты должны быть где-то сохранены/закешированы в creativeWorld
-        // Сейчас мы будем их компилировать "на лету" для теста.
-        
-        // Создаем временный компилятор для поиска и сборки скриптов
-        ScriptCompiler compiler = new ScriptCompiler(
-            plugin,
-            plugin.getServiceRegistry().getBlockConfigService(),
-            plugin.getServiceRegistry().getBlockPlacementHandler()
-        );
-        
-        // Компилируем все скрипты в текущем мире
-        List<CodeScript> allScriptsInWorld = compiler.compileWorldScripts(player.getWorld());
+        // Скрипты компилируются один раз на мир и берутся из реестра по имени события
+        List<CodeScript> scripts = scriptRegistry.getScripts(creativeWorld, eventAction);
 
-        // Ищем среди всех скриптов те, что начинаются с нужного нам события
-        for (CodeScript script : allScriptsInWorld) {
-            if (script.getRootBlock() != null && eventAction.equals(script.getRootBlock().getAction())) {
-                LOGGER.info("[Trigger] Found script for '" + eventAction + "'. Executing...");
-                player.sendMessage("§a[Trigger] Found script for " + eventAction + ", executing...");
-                
-                // Запускаем найденный скрипт
-                scriptEngine.executeScript(script, player, eventAction);
-            }
+        for (CodeScript script : scripts) {
+            // Запускаем найденный скрипт
+            scriptEngine.executeScript(script, player, eventAction);
         }
     }
 
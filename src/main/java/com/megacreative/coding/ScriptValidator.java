@@ -5,6 +5,7 @@ import com.megacreative.coding.values.DataValue;
 import com.megacreative.services.BlockConfigService;
 import org.bukkit.Material;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Advanced script validator for comprehensive script validation and error detection
@@ -33,6 +34,8 @@ public class ScriptValidator {
     
     private final BlockConfigService blockConfigService;
     private final BlockGraphValidator blockGraphValidator;
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
     
     public ScriptValidator(BlockConfigService blockConfigService) {
         this.blockConfigService = blockConfigService;
@@ -133,6 +136,51 @@ public class ScriptValidator {
         return new ValidationResult(errors.isEmpty(), errors, warnings);
     }
     
+    /**
+     * Validates a script, reusing the result cached on it while its block graph is unchanged
+     * @param script The script to validate
+     * @return ValidationResult containing all validation issues
+     * 
+     * Проверяет скрипт, повторно используя сохраненный в нем результат, пока граф блоков не изменился
+     * @param script Скрипт для проверки
+     * @return ValidationResult, содержащий все проблемы валидации
+     */
+    public ValidationResult validateScriptCached(CodeScript script) {
+        if (script == null) {
+            return createNullScriptResult();
+        }
+        
+        ValidationResult cached = script.getCachedValidation();
+        if (cached != null) {
+            cacheHits.incrementAndGet();
+            return cached;
+        }
+        
+        cacheMisses.incrementAndGet();
+        long structureVersion = script.captureStructureVersion();
+        ValidationResult result = validateScript(script);
+        script.setCachedValidation(result, structureVersion);
+        return result;
+    }
+    
+    /**
+     * Gets the number of validations answered from a script's cached result
+     * 
+     * Получает количество проверок, взятых из кэшированного результата скрипта
+     */
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+    
+    /**
+     * Gets the number of validations that had to walk the block graph
+     * 
+     * Получает количество проверок, которым пришлось обойти граф блоков
+     */
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+    
     /**
      * Creates a validation result for a null script
      * 
@@ -0,0 +1,67 @@
+package com.megacreative.coding;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Suspended script runs waiting for a server tick, bucketed by the tick they are due at.
+ * A waiting script costs one list entry; nothing sleeps and no scheduler task is created per wait.
+ * {@link #tick()} is driven once per server tick by the script engine.
+ *
+ * Приостановленные выполнения скриптов, ожидающие тика сервера, сгруппированные по тику, в который они должны продолжиться.
+ * Ожидающий скрипт стоит одну запись в списке; ничего не спит и для ожидания не создается задача планировщика.
+ * {@link #tick()} вызывается движком скриптов один раз за тик сервера.
+ */
+final class ScriptWaitQueue {
+    private static final Logger LOGGER = Logger.getLogger(ScriptWaitQueue.class.getName());
+
+    private final Map<Long, List<Runnable>> dueByTick = new HashMap<>();
+    private long currentTick;
+    private int waiting;
+
+    /**
+     * Parks a continuation until the given number of ticks has passed
+     *
+     * @param delayTicks Ticks to wait, at least one
+     * @param continuation Resumes the suspended run
+     */
+    synchronized void schedule(long delayTicks, Runnable continuation) {
+        long dueTick = currentTick + Math.max(1L, delayTicks);
+        dueByTick.computeIfAbsent(dueTick, tick -> new ArrayList<>()).add(continuation);
+        waiting++;
+    }
+
+    /**
+     * Advances to the next tick and resumes every run due at it
+     */
+    void tick() {
+        List<Runnable> due;
+        synchronized (this) {
+            currentTick++;
+            due = dueByTick.remove(currentTick);
+            if (due == null) {
+                return;
+            }
+            waiting -= due.size();
+        }
+        // Continuations run outside the lock; one that waits again lands in a later bucket
+        for (Runnable continuation : due) {
+            try {
+                continuation.run();
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Failed to resume a waiting script", e);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of runs currently waiting
+     */
+    synchronized int size() {
+        return waiting;
+    }
+}
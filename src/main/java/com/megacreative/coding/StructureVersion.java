@@ -0,0 +1,93 @@
+package com.megacreative.coding;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Structural version of one graph of code blocks.
+ * Every block owns a version; the versions of blocks that belong to the same script are joined into one set
+ * when the script caches something derived from its graph. Editing any block of the set moves the set to a new
+ * stamp, so only scripts that contain the edited block lose their cached validation and compiled form.
+ * Stamps are drawn from one counter, so two different sets never share a stamp.
+ *
+ * Структурная версия одного графа блоков кода.
+ * У каждого блока своя версия; версии блоков одного скрипта объединяются в одно множество,
+ * когда скрипт кэширует что-то, вычисленное из своего графа. Изменение любого блока множества переводит его
+ * на новую метку, поэтому кэш валидации и скомпилированную форму теряют только скрипты с измененным блоком.
+ * Метки берутся из одного счетчика, поэтому у двух разных множеств никогда не бывает одинаковой метки.
+ */
+final class StructureVersion {
+
+    private static final AtomicLong STAMPS = new AtomicLong();
+    private static final Object JOIN_LOCK = new Object();
+
+    /** Next version towards the representative of the set, null for the representative itself */
+    private volatile StructureVersion parent;
+    /** Stamp of the set, only meaningful on the representative */
+    private volatile long stamp = STAMPS.incrementAndGet();
+    /** Upper bound of the tree height below this representative, guarded by JOIN_LOCK */
+    private int rank;
+
+    /**
+     * Gets the current stamp of the set this version belongs to
+     */
+    long current() {
+        return find().stamp;
+    }
+
+    /**
+     * Moves the set this version belongs to onto a new stamp
+     */
+    void bump() {
+        StructureVersion root = find();
+        root.stamp = STAMPS.incrementAndGet();
+        // A join that made the root a child in the meantime must not hide the edit from the new root
+        while (root.parent != null) {
+            root = root.find();
+            root.stamp = STAMPS.incrementAndGet();
+        }
+    }
+
+    /**
+     * Joins the set of another version into the set of this one
+     */
+    void join(StructureVersion other) {
+        synchronized (JOIN_LOCK) {
+            StructureVersion a = find();
+            StructureVersion b = other.find();
+            if (a == b) {
+                return;
+            }
+            if (a.rank < b.rank) {
+                StructureVersion swap = a;
+                a = b;
+                b = swap;
+            }
+            b.parent = a;
+            if (a.rank == b.rank) {
+                a.rank++;
+            }
+        }
+    }
+
+    /**
+     * Checks if two versions belong to the same set
+     */
+    boolean isJoinedWith(StructureVersion other) {
+        return find() == other.find();
+    }
+
+    private StructureVersion find() {
+        StructureVersion node = this;
+        StructureVersion up;
+        while ((up = node.parent) != null) {
+            StructureVersion grand = up.parent;
+            if (grand == null) {
+                return up;
+            }
+            // Path halving; parents only ever point closer to the representative, so racing writes are harmless
+            node.parent = grand;
+            node = grand;
+        }
+        return node;
+    }
+}
@@ -14,7 +14,7 @@ import com.megacreative.coding.values.DataValue;
  * 
  * @author Андрій Будильников
  */
-@BlockMeta(id = "addVar", displayName = "§bAdd to Variable", type = BlockType.ACTION)
+@BlockMeta(id = "addVar", displayName = "§bAdd to Variable", type = BlockType.ACTION, offThreadSafe = true)
 public class AddVarAction implements BlockAction {
 
     @Override
@@ -28,13 +28,15 @@ public class AddVarAction implements BlockAction {
                 return ExecutionResult.error("Missing required parameters: name, value");
             }
             
-            // Resolve parameters
+            double value = ParameterResolver.resolveNumber(context, valueValue);
+            if (ParameterResolver.applyToLocalSlot(context, value, Double::sum)) {
+                return ExecutionResult.success();
+            }
+            
             ParameterResolver resolver = new ParameterResolver(context);
             DataValue resolvedName = resolver.resolve(context, nameValue);
-            DataValue resolvedValue = resolver.resolve(context, valueValue);
             
             String name = resolvedName.asString();
-            double value = resolvedValue.asNumber().doubleValue();
             
             // Get current variable value
             DataValue currentValue = context.getVariableAsDataValue(name);
@@ -14,7 +14,7 @@ import com.megacreative.coding.values.DataValue;
  * 
  * @author Андрій Будильников
  */
-@BlockMeta(id = "divVar", displayName = "§bDivide Variable", type = BlockType.ACTION)
+@BlockMeta(id = "divVar", displayName = "§bDivide Variable", type = BlockType.ACTION, offThreadSafe = true)
 public class DivVarAction implements BlockAction {
 
     @Override
@@ -28,18 +28,18 @@ public class DivVarAction implements BlockAction {
                 return ExecutionResult.error("Missing required parameters: name, value");
             }
             
-            // Resolve parameters
+            double value = ParameterResolver.resolveNumber(context, valueValue);
+            if (value == 0.0) {
+                return ExecutionResult.error("Cannot divide by zero");
+            }
+            if (ParameterResolver.applyToLocalSlot(context, value, (current, operand) -> current / operand)) {
+                return ExecutionResult.success();
+            }
+            
             ParameterResolver resolver = new ParameterResolver(context);
             DataValue resolvedName = resolver.resolve(context, nameValue);
-            DataValue resolvedValue = resolver.resolve(context, valueValue);
             
             String name = resolvedName.asString();
-            double value = resolvedValue.asNumber().doubleValue();
-            
-            // Check for division by zero
-            if (value == 0.0) {
-                return ExecutionResult.error("Cannot divide by zero");
-            }
             
             // Get current variable value
             DataValue currentValue = context.getVariableAsDataValue(name);
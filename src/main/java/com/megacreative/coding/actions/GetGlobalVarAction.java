@@ -14,7 +14,7 @@ import com.megacreative.coding.values.DataValue;
  * 
  * @author Андрій Будильников
  */
-@BlockMeta(id = "getGlobalVar", displayName = "§bGet Global Variable", type = BlockType.ACTION)
+@BlockMeta(id = "getGlobalVar", displayName = "§bGet Global Variable", type = BlockType.ACTION, offThreadSafe = true)
 public class GetGlobalVarAction implements BlockAction {
     
     @Override
@@ -14,7 +14,7 @@ import com.megacreative.coding.values.DataValue;
  * 
  * @author Андрій Будильников
  */
-@BlockMeta(id = "getServerVar", displayName = "§bGet Server Variable", type = BlockType.ACTION)
+@BlockMeta(id = "getServerVar", displayName = "§bGet Server Variable", type = BlockType.ACTION, offThreadSafe = true)
 public class GetServerVarAction implements BlockAction {
     
     @Override
@@ -14,7 +14,7 @@ import com.megacreative.coding.values.DataValue;
  * 
  * @author Андрій Будильников
  */
-@BlockMeta(id = "getVar", displayName = "§bGet Variable", type = BlockType.ACTION)
+@BlockMeta(id = "getVar", displayName = "§bGet Variable", type = BlockType.ACTION, offThreadSafe = true)
 public class GetVarAction implements BlockAction {
     
     @Override
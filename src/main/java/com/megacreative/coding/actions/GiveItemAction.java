@@ -17,7 +17,7 @@ import org.bukkit.inventory.ItemStack;
  * 
  * @author Андрій Будильников
  */
-@BlockMeta(id = "giveItem", displayName = "§bGive Item", type = BlockType.ACTION)
+@BlockMeta(id = "giveItem", displayName = "§bGive Item", type = BlockType.ACTION, offThreadSafe = true)
 public class GiveItemAction implements BlockAction {
     
     @Override
@@ -58,7 +58,7 @@ public class GiveItemAction implements BlockAction {
             ItemStack itemStack = new ItemStack(material, amount);
             
             // Give item to player
-            player.getInventory().addItem(itemStack);
+            context.applyWorldChange(() -> player.getInventory().addItem(itemStack));
             
             return ExecutionResult.success("Gave " + amount + " " + material.name() + " to player");
         } catch (Exception e) {
@@ -17,7 +17,7 @@ import org.bukkit.entity.Player;
  * 
  * @author Андрій Будильников
  */
-@BlockMeta(id = "playParticle", displayName = "§bPlay Particle", type = BlockType.ACTION)
+@BlockMeta(id = "playParticle", displayName = "§bPlay Particle", type = BlockType.ACTION, offThreadSafe = true)
 public class PlayParticleAction implements BlockAction {
     
     @Override
@@ -59,26 +59,37 @@ public class PlayParticleAction implements BlockAction {
                 count = Math.max(1, resolvedCount.asNumber().intValue());
             }
             
-            // Get location (default to player's location)
-            Location location = player.getLocation();
+            // Get coordinates (default to player's location, read when the change is applied)
+            double[] coordinates = null;
             if (xValue != null && yValue != null && zValue != null) {
                 DataValue resolvedX = resolver.resolve(context, xValue);
                 DataValue resolvedY = resolver.resolve(context, yValue);
                 DataValue resolvedZ = resolver.resolve(context, zValue);
                 
-                double x = resolvedX.asNumber().doubleValue();
-                double y = resolvedY.asNumber().doubleValue();
-                double z = resolvedZ.asNumber().doubleValue();
-                
-                location = new Location(player.getWorld(), x, y, z);
+                coordinates = new double[] {
+                    resolvedX.asNumber().doubleValue(),
+                    resolvedY.asNumber().doubleValue(),
+                    resolvedZ.asNumber().doubleValue()
+                };
             }
             
             // Play particle
-            player.getWorld().spawnParticle(particle, location, count);
+            double[] target = coordinates;
+            int particleCount = count;
+            context.applyWorldChange(() -> player.getWorld().spawnParticle(particle, locationOf(player, target), particleCount));
             
             return ExecutionResult.success("Played particle " + particle.name());
         } catch (Exception e) {
             return ExecutionResult.error("Failed to play particle: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Builds the target location in the player's world; the player's own location when no coordinates were given
+     */
+    private static Location locationOf(Player player, double[] coordinates) {
+        return coordinates != null
+            ? new Location(player.getWorld(), coordinates[0], coordinates[1], coordinates[2])
+            : player.getLocation();
+    }
+}
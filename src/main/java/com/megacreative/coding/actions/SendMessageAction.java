@@ -26,7 +26,7 @@ import java.util.function.Function;
  * - "stay": Stay time in ticks (used for titles, default: 70)
  * - "fadeOut": Fade out time in ticks (used for titles, default: 20)
  */
-@BlockMeta(id = "sendMessage", displayName = "§aSend Message", type = BlockType.ACTION)
+@BlockMeta(id = "sendMessage", displayName = "§aSend Message", type = BlockType.ACTION, offThreadSafe = true)
 public class SendMessageAction implements BlockAction {
 
     @Override
@@ -38,33 +38,27 @@ public class SendMessageAction implements BlockAction {
 
         try {
             
-            DataValue messageValue = block.getParameter("message");
-            if (messageValue == null || messageValue.isEmpty()) {
+            String resolvedMessage = ParameterResolver.resolveParameter(context, block, "message");
+            if (resolvedMessage == null) {
                 return ExecutionResult.error("Message content is required");
             }
-            String message = messageValue.asString();
 
             
             DataValue typeValue = block.getParameter("type", DataValue.of("chat"));
             String type = typeValue.asString().toLowerCase();
 
             
-            ParameterResolver resolver = new ParameterResolver(context);
-            String resolvedMessage = resolver.resolveString(context, message);
-
-            
             switch (type) {
                 case "actionbar":
-                    player.sendActionBar(resolvedMessage);
+                    context.applyWorldChange(() -> player.sendActionBar(resolvedMessage));
                     context.getPlugin().getLogger().fine("Executing SendMessageAction - Sent action bar message to player " + player.getName() + ": " + resolvedMessage);
                     return ExecutionResult.success("Action bar message sent successfully");
                     
                 case "title":
                     
-                    DataValue subtitleValue = block.getParameter("subtitle");
-                    String subtitle = "";
-                    if (subtitleValue != null && !subtitleValue.isEmpty()) {
-                        subtitle = resolver.resolveString(context, subtitleValue.asString());
+                    String subtitle = ParameterResolver.resolveParameter(context, block, "subtitle");
+                    if (subtitle == null) {
+                        subtitle = "";
                     }
                     
                     
@@ -72,7 +66,8 @@ public class SendMessageAction implements BlockAction {
                     int stay = getTimingParameter(block, "stay", 70);
                     int fadeOut = getTimingParameter(block, "fadeOut", 20);
                     
-                    player.sendTitle(resolvedMessage, subtitle, fadeIn, stay, fadeOut);
+                    String titleSubtitle = subtitle;
+                    context.applyWorldChange(() -> player.sendTitle(resolvedMessage, titleSubtitle, fadeIn, stay, fadeOut));
                     context.getPlugin().getLogger().fine("Executing SendMessageAction - Sent title to player " + player.getName() + ": " + resolvedMessage + " | " + subtitle);
                     return ExecutionResult.success("Title sent successfully");
                     
@@ -80,12 +75,14 @@ public class SendMessageAction implements BlockAction {
                 default:
                     
                     MessagingService messagingService = context.getPlugin().getServiceRegistry().getMessagingService();
-                    if (messagingService != null) {
-                        messagingService.sendMessage(player, resolvedMessage);
-                    } else {
-                        
-                        player.sendMessage(resolvedMessage);
-                    }
+                    context.applyWorldChange(() -> {
+                        if (messagingService != null) {
+                            messagingService.sendMessage(player, resolvedMessage);
+                        } else {
+                            
+                            player.sendMessage(resolvedMessage);
+                        }
+                    });
                     context.getPlugin().getLogger().fine("Executing SendMessageAction - Sent chat message to player " + player.getName() + ": " + resolvedMessage);
                     return ExecutionResult.success("Chat message sent successfully");
             }
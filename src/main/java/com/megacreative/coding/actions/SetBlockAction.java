@@ -17,7 +17,7 @@ import org.bukkit.entity.Player;
  * 
  * @author Андрій Будильников
  */
-@BlockMeta(id = "setBlock", displayName = "§bSet Block", type = BlockType.ACTION)
+@BlockMeta(id = "setBlock", displayName = "§bSet Block", type = BlockType.ACTION, offThreadSafe = true)
 public class SetBlockAction implements BlockAction {
     
     @Override
@@ -49,26 +49,36 @@ public class SetBlockAction implements BlockAction {
                 return ExecutionResult.error("Invalid block material: " + blockStr);
             }
             
-            // Get location (default to player's location)
-            Location location = player.getLocation();
+            // Get coordinates (default to player's location, read when the change is applied)
+            double[] coordinates = null;
             if (xValue != null && yValue != null && zValue != null) {
                 DataValue resolvedX = resolver.resolve(context, xValue);
                 DataValue resolvedY = resolver.resolve(context, yValue);
                 DataValue resolvedZ = resolver.resolve(context, zValue);
                 
-                double x = resolvedX.asNumber().doubleValue();
-                double y = resolvedY.asNumber().doubleValue();
-                double z = resolvedZ.asNumber().doubleValue();
-                
-                location = new Location(player.getWorld(), x, y, z);
+                coordinates = new double[] {
+                    resolvedX.asNumber().doubleValue(),
+                    resolvedY.asNumber().doubleValue(),
+                    resolvedZ.asNumber().doubleValue()
+                };
             }
             
             // Set block
-            location.getBlock().setType(material);
+            double[] target = coordinates;
+            context.applyWorldChange(() -> locationOf(player, target).getBlock().setType(material));
             
             return ExecutionResult.success("Set block to " + material.name());
         } catch (Exception e) {
             return ExecutionResult.error("Failed to set block: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Builds the target location in the player's world; the player's own location when no coordinates were given
+     */
+    private static Location locationOf(Player player, double[] coordinates) {
+        return coordinates != null
+            ? new Location(player.getWorld(), coordinates[0], coordinates[1], coordinates[2])
+            : player.getLocation();
+    }
+}
@@ -14,7 +14,7 @@ import com.megacreative.coding.values.DataValue;
  * 
  * @author Андрій Будильников
  */
-@BlockMeta(id = "setGlobalVar", displayName = "§bSet Global Variable", type = BlockType.ACTION)
+@BlockMeta(id = "setGlobalVar", displayName = "§bSet Global Variable", type = BlockType.ACTION, offThreadSafe = true)
 public class SetGlobalVarAction implements BlockAction {
     
     @Override
@@ -14,7 +14,7 @@ import com.megacreative.coding.values.DataValue;
  * 
  * @author Андрій Будильников
  */
-@BlockMeta(id = "setServerVar", displayName = "§bSet Server Variable", type = BlockType.ACTION)
+@BlockMeta(id = "setServerVar", displayName = "§bSet Server Variable", type = BlockType.ACTION, offThreadSafe = true)
 public class SetServerVarAction implements BlockAction {
     
     @Override
@@ -14,7 +14,7 @@ import com.megacreative.coding.values.DataValue;
  * 
  * @author Андрій Будильников
  */
-@BlockMeta(id = "setVar", displayName = "§bSet Variable", type = BlockType.ACTION)
+@BlockMeta(id = "setVar", displayName = "§bSet Variable", type = BlockType.ACTION, offThreadSafe = true)
 public class SetVarAction implements BlockAction {
     
     @Override
@@ -28,17 +28,23 @@ public class SetVarAction implements BlockAction {
                 return ExecutionResult.error("Missing required parameters: name, value");
             }
             
-            // Resolve parameters
-            ParameterResolver resolver = new ParameterResolver(context);
-            DataValue resolvedName = resolver.resolve(context, nameValue);
-            DataValue resolvedValue = resolver.resolve(context, valueValue);
-            
-            String name = resolvedName.asString();
-            String value = resolvedValue.asString();
+            // Resolve parameters through the block's cached templates, so literal values are not copied on every run
+            String name = ParameterResolver.resolveParameter(context, block, "name");
+            String value = ParameterResolver.resolveParameter(context, block, "value");
+            if (name == null) {
+                return ExecutionResult.error("Missing required parameters: name, value");
+            }
+            if (value == null) {
+                value = "";
+            }
             
             // Set variable
             context.setVariable(name, value);
             
+            if (context.getCurrentLocalSlot() >= 0) {
+                // The compiler bound the variable to a frame slot; skip building a result message on this hot path
+                return ExecutionResult.success();
+            }
             return ExecutionResult.success("Set variable " + name + " to " + value);
         } catch (Exception e) {
             return ExecutionResult.error("Failed to set variable: " + e.getMessage());
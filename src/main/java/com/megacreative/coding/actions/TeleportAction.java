@@ -16,7 +16,7 @@ import org.bukkit.entity.Player;
  * 
  * @author Андрій Будильников
  */
-@BlockMeta(id = "teleport", displayName = "§bTeleport Player", type = BlockType.ACTION)
+@BlockMeta(id = "teleport", displayName = "§bTeleport Player", type = BlockType.ACTION, offThreadSafe = true)
 public class TeleportAction implements BlockAction {
     
     @Override
@@ -50,15 +50,15 @@ public class TeleportAction implements BlockAction {
             double z = resolvedZ.asNumber().doubleValue();
             
             // Get world (default to player's current world)
-            String worldName = player.getWorld().getName();
+            String worldName = null;
             if (worldValue != null) {
                 DataValue resolvedWorld = resolver.resolve(context, worldValue);
                 worldName = resolvedWorld.asString();
             }
             
-            // Get rotation (default to player's current rotation)
-            float yaw = player.getLocation().getYaw();
-            float pitch = player.getLocation().getPitch();
+            // Get rotation (default to player's current rotation, read when the teleport is applied)
+            Float yaw = null;
+            Float pitch = null;
             
             if (yawValue != null) {
                 DataValue resolvedYaw = resolver.resolve(context, yawValue);
@@ -70,15 +70,19 @@ public class TeleportAction implements BlockAction {
                 pitch = resolvedPitch.asNumber().floatValue();
             }
             
-            // Create location
-            Location location = new Location(
-                player.getWorld(), // We'll use the player's world for now
-                x, y, z,
-                yaw, pitch
-            );
-            
             // Teleport player
-            player.teleport(location);
+            Float targetYaw = yaw;
+            Float targetPitch = pitch;
+            context.applyWorldChange(() -> {
+                Location current = player.getLocation();
+                Location location = new Location(
+                    player.getWorld(), // We'll use the player's world for now
+                    x, y, z,
+                    targetYaw != null ? targetYaw : current.getYaw(),
+                    targetPitch != null ? targetPitch : current.getPitch()
+                );
+                player.teleport(location);
+            });
             
             return ExecutionResult.success("Player teleported to " + x + ", " + y + ", " + z);
         } catch (Exception e) {
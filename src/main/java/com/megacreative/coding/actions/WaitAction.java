@@ -32,16 +32,12 @@ public class WaitAction implements BlockAction {
             DataValue resolvedDelay = resolver.resolve(context, delayValue);
             
             int delay = resolvedDelay.asNumber().intValue();
-            
-            // Wait (this is a simple implementation - in a real system you might want to handle this differently)
-            try {
-                Thread.sleep(delay * 50L); // Convert ticks to milliseconds (1 tick = 50ms)
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                return ExecutionResult.error("Wait interrupted");
+            if (delay <= 0) {
+                return ExecutionResult.success("Waited for 0 ticks");
             }
             
-            return ExecutionResult.success("Waited for " + delay + " ticks");
+            // The engine parks the script and resumes the next block after the delay; the server thread never blocks
+            return ExecutionResult.pause(delay);
         } catch (Exception e) {
             return ExecutionResult.error("Failed to wait: " + e.getMessage());
         }
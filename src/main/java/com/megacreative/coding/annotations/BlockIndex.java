@@ -0,0 +1,115 @@
+package com.megacreative.coding.annotations;
+
+import com.megacreative.MegaCreative;
+import com.megacreative.coding.BlockType;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Build-time index of every class annotated with {@link BlockMeta}.
+ * The implementation is generated by the BlockMetaProcessor during compilation, so the factories
+ * can register all blocks without scanning the plugin jar or reflecting over constructors.
+ *
+ * Индекс всех классов с аннотацией {@link BlockMeta}, созданный во время сборки.
+ * Реализация генерируется BlockMetaProcessor при компиляции, поэтому фабрики
+ * регистрируют все блоки без сканирования jar плагина и поиска конструкторов через рефлексию.
+ *
+ * Zur Build-Zeit erzeugter Index aller mit {@link BlockMeta} annotierten Klassen.
+ * Die Implementierung wird vom BlockMetaProcessor beim Kompilieren generiert, sodass die Fabriken
+ * alle Blöcke registrieren können, ohne das Plugin-Jar zu scannen oder Konstruktoren per Reflexion zu suchen.
+ */
+public interface BlockIndex {
+
+    /**
+     * Fully qualified name of the generated implementation
+     */
+    String GENERATED_CLASS = "com.megacreative.coding.annotations.GeneratedBlockIndex";
+
+    /**
+     * Gets all indexed blocks, ordered by id
+     */
+    List<Entry> entries();
+
+    /**
+     * Loads the generated index
+     *
+     * @return The index, or null if the plugin was built without the annotation processor
+     *
+     * Загружает сгенерированный индекс
+     *
+     * @return Индекс или null, если плагин собран без обработчика аннотаций
+     *
+     * Lädt den generierten Index
+     *
+     * @return Der Index oder null, wenn das Plugin ohne den Annotationsprozessor gebaut wurde
+     */
+    static BlockIndex load() {
+        try {
+            return Class.forName(GENERATED_CLASS, true, BlockIndex.class.getClassLoader())
+                .asSubclass(BlockIndex.class)
+                .getDeclaredConstructor()
+                .newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            Logger.getLogger(BlockIndex.class.getName()).log(Level.WARNING, "Failed to load the generated block index", e);
+            return null;
+        }
+    }
+
+    /**
+     * One indexed block: its {@link BlockMeta} values and a constructor reference
+     */
+    final class Entry {
+        private final String id;
+        private final String displayName;
+        private final BlockType type;
+        private final Class<?> blockClass;
+        private final boolean stateless;
+        private final Function<MegaCreative, Object> factory;
+
+        /**
+         * @param stateless true if the class and its superclasses only declare final instance fields
+         * @param factory Calls the (MegaCreative) or no-argument constructor
+         */
+        public Entry(String id, String displayName, BlockType type, Class<?> blockClass,
+                     boolean stateless, Function<MegaCreative, Object> factory) {
+            this.id = id;
+            this.displayName = displayName;
+            this.type = type;
+            this.blockClass = blockClass;
+            this.stateless = stateless;
+            this.factory = factory;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public BlockType getType() {
+            return type;
+        }
+
+        public Class<?> getBlockClass() {
+            return blockClass;
+        }
+
+        public boolean isStateless() {
+            return stateless;
+        }
+
+        /**
+         * Creates a new instance of the block
+         */
+        public Object create(MegaCreative plugin) {
+            return factory.apply(plugin);
+        }
+    }
+}
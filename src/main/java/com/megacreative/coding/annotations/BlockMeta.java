@@ -31,4 +31,12 @@ public @interface BlockMeta {
      * @return the block type
      */
     BlockType type();
+    
+    /**
+     * Whether the block may run on a script thread pool: it reads no world or player state, and every change it
+     * makes to the world goes through {@link com.megacreative.coding.ExecutionContext#applyWorldChange(Runnable)}.
+     * A script containing any block without this flag always runs on the main thread.
+     * @return true if the block is safe off the main thread
+     */
+    boolean offThreadSafe() default false;
 }
\ No newline at end of file
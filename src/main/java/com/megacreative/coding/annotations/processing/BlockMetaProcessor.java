@@ -0,0 +1,242 @@
+package com.megacreative.coding.annotations.processing;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compile-time processor that writes GeneratedBlockIndex, the BlockIndex implementation listing
+ * every {@link com.megacreative.coding.annotations.BlockMeta} class with its id, type and a constructor call.
+ * Only JDK types are used here, so the build compiles this class on its own before the main sources.
+ *
+ * Обработчик времени компиляции, который создает GeneratedBlockIndex — реализацию BlockIndex со списком
+ * всех классов {@link com.megacreative.coding.annotations.BlockMeta}, их id, типом и вызовом конструктора.
+ * Здесь используются только типы JDK, поэтому сборка компилирует этот класс отдельно до основных исходников.
+ *
+ * Compile-Zeit-Prozessor, der GeneratedBlockIndex schreibt, die BlockIndex-Implementierung, die jede
+ * {@link com.megacreative.coding.annotations.BlockMeta}-Klasse mit ID, Typ und Konstruktoraufruf auflistet.
+ * Hier werden nur JDK-Typen verwendet, daher kompiliert der Build diese Klasse separat vor den Hauptquellen.
+ */
+@SupportedAnnotationTypes(BlockMetaProcessor.BLOCK_META)
+public class BlockMetaProcessor extends AbstractProcessor {
+    static final String BLOCK_META = "com.megacreative.coding.annotations.BlockMeta";
+    private static final String INDEX_PACKAGE = "com.megacreative.coding.annotations";
+    private static final String INDEX_CLASS = "GeneratedBlockIndex";
+    private static final String PLUGIN_CLASS = "com.megacreative.MegaCreative";
+
+    private boolean written;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        // All annotated blocks are regular sources, so they are all present in the first round
+        if (written || annotations.isEmpty()) {
+            return false;
+        }
+        written = true;
+
+        List<IndexedBlock> blocks = new ArrayList<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                IndexedBlock block = describe(element);
+                if (block != null) {
+                    blocks.add(block);
+                }
+            }
+        }
+        blocks.sort(Comparator.comparing((IndexedBlock block) -> block.id).thenComparing(block -> block.className));
+
+        try {
+            writeIndex(blocks);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write the block index: " + e.getMessage());
+        }
+        return true;
+    }
+
+    private IndexedBlock describe(Element element) {
+        if (element.getKind() != ElementKind.CLASS || element.getModifiers().contains(Modifier.ABSTRACT)) {
+            warn(element, "@BlockMeta is only indexed on concrete classes");
+            return null;
+        }
+        TypeElement type = (TypeElement) element;
+        AnnotationMirror meta = findBlockMeta(type);
+        if (meta == null) {
+            return null;
+        }
+
+        String id = null;
+        String displayName = null;
+        String blockType = null;
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value
+                : processingEnv.getElementUtils().getElementValuesWithDefaults(meta).entrySet()) {
+            String name = value.getKey().getSimpleName().toString();
+            Object raw = value.getValue().getValue();
+            switch (name) {
+                case "id" -> id = (String) raw;
+                case "displayName" -> displayName = (String) raw;
+                case "type" -> blockType = ((VariableElement) raw).getSimpleName().toString();
+                default -> { }
+            }
+        }
+
+        String constructor = findConstructor(type);
+        if (constructor == null) {
+            warn(element, "Block needs a public (MegaCreative) or no-argument constructor to be indexed");
+            return null;
+        }
+        return new IndexedBlock(id, displayName, blockType, type.getQualifiedName().toString(), constructor, isStateless(type));
+    }
+
+    private AnnotationMirror findBlockMeta(TypeElement type) {
+        for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(BLOCK_META)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Picks the constructor the factories used to call reflectively: (MegaCreative) first, then no arguments
+     *
+     * @return "plugin", "none", or null if neither is public
+     */
+    private String findConstructor(TypeElement type) {
+        boolean noArgs = false;
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (!constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                continue;
+            }
+            List<? extends VariableElement> parameters = constructor.getParameters();
+            if (parameters.size() == 1 && isPluginType(parameters.get(0).asType())) {
+                return "plugin";
+            }
+            noArgs |= parameters.isEmpty();
+        }
+        return noArgs ? "none" : null;
+    }
+
+    private boolean isPluginType(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED
+            && ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().contentEquals(PLUGIN_CLASS);
+    }
+
+    /**
+     * Same rule as the action factory applies at runtime: no mutable instance fields anywhere in the hierarchy
+     */
+    private boolean isStateless(TypeElement type) {
+        TypeElement current = type;
+        while (current != null && !current.getQualifiedName().contentEquals("java.lang.Object")) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                Set<Modifier> modifiers = field.getModifiers();
+                if (!modifiers.contains(Modifier.STATIC) && !modifiers.contains(Modifier.FINAL)) {
+                    return false;
+                }
+            }
+            TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+        }
+        return true;
+    }
+
+    private void writeIndex(List<IndexedBlock> blocks) throws IOException {
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(INDEX_PACKAGE + "." + INDEX_CLASS);
+        try (Writer out = file.openWriter()) {
+            out.write("package " + INDEX_PACKAGE + ";\n\n");
+            out.write("import com.megacreative.coding.BlockType;\n\n");
+            out.write("import java.util.List;\n\n");
+            out.write("/**\n * Generated by BlockMetaProcessor, do not edit\n */\n");
+            out.write("public final class " + INDEX_CLASS + " implements BlockIndex {\n");
+            out.write("    private static final List<Entry> ENTRIES = List.of(\n");
+            for (int i = 0; i < blocks.size(); i++) {
+                IndexedBlock block = blocks.get(i);
+                out.write("        new Entry(" + literal(block.id) + ", " + literal(block.displayName)
+                    + ", BlockType." + block.type + ", " + block.className + ".class, " + block.stateless
+                    + ", plugin -> new " + block.className + ("plugin".equals(block.constructor) ? "(plugin))" : "())"));
+                out.write(i + 1 < blocks.size() ? ",\n" : "\n");
+            }
+            out.write("    );\n\n");
+            out.write("    @Override\n");
+            out.write("    public List<Entry> entries() {\n");
+            out.write("        return ENTRIES;\n");
+            out.write("    }\n");
+            out.write("}\n");
+        }
+    }
+
+    private static String literal(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder literal = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> literal.append("\\\"");
+                case '\\' -> literal.append("\\\\");
+                case '\n' -> literal.append("\\n");
+                case '\r' -> literal.append("\\r");
+                case '\t' -> literal.append("\\t");
+                default -> {
+                    if (c < 0x20 || c > 0x7e) {
+                        literal.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        literal.append(c);
+                    }
+                }
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    private void warn(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, message, element);
+    }
+
+    private static final class IndexedBlock {
+        private final String id;
+        private final String displayName;
+        private final String type;
+        private final String className;
+        private final String constructor;
+        private final boolean stateless;
+
+        private IndexedBlock(String id, String displayName, String type, String className,
+                             String constructor, boolean stateless) {
+            this.id = id;
+            this.displayName = displayName;
+            this.type = type;
+            this.className = className;
+            this.constructor = constructor;
+            this.stateless = stateless;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.megacreative.coding.compiler;
+
+import com.megacreative.coding.CodeScript;
+import com.megacreative.coding.variables.LocalFrame;
+
+import java.util.Map;
+
+/**
+ * Immutable, linear form of a {@link CodeScript} ready for the {@link InstructionInterpreter}
+ *
+ * Неизменяемая линейная форма {@link CodeScript}, готовая для {@link InstructionInterpreter}
+ */
+public final class CompiledScript {
+
+    private final CodeScript source;
+    private final Instruction[] instructions;
+    private final int entryPoint;
+    private final String[] localNames;
+    private final Map<String, Integer> localIndex;
+    private final boolean offThreadSafe;
+
+    CompiledScript(CodeScript source, Instruction[] instructions, int entryPoint,
+                   String[] localNames, Map<String, Integer> localIndex, boolean offThreadSafe) {
+        this.source = source;
+        this.instructions = instructions;
+        this.entryPoint = entryPoint;
+        this.localNames = localNames;
+        this.localIndex = localIndex;
+        this.offThreadSafe = offThreadSafe;
+    }
+
+    public CodeScript getSource() {
+        return source;
+    }
+
+    /**
+     * Gets the instruction at the given program counter
+     */
+    public Instruction get(int pc) {
+        return instructions[pc];
+    }
+
+    /**
+     * Gets the program counter of the first instruction, or {@link Instruction#END} for an empty script
+     */
+    public int getEntryPoint() {
+        return entryPoint;
+    }
+
+    public int size() {
+        return instructions.length;
+    }
+
+    /**
+     * Gets the number of local variable slots the script needs
+     */
+    public int getLocalCount() {
+        return localNames.length;
+    }
+
+    /**
+     * Checks if every block of the script may run off the main thread, see {@link com.megacreative.coding.annotations.BlockMeta#offThreadSafe()}
+     */
+    public boolean isOffThreadSafe() {
+        return offThreadSafe;
+    }
+
+    /**
+     * Creates an empty frame for one execution of this script
+     *
+     * @return A new frame, or null if the script binds no local variables
+     */
+    public LocalFrame newFrame() {
+        return localNames.length > 0 ? new LocalFrame(localNames, localIndex) : null;
+    }
+}
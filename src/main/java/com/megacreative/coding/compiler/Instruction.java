@@ -0,0 +1,130 @@
+package com.megacreative.coding.compiler;
+
+import com.megacreative.coding.BlockAction;
+import com.megacreative.coding.BlockCondition;
+import com.megacreative.coding.BlockExecutor;
+import com.megacreative.coding.BlockType;
+import com.megacreative.coding.CodeBlock;
+
+/**
+ * A single lowered code block with its handler and jump targets already resolved
+ *
+ * Один пониженный блок кода с уже разрешенным обработчиком и адресами переходов
+ */
+public final class Instruction {
+
+    /** Jump target that terminates the program */
+    public static final int END = -1;
+
+    private final OpCode opCode;
+    private final CodeBlock block;
+    private final BlockType blockType;
+    private final BlockAction action;
+    private final BlockCondition condition;
+    private final BlockExecutor executor;
+    private final String message;
+
+    private int next = END;
+    private int branch = END;
+    private boolean hasBranch;
+    private int localSlot = -1;
+
+    private Instruction(OpCode opCode, CodeBlock block, BlockType blockType, BlockAction action,
+                        BlockCondition condition, BlockExecutor executor, String message) {
+        this.opCode = opCode;
+        this.block = block;
+        this.blockType = blockType;
+        this.action = action;
+        this.condition = condition;
+        this.executor = executor;
+        this.message = message;
+    }
+
+    static Instruction action(CodeBlock block, BlockAction action) {
+        return new Instruction(OpCode.ACTION, block, BlockType.ACTION, action, null, null, block.getAction());
+    }
+
+    static Instruction condition(CodeBlock block, BlockCondition condition) {
+        return new Instruction(OpCode.CONDITION, block, BlockType.CONDITION, null, condition, null, block.getAction());
+    }
+
+    static Instruction executor(CodeBlock block, BlockType blockType, BlockExecutor executor) {
+        return new Instruction(OpCode.EXECUTOR, block, blockType, null, null, executor, block.getAction());
+    }
+
+    static Instruction fail(CodeBlock block, BlockType blockType, String message) {
+        return new Instruction(OpCode.FAIL, block, blockType, null, null, null, message);
+    }
+
+    public OpCode getOpCode() {
+        return opCode;
+    }
+
+    public CodeBlock getBlock() {
+        return block;
+    }
+
+    public BlockType getBlockType() {
+        return blockType;
+    }
+
+    public BlockAction getAction() {
+        return action;
+    }
+
+    public BlockCondition getCondition() {
+        return condition;
+    }
+
+    public BlockExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Gets the action id for bound instructions or the failure message for FAIL instructions
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Gets the program counter to continue with after this instruction
+     */
+    public int getNext() {
+        return next;
+    }
+
+    void setNext(int next) {
+        this.next = next;
+    }
+
+    /**
+     * Gets the program counter of the nested chain taken when a condition holds
+     */
+    public int getBranch() {
+        return branch;
+    }
+
+    void setBranch(int branch) {
+        this.branch = branch;
+        this.hasBranch = true;
+    }
+
+    /**
+     * Checks if this condition has a nested chain to enter
+     */
+    public boolean hasBranch() {
+        return hasBranch;
+    }
+
+    /**
+     * Gets the local frame slot of the variable this action works on, or -1 if it is not bound to a slot
+     */
+    public int getLocalSlot() {
+        return localSlot;
+    }
+
+    void setLocalSlot(int localSlot) {
+        this.localSlot = localSlot;
+    }
+}
@@ -0,0 +1,231 @@
+package com.megacreative.coding.compiler;
+
+import com.megacreative.coding.ActionFactory;
+import com.megacreative.coding.BlockAction;
+import com.megacreative.coding.BlockCondition;
+import com.megacreative.coding.BlockExecutor;
+import com.megacreative.coding.BlockType;
+import com.megacreative.coding.CodeBlock;
+import com.megacreative.coding.CodeScript;
+import com.megacreative.coding.ConditionFactory;
+import com.megacreative.coding.ParameterResolver;
+import com.megacreative.coding.annotations.BlockMeta;
+import com.megacreative.coding.values.DataValue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Lowers the linked CodeBlock graph of a script into a flat instruction array.
+ * Block types, action/condition handlers and jump targets are resolved once here,
+ * so the interpreter never touches the block graph, factories or block config at run time.
+ *
+ * Понижает связанный граф CodeBlock скрипта в плоский массив инструкций.
+ * Типы блоков, обработчики действий/условий и адреса переходов разрешаются здесь один раз,
+ * поэтому интерпретатор во время выполнения не обращается к графу блоков, фабрикам и конфигурации.
+ */
+public class InstructionCompiler {
+
+    /** Variable actions whose "name" parameter is bound to a local frame slot */
+    private static final Set<String> SLOT_ACTIONS = Set.of("setVar", "addVar", "subVar", "mulVar", "divVar");
+
+    private final ActionFactory actionFactory;
+    private final ConditionFactory conditionFactory;
+    private final Map<BlockType, BlockExecutor> executors;
+    private final Function<CodeBlock, BlockType> typeResolver;
+
+    public InstructionCompiler(ActionFactory actionFactory, ConditionFactory conditionFactory,
+                               Map<BlockType, BlockExecutor> executors,
+                               Function<CodeBlock, BlockType> typeResolver) {
+        this.actionFactory = actionFactory;
+        this.conditionFactory = conditionFactory;
+        this.executors = executors;
+        this.typeResolver = typeResolver;
+    }
+
+    /**
+     * Compiles a script into its instruction array
+     *
+     * @param script The script to compile
+     * @return The compiled script
+     */
+    public CompiledScript compile(CodeScript script) {
+        List<Instruction> code = new ArrayList<>();
+        Map<CodeBlock, Integer> addresses = new IdentityHashMap<>();
+        Deque<Instruction> pendingBranches = new ArrayDeque<>();
+
+        int entryPoint = lowerChain(script.getRootBlock(), code, addresses, pendingBranches);
+
+        // Nested chains are lowered breadth-first from a work list, so nesting depth never consumes Java stack
+        while (!pendingBranches.isEmpty()) {
+            Instruction owner = pendingBranches.poll();
+            CodeBlock firstChild = owner.getBlock().getChildren().get(0);
+            owner.setBranch(lowerChain(firstChild, code, addresses, pendingBranches));
+        }
+
+        Map<String, Integer> localIndex = assignLocalSlots(code);
+        return new CompiledScript(script, code.toArray(new Instruction[0]), entryPoint,
+            localIndex.keySet().toArray(new String[0]), Collections.unmodifiableMap(localIndex), isOffThreadSafe(code));
+    }
+
+    /**
+     * Checks if every instruction may run off the main thread: actions and conditions must be marked
+     * {@link BlockMeta#offThreadSafe()} and have no placeholders in their parameters, since placeholders read live
+     * player and world state. Other block executors are never run off the main thread; failed instructions touch nothing.
+     */
+    private boolean isOffThreadSafe(List<Instruction> code) {
+        for (Instruction instruction : code) {
+            Object handler;
+            switch (instruction.getOpCode()) {
+                case ACTION:
+                    handler = instruction.getAction();
+                    break;
+                case CONDITION:
+                    handler = instruction.getCondition();
+                    break;
+                case FAIL:
+                    continue;
+                default:
+                    return false;
+            }
+            BlockMeta meta = handler.getClass().getAnnotation(BlockMeta.class);
+            if (meta == null || !meta.offThreadSafe()) {
+                return false;
+            }
+            for (DataValue value : instruction.getBlock().getParameters().values()) {
+                if (value != null && ParameterResolver.hasPlaceholders(value.asString())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gives every variable named literally by a variable action its own frame slot.
+     * Names containing placeholders are only known at run time and stay in the VariableManager.
+     */
+    private Map<String, Integer> assignLocalSlots(List<Instruction> code) {
+        Map<String, Integer> localIndex = new LinkedHashMap<>();
+        for (Instruction instruction : code) {
+            if (instruction.getOpCode() != OpCode.ACTION) {
+                continue;
+            }
+            CodeBlock block = instruction.getBlock();
+            String actionId = block.getAction();
+            if (SLOT_ACTIONS.contains(actionId)) {
+                String name = literalName(block.getParameter("name"));
+                if (name != null) {
+                    instruction.setLocalSlot(localIndex.computeIfAbsent(name, n -> localIndex.size()));
+                }
+            } else if ("getVar".equals(actionId)) {
+                for (String parameter : new String[] {"source", "target"}) {
+                    String name = literalName(block.getParameter(parameter));
+                    if (name != null) {
+                        localIndex.computeIfAbsent(name, n -> localIndex.size());
+                    }
+                }
+            }
+        }
+        return localIndex;
+    }
+
+    private String literalName(DataValue value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        String name = value.asString();
+        return ParameterResolver.hasPlaceholders(name) ? null : name;
+    }
+
+    /**
+     * Emits a nextBlock chain and returns the address of its first instruction.
+     * A block that was already emitted is not emitted again: the chain simply jumps to it,
+     * which turns cyclic links into loops instead of unbounded recursion.
+     */
+    private int lowerChain(CodeBlock start, List<Instruction> code, Map<CodeBlock, Integer> addresses,
+                           Deque<Instruction> pendingBranches) {
+        int entry = Instruction.END;
+        Instruction previous = null;
+        Set<CodeBlock> skipped = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        for (CodeBlock block = start; block != null; block = block.getNextBlock()) {
+            Integer existing = addresses.get(block);
+            if (existing != null) {
+                if (previous == null) {
+                    entry = existing;
+                } else {
+                    previous.setNext(existing);
+                }
+                return entry;
+            }
+
+            // Event blocks only mark the entry of a script, they produce no instruction
+            if (isEventBlock(block)) {
+                if (!skipped.add(block)) {
+                    break;
+                }
+                continue;
+            }
+
+            Instruction instruction = lower(block);
+            int address = code.size();
+            code.add(instruction);
+            addresses.put(block, address);
+
+            if (previous == null) {
+                entry = address;
+            } else {
+                previous.setNext(address);
+            }
+            previous = instruction;
+
+            if (instruction.getOpCode() == OpCode.CONDITION && !block.getChildren().isEmpty()) {
+                pendingBranches.add(instruction);
+            }
+        }
+        return entry;
+    }
+
+    private Instruction lower(CodeBlock block) {
+        BlockType blockType = typeResolver.apply(block);
+        String actionId = block.getAction();
+
+        if (blockType == BlockType.ACTION) {
+            if (actionId == null || actionId.isEmpty()) {
+                return Instruction.fail(block, blockType, "Action ID is null or empty");
+            }
+            BlockAction action = actionFactory.createAction(actionId);
+            return action != null
+                ? Instruction.action(block, action)
+                : Instruction.fail(block, blockType, "Action handler not found for: " + actionId);
+        }
+
+        if (blockType == BlockType.CONDITION) {
+            if (actionId == null || actionId.isEmpty()) {
+                return Instruction.fail(block, blockType, "Condition ID is null or empty");
+            }
+            BlockCondition condition = conditionFactory.createCondition(actionId);
+            return condition != null
+                ? Instruction.condition(block, condition)
+                : Instruction.fail(block, blockType, "Condition handler not found for: " + actionId);
+        }
+
+        BlockExecutor executor = executors.get(blockType);
+        return executor != null
+            ? Instruction.executor(block, blockType, executor)
+            : Instruction.fail(block, blockType, "No executor found for block type: " + blockType);
+    }
+
+    private boolean isEventBlock(CodeBlock block) {
+        return block.getAction() != null && block.getAction().startsWith("on");
+    }
+}
@@ -0,0 +1,178 @@
+package com.megacreative.coding.compiler;
+
+import com.megacreative.coding.ExecutionContext;
+import com.megacreative.coding.debug.VisualDebugger;
+import com.megacreative.coding.executors.ExecutionResult;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs a {@link CompiledScript} with an iterative program counter loop.
+ * Chain length and nesting no longer consume Java stack; runaway or cyclic scripts
+ * are stopped by the time limit instead of a recursion depth cap. A run executes in slices:
+ * when a slice has used its instructions or reached its deadline the run yields and can be resumed later.
+ *
+ * Выполняет {@link CompiledScript} итеративным циклом со счетчиком команд.
+ * Длина цепочки и вложенность больше не расходуют стек Java; зациклившиеся скрипты
+ * останавливаются лимитом времени вместо ограничения глубины рекурсии. Выполнение идет срезами:
+ * когда срез израсходовал инструкции или достиг крайнего срока, выполнение уступает и может быть продолжено позже.
+ */
+public class InstructionInterpreter {
+    private static final Logger LOGGER = Logger.getLogger(InstructionInterpreter.class.getName());
+
+    /**
+     * Executes a compiled script from its entry point.
+     * Locals bound to frame slots are written back to the VariableManager when the run ends.
+     *
+     * @param program The compiled script
+     * @param context The execution context
+     * @param maxInstructions Number of instructions after which the slice yields
+     * @param maxExecutionTimeMs Maximum wall time since the context was started
+     * @param debugger Debugger to report every step to, or null for an untraced run
+     * @return The execution result; a yield result sets {@link ExecutionContext#getResumePoint()}
+     */
+    public ExecutionResult run(CompiledScript program, ExecutionContext context,
+                               int maxInstructions, long maxExecutionTimeMs, VisualDebugger debugger) {
+        return run(program, context, maxInstructions, maxExecutionTimeMs, 0L, debugger);
+    }
+
+    /**
+     * Executes a compiled script from its entry point for one slice that also yields once {@link System#nanoTime()}
+     * passes the deadline. At least one instruction is executed.
+     *
+     * @param deadlineNanos Deadline in {@link System#nanoTime()} units, or 0 for none
+     */
+    public ExecutionResult run(CompiledScript program, ExecutionContext context,
+                               int maxInstructions, long maxExecutionTimeMs, long deadlineNanos, VisualDebugger debugger) {
+        context.setResumePoint(-1);
+        return runFrom(program.getEntryPoint(), program, context, maxInstructions, maxExecutionTimeMs, deadlineNanos, debugger);
+    }
+
+    /**
+     * Continues a run that was suspended by a pause or await result, at the instruction after the suspending block.
+     * The local frame is rebuilt, so variables changed elsewhere while the run waited are read fresh.
+     *
+     * @return The execution result; {@link ExecutionContext#getResumePoint()} is set again if the run suspended once more
+     */
+    public ExecutionResult resume(CompiledScript program, ExecutionContext context,
+                                  int maxInstructions, long maxExecutionTimeMs, VisualDebugger debugger) {
+        return resume(program, context, maxInstructions, maxExecutionTimeMs, 0L, debugger);
+    }
+
+    /**
+     * Continues a suspended run for one slice that also yields once {@link System#nanoTime()} passes the deadline.
+     * At least one instruction is executed, so a late slice still makes progress.
+     *
+     * @param deadlineNanos Deadline in {@link System#nanoTime()} units, or 0 for none
+     */
+    public ExecutionResult resume(CompiledScript program, ExecutionContext context,
+                                  int maxInstructions, long maxExecutionTimeMs, long deadlineNanos, VisualDebugger debugger) {
+        int pc = context.getResumePoint();
+        context.setResumePoint(-1);
+        return runFrom(pc, program, context, maxInstructions, maxExecutionTimeMs, deadlineNanos, debugger);
+    }
+
+    private ExecutionResult runFrom(int pc, CompiledScript program, ExecutionContext context,
+                                    int maxInstructions, long maxExecutionTimeMs, long deadlineNanos, VisualDebugger debugger) {
+        context.setLocalFrame(program.newFrame());
+        try {
+            return execute(pc, program, context, maxInstructions, maxExecutionTimeMs, deadlineNanos, debugger);
+        } finally {
+            context.setCurrentLocalSlot(-1);
+            context.flushLocalFrame();
+        }
+    }
+
+    private ExecutionResult execute(int pc, CompiledScript program, ExecutionContext context,
+                                    int maxInstructions, long maxExecutionTimeMs, long deadlineNanos, VisualDebugger debugger) {
+        int executed = 0;
+
+        while (pc != Instruction.END) {
+            if (context.isCancelled()) {
+                return ExecutionResult.success("Execution cancelled");
+            }
+            if (executed > 0 && (executed >= maxInstructions
+                    || (deadlineNanos != 0L && System.nanoTime() - deadlineNanos >= 0))) {
+                context.setResumePoint(pc);
+                return ExecutionResult.yieldSlice();
+            }
+            executed++;
+            if (System.currentTimeMillis() - context.getStartTime() > maxExecutionTimeMs) {
+                return ExecutionResult.error("Script execution timed out after " + maxExecutionTimeMs + "ms");
+            }
+
+            Instruction instruction = program.get(pc);
+            context.setCurrentBlock(instruction.getBlock());
+            context.setCurrentLocalSlot(instruction.getLocalSlot());
+            context.incrementInstructionCount();
+            if (debugger != null) {
+                debugger.onBlockExecute(context.getPlayer(), instruction.getBlock(), instruction.getBlock().getLocation());
+            }
+
+            switch (instruction.getOpCode()) {
+                case ACTION: {
+                    ExecutionResult result = executeAction(instruction, context);
+                    if (!result.isSuccess()) {
+                        return result;
+                    }
+                    if (result.isPause() || result.isAwait()) {
+                        return suspend(instruction, context, result);
+                    }
+                    pc = instruction.getNext();
+                    break;
+                }
+                case CONDITION: {
+                    boolean conditionMet;
+                    try {
+                        conditionMet = instruction.getCondition().evaluate(instruction.getBlock(), context);
+                    } catch (Exception e) {
+                        LOGGER.log(Level.WARNING, "Exception during evaluation of condition " + instruction.getMessage(), e);
+                        return ExecutionResult.error("Exception during condition evaluation: " + e.getMessage());
+                    }
+                    if (debugger != null) {
+                        debugger.onConditionResult(context.getPlayer(), instruction.getBlock(), conditionMet);
+                    }
+                    pc = conditionMet && instruction.hasBranch() ? instruction.getBranch() : instruction.getNext();
+                    break;
+                }
+                case EXECUTOR: {
+                    ExecutionResult result = instruction.getExecutor().execute(instruction.getBlock(), context);
+                    if (result == null || !result.isSuccess()) {
+                        return result != null ? result : ExecutionResult.error("Executor returned null result");
+                    }
+                    if (result.isPause() || result.isAwait()) {
+                        return suspend(instruction, context, result);
+                    }
+                    pc = instruction.getNext();
+                    break;
+                }
+                case FAIL:
+                default:
+                    return ExecutionResult.error(instruction.getMessage());
+            }
+        }
+
+        return ExecutionResult.success();
+    }
+
+    /**
+     * Stops the run and records where it continues; a suspension at the end of the script just ends it
+     */
+    private ExecutionResult suspend(Instruction instruction, ExecutionContext context, ExecutionResult result) {
+        if (instruction.getNext() != Instruction.END) {
+            context.setResumePoint(instruction.getNext());
+        }
+        return result;
+    }
+
+    private ExecutionResult executeAction(Instruction instruction, ExecutionContext context) {
+        try {
+            ExecutionResult result = instruction.getAction().execute(instruction.getBlock(), context);
+            return result != null ? result : ExecutionResult.error("Action returned null result");
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Exception during execution of action " + instruction.getMessage(), e);
+            return ExecutionResult.error("Exception during action execution: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.megacreative.coding.compiler;
+
+/**
+ * Operation codes of the flat instruction array produced by {@link InstructionCompiler}
+ *
+ * Коды операций плоского массива инструкций, создаваемого {@link InstructionCompiler}
+ */
+public enum OpCode {
+    /** Runs a pre-bound BlockAction */
+    ACTION,
+    /** Evaluates a pre-bound BlockCondition and branches on the result */
+    CONDITION,
+    /** Delegates to a BlockExecutor (control, event and function blocks) */
+    EXECUTOR,
+    /** Stops the program with a message resolved at compile time */
+    FAIL
+}
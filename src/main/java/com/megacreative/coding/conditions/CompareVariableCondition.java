@@ -5,16 +5,21 @@ import com.megacreative.coding.CodeBlock;
 import com.megacreative.coding.ExecutionContext;
 import com.megacreative.coding.ParameterResolver;
 import com.megacreative.coding.annotations.BlockMeta;
+import com.megacreative.coding.expressions.CompiledExpression;
+import com.megacreative.coding.expressions.ExpressionTemplate;
 import com.megacreative.coding.BlockType;
 import com.megacreative.coding.values.DataValue;
 import com.megacreative.coding.variables.VariableManager;
+import com.megacreative.exceptions.ScriptException;
 import org.bukkit.entity.Player;
 
+import java.util.function.Predicate;
+
 /**
  * Condition for comparing two variables from the new parameter system.
  * This condition returns true if the comparison between the two variables is true.
  */
-@BlockMeta(id = "compareVariable", displayName = "§aCompare Variables", type = BlockType.CONDITION)
+@BlockMeta(id = "compareVariable", displayName = "§aCompare Variables", type = BlockType.CONDITION, offThreadSafe = true)
 public class CompareVariableCondition implements BlockCondition {
 
     @Override
@@ -46,134 +51,54 @@ public class CompareVariableCondition implements BlockCondition {
             }
 
             
-            ParameterResolver resolver = new ParameterResolver(context);
-            DataValue resolvedVar1 = resolver.resolve(context, var1Value);
-            DataValue resolvedOperator = resolver.resolve(context, operatorValue);
-            DataValue resolvedVar2 = resolver.resolve(context, var2Value);
-            
-            
-            String var1Name = resolvedVar1.asString();
-            String operator = resolvedOperator.asString();
-            String var2Name = resolvedVar2.asString();
+            // Resolved through the block's cached templates, so literal parameters are not copied on every check
+            String var1Name = ParameterResolver.resolveParameter(context, block, "var1");
+            String operator = ParameterResolver.resolveParameter(context, block, "operator");
+            String var2Name = ParameterResolver.resolveParameter(context, block, "var2");
             
             // Removed redundant null checks - static analysis flagged them as always non-null when this method is called
             
             VariableManager variableManager = context.getPlugin().getServiceRegistry().getVariableManager();
-            Object var1ValueObj = null;
-            Object var2ValueObj = null;
-            
-            
-            
-            // Player object is guaranteed to be non-null at this point
-            DataValue playerVar = variableManager.getPlayerVariable(player.getUniqueId(), var1Name);
-            if (playerVar != null) {
-                var1ValueObj = playerVar.getValue();
-            }
-            
             
-            if (var1ValueObj == null) {
-                DataValue localVar = variableManager.getLocalVariable(context.getScriptId(), var1Name);
-                if (localVar != null) {
-                    var1ValueObj = localVar.getValue();
-                }
-            }
-            
-            
-            if (var1ValueObj == null) {
-                DataValue globalVar = variableManager.getGlobalVariable(var1Name);
-                if (globalVar != null) {
-                    var1ValueObj = globalVar.getValue();
-                }
+            // Operands are variable names or arithmetic expressions over variables, e.g. "score" or "kills * 2 + 1"
+            CompiledExpression.Variables lookup = name -> toNumber(findVariable(variableManager, player, context, name));
+            Predicate<String> exists = name -> findVariable(variableManager, player, context, name) != null;
+            Operand left = Operand.of(var1Value.asString(), var1Name, exists);
+            Operand right = Operand.of(var2Value.asString(), var2Name, exists);
+            
+            // Two plain variables are compared as text by == and !=, as before
+            if (left.name != null && right.name != null && isEqualityOperator(operator)) {
+                Object var1ValueObj = findVariable(variableManager, player, context, left.name);
+                Object var2ValueObj = findVariable(variableManager, player, context, right.name);
+                String var1ValueStr = var1ValueObj != null ? var1ValueObj.toString() : "";
+                String var2ValueStr = var2ValueObj != null ? var2ValueObj.toString() : "";
+                boolean equal = var1ValueStr.equals(var2ValueStr);
+                return operator.equals("==") || operator.equals("equals") ? equal : !equal;
             }
             
-            
-            if (var1ValueObj == null) {
-                DataValue serverVar = variableManager.getServerVariable(var1Name);
-                if (serverVar != null) {
-                    var1ValueObj = serverVar.getValue();
-                }
-            }
-            
-            
-            
-            // Player object is guaranteed to be non-null at this point
-            DataValue playerVar2 = variableManager.getPlayerVariable(player.getUniqueId(), var2Name);
-            if (playerVar2 != null) {
-                var2ValueObj = playerVar2.getValue();
-            }
-            
-            
-            if (var2ValueObj == null) {
-                DataValue localVar = variableManager.getLocalVariable(context.getScriptId(), var2Name);
-                if (localVar != null) {
-                    var2ValueObj = localVar.getValue();
-                }
-            }
-            
-            
-            if (var2ValueObj == null) {
-                DataValue globalVar = variableManager.getGlobalVariable(var2Name);
-                if (globalVar != null) {
-                    var2ValueObj = globalVar.getValue();
-                }
-            }
-            
-            
-            if (var2ValueObj == null) {
-                DataValue serverVar = variableManager.getServerVariable(var2Name);
-                if (serverVar != null) {
-                    var2ValueObj = serverVar.getValue();
-                }
-            }
-
-            
-            String var1ValueStr = var1ValueObj != null ? var1ValueObj.toString() : "";
-            String var2ValueStr = var2ValueObj != null ? var2ValueObj.toString() : "";
-
+            // Missing or non-numeric values are NaN, so every ordering comparison with them is false
+            double var1Num = left.evaluate(context, lookup);
+            double var2Num = right.evaluate(context, lookup);
             
             switch (operator) {
                 case "==":
                 case "equals":
-                    return var1ValueStr.equals(var2ValueStr);
+                    return var1Num == var2Num;
                 case "!=":
                 case "not_equals":
-                    return !var1ValueStr.equals(var2ValueStr);
+                    return var1Num != var2Num;
                 case "<":
                 case "less_than":
-                    try {
-                        double var1Num = Double.parseDouble(var1ValueStr);
-                        double var2Num = Double.parseDouble(var2ValueStr);
-                        return var1Num < var2Num;
-                    } catch (NumberFormatException e) {
-                        return false;
-                    }
+                    return var1Num < var2Num;
                 case ">":
                 case "greater_than":
-                    try {
-                        double var1Num = Double.parseDouble(var1ValueStr);
-                        double var2Num = Double.parseDouble(var2ValueStr);
-                        return var1Num > var2Num;
-                    } catch (NumberFormatException e) {
-                        return false;
-                    }
+                    return var1Num > var2Num;
                 case "<=":
                 case "less_or_equal":
-                    try {
-                        double var1Num = Double.parseDouble(var1ValueStr);
-                        double var2Num = Double.parseDouble(var2ValueStr);
-                        return var1Num <= var2Num;
-                    } catch (NumberFormatException e) {
-                        return false;
-                    }
+                    return var1Num <= var2Num;
                 case ">=":
                 case "greater_or_equal":
-                    try {
-                        double var1Num = Double.parseDouble(var1ValueStr);
-                        double var2Num = Double.parseDouble(var2ValueStr);
-                        return var1Num >= var2Num;
-                    } catch (NumberFormatException e) {
-                        return false;
-                    }
+                    return var1Num >= var2Num;
                 default:
                     context.getPlugin().getLogger().warning("CompareVariableCondition: Invalid operator '" + operator + "'.");
                     return false;
@@ -184,4 +109,106 @@ public class CompareVariableCondition implements BlockCondition {
             return false;
         }
     }
-}
\ No newline at end of file
+    
+    private static boolean isEqualityOperator(String operator) {
+        return operator.equals("==") || operator.equals("equals") || operator.equals("!=") || operator.equals("not_equals");
+    }
+    
+    /**
+     * One side of a comparison: a variable name, a number or an expression over variables
+     */
+    private static final class Operand {
+        private final String name;
+        private final double constant;
+        private final CompiledExpression expression;
+        private final ExpressionTemplate template;
+
+        private Operand(String name, double constant, CompiledExpression expression, ExpressionTemplate template) {
+            this.name = name;
+            this.constant = constant;
+            this.expression = expression;
+            this.template = template;
+        }
+
+        private static Operand variable(String name) {
+            return new Operand(name, Double.NaN, null, null);
+        }
+
+        /**
+         * Classifies an operand. Texts with placeholders are compiled from their unresolved form, so changing
+         * placeholder values do not compile a new expression each time. A single token naming an existing variable,
+         * such as "my-var", stays a variable instead of being read as a subtraction
+         *
+         * @param raw The parameter as written
+         * @param resolved The parameter with placeholders resolved
+         * @param exists Checks if a variable exists
+         */
+        private static Operand of(String raw, String resolved, Predicate<String> exists) {
+            String text = resolved.trim();
+            if (ParameterResolver.hasPlaceholders(raw)) {
+                try {
+                    return new Operand(null, Double.parseDouble(text), null, null);
+                } catch (NumberFormatException e) {
+                    // Not a number; a name or an expression
+                }
+                if (CompiledExpression.couldBeVariableName(text)) {
+                    return variable(text);
+                }
+                try {
+                    return new Operand(null, Double.NaN, null, ExpressionTemplate.cached(raw.trim()));
+                } catch (ScriptException e) {
+                    return variable(text);
+                }
+            }
+
+            CompiledExpression expression;
+            try {
+                expression = CompiledExpression.cached(text);
+            } catch (ScriptException e) {
+                // A variable name that is not valid expression syntax
+                return variable(text);
+            }
+            if (expression.isVariable()
+                    || (!expression.isConstant() && CompiledExpression.couldBeVariableName(text) && exists.test(text))) {
+                return variable(text);
+            }
+            return new Operand(null, Double.NaN, expression, null);
+        }
+
+        private double evaluate(ExecutionContext context, CompiledExpression.Variables lookup) {
+            if (name != null) {
+                return lookup.get(name);
+            }
+            if (expression != null) {
+                return expression.evaluate(lookup);
+            }
+            if (template != null) {
+                return template.evaluate(context, lookup);
+            }
+            return constant;
+        }
+    }
+    
+    /**
+     * Looks a variable up in the player scope, then the local frame and the local, global and server scopes
+     */
+    private static Object findVariable(VariableManager variableManager, Player player, ExecutionContext context, String name) {
+        DataValue value = variableManager.getPlayerVariable(player.getUniqueId(), name);
+        if (value == null) {
+            // Reads the script's local frame first, so a value changed earlier in this run is seen before it is flushed
+            value = context.getVariableAsDataValue(name);
+        }
+        return value != null ? value.getValue() : null;
+    }
+    
+    private static double toNumber(Object value) {
+        if (value == null) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(value.toString());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
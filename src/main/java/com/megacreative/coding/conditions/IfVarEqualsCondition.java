@@ -11,7 +11,7 @@ import com.megacreative.coding.values.DataValue;
  * Condition for checking if a variable equals a specific value.
  * This condition returns true if the variable equals the specified value, false otherwise.
  */
-@BlockMeta(id = "ifVarEquals", displayName = "§aIf Variable Equals", type = BlockType.CONDITION)
+@BlockMeta(id = "ifVarEquals", displayName = "§aIf Variable Equals", type = BlockType.CONDITION, offThreadSafe = true)
 public class IfVarEqualsCondition implements BlockCondition {
 
     @Override
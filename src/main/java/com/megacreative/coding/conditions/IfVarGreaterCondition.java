@@ -14,7 +14,7 @@ import org.bukkit.entity.Player;
  * Condition for checking if a variable is greater than a specific value from the new parameter system.
  * This condition returns true if the specified variable is greater than the specified value.
  */
-@BlockMeta(id = "ifVarGreater", displayName = "§aIf Variable Greater", type = BlockType.CONDITION)
+@BlockMeta(id = "ifVarGreater", displayName = "§aIf Variable Greater", type = BlockType.CONDITION, offThreadSafe = true)
 public class IfVarGreaterCondition implements BlockCondition {
 
     @Override
@@ -40,13 +40,9 @@ public class IfVarGreaterCondition implements BlockCondition {
             }
 
             
-            ParameterResolver resolver = new ParameterResolver(context);
-            DataValue resolvedName = resolver.resolve(context, nameValue);
-            DataValue resolvedValue = resolver.resolve(context, valueValue);
-            
-            
-            String varName = resolvedName.asString();
-            String compareValueStr = resolvedValue.asString();
+            // Resolved through the block's cached templates, so literal parameters are not copied on every check
+            String varName = ParameterResolver.resolveParameter(context, block, "name");
+            String compareValueStr = ParameterResolver.resolveParameter(context, block, "value");
             
             // Removed redundant null checks - static analysis flagged them as always non-null when this method is called
             if (varName.isEmpty() || compareValueStr.isEmpty()) {
@@ -101,7 +97,7 @@ public class IfVarGreaterCondition implements BlockCondition {
     }
 
     /**
-     * Gets variable data from different scopes
+     * Gets variable data from the player scope, then the local frame and the local, global and server scopes
      * @param variableManager the variable manager
      * @param player the player
      * @param context the execution context
@@ -112,15 +108,8 @@ public class IfVarGreaterCondition implements BlockCondition {
         DataValue varValueData = variableManager.getPlayerVariable(player.getUniqueId(), varName);
         
         if (varValueData == null) {
-            varValueData = variableManager.getLocalVariable(context.getScriptId(), varName);
-        }
-        
-        if (varValueData == null) {
-            varValueData = variableManager.getGlobalVariable(varName);
-        }
-        
-        if (varValueData == null) {
-            varValueData = variableManager.getServerVariable(varName);
+            // Reads the script's local frame first, so a value changed earlier in this run is seen before it is flushed
+            varValueData = context.getVariableAsDataValue(varName);
         }
         
         return varValueData;
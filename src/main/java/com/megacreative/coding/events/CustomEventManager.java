@@ -55,6 +55,10 @@ public class CustomEventManager implements Listener, EventPublisher, EventSubscr
     private final Map<String, List<EventHandler>> globalEventHandlers = new ConcurrentHashMap();
     
     
+    // Sorted handlers per event and world, rebuilt whenever the handler lists above change
+    private final EventDispatchTable dispatchTable = new EventDispatchTable();
+    
+    
     // This field needs to remain as a class field since it maintains state across method calls
     // Static analysis flags it as convertible to a local variable, but this is a false positive
     private final Map<String, List<EventExecution>> executionHistory = new ConcurrentHashMap();
@@ -123,6 +127,7 @@ public class CustomEventManager implements Listener, EventPublisher, EventSubscr
             eventCategories.computeIfAbsent(category, k -> ConcurrentHashMap.newKeySet()).add(eventName);
         }
         
+        refreshRoute(eventName);
         log.fine("Registered custom event: " + eventName + " (" + event.getSignature() + ")");
     }
     
@@ -140,6 +145,7 @@ public class CustomEventManager implements Listener, EventPublisher, EventSubscr
         if (event != null) {
             eventHandlers.remove(eventName);
             globalEventHandlers.remove(eventName);
+            refreshRoute(eventName);
             
             
             String category = event.getCategory();
@@ -164,6 +170,7 @@ public class CustomEventManager implements Listener, EventPublisher, EventSubscr
         eventDefinitions.clear();
         eventHandlers.clear();
         globalEventHandlers.clear();
+        dispatchTable.clear();
         eventCategories.clear();
         executionHistory.clear();
         advancedTriggers.clear();
@@ -202,6 +209,7 @@ public class CustomEventManager implements Listener, EventPublisher, EventSubscr
         } else {
             eventHandlers.computeIfAbsent(eventName, k -> new CopyOnWriteArrayList<>()).add(handler);
         }
+        refreshRoute(eventName);
         
         log.fine("Registered event handler for: " + eventName + " (priority: " + handler.getPriority() + ")");
     }
@@ -226,6 +234,36 @@ public class CustomEventManager implements Listener, EventPublisher, EventSubscr
         if (globalHandlers != null) {
             globalHandlers.remove(handler);
         }
+        refreshRoute(eventName);
+    }
+    
+    /**
+     * Checks if a handler or correlation pattern would receive the event in the world.
+     * Callers use it to skip building event data nobody reads; for events without
+     * any subscriber this is a single map read.
+     * 
+     * @param eventName the name of the event
+     * @param worldName the world where the event occurs
+     * @return true if triggering the event would reach a handler or pattern
+     */
+    public boolean hasSubscribers(String eventName, String worldName) {
+        EventDispatchTable.Route route = dispatchTable.route(eventName);
+        return route != null && route.hasSubscribers(worldName);
+    }
+    
+    /**
+     * Rebuilds the dispatch route of an event from its handler lists and the correlation patterns
+     */
+    void refreshRoute(String eventName) {
+        if (eventName == null) {
+            return;
+        }
+        synchronized (dispatchTable) {
+            CustomEvent event = eventDefinitions.get(eventName);
+            dispatchTable.update(eventName, globalEventHandlers.get(eventName),
+                event == null || !event.isGlobal() ? eventHandlers.get(eventName) : null,
+                correlationEngine.isWatching(eventName));
+        }
     }
     
     /**
@@ -261,25 +299,30 @@ public class CustomEventManager implements Listener, EventPublisher, EventSubscr
             throw new IllegalArgumentException("Cannot trigger abstract event: " + eventName);
         }
         
+        EventDispatchTable.Route route = dispatchTable.route(eventName);
+        if (route == null || !route.hasSubscribers(worldName)) {
+            return;
+        }
+        
         try {
             
             event.validateEventData(eventData);
             Map<String, DataValue> effectiveData = event.prepareEventData(eventData);
             
             
-            correlationEngine.processEvent(eventName, effectiveData, source, worldName);
-            
-            
-            EventExecution execution = new EventExecution(eventName, effectiveData, source, worldName);
-            
-            
-            List<EventHandler> applicableHandlers = getApplicableEventHandlers(eventName, event, worldName, filter);
+            if (route.isCorrelated()) {
+                correlationEngine.processEvent(eventName, effectiveData, source, worldName);
+            }
             
             
-            applicableHandlers.sort(Comparator.comparingInt(EventHandler::getPriority).reversed());
+            EventHandler[] applicableHandlers = route.handlersFor(worldName);
+            if (applicableHandlers.length == 0) {
+                return;
+            }
             
             
-            int executedCount = executeEventHandlers(applicableHandlers, event, eventName, effectiveData, source, worldName);
+            EventExecution execution = new EventExecution(eventName, effectiveData, source, worldName);
+            int executedCount = executeEventHandlers(applicableHandlers, filter, event, eventName, effectiveData, source, worldName);
             
             execution.setHandlersExecuted(executedCount);
             execution.setExecutionTime(System.currentTimeMillis() - execution.getTriggeredTime());
@@ -343,46 +386,15 @@ public class CustomEventManager implements Listener, EventPublisher, EventSubscr
         return eventName != null && eventDefinitions.containsKey(eventName);
     }
     
-    /**
-     * Gets applicable event handlers for an event
-     */
-    private List<EventHandler> getApplicableEventHandlers(String eventName, CustomEvent event, String worldName, 
-                                                        Predicate<EventHandler> filter) {
-        List<EventHandler> applicableHandlers = new ArrayList<>();
-        
-        
-        List<EventHandler> globalHandlers = globalEventHandlers.get(eventName);
-        if (globalHandlers != null) {
-            applicableHandlers.addAll(globalHandlers);
-        }
-        
-        
-        if (!event.isGlobal()) {
-            List<EventHandler> worldHandlers = eventHandlers.get(eventName);
-            if (worldHandlers != null) {
-                applicableHandlers.addAll(worldHandlers.stream()
-                    .filter(h -> h.getWorldName() == null || h.getWorldName().equals(worldName))
-                    .toList());
-            }
-        }
-        
-        
-        if (filter != null) {
-            applicableHandlers.removeIf(handler -> !filter.test(handler));
-        }
-        
-        return applicableHandlers;
-    }
-    
     /**
      * Executes event handlers for an event
      */
-    private int executeEventHandlers(List<EventHandler> handlers, CustomEvent event, String eventName, 
+    private int executeEventHandlers(EventHandler[] handlers, Predicate<EventHandler> filter, CustomEvent event, String eventName, 
                                    Map<String, DataValue> eventData, Player source, String worldName) {
         int executedCount = 0;
         for (EventHandler handler : handlers) {
             try {
-                if (handler.canHandle(source, worldName, eventData)) {
+                if ((filter == null || filter.test(handler)) && handler.canHandle(source, worldName, eventData)) {
                     handler.handle(eventData, source, worldName);
                     executedCount++;
                     
@@ -714,11 +726,14 @@ public class CustomEventManager implements Listener, EventPublisher, EventSubscr
      */
     @org.bukkit.event.EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
-        Map<String, DataValue> data = new HashMap<>();
-        data.put("player", DataValue.fromObject(event.getPlayer()));
-        data.put("firstTime", DataValue.fromObject(!event.getPlayer().hasPlayedBefore()));
-        
-        triggerEvent("playerConnect", data, event.getPlayer(), event.getPlayer().getWorld().getName());
+        String worldName = event.getPlayer().getWorld().getName();
+        if (hasSubscribers("playerConnect", worldName)) {
+            Map<String, DataValue> data = new HashMap<>();
+            data.put("player", DataValue.fromObject(event.getPlayer()));
+            data.put("firstTime", DataValue.fromObject(!event.getPlayer().hasPlayedBefore()));
+            
+            triggerEvent("playerConnect", data, event.getPlayer(), worldName);
+        }
         
         
         regionDetectionSystem.updatePlayerRegions(event.getPlayer());
@@ -726,14 +741,17 @@ public class CustomEventManager implements Listener, EventPublisher, EventSubscr
     
     @org.bukkit.event.EventHandler
     public void onPlayerQuit(PlayerQuitEvent event) {
-        Map<String, DataValue> data = new HashMap<>();
-        data.put("player", DataValue.fromObject(event.getPlayer()));
-        // Argument event.getQuitMessage() might be null according to static analysis
-        // Added null check to prevent potential NullPointerException
-        String quitMessage = event.getQuitMessage();
-        data.put("reason", DataValue.fromObject(quitMessage != null ? quitMessage : ""));
-        
-        triggerEvent("playerDisconnect", data, event.getPlayer(), event.getPlayer().getWorld().getName());
+        String worldName = event.getPlayer().getWorld().getName();
+        if (hasSubscribers("playerDisconnect", worldName)) {
+            Map<String, DataValue> data = new HashMap<>();
+            data.put("player", DataValue.fromObject(event.getPlayer()));
+            // Argument event.getQuitMessage() might be null according to static analysis
+            // Added null check to prevent potential NullPointerException
+            String quitMessage = event.getQuitMessage();
+            data.put("reason", DataValue.fromObject(quitMessage != null ? quitMessage : ""));
+            
+            triggerEvent("playerDisconnect", data, event.getPlayer(), worldName);
+        }
         
         
         regionDetectionSystem.cleanupPlayerTracking(event.getPlayer().getUniqueId());
@@ -746,13 +764,16 @@ public class CustomEventManager implements Listener, EventPublisher, EventSubscr
             event.getFrom().getBlockY() != event.getTo().getBlockY() ||
             event.getFrom().getBlockZ() != event.getTo().getBlockZ()) {
             
-            // Trigger the custom playerMove event
-            Map<String, DataValue> data = new HashMap<>();
-            data.put("player", DataValue.fromObject(event.getPlayer()));
-            data.put("from", DataValue.fromObject(event.getFrom()));
-            data.put("to", DataValue.fromObject(event.getTo()));
-            
-            triggerEvent("playerMove", data, event.getPlayer(), event.getPlayer().getWorld().getName());
+            // Trigger the custom playerMove event; the payload is only built when something listens
+            String worldName = event.getPlayer().getWorld().getName();
+            if (hasSubscribers("playerMove", worldName)) {
+                Map<String, DataValue> data = new HashMap<>();
+                data.put("player", DataValue.fromObject(event.getPlayer()));
+                data.put("from", DataValue.fromObject(event.getFrom()));
+                data.put("to", DataValue.fromObject(event.getTo()));
+                
+                triggerEvent("playerMove", data, event.getPlayer(), worldName);
+            }
             
             // Update region tracking
             regionDetectionSystem.updatePlayerRegions(event.getPlayer());
@@ -761,6 +782,9 @@ public class CustomEventManager implements Listener, EventPublisher, EventSubscr
     
     @org.bukkit.event.EventHandler
     public void onPlayerChat(org.bukkit.event.player.PlayerChatEvent event) {
+        if (!hasSubscribers("playerChat", event.getPlayer().getWorld().getName())) {
+            return;
+        }
         // Trigger the custom playerChat event
         Map<String, DataValue> data = new HashMap<>();
         data.put("player", DataValue.fromObject(event.getPlayer()));
@@ -771,6 +795,9 @@ public class CustomEventManager implements Listener, EventPublisher, EventSubscr
     
     @org.bukkit.event.EventHandler
     public void onPlayerDeath(org.bukkit.event.entity.PlayerDeathEvent event) {
+        if (!hasSubscribers("playerDeath", event.getEntity().getWorld().getName())) {
+            return;
+        }
         // Trigger the custom playerDeath event
         Map<String, DataValue> data = new HashMap<>();
         data.put("player", DataValue.fromObject(event.getEntity()));
@@ -787,6 +814,9 @@ public class CustomEventManager implements Listener, EventPublisher, EventSubscr
     
     @org.bukkit.event.EventHandler
     public void onPlayerRespawn(org.bukkit.event.player.PlayerRespawnEvent event) {
+        if (!hasSubscribers("playerRespawn", event.getPlayer().getWorld().getName())) {
+            return;
+        }
         // Trigger the custom playerRespawn event
         Map<String, DataValue> data = new HashMap<>();
         data.put("player", DataValue.fromObject(event.getPlayer()));
@@ -797,6 +827,9 @@ public class CustomEventManager implements Listener, EventPublisher, EventSubscr
     
     @org.bukkit.event.EventHandler
     public void onPlayerTeleport(org.bukkit.event.player.PlayerTeleportEvent event) {
+        if (!hasSubscribers("playerTeleport", event.getPlayer().getWorld().getName())) {
+            return;
+        }
         // Trigger the custom playerTeleport event
         Map<String, DataValue> data = new HashMap<>();
         data.put("player", DataValue.fromObject(event.getPlayer()));
@@ -808,8 +841,8 @@ public class CustomEventManager implements Listener, EventPublisher, EventSubscr
     
     @org.bukkit.event.EventHandler
     public void onEntityDamage(org.bukkit.event.entity.EntityDamageEvent event) {
-        // Only handle player damage events
-        if (event.getEntity() instanceof Player) {
+        // Only handle player damage events, and only build the payload when something listens
+        if (event.getEntity() instanceof Player && hasSubscribers("entityDamage", event.getEntity().getWorld().getName())) {
             // Trigger the custom entityDamage event
             Map<String, DataValue> data = new HashMap<>();
             data.put("player", DataValue.fromObject((Player) event.getEntity()));
@@ -825,6 +858,9 @@ public class CustomEventManager implements Listener, EventPublisher, EventSubscr
         // Only handle player inventory clicks
         if (event.getWhoClicked() instanceof Player) {
             Player player = (Player) event.getWhoClicked();
+            if (!hasSubscribers("inventoryClick", player.getWorld().getName())) {
+                return;
+            }
             
             // Trigger the custom inventoryClick event
             Map<String, DataValue> data = new HashMap<>();
@@ -843,6 +879,9 @@ public class CustomEventManager implements Listener, EventPublisher, EventSubscr
         // Only handle player pickup events
         if (event.getEntity() instanceof Player) {
             Player player = (Player) event.getEntity();
+            if (!hasSubscribers("entityPickupItem", player.getWorld().getName())) {
+                return;
+            }
             
             // Trigger the custom entityPickupItem event
             Map<String, DataValue> data = new HashMap<>();
@@ -858,11 +897,11 @@ public class CustomEventManager implements Listener, EventPublisher, EventSubscr
         // Run every 5 ticks instead of every tick to reduce server load
         plugin.getServer().getScheduler().runTaskTimer(plugin, () -> {
             try {
-                Map<String, DataValue> data = new HashMap<>();
-                data.put("tickCount", DataValue.fromObject(System.currentTimeMillis()));
-                
                 // Only trigger if there are handlers registered for the tick event
-                if (isEventRegistered("tick") && getEventHandlerCount("tick") > 0) {
+                if (isEventRegistered("tick") && hasSubscribers("tick", "global")) {
+                    Map<String, DataValue> data = new HashMap<>();
+                    data.put("tickCount", DataValue.fromObject(System.currentTimeMillis()));
+                    
                     // Use fine logging instead of info to reduce spam
                     log.fine("Triggering tick event with " + getEventHandlerCount("tick") + " handlers");
                     triggerEvent("tick", data, null, "global");
@@ -892,13 +931,13 @@ public class CustomEventManager implements Listener, EventPublisher, EventSubscr
     }
     
     /**
-     * Starts the correlation cleanup task
+     * Starts the correlation cleanup task; each run only visits the expiry slots that came due
      */
     private void startCorrelationCleanupTask() {
         
         plugin.getServer().getScheduler().runTaskTimer(plugin, () -> {
             correlationEngine.cleanupExpiredInstances();
-        }, 1200L, 1200L); 
+        }, 20L, 20L); 
     }
     
     /**
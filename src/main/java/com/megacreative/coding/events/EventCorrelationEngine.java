@@ -12,11 +12,31 @@ import java.util.function.Predicate;
 import java.util.logging.Level;
 
 /**
- * Event correlation engine for detecting complex event patterns and sequences
+ * Event correlation engine for detecting complex event patterns and sequences.
+ *
+ * Patterns are compiled into a state machine: a pattern starts from an index keyed by its
+ * first event name, and every running instance waits in an index keyed by the event name of
+ * its next step and by the player it belongs to. An event only touches the instances waiting
+ * for exactly that event and player. Instance deadlines are kept in a timer wheel, so expiry
+ * costs only the slots that came due instead of a scan over all instances.
+ *
+ * Движок корреляции событий для обнаружения сложных шаблонов и последовательностей событий.
+ *
+ * Шаблоны компилируются в конечный автомат: шаблон запускается из индекса по имени первого события,
+ * а каждый выполняющийся экземпляр ждет в индексе по имени события следующего шага и по игроку,
+ * которому он принадлежит. Событие затрагивает только экземпляры, ожидающие именно это событие и игрока.
+ * Сроки экземпляров хранятся в колесе таймеров, поэтому истечение стоит только наступивших слотов,
+ * а не обхода всех экземпляров.
  */
 public class EventCorrelationEngine {
     private static final Logger log = Logger.getLogger(EventCorrelationEngine.class.getName());
     
+    // Instances started by events without a player share this key
+    private static final UUID NO_PLAYER = new UUID(0L, 0L);
+    
+    private static final long WHEEL_RESOLUTION_MS = 250;
+    private static final int WHEEL_SLOTS = 512;
+    
     private final CustomEventManager eventManager;
     
     
@@ -24,12 +44,21 @@ public class EventCorrelationEngine {
     // However, it needs to be a class field to maintain state
     private final Map<String, EventPattern> patterns = new ConcurrentHashMap<>();
     
+    // Patterns by the event name of their first step; replaced as a whole when patterns change
+    private volatile Map<String, List<EventPattern>> patternsByFirstEvent = Collections.emptyMap();
     
-    private final Map<String, PatternInstance> activeInstances = new ConcurrentHashMap<>();
+    // Running instances by the event name of their next step, then by player; guarded by this
+    private final Map<String, Map<UUID, Set<PatternInstance>>> waitingInstances = new HashMap<>();
+    private final ExpiryWheel expiryWheel = new ExpiryWheel();
+    private int activeInstanceCount;
+    private long nextInstanceSequence;
     
     
     private final List<PatternCompletionListener> completionListeners = new CopyOnWriteArrayList<>();
     
+    // Event names used by any step of a registered pattern, so the event manager can skip events no pattern waits for
+    private volatile Set<String> watchedEvents = Collections.emptySet();
+    
     public EventCorrelationEngine(CustomEventManager eventManager) {
         this.eventManager = eventManager;
     }
@@ -38,7 +67,11 @@ public class EventCorrelationEngine {
      * Registers an event pattern
      */
     public void registerPattern(EventPattern pattern) {
-        patterns.put(pattern.getPatternId(), pattern);
+        EventPattern previous = patterns.put(pattern.getPatternId(), pattern);
+        if (previous != null) {
+            discardInstances(previous.getPatternId());
+        }
+        updateIndexes(previous, pattern);
         log.fine("Registered event pattern: " + pattern.getPatternId());
     }
     
@@ -46,13 +79,46 @@ public class EventCorrelationEngine {
      * Unregisters an event pattern
      */
     public void unregisterPattern(String patternId) {
-        patterns.remove(patternId);
-        
-        activeInstances.entrySet().removeIf(entry -> 
-            entry.getValue().getPattern().getPatternId().equals(patternId));
+        EventPattern removed = patterns.remove(patternId);
+        updateIndexes(removed, null);
+        discardInstances(patternId);
         log.fine("Unregistered event pattern: " + patternId);
     }
     
+    /**
+     * Checks if any registered pattern has a step for the event
+     */
+    public boolean isWatching(String eventName) {
+        return watchedEvents.contains(eventName);
+    }
+    
+    private synchronized void updateIndexes(EventPattern removed, EventPattern added) {
+        Set<String> watched = new HashSet<>();
+        Map<String, List<EventPattern>> byFirstEvent = new HashMap<>();
+        for (EventPattern pattern : patterns.values()) {
+            for (EventPattern.Step step : pattern.steps) {
+                watched.add(step.getEventName());
+            }
+            if (!pattern.steps.isEmpty()) {
+                byFirstEvent.computeIfAbsent(pattern.steps.get(0).getEventName(), name -> new ArrayList<>()).add(pattern);
+            }
+        }
+        watchedEvents = Collections.unmodifiableSet(watched);
+        patternsByFirstEvent = byFirstEvent;
+        
+        Set<String> changed = new HashSet<>();
+        for (EventPattern pattern : new EventPattern[] {removed, added}) {
+            if (pattern != null) {
+                for (EventPattern.Step step : pattern.steps) {
+                    changed.add(step.getEventName());
+                }
+            }
+        }
+        for (String eventName : changed) {
+            eventManager.refreshRoute(eventName);
+        }
+    }
+    
     /**
      * Gets a registered pattern by ID
      */
@@ -61,75 +127,128 @@ public class EventCorrelationEngine {
     }
     
     /**
-     * Processes an event for pattern matching
+     * Processes an event for pattern matching.
+     * Instances waiting for this event and player advance first; patterns starting with the event
+     * then start new instances, which wait for the following event.
      */
     public void processEvent(String eventName, Map<String, DataValue> eventData, Player source, String worldName) {
+        processEvent(eventName, eventData, source, worldName, System.currentTimeMillis());
+    }
+    
+    void processEvent(String eventName, Map<String, DataValue> eventData, Player source, String worldName, long now) {
+        List<PatternInstance> completed = null;
+        UUID playerKey = source != null ? source.getUniqueId() : NO_PLAYER;
         
-        for (EventPattern pattern : patterns.values()) {
-            
-            if (pattern.getSteps().isEmpty()) continue;
+        synchronized (this) {
+            Map<UUID, Set<PatternInstance>> waitingByPlayer = waitingInstances.get(eventName);
+            Set<PatternInstance> waiting = waitingByPlayer != null ? waitingByPlayer.remove(playerKey) : null;
+            if (waiting != null) {
+                if (waitingByPlayer.isEmpty()) {
+                    waitingInstances.remove(eventName);
+                }
+                for (PatternInstance instance : waiting) {
+                    if (instance.isExpiredAt(now)) {
+                        activeInstanceCount--;
+                        continue;
+                    }
+                    EventPattern.Step nextStep = instance.getPattern().steps.get(instance.completedSteps.size());
+                    if (nextStep.getCondition() == null || nextStep.getCondition().test(eventData)) {
+                        completed = advance(instance, eventName, eventData, now, completed);
+                    } else {
+                        index(instance, eventName);
+                    }
+                }
+            }
             
-            EventPattern.Step firstStep = pattern.getSteps().get(0);
-            if (firstStep.getEventName().equals(eventName) && 
-                (firstStep.getCondition() == null || firstStep.getCondition().test(eventData))) {
-                
-                
-                String instanceId = UUID.randomUUID().toString();
-                PatternInstance instance = new PatternInstance(instanceId, pattern, source, worldName);
-                instance.recordStep(0, eventName, eventData);
-                activeInstances.put(instanceId, instance);
-                
-                log.fine("Started pattern instance: " + instanceId + " for pattern: " + pattern.getPatternId());
+            List<EventPattern> starting = patternsByFirstEvent.get(eventName);
+            if (starting != null) {
+                for (EventPattern pattern : starting) {
+                    EventPattern.Step firstStep = pattern.steps.get(0);
+                    if (firstStep.getCondition() == null || firstStep.getCondition().test(eventData)) {
+                        PatternInstance instance = new PatternInstance(nextInstanceSequence++, pattern, source, worldName, now);
+                        activeInstanceCount++;
+                        completed = advance(instance, eventName, eventData, now, completed);
+                        if (!instance.isCompleted()) {
+                            expiryWheel.schedule(instance);
+                        }
+                        log.fine("Started pattern instance: " + instance.getInstanceId() + " for pattern: " + pattern.getPatternId());
+                    }
+                }
             }
         }
         
         
-        processActiveInstances(eventName, eventData, source, worldName);
+        if (completed != null) {
+            for (PatternInstance instance : completed) {
+                notifyPatternCompletion(instance);
+                log.fine("Pattern completed: " + instance.getPattern().getPatternId() + " (instance: " + instance.getInstanceId() + ")");
+            }
+        }
     }
     
     /**
-     * Processes active pattern instances
+     * Records a matched step and either completes the instance or indexes it under its next event
      */
-    private void processActiveInstances(String eventName, Map<String, DataValue> eventData, 
-                                      Player source, String worldName) {
-        Iterator<Map.Entry<String, PatternInstance>> iterator = activeInstances.entrySet().iterator();
-        
-        while (iterator.hasNext()) {
-            Map.Entry<String, PatternInstance> entry = iterator.next();
-            String instanceId = entry.getKey();
-            PatternInstance instance = entry.getValue();
-            
-            
-            if (instance.isCompleted() || instance.isExpired()) {
-                iterator.remove();
-                continue;
+    private List<PatternInstance> advance(PatternInstance instance, String eventName, Map<String, DataValue> eventData,
+                                          long now, List<PatternInstance> completed) {
+        instance.recordStep(instance.completedSteps.size(), eventName, eventData, now);
+        List<EventPattern.Step> steps = instance.getPattern().steps;
+        if (instance.completedSteps.size() < steps.size()) {
+            index(instance, steps.get(instance.completedSteps.size()).getEventName());
+            return completed;
+        }
+        instance.markCompleted();
+        activeInstanceCount--;
+        List<PatternInstance> result = completed != null ? completed : new ArrayList<>();
+        result.add(instance);
+        return result;
+    }
+    
+    private void index(PatternInstance instance, String eventName) {
+        waitingInstances.computeIfAbsent(eventName, name -> new HashMap<>())
+            .computeIfAbsent(instance.playerKey, key -> new LinkedHashSet<>())
+            .add(instance);
+    }
+    
+    /**
+     * Removes a running instance from the waiting index
+     * @return true if the instance was still waiting
+     */
+    private boolean unindex(PatternInstance instance) {
+        List<EventPattern.Step> steps = instance.getPattern().steps;
+        if (instance.isCompleted() || instance.completedSteps.size() >= steps.size()) {
+            return false;
+        }
+        String eventName = steps.get(instance.completedSteps.size()).getEventName();
+        Map<UUID, Set<PatternInstance>> waitingByPlayer = waitingInstances.get(eventName);
+        Set<PatternInstance> waiting = waitingByPlayer != null ? waitingByPlayer.get(instance.playerKey) : null;
+        if (waiting == null || !waiting.remove(instance)) {
+            return false;
+        }
+        activeInstanceCount--;
+        if (waiting.isEmpty()) {
+            waitingByPlayer.remove(instance.playerKey);
+            if (waitingByPlayer.isEmpty()) {
+                waitingInstances.remove(eventName);
             }
-            
-            
-            EventPattern pattern = instance.getPattern();
-            int nextStepIndex = instance.getCompletedSteps().size();
-            
-            if (nextStepIndex < pattern.getSteps().size()) {
-                EventPattern.Step nextStep = pattern.getSteps().get(nextStepIndex);
-                
-                if (nextStep.getEventName().equals(eventName) && 
-                    (nextStep.getCondition() == null || nextStep.getCondition().test(eventData))) {
-                    
-                    
-                    instance.recordStep(nextStepIndex, eventName, eventData);
-                    
-                    
-                    if (instance.getCompletedSteps().size() == pattern.getSteps().size()) {
-                        instance.markCompleted();
-                        iterator.remove();
-                        
-                        
-                        notifyPatternCompletion(instance);
-                        
-                        log.fine("Pattern completed: " + pattern.getPatternId() + " (instance: " + instanceId + ")");
-                    }
+        }
+        return true;
+    }
+    
+    private synchronized void discardInstances(String patternId) {
+        for (Iterator<Map<UUID, Set<PatternInstance>>> byEvent = waitingInstances.values().iterator(); byEvent.hasNext(); ) {
+            Map<UUID, Set<PatternInstance>> waitingByPlayer = byEvent.next();
+            for (Iterator<Set<PatternInstance>> byPlayer = waitingByPlayer.values().iterator(); byPlayer.hasNext(); ) {
+                Set<PatternInstance> waiting = byPlayer.next();
+                int before = waiting.size();
+                waiting.removeIf(instance -> instance.getPattern().getPatternId().equals(patternId));
+                activeInstanceCount -= before - waiting.size();
+                if (waiting.isEmpty()) {
+                    byPlayer.remove();
                 }
-                
+            }
+            if (waitingByPlayer.isEmpty()) {
+                byEvent.remove();
             }
         }
     }
@@ -162,29 +281,82 @@ public class EventCorrelationEngine {
     }
     
     /**
-     * Cleans up expired pattern instances
+     * Removes instances whose timeout has passed.
+     * Only the timer wheel slots that came due since the last call are visited.
      */
     public void cleanupExpiredInstances() {
-        long now = System.currentTimeMillis();
-        activeInstances.entrySet().removeIf(entry -> {
-            PatternInstance instance = entry.getValue();
-            if (instance.isExpired()) {
-                log.fine("Cleaned up expired pattern instance: " + entry.getKey());
-                return true;
-            }
-            return false;
-        });
+        cleanupExpiredInstances(System.currentTimeMillis());
+    }
+    
+    synchronized int cleanupExpiredInstances(long now) {
+        int expired = expiryWheel.advance(now);
+        if (expired > 0) {
+            log.fine("Cleaned up " + expired + " expired pattern instances");
+        }
+        return expired;
     }
     
     /**
      * Gets statistics about active patterns
      */
-    public PatternStatistics getStatistics() {
-        return new PatternStatistics(
-            patterns.size(),
-            activeInstances.size(),
-            (int) activeInstances.values().stream().filter(PatternInstance::isCompleted).count()
-        );
+    public synchronized PatternStatistics getStatistics() {
+        // Completed instances leave the engine immediately, so none are ever counted as active
+        return new PatternStatistics(patterns.size(), activeInstanceCount, 0);
+    }
+    
+    /**
+     * Hashed timer wheel over instance deadlines. Each slot covers {@link #WHEEL_RESOLUTION_MS};
+     * deadlines further away than one turn stay in their slot until the wheel reaches them again.
+     * Guarded by the engine.
+     */
+    private final class ExpiryWheel {
+        private final List<PatternInstance>[] slots = newSlots();
+        private long currentTick = -1;
+        
+        @SuppressWarnings("unchecked")
+        private List<PatternInstance>[] newSlots() {
+            List<PatternInstance>[] array = new List[WHEEL_SLOTS];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = new ArrayList<>();
+            }
+            return array;
+        }
+        
+        void schedule(PatternInstance instance) {
+            long tick = instance.getDeadline() / WHEEL_RESOLUTION_MS;
+            slots[(int) Math.floorMod(tick, (long) WHEEL_SLOTS)].add(instance);
+        }
+        
+        /**
+         * Expires every instance whose deadline lies before the given time
+         * @return The number of instances removed
+         */
+        int advance(long now) {
+            long targetTick = now / WHEEL_RESOLUTION_MS - 1;
+            if (currentTick < 0) {
+                currentTick = targetTick - WHEEL_SLOTS;
+            }
+            // One full turn visits every slot, no matter how long the wheel was idle
+            long fromTick = Math.max(currentTick + 1, targetTick - WHEEL_SLOTS + 1);
+            int expired = 0;
+            for (long tick = fromTick; tick <= targetTick; tick++) {
+                List<PatternInstance> slot = slots[(int) Math.floorMod(tick, (long) WHEEL_SLOTS)];
+                for (Iterator<PatternInstance> iterator = slot.iterator(); iterator.hasNext(); ) {
+                    PatternInstance instance = iterator.next();
+                    if (instance.isCompleted()) {
+                        iterator.remove();
+                    } else if (instance.getDeadline() / WHEEL_RESOLUTION_MS <= targetTick) {
+                        iterator.remove();
+                        // Instances already dropped on access or discarded with their pattern are just forgotten
+                        if (unindex(instance)) {
+                            expired++;
+                        }
+                    }
+                }
+            }
+            currentTick = Math.max(currentTick, targetTick);
+            return expired;
+        }
     }
     
     /**
@@ -311,17 +483,26 @@ public class EventCorrelationEngine {
      * Represents an active instance of a pattern being tracked
      */
     public static class PatternInstance {
-        private final String instanceId;
+        private String instanceId;
+        private final long sequence;
         private final EventPattern pattern;
         private final UUID playerId;
+        private final UUID playerKey;
         private final String worldName;
         private final long startTime;
+        private final long deadline;
         
         private final List<CompletedStep> completedSteps = new ArrayList<>();
         private boolean completed = false;
         private long completionTime = 0;
         
-        public String getInstanceId() { return instanceId; }
+        public String getInstanceId() {
+            // Built on demand; a sequence number is far cheaper to hand out than a random UUID per started instance
+            if (instanceId == null) {
+                instanceId = pattern.getPatternId() + "#" + sequence;
+            }
+            return instanceId;
+        }
         public EventPattern getPattern() { return pattern; }
         public UUID getPlayerId() { return playerId; }
         public String getWorldName() { return worldName; }
@@ -331,18 +512,31 @@ public class EventCorrelationEngine {
         public long getCompletionTime() { return completionTime; }
         
         public PatternInstance(String instanceId, EventPattern pattern, Player player, String worldName) {
+            this(-1, pattern, player, worldName, System.currentTimeMillis());
             this.instanceId = instanceId;
+        }
+        
+        PatternInstance(long sequence, EventPattern pattern, Player player, String worldName, long startTime) {
+            this.sequence = sequence;
             this.pattern = pattern;
             this.playerId = player != null ? player.getUniqueId() : null;
+            this.playerKey = playerId != null ? playerId : NO_PLAYER;
             this.worldName = worldName;
-            this.startTime = System.currentTimeMillis();
+            this.startTime = startTime;
+            long timeoutMs = pattern.getTimeoutMs();
+            this.deadline = timeoutMs > Long.MAX_VALUE - startTime ? Long.MAX_VALUE : startTime + timeoutMs;
         }
         
         /**
          * Records a completed step
          */
         public void recordStep(int stepIndex, String eventName, Map<String, DataValue> eventData) {
-            completedSteps.add(new CompletedStep(stepIndex, eventName, new HashMap<>(eventData), System.currentTimeMillis()));
+            recordStep(stepIndex, eventName, eventData, System.currentTimeMillis());
+        }
+        
+        void recordStep(int stepIndex, String eventName, Map<String, DataValue> eventData, long timestamp) {
+            // CompletedStep copies the data itself
+            completedSteps.add(new CompletedStep(stepIndex, eventName, eventData, timestamp));
         }
         
         /**
@@ -357,7 +551,18 @@ public class EventCorrelationEngine {
          * Checks if this instance has expired
          */
         public boolean isExpired() {
-            return System.currentTimeMillis() - startTime > pattern.getTimeoutMs();
+            return isExpiredAt(System.currentTimeMillis());
+        }
+        
+        boolean isExpiredAt(long now) {
+            return now > deadline;
+        }
+        
+        /**
+         * Gets the time after which this instance expires
+         */
+        public long getDeadline() {
+            return deadline;
         }
         
         /**
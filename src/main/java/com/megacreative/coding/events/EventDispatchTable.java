@@ -0,0 +1,114 @@
+package com.megacreative.coding.events;
+
+import com.megacreative.coding.events.CustomEventManager.EventHandler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Handlers of every custom event, indexed by event name and world and kept sorted by priority.
+ * Routes are rebuilt when handlers or correlation patterns change, so triggering an event
+ * neither merges nor sorts lists. Events nobody listens to have no route at all, which makes
+ * the "has subscribers" check a single map read.
+ *
+ * Обработчики каждого пользовательского события, проиндексированные по имени события и миру и отсортированные по приоритету.
+ * Маршруты перестраиваются при изменении обработчиков или шаблонов корреляции, поэтому вызов события
+ * не объединяет и не сортирует списки. У событий без слушателей маршрута нет вовсе, поэтому
+ * проверка наличия подписчиков стоит одно чтение из карты.
+ */
+final class EventDispatchTable {
+
+    private static final EventHandler[] NO_HANDLERS = new EventHandler[0];
+    private static final Comparator<EventHandler> BY_PRIORITY = Comparator.comparingInt(EventHandler::getPriority).reversed();
+
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the route of an event
+     *
+     * @return The route, or null if nothing listens to the event
+     */
+    Route route(String eventName) {
+        return eventName != null ? routes.get(eventName) : null;
+    }
+
+    /**
+     * Replaces the route of an event
+     *
+     * @param globalHandlers Handlers for every world, or null
+     * @param worldHandlers Handlers bound to one world, or null
+     * @param correlated Whether a correlation pattern waits for the event
+     */
+    synchronized void update(String eventName, List<EventHandler> globalHandlers,
+                             List<EventHandler> worldHandlers, boolean correlated) {
+        List<EventHandler> global = globalHandlers != null ? globalHandlers : Collections.emptyList();
+        List<EventHandler> bound = worldHandlers != null ? worldHandlers : Collections.emptyList();
+        if (global.isEmpty() && bound.isEmpty() && !correlated) {
+            routes.remove(eventName);
+            return;
+        }
+
+        Map<String, List<EventHandler>> handlersByWorld = new HashMap<>();
+        for (EventHandler handler : bound) {
+            handlersByWorld.computeIfAbsent(handler.getWorldName(), world -> new ArrayList<>(global)).add(handler);
+        }
+        Map<String, EventHandler[]> byWorld = new HashMap<>();
+        handlersByWorld.forEach((world, handlers) -> byWorld.put(world, sorted(handlers)));
+        routes.put(eventName, new Route(sorted(global), byWorld, correlated));
+    }
+
+    synchronized void remove(String eventName) {
+        routes.remove(eventName);
+    }
+
+    synchronized void clear() {
+        routes.clear();
+    }
+
+    private static EventHandler[] sorted(List<EventHandler> handlers) {
+        if (handlers.isEmpty()) {
+            return NO_HANDLERS;
+        }
+        EventHandler[] array = handlers.toArray(NO_HANDLERS);
+        // Stable sort: handlers of equal priority keep global-before-world registration order
+        Arrays.sort(array, BY_PRIORITY);
+        return array;
+    }
+
+    /**
+     * Immutable dispatch entry of one event
+     */
+    static final class Route {
+        private final EventHandler[] global;
+        private final Map<String, EventHandler[]> byWorld;
+        private final boolean correlated;
+
+        private Route(EventHandler[] global, Map<String, EventHandler[]> byWorld, boolean correlated) {
+            this.global = global;
+            this.byWorld = byWorld;
+            this.correlated = correlated;
+        }
+
+        /**
+         * Gets the handlers for an event in a world, highest priority first; the array must not be modified
+         */
+        EventHandler[] handlersFor(String worldName) {
+            EventHandler[] handlers = worldName != null && !byWorld.isEmpty() ? byWorld.get(worldName) : null;
+            return handlers != null ? handlers : global;
+        }
+
+        boolean isCorrelated() {
+            return correlated;
+        }
+
+        boolean hasSubscribers(String worldName) {
+            return correlated || handlersFor(worldName).length > 0;
+        }
+    }
+}
@@ -38,6 +38,12 @@ public class RegionDetectionSystem {
     
     private final Map<String, List<Region>> worldRegions = new ConcurrentHashMap<>();
     
+    // Chunk buckets of all regions, so a lookup only tests the regions near the point
+    private final RegionSpatialIndex<String> spatialIndex = new RegionSpatialIndex<>();
+    
+    
+    private final Map<UUID, RegionSpatialIndex.BlockPosition> playerPositions = new ConcurrentHashMap<>();
+    
     public RegionDetectionSystem(MegaCreative plugin, CustomEventManager eventManager) {
         this.plugin = plugin;
         this.eventManager = eventManager;
@@ -49,10 +55,10 @@ public class RegionDetectionSystem {
     public void defineRegion(String regionId, String worldName, Location minPoint, Location maxPoint, 
                            String description, Map<String, Object> metadata) {
         Region region = new Region(regionId, worldName, minPoint, maxPoint, description, metadata);
-        regions.put(regionId, region);
-        
-        
-        worldRegions.computeIfAbsent(worldName, k -> new ArrayList<>()).add(region);
+        replaceRegion(region);
+        spatialIndex.putCuboid(regionId, worldName,
+            region.minPoint.getX(), region.minPoint.getY(), region.minPoint.getZ(),
+            region.maxPoint.getX(), region.maxPoint.getY(), region.maxPoint.getZ());
         
         log.fine("Defined region: " + regionId + " in world " + worldName);
     }
@@ -63,28 +69,38 @@ public class RegionDetectionSystem {
     public void defineCircularRegion(String regionId, String worldName, Location center, double radius,
                                    String description, Map<String, Object> metadata) {
         Region region = new Region(regionId, worldName, center, radius, description, metadata);
-        regions.put(regionId, region);
-        
-        
-        worldRegions.computeIfAbsent(worldName, k -> new ArrayList<>()).add(region);
+        replaceRegion(region);
+        spatialIndex.putSphere(regionId, worldName, center.getX(), center.getY(), center.getZ(), radius);
         
         log.fine("Defined circular region: " + regionId + " in world " + worldName);
     }
     
+    /**
+     * Stores a region, dropping a previous definition with the same id from its world list
+     */
+    private void replaceRegion(Region region) {
+        Region previous = regions.put(region.getId(), region);
+        if (previous != null) {
+            unlistRegion(previous);
+        }
+        worldRegions.computeIfAbsent(region.getWorldName(), k -> new java.util.concurrent.CopyOnWriteArrayList<>()).add(region);
+    }
+    
+    private void unlistRegion(Region region) {
+        worldRegions.computeIfPresent(region.getWorldName(), (world, worldRegionList) -> {
+            worldRegionList.remove(region);
+            return worldRegionList.isEmpty() ? null : worldRegionList;
+        });
+    }
+    
     /**
      * Removes a region definition
      */
     public void removeRegion(String regionId) {
         Region region = regions.remove(regionId);
         if (region != null) {
-            
-            List<Region> worldRegionList = worldRegions.get(region.getWorldName());
-            if (worldRegionList != null) {
-                worldRegionList.remove(region);
-                if (worldRegionList.isEmpty()) {
-                    worldRegions.remove(region.getWorldName());
-                }
-            }
+            unlistRegion(region);
+            spatialIndex.remove(regionId);
             
             
             for (Set<String> playerRegionSet : playerRegions.values()) {
@@ -114,38 +130,25 @@ public class RegionDetectionSystem {
      * Gets all regions in a world at a specific location
      */
     public List<String> getRegionsAtLocation(String worldName, Location location) {
-        List<String> result = new ArrayList<>();
-        List<Region> worldRegionList = worldRegions.get(worldName);
-        
-        if (worldRegionList != null) {
-            for (Region region : worldRegionList) {
-                if (region.contains(location)) {
-                    result.add(region.getId());
-                }
-            }
-        }
-        
-        return result;
+        return spatialIndex.query(worldName, location.getX(), location.getY(), location.getZ(), new ArrayList<>());
     }
     
     /**
-     * Updates a player's region tracking
+     * Updates a player's region tracking.
+     * Players who stayed in the same block since the last update are skipped unless regions changed.
      */
     public void updatePlayerRegions(Player player) {
         Location location = player.getLocation();
         String worldName = player.getWorld().getName();
-        Set<String> currentRegions = new HashSet<>();
-        
-        
-        List<Region> worldRegionList = worldRegions.get(worldName);
-        if (worldRegionList != null) {
-            for (Region region : worldRegionList) {
-                if (region.contains(location)) {
-                    currentRegions.add(region.getId());
-                }
-            }
+        RegionSpatialIndex.BlockPosition position = playerPositions.computeIfAbsent(
+            player.getUniqueId(), id -> new RegionSpatialIndex.BlockPosition());
+        if (!position.moveTo(worldName, location.getBlockX(), location.getBlockY(), location.getBlockZ(), spatialIndex.getVersion())) {
+            return;
         }
         
+        Set<String> currentRegions = spatialIndex.query(
+            worldName, location.getX(), location.getY(), location.getZ(), new HashSet<>());
+        
         
         Set<String> previousRegions = playerRegions.getOrDefault(player.getUniqueId(), new HashSet<>());
         
@@ -173,7 +176,7 @@ public class RegionDetectionSystem {
      */
     private void triggerRegionEnterEvent(Player player, String regionId) {
         Region region = regions.get(regionId);
-        if (region != null) {
+        if (region != null && eventManager.hasSubscribers("regionEnter", region.getWorldName())) {
             Map<String, DataValue> eventData = new HashMap<>();
             eventData.put("player", DataValue.fromObject(player));
             eventData.put("regionId", DataValue.fromObject(regionId));
@@ -201,7 +204,7 @@ public class RegionDetectionSystem {
      */
     private void triggerRegionExitEvent(Player player, String regionId) {
         Region region = regions.get(regionId);
-        if (region != null) {
+        if (region != null && eventManager.hasSubscribers("regionExit", region.getWorldName())) {
             Map<String, DataValue> eventData = new HashMap<>();
             eventData.put("player", DataValue.fromObject(player));
             eventData.put("regionId", DataValue.fromObject(regionId));
@@ -285,6 +288,7 @@ public class RegionDetectionSystem {
      */
     public void cleanupPlayerTracking(UUID playerId) {
         playerRegions.remove(playerId);
+        playerPositions.remove(playerId);
     }
     
     /**
@@ -0,0 +1,241 @@
+package com.megacreative.coding.events;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Spatial index of cuboid and spherical regions, bucketed by the chunk columns they overlap.
+ * A point lookup only tests the regions registered for its chunk, so the cost depends on
+ * the regions nearby instead of all regions of the world. Lookups are lock-free; changes
+ * replace the affected buckets copy-on-write.
+ *
+ * Пространственный индекс кубоидных и сферических регионов, разложенных по столбцам чанков, которые они покрывают.
+ * Поиск по точке проверяет только регионы своего чанка, поэтому стоимость зависит
+ * от регионов поблизости, а не от всех регионов мира. Поиск выполняется без блокировок;
+ * изменения заменяют затронутые корзины по принципу copy-on-write.
+ *
+ * @param <K> Region key type
+ */
+public final class RegionSpatialIndex<K> {
+
+    /**
+     * Regions spanning more chunk columns than this are kept in a per-world list that every lookup checks
+     */
+    private static final int MAX_INDEXED_CHUNKS = 4096;
+
+    private final Map<K, Shape<K>> shapes = new HashMap<>();
+    private final Map<String, WorldCells<K>> worlds = new ConcurrentHashMap<>();
+    private volatile long version;
+
+    /**
+     * Adds or replaces an axis-aligned box region
+     */
+    public synchronized void putCuboid(K key, String worldName, double minX, double minY, double minZ,
+                                       double maxX, double maxY, double maxZ) {
+        put(new Shape<>(key, worldName,
+            Math.min(minX, maxX), Math.min(minY, maxY), Math.min(minZ, maxZ),
+            Math.max(minX, maxX), Math.max(minY, maxY), Math.max(minZ, maxZ), -1));
+    }
+
+    /**
+     * Adds or replaces a spherical region
+     */
+    public synchronized void putSphere(K key, String worldName, double centerX, double centerY, double centerZ, double radius) {
+        put(new Shape<>(key, worldName,
+            centerX - radius, centerY - radius, centerZ - radius,
+            centerX + radius, centerY + radius, centerZ + radius, radius * radius));
+    }
+
+    public synchronized void remove(K key) {
+        Shape<K> previous = shapes.remove(key);
+        if (previous != null) {
+            unlink(previous);
+            version++;
+        }
+    }
+
+    public synchronized void clear() {
+        shapes.clear();
+        worlds.clear();
+        version++;
+    }
+
+    /**
+     * Gets a counter that changes whenever a region is added, replaced or removed
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Collects the keys of all regions containing the point
+     *
+     * @param out Collection the keys are added to
+     * @return The given collection
+     */
+    public <C extends Collection<? super K>> C query(String worldName, double x, double y, double z, C out) {
+        WorldCells<K> cells = worldName != null ? worlds.get(worldName) : null;
+        if (cells == null) {
+            return out;
+        }
+        collect(cells.byChunk.get(chunkKey(chunk(x), chunk(z))), x, y, z, out);
+        collect(cells.oversized, x, y, z, out);
+        return out;
+    }
+
+    private void put(Shape<K> shape) {
+        Shape<K> previous = shapes.put(shape.key, shape);
+        if (previous != null) {
+            unlink(previous);
+        }
+        WorldCells<K> cells = worlds.computeIfAbsent(shape.worldName, name -> new WorldCells<>());
+        if (shape.chunkCount() > MAX_INDEXED_CHUNKS) {
+            cells.oversized = with(cells.oversized, shape);
+        } else {
+            for (int cx = chunk(shape.minX); cx <= chunk(shape.maxX); cx++) {
+                for (int cz = chunk(shape.minZ); cz <= chunk(shape.maxZ); cz++) {
+                    cells.byChunk.merge(chunkKey(cx, cz), List.of(shape), (current, added) -> with(current, shape));
+                }
+            }
+        }
+        version++;
+    }
+
+    private void unlink(Shape<K> shape) {
+        WorldCells<K> cells = worlds.get(shape.worldName);
+        if (cells == null) {
+            return;
+        }
+        if (shape.chunkCount() > MAX_INDEXED_CHUNKS) {
+            cells.oversized = without(cells.oversized, shape);
+        } else {
+            for (int cx = chunk(shape.minX); cx <= chunk(shape.maxX); cx++) {
+                for (int cz = chunk(shape.minZ); cz <= chunk(shape.maxZ); cz++) {
+                    cells.byChunk.computeIfPresent(chunkKey(cx, cz), (key, current) -> {
+                        List<Shape<K>> remaining = without(current, shape);
+                        return remaining.isEmpty() ? null : remaining;
+                    });
+                }
+            }
+        }
+        if (cells.byChunk.isEmpty() && cells.oversized.isEmpty()) {
+            worlds.remove(shape.worldName);
+        }
+    }
+
+    private static <K> void collect(List<Shape<K>> candidates, double x, double y, double z, Collection<? super K> out) {
+        if (candidates == null) {
+            return;
+        }
+        for (int i = 0; i < candidates.size(); i++) {
+            Shape<K> shape = candidates.get(i);
+            if (shape.contains(x, y, z)) {
+                out.add(shape.key);
+            }
+        }
+    }
+
+    private static <K> List<Shape<K>> with(List<Shape<K>> list, Shape<K> shape) {
+        List<Shape<K>> copy = new ArrayList<>(list.size() + 1);
+        copy.addAll(list);
+        copy.add(shape);
+        return Collections.unmodifiableList(copy);
+    }
+
+    private static <K> List<Shape<K>> without(List<Shape<K>> list, Shape<K> shape) {
+        List<Shape<K>> copy = new ArrayList<>(list);
+        copy.remove(shape);
+        return Collections.unmodifiableList(copy);
+    }
+
+    private static int chunk(double coordinate) {
+        return (int) Math.floor(coordinate) >> 4;
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xffffffffL);
+    }
+
+    private static final class WorldCells<K> {
+        private final Map<Long, List<Shape<K>>> byChunk = new ConcurrentHashMap<>();
+        private volatile List<Shape<K>> oversized = Collections.emptyList();
+    }
+
+    /**
+     * Bounds of one region; spheres additionally test the squared distance to their center
+     */
+    private static final class Shape<K> {
+        private final K key;
+        private final String worldName;
+        private final double minX, minY, minZ, maxX, maxY, maxZ;
+        private final double radiusSquared;
+
+        private Shape(K key, String worldName, double minX, double minY, double minZ,
+                      double maxX, double maxY, double maxZ, double radiusSquared) {
+            this.key = key;
+            this.worldName = worldName;
+            this.minX = minX;
+            this.minY = minY;
+            this.minZ = minZ;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            this.maxZ = maxZ;
+            this.radiusSquared = radiusSquared;
+        }
+
+        private boolean contains(double x, double y, double z) {
+            if (x < minX || x > maxX || y < minY || y > maxY || z < minZ || z > maxZ) {
+                return false;
+            }
+            if (radiusSquared < 0) {
+                return true;
+            }
+            double dx = x - (minX + maxX) * 0.5;
+            double dy = y - (minY + maxY) * 0.5;
+            double dz = z - (minZ + maxZ) * 0.5;
+            return dx * dx + dy * dy + dz * dz <= radiusSquared;
+        }
+
+        private long chunkCount() {
+            return (long) (chunk(maxX) - chunk(minX) + 1) * (chunk(maxZ) - chunk(minZ) + 1);
+        }
+    }
+
+    /**
+     * Last block a player's regions were evaluated at. Regions only need to be re-evaluated
+     * after the player crossed a block boundary, changed world or the index changed.
+     *
+     * Последний блок, в котором были вычислены регионы игрока. Регионы нужно пересчитывать
+     * только после пересечения границы блока, смены мира или изменения индекса.
+     */
+    public static final class BlockPosition {
+        private String worldName;
+        private int x, y, z;
+        private long version = -1;
+
+        /**
+         * Moves to the given block
+         *
+         * @param indexVersion Current {@link RegionSpatialIndex#getVersion()}
+         * @return true if the position or the index changed since the last call
+         */
+        public boolean moveTo(String worldName, int x, int y, int z, long indexVersion) {
+            if (this.version == indexVersion && this.x == x && this.y == y && this.z == z
+                    && Objects.equals(this.worldName, worldName)) {
+                return false;
+            }
+            this.worldName = worldName;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.version = indexVersion;
+            return true;
+        }
+    }
+}
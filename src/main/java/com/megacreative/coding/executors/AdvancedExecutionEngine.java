@@ -3,7 +3,8 @@ package com.megacreative.coding.executors;
 import com.megacreative.MegaCreative;
 import com.megacreative.coding.CodeBlock;
 import com.megacreative.coding.CodeScript;
-import com.megacreative.coding.ExecutionContext;
+import com.megacreative.coding.DefaultScriptEngine;
+import com.megacreative.coding.monitoring.model.ExecutionStats;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.scheduler.BukkitTask;
@@ -13,17 +14,16 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.Map;
 import java.util.UUID;
-import java.util.List;
-import java.util.ArrayList;
 
 /**
  * 🎆 Reference System-Style Advanced Execution Engine
  * 
  * Provides sophisticated script execution modes for optimal performance:
  * - Synchronous execution for real-time operations
- * - Asynchronous execution for heavy computations
+ * - Asynchronous execution for heavy computations; world changes are buffered and applied on the main thread
  * - Batch execution for multiple scripts
  * - Prioritized execution queues
  * - Performance monitoring and throttling
@@ -65,37 +65,37 @@ public class AdvancedExecutionEngine {
     }
     
     private final MegaCreative plugin;
+    private final DefaultScriptEngine scriptEngine;
     private final ThreadPoolExecutor asyncExecutor;
+    private final MainThreadCommandBuffer commandBuffer = new MainThreadCommandBuffer();
     private final Map<UUID, ExecutionSession> activeSessions;
-    private final Map<Priority, List<ExecutionTask>> priorityQueues;
+    private final PriorityRunQueue<ExecutionTask> runQueue;
     private final ExecutionMonitor monitor;
     
     
-    private static final int MAX_ASYNC_THREADS = 4;
-    private static final int MAX_EXECUTION_TIME_MS = 5000; 
-    private static final int MAX_INSTRUCTIONS_PER_TICK = 1000;
-    private static final int BATCH_SIZE = 10;
+    private static final int MAX_ASYNC_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
+    private static final int BATCH_SIZE = 32;
+    private static final long AGING_STEP_MS = 500;
     
+    // Written from the main thread, the async pool and submitting threads alike
+    private final LongAdder totalExecutions = new LongAdder();
+    private final ExecutionStats executionStats = new ExecutionStats();
     
-    private long totalExecutions = 0;
-    private long successfulExecutions = 0;
-    private long failedExecutions = 0;
-    private long averageExecutionTime = 0;
-    
-    public AdvancedExecutionEngine(MegaCreative plugin) {
+    public AdvancedExecutionEngine(MegaCreative plugin, DefaultScriptEngine scriptEngine) {
         this.plugin = plugin;
-        this.asyncExecutor = (ThreadPoolExecutor) Executors.newFixedThreadPool(MAX_ASYNC_THREADS);
+        this.scriptEngine = scriptEngine;
+        this.asyncExecutor = (ThreadPoolExecutor) Executors.newFixedThreadPool(MAX_ASYNC_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "MegaCreative-ScriptAsync");
+            thread.setDaemon(true);
+            return thread;
+        });
         this.activeSessions = new ConcurrentHashMap<>();
-        this.priorityQueues = new ConcurrentHashMap<>();
+        this.runQueue = new PriorityRunQueue<>(AGING_STEP_MS);
         this.monitor = new ExecutionMonitor();
         
         
-        for (Priority priority : Priority.values()) {
-            priorityQueues.put(priority, new ArrayList<>());
-        }
-        
-        
         startBackgroundProcessor();
+        commandBuffer.start(plugin);
         
         plugin.getLogger().fine("🎆 Advanced Execution Engine initialized with " + MAX_ASYNC_THREADS + " async threads");
     }
@@ -109,7 +109,7 @@ public class AdvancedExecutionEngine {
         ExecutionSession session = new ExecutionSession(sessionId, script, player, mode, priority, trigger);
         activeSessions.put(sessionId, session);
         
-        totalExecutions++;
+        totalExecutions.increment();
         long startTime = System.currentTimeMillis();
         
         CompletableFuture<ExecutionResult> future = new CompletableFuture<>();
@@ -146,16 +146,7 @@ public class AdvancedExecutionEngine {
             new BukkitRunnable() {
                 @Override
                 public void run() {
-                    try {
-                        ExecutionResult result = executeScriptInternal(session);
-                        recordExecution(startTime, result.isSuccess());
-                        future.complete(result);
-                    } catch (Exception e) {
-                        recordExecution(startTime, false);
-                        future.complete(ExecutionResult.error("Sync execution failed: " + e.getMessage()));
-                    } finally {
-                        activeSessions.remove(session.getId());
-                    }
+                    completeWhenDone(session, executeScriptInternal(session), future, startTime, "Sync execution failed: ");
                 }
             }.runTask(plugin);
             
@@ -168,23 +159,34 @@ public class AdvancedExecutionEngine {
     }
     
     /**
-     * Execute script asynchronously on thread pool
+     * Execute script asynchronously on thread pool.
+     * The run is started on the main thread; a script whose blocks are all safe off the main thread then computes
+     * on a pool thread while its world changes go to the command buffer, any other script runs on the main thread.
+     * The future completes on the main thread once the changes of the run have been applied.
      */
     private CompletableFuture<ExecutionResult> executeAsynchronous(ExecutionSession session, 
                                                                   CompletableFuture<ExecutionResult> future, long startTime) {
         try {
             
-            asyncExecutor.submit(() -> {
+            plugin.getServer().getScheduler().runTask(plugin, () -> {
+                CompletableFuture<ExecutionResult> run;
                 try {
-                    ExecutionResult result = executeScriptInternal(session);
-                    recordExecution(startTime, result.isSuccess());
-                    future.complete(result);
+                    run = scriptEngine.executeScriptOffMainThread(session.getScript(), session.getPlayer(),
+                        session.getTrigger(), commandBuffer, asyncExecutor);
                 } catch (Exception e) {
-                    recordExecution(startTime, false);
-                    future.complete(ExecutionResult.error("Async execution failed: " + e.getMessage()));
-                } finally {
-                    activeSessions.remove(session.getId());
+                    run = CompletableFuture.completedFuture(ExecutionResult.error("Async execution failed: " + e.getMessage()));
                 }
+                run.whenComplete((result, error) -> {
+                    ExecutionResult outcome = error != null || result == null
+                        ? ExecutionResult.error("Async execution failed: " + (error != null ? error.getMessage() : "no result"))
+                        : result;
+                    // Queued behind the run's own world changes, so callers see them applied
+                    commandBuffer.submit(() -> {
+                        recordExecution(startTime, outcome.isSuccess());
+                        activeSessions.remove(session.getId());
+                        future.complete(outcome);
+                    });
+                });
             });
             
         } catch (Exception e) {
@@ -204,16 +206,7 @@ public class AdvancedExecutionEngine {
             new BukkitRunnable() {
                 @Override
                 public void run() {
-                    try {
-                        ExecutionResult result = executeScriptInternal(session);
-                        recordExecution(startTime, result.isSuccess());
-                        future.complete(result);
-                    } catch (Exception e) {
-                        recordExecution(startTime, false);
-                        future.complete(ExecutionResult.error("Delayed execution failed: " + e.getMessage()));
-                    } finally {
-                        activeSessions.remove(session.getId());
-                    }
+                    completeWhenDone(session, executeScriptInternal(session), future, startTime, "Delayed execution failed: ");
                 }
             }.runTaskLater(plugin, delayTicks);
             
@@ -230,11 +223,7 @@ public class AdvancedExecutionEngine {
      */
     private CompletableFuture<ExecutionResult> executeBatch(ExecutionSession session, 
                                                            CompletableFuture<ExecutionResult> future, long startTime) {
-        
-        synchronized (priorityQueues.get(Priority.NORMAL)) {
-            priorityQueues.get(Priority.NORMAL).add(new ExecutionTask(session, future, startTime));
-        }
-        
+        runQueue.offer(Priority.NORMAL, new ExecutionTask(session, future, startTime));
         return future;
     }
     
@@ -243,145 +232,65 @@ public class AdvancedExecutionEngine {
      */
     private CompletableFuture<ExecutionResult> executePrioritized(ExecutionSession session, 
                                                                  CompletableFuture<ExecutionResult> future, long startTime) {
-        synchronized (priorityQueues.get(session.getPriority())) {
-            priorityQueues.get(session.getPriority()).add(new ExecutionTask(session, future, startTime));
-        }
-        
+        runQueue.offer(session.getPriority(), new ExecutionTask(session, future, startTime));
         return future;
     }
     
     /**
-     * Internal script execution logic
+     * Internal script execution logic.
+     * Runs the first slice on the calling thread; the rest of a long run shares the tick budget
+     * of the script engine under the session priority, so the caller must not block on the result.
      */
-    private ExecutionResult executeScriptInternal(ExecutionSession session) {
+    private CompletableFuture<ExecutionResult> executeScriptInternal(ExecutionSession session) {
         try {
-            
-            ExecutionContext context = new ExecutionContext.Builder()
-                .plugin(plugin)
-                .player(session.getPlayer())
-                .creativeWorld(plugin.getServiceRegistry().getWorldManager().findCreativeWorldByBukkit(session.getPlayer().getWorld()))
-                .currentBlock(session.getScript().getRootBlock())
-                .executionMode(session.getMode())
-                .priority(session.getPriority())
-                .maxInstructions(getMaxInstructionsForPriority(session.getPriority()))
-                .build();
-            
-            
-            context.setExecutionTimeout(System.currentTimeMillis() + MAX_EXECUTION_TIME_MS);
-            
-            
-            return plugin.getServiceRegistry().getService(com.megacreative.coding.ScriptEngine.class)
-                .executeScript(session.getScript(), session.getPlayer(), session.getTrigger())
-                .get(MAX_EXECUTION_TIME_MS, TimeUnit.MILLISECONDS);
-                
+            return scriptEngine.executeScript(session.getScript(), session.getPlayer(), session.getTrigger(),
+                session.getPriority());
         } catch (Exception e) {
-            return ExecutionResult.error("Script execution failed: " + e.getMessage());
+            return CompletableFuture.completedFuture(ExecutionResult.error("Script execution failed: " + e.getMessage()));
         }
     }
     
     /**
-     * Get maximum instructions allowed based on priority
+     * Completes the session future once the run has finished and records its statistics
      */
-    private int getMaxInstructionsForPriority(Priority priority) {
-        switch (priority) {
-            case CRITICAL: return MAX_INSTRUCTIONS_PER_TICK * 2;
-            case HIGH: return MAX_INSTRUCTIONS_PER_TICK;
-            case NORMAL: return MAX_INSTRUCTIONS_PER_TICK / 2;
-            case LOW: return MAX_INSTRUCTIONS_PER_TICK / 4;
-            case IDLE: return MAX_INSTRUCTIONS_PER_TICK / 8;
-            default: return MAX_INSTRUCTIONS_PER_TICK;
-        }
+    private void completeWhenDone(ExecutionSession session, CompletableFuture<ExecutionResult> run,
+                                  CompletableFuture<ExecutionResult> future, long startTime, String failurePrefix) {
+        run.whenComplete((result, error) -> {
+            ExecutionResult outcome = error != null || result == null
+                ? ExecutionResult.error(failurePrefix + (error != null ? error.getMessage() : "no result"))
+                : result;
+            recordExecution(startTime, outcome.isSuccess());
+            activeSessions.remove(session.getId());
+            future.complete(outcome);
+        });
     }
     
     /**
-     * Start background processor for batch and prioritized execution
+     * Start background processor for batch and prioritized execution.
+     * It drains the run queue on the main thread every tick, at most one batch per tick.
      */
     private void startBackgroundProcessor() {
         new BukkitRunnable() {
             @Override
             public void run() {
-                processPriorityQueues();
-                processBatchQueues();
+                runQueue.drain(BATCH_SIZE, AdvancedExecutionEngine.this::executeTask);
                 monitor.updateStatistics();
             }
-        }.runTaskTimerAsynchronously(plugin, 20L, 20L); 
-    }
-    
-    /**
-     * Process priority-based execution queues
-     */
-    private void processPriorityQueues() {
-        for (Priority priority : Priority.values()) {
-            List<ExecutionTask> queue = priorityQueues.get(priority);
-            if (queue.isEmpty()) continue;
-            
-            synchronized (queue) {
-                int processed = 0;
-                int maxToProcess = getMaxTasksForPriority(priority);
-                
-                while (!queue.isEmpty() && processed < maxToProcess) {
-                    ExecutionTask task = queue.remove(0);
-                    executeTask(task);
-                    processed++;
-                }
-            }
-        }
-    }
-    
-    /**
-     * Process batch execution queues
-     */
-    private void processBatchQueues() {
-        List<ExecutionTask> batchQueue = priorityQueues.get(Priority.NORMAL);
-        
-        synchronized (batchQueue) {
-            if (batchQueue.size() >= BATCH_SIZE) {
-                List<ExecutionTask> batch = new ArrayList<>();
-                for (int i = 0; i < BATCH_SIZE && !batchQueue.isEmpty(); i++) {
-                    batch.add(batchQueue.remove(0));
-                }
-                
-                
-                new BukkitRunnable() {
-                    @Override
-                    public void run() {
-                        for (ExecutionTask task : batch) {
-                            executeTask(task);
-                        }
-                    }
-                }.runTask(plugin);
-            }
-        }
+        }.runTaskTimer(plugin, 1L, 1L); 
     }
     
     /**
-     * Execute a single task
+     * Execute a single task; a session cancelled while its task waited is not started
      */
     private void executeTask(ExecutionTask task) {
-        try {
-            ExecutionResult result = executeScriptInternal(task.getSession());
-            recordExecution(task.getStartTime(), result.isSuccess());
-            task.getFuture().complete(result);
-        } catch (Exception e) {
-            recordExecution(task.getStartTime(), false);
-            task.getFuture().complete(ExecutionResult.error("Task execution failed: " + e.getMessage()));
-        } finally {
-            activeSessions.remove(task.getSession().getId());
-        }
-    }
-    
-    /**
-     * Get maximum tasks to process per priority level
-     */
-    private int getMaxTasksForPriority(Priority priority) {
-        switch (priority) {
-            case CRITICAL: return 20;
-            case HIGH: return 15;
-            case NORMAL: return 10;
-            case LOW: return 5;
-            case IDLE: return 2;
-            default: return 10;
+        ExecutionSession session = task.getSession();
+        if (session.isCancelled()) {
+            activeSessions.remove(session.getId());
+            task.getFuture().complete(ExecutionResult.success("Execution cancelled"));
+            return;
         }
+        completeWhenDone(session, executeScriptInternal(session), task.getFuture(),
+            task.getStartTime(), "Task execution failed: ");
     }
     
     /**
@@ -389,16 +298,7 @@ public class AdvancedExecutionEngine {
      */
     private void recordExecution(long startTime, boolean success) {
         long executionTime = System.currentTimeMillis() - startTime;
-        
-        if (success) {
-            successfulExecutions++;
-        } else {
-            failedExecutions++;
-        }
-        
-        
-        averageExecutionTime = (averageExecutionTime + executionTime) / 2;
-        
+        executionStats.record(executionTime, success);
         monitor.recordExecution(executionTime, success);
     }
     
@@ -407,13 +307,14 @@ public class AdvancedExecutionEngine {
      */
     public ExecutionStatistics getStatistics() {
         return new ExecutionStatistics(
-            totalExecutions,
-            successfulExecutions,
-            failedExecutions,
-            averageExecutionTime,
+            totalExecutions.sum(),
+            executionStats.getSuccessCount(),
+            executionStats.getFailureCount(),
+            (long) executionStats.getAverageExecutionTime(),
             activeSessions.size(),
             asyncExecutor.getActiveCount(),
-            monitor.getThroughput()
+            monitor.getThroughput(),
+            runQueue.size()
         );
     }
     
@@ -439,7 +340,8 @@ public class AdvancedExecutionEngine {
         activeSessions.clear();
         
         
-        priorityQueues.values().forEach(List::clear);
+        runQueue.drain(Integer.MAX_VALUE, task ->
+            task.getFuture().complete(ExecutionResult.error("Execution engine shut down")));
         
         
         asyncExecutor.shutdown();
@@ -451,6 +353,7 @@ public class AdvancedExecutionEngine {
             asyncExecutor.shutdownNow();
             Thread.currentThread().interrupt();
         }
+        commandBuffer.stop();
         
         plugin.getLogger().fine("🎆 Advanced Execution Engine shutdown complete");
     }
@@ -514,20 +417,22 @@ public class AdvancedExecutionEngine {
      */
     private static class ExecutionMonitor {
         private long lastUpdateTime = System.currentTimeMillis();
-        private long executionsLastSecond = 0;
-        private double throughput = 0.0;
+        private final LongAdder executionsLastSecond = new LongAdder();
+        private volatile double throughput = 0.0;
         
         public void recordExecution(long executionTime, boolean success) {
-            executionsLastSecond++;
+            executionsLastSecond.increment();
         }
         
+        /**
+         * Recomputes the throughput once a second; only called from the main thread
+         */
         public void updateStatistics() {
             long currentTime = System.currentTimeMillis();
             long timeDiff = currentTime - lastUpdateTime;
             
             if (timeDiff >= 1000) { 
-                throughput = (executionsLastSecond * 1000.0) / timeDiff;
-                executionsLastSecond = 0;
+                throughput = (executionsLastSecond.sumThenReset() * 1000.0) / timeDiff;
                 lastUpdateTime = currentTime;
             }
         }
@@ -548,9 +453,11 @@ public class AdvancedExecutionEngine {
         private final int activeSessions;
         private final int activeThreads;
         private final double throughput;
+        private final int queuedTasks;
         
         public ExecutionStatistics(long totalExecutions, long successfulExecutions, long failedExecutions,
-                                 long averageExecutionTime, int activeSessions, int activeThreads, double throughput) {
+                                 long averageExecutionTime, int activeSessions, int activeThreads, double throughput,
+                                 int queuedTasks) {
             this.totalExecutions = totalExecutions;
             this.successfulExecutions = successfulExecutions;
             this.failedExecutions = failedExecutions;
@@ -558,6 +465,7 @@ public class AdvancedExecutionEngine {
             this.activeSessions = activeSessions;
             this.activeThreads = activeThreads;
             this.throughput = throughput;
+            this.queuedTasks = queuedTasks;
         }
         
         
@@ -568,6 +476,7 @@ public class AdvancedExecutionEngine {
         public int getActiveSessions() { return activeSessions; }
         public int getActiveThreads() { return activeThreads; }
         public double getThroughput() { return throughput; }
+        public int getQueuedTasks() { return queuedTasks; }
         public double getSuccessRate() { 
             return totalExecutions > 0 ? (double) successfulExecutions / totalExecutions * 100 : 0;
         }
@@ -27,6 +27,7 @@ public class ExecutionResult {
     // This field is modified in the withPause() method, so it cannot be final
     // Static analysis flags it as potentially final, but this is a false positive
     private CompletableFuture<?> awaitFuture;
+    private final boolean yielded;
 
     private ExecutionResult(Builder builder) {
         this.success = builder.success;
@@ -38,6 +39,7 @@ public class ExecutionResult {
         this.details = builder.details != null ? new HashMap<>(builder.details) : new HashMap<>();
         this.pauseTicks = builder.pauseTicks;
         this.awaitFuture = builder.awaitFuture;
+        this.yielded = builder.yielded;
     }
 
     
@@ -135,6 +137,13 @@ public class ExecutionResult {
         return awaitFuture;
     }
 
+    /**
+     * Checks if the run used up its slice and continues in a later slice
+     */
+    public boolean isYield() {
+        return yielded;
+    }
+
     /**
      * Creates a success result with a message
      */
@@ -192,6 +201,17 @@ public class ExecutionResult {
             .build();
     }
     
+    /**
+     * Creates a yield result: the run used up its instruction or time slice and is carried over, not failed
+     */
+    public static ExecutionResult yieldSlice() {
+        return new Builder()
+            .success(true)
+            .message("Execution yielded until the next slice")
+            .yielded(true)
+            .build();
+    }
+    
     /**
      * Gets additional details about the execution result
      */
@@ -254,6 +274,7 @@ public class ExecutionResult {
         // This field is modified in the builder, so it cannot be final
         // Static analysis flags it as potentially final, but this is a false positive
         private CompletableFuture<?> awaitFuture = null;
+        private boolean yielded;
 
         public Builder() {
         }
@@ -310,6 +331,11 @@ public class ExecutionResult {
             this.awaitFuture = awaitFuture;
             return this;
         }
+        
+        public Builder yielded(boolean yielded) {
+            this.yielded = yielded;
+            return this;
+        }
 
         public ExecutionResult build() {
             return new ExecutionResult(this);
@@ -0,0 +1,91 @@
+package com.megacreative.coding.executors;
+
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * World changes recorded by scripts running off the main thread.
+ * Actions of an asynchronous run only compute what to change and submit the change here;
+ * once per tick the buffer is drained on the main thread and every change is applied in submission order.
+ * The order of one run's changes is kept because a run submits from one thread at a time.
+ *
+ * Изменения мира, записанные скриптами, выполняющимися вне основного потока.
+ * Действия асинхронного выполнения только вычисляют, что изменить, и передают изменение сюда;
+ * раз в тик буфер опустошается в основном потоке и каждое изменение применяется в порядке передачи.
+ * Порядок изменений одного выполнения сохраняется, так как выполнение передает их из одного потока за раз.
+ */
+public final class MainThreadCommandBuffer {
+
+    private static final Logger LOGGER = Logger.getLogger(MainThreadCommandBuffer.class.getName());
+
+    private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private BukkitTask drainTask;
+
+    /**
+     * Starts draining the buffer every tick
+     */
+    public synchronized void start(Plugin plugin) {
+        if (drainTask == null) {
+            drainTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::drain, 1L, 1L);
+        }
+    }
+
+    /**
+     * Records a change; it is applied on the main thread within the next tick
+     */
+    public void submit(Runnable command) {
+        pending.incrementAndGet();
+        commands.add(command);
+    }
+
+    /**
+     * Applies every change submitted before the drain started; must run on the main thread.
+     * Changes submitted while draining wait for the next tick, so a drain always ends.
+     *
+     * @return The number of applied changes
+     */
+    public int drain() {
+        int count = pending.get();
+        int applied = 0;
+        while (applied < count) {
+            Runnable command = commands.poll();
+            if (command == null) {
+                break;
+            }
+            applied++;
+            try {
+                command.run();
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Failed to apply a world change of an asynchronous script", e);
+            }
+        }
+        pending.addAndGet(-applied);
+        return applied;
+    }
+
+    /**
+     * Gets the number of changes waiting for the next drain
+     */
+    public int size() {
+        return pending.get();
+    }
+
+    /**
+     * Stops draining and drops the changes still waiting
+     */
+    public synchronized void stop() {
+        if (drainTask != null) {
+            drainTask.cancel();
+            drainTask = null;
+        }
+        commands.clear();
+        pending.set(0);
+    }
+}
@@ -0,0 +1,122 @@
+package com.megacreative.coding.executors;
+
+import com.megacreative.coding.executors.AdvancedExecutionEngine.Priority;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Run queue with one lock-free FIFO per priority.
+ * Any thread may offer; one thread drains in batches. A drain serves the queue whose head ranks best,
+ * where the rank is the priority level minus one per aging step the head has waited. A waiting low-priority
+ * task therefore climbs one level per step until it is served, so a stream of high-priority work cannot starve it.
+ *
+ * Очередь выполнения с одной неблокирующей FIFO-очередью на приоритет.
+ * Добавлять может любой поток; опустошает пакетами один поток. Опустошение обслуживает очередь с лучшим рангом головы,
+ * где ранг - уровень приоритета минус один за каждый шаг старения, который голова прождала. Ожидающая задача
+ * с низким приоритетом поднимается на уровень за шаг, пока ее не обслужат, поэтому поток срочной работы не может ее заморить.
+ */
+final class PriorityRunQueue<T> {
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final Queue<Entry<T>>[] queues;
+    private final LongAdder size = new LongAdder();
+    private final long agingStepNanos;
+    private final LongSupplier nanoClock;
+
+    /**
+     * @param agingStepMillis Waiting time that promotes a task by one priority level
+     */
+    PriorityRunQueue(long agingStepMillis) {
+        this(agingStepMillis, System::nanoTime);
+    }
+
+    /**
+     * @param agingStepMillis Waiting time that promotes a task by one priority level
+     * @param nanoClock Time source in {@link System#nanoTime()} units
+     */
+    @SuppressWarnings("unchecked")
+    PriorityRunQueue(long agingStepMillis, LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.agingStepNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, agingStepMillis));
+        this.queues = new Queue[PRIORITIES.length];
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Adds a task; safe to call from any thread and never blocks
+     */
+    void offer(Priority priority, T task) {
+        Priority level = priority != null ? priority : Priority.NORMAL;
+        queues[level.ordinal()].offer(new Entry<>(task, nanoClock.getAsLong()));
+        size.increment();
+    }
+
+    /**
+     * Hands up to {@code max} tasks to the sink, best rank first; must only be called from one thread at a time
+     *
+     * @return The number of drained tasks
+     */
+    int drain(int max, Consumer<? super T> sink) {
+        int drained = 0;
+        while (drained < max) {
+            long now = nanoClock.getAsLong();
+            int best = -1;
+            long bestRank = Long.MAX_VALUE;
+            for (int i = 0; i < queues.length; i++) {
+                Entry<T> head = queues[i].peek();
+                if (head == null) {
+                    continue;
+                }
+                long rank = PRIORITIES[i].getLevel() - (now - head.enqueuedAt) / agingStepNanos;
+                // Strictly better only: on equal rank the higher base priority, checked first, keeps the turn
+                if (rank < bestRank) {
+                    best = i;
+                    bestRank = rank;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            // The only consumer, so the head that was ranked is still the head
+            Entry<T> entry = queues[best].poll();
+            size.decrement();
+            drained++;
+            sink.accept(entry.task);
+        }
+        return drained;
+    }
+
+    /**
+     * Gets the number of queued tasks
+     */
+    int size() {
+        return (int) Math.max(0, size.sum());
+    }
+
+    boolean isEmpty() {
+        for (Queue<Entry<T>> queue : queues) {
+            if (!queue.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Entry<T> {
+        private final T task;
+        private final long enqueuedAt;
+
+        private Entry(T task, long enqueuedAt) {
+            this.task = task;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
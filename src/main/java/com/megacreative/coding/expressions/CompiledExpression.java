@@ -0,0 +1,288 @@
+package com.megacreative.coding.expressions;
+
+import com.megacreative.coding.ExecutionContext;
+import com.megacreative.coding.values.DataValue;
+import com.megacreative.coding.variables.LocalFrame;
+import com.megacreative.exceptions.ScriptException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An arithmetic expression compiled once into a flat postfix program over doubles.
+ * Supports + - * / % ^, unary minus, parentheses, numbers, variable names and the functions
+ * min, max, abs, floor, ceil, round, sqrt and pow. Constant subexpressions are folded at
+ * compile time, and variables are bound to the frame slots of the running compiled script.
+ *
+ * Арифметическое выражение, один раз скомпилированное в плоскую постфиксную программу над double.
+ * Поддерживает + - * / % ^, унарный минус, скобки, числа, имена переменных и функции
+ * min, max, abs, floor, ceil, round, sqrt и pow. Константные подвыражения сворачиваются при
+ * компиляции, а переменные привязываются к слотам фрейма выполняемого скомпилированного скрипта.
+ */
+public final class CompiledExpression {
+
+    static final byte CONST = 0;
+    static final byte VAR = 1;
+    static final byte NEG = 2;
+    static final byte ADD = 3;
+    static final byte SUB = 4;
+    static final byte MUL = 5;
+    static final byte DIV = 6;
+    static final byte MOD = 7;
+    static final byte POW = 8;
+    static final byte CALL = 9;
+    static final byte PARAM = 10;
+
+    /**
+     * Compiled expressions by source text; dropped wholesale when full, since they are cheap to rebuild
+     */
+    private static final int MAX_CACHED_EXPRESSIONS = 2048;
+    private static final Map<String, CompiledExpression> CACHE = new ConcurrentHashMap<>();
+
+    private final String source;
+    private final byte[] ops;
+    private final int[] operands;
+    private final double[] constants;
+    private final String[] variables;
+    private final MathFunction[] functions;
+    private final int[] argumentCounts;
+    private final int maxStack;
+    private final boolean parametric;
+    private volatile SlotBinding binding;
+
+    CompiledExpression(String source, byte[] ops, int[] operands, double[] constants, String[] variables,
+                       MathFunction[] functions, int[] argumentCounts, int maxStack) {
+        this.source = source;
+        this.ops = ops;
+        this.operands = operands;
+        this.constants = constants;
+        this.variables = variables;
+        this.functions = functions;
+        this.argumentCounts = argumentCounts;
+        this.maxStack = maxStack;
+        boolean usesParameters = false;
+        for (byte op : ops) {
+            usesParameters |= op == PARAM;
+        }
+        this.parametric = usesParameters;
+    }
+
+    /**
+     * Compiles an expression
+     *
+     * @param source The expression text, e.g. "max(score, 0) * 2 + 1"
+     * @return The compiled expression
+     * @throws ScriptException if the text is not a valid expression
+     */
+    public static CompiledExpression compile(String source) {
+        return ExpressionParser.parse(source);
+    }
+
+    /**
+     * Gets the compiled form of an expression, compiling it on first use
+     *
+     * @throws ScriptException if the text is not a valid expression
+     */
+    public static CompiledExpression cached(String source) {
+        CompiledExpression expression = CACHE.get(source);
+        if (expression == null) {
+            if (CACHE.size() >= MAX_CACHED_EXPRESSIONS) {
+                CACHE.clear();
+            }
+            expression = compile(source);
+            CACHE.put(source, expression);
+        }
+        return expression;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Checks if the expression does not depend on any variable or parameter
+     */
+    public boolean isConstant() {
+        return variables.length == 0 && !parametric;
+    }
+
+    /**
+     * Checks if the whole expression is a single variable name
+     */
+    public boolean isVariable() {
+        return ops.length == 1 && ops[0] == VAR;
+    }
+
+    /**
+     * Gets the variable names the expression reads, in order of first use
+     */
+    public List<String> getVariableNames() {
+        return Collections.unmodifiableList(Arrays.asList(variables));
+    }
+
+    /**
+     * Evaluates the expression against the variables of a script execution.
+     * Variables bound to a frame slot are read from the slot; the rest are resolved by name.
+     * Missing or non-numeric variables count as 0.
+     *
+     * Вычисляет выражение по переменным выполнения скрипта.
+     * Переменные, привязанные к слоту фрейма, читаются из слота; остальные ищутся по имени.
+     * Отсутствующие и нечисловые переменные считаются равными 0.
+     */
+    public double evaluate(ExecutionContext context) {
+        return evaluate(context, null);
+    }
+
+    /**
+     * Evaluates an expression compiled from a template, with the values of its $n parameters
+     */
+    double evaluate(ExecutionContext context, double[] parameters) {
+        if (ops.length == 1 && ops[0] == CONST) {
+            return constants[operands[0]];
+        }
+        return run(context, bindSlots(context.getLocalFrame()), null, parameters);
+    }
+
+    /**
+     * Evaluates the expression with variables supplied by the caller
+     */
+    public double evaluate(Variables values) {
+        return run(null, null, values, null);
+    }
+
+    /**
+     * Evaluates an expression compiled from a template with caller supplied variables and its $n parameters
+     */
+    double evaluate(Variables values, double[] parameters) {
+        return run(null, null, values, parameters);
+    }
+
+    /**
+     * Checks if a text is a single token that may also be the name of a variable, e.g. "my-var" or "a.b".
+     * Such operands are looked up as a variable first, because names like these were legal before
+     * operands were parsed as expressions
+     */
+    public static boolean couldBeVariableName(String text) {
+        if (text == null || text.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c) || c == '(' || c == ')' || c == ',') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private double run(ExecutionContext context, int[] slots, Variables values, double[] parameters) {
+        double[] stack = new double[maxStack];
+        int top = 0;
+        for (int pc = 0; pc < ops.length; pc++) {
+            int operand = operands[pc];
+            switch (ops[pc]) {
+                case CONST:
+                    stack[top++] = constants[operand];
+                    break;
+                case VAR:
+                    if (values != null) {
+                        stack[top++] = values.get(variables[operand]);
+                    } else if (slots != null && slots[operand] >= 0) {
+                        stack[top++] = context.getLocalNumber(slots[operand]);
+                    } else {
+                        stack[top++] = readNumber(context, variables[operand]);
+                    }
+                    break;
+                case PARAM:
+                    stack[top++] = parameters[operand];
+                    break;
+                case NEG:
+                    stack[top - 1] = -stack[top - 1];
+                    break;
+                case CALL: {
+                    int count = argumentCounts[operand];
+                    top -= count;
+                    stack[top] = functions[operand].apply(stack, top, count);
+                    top++;
+                    break;
+                }
+                default:
+                    top--;
+                    stack[top - 1] = applyBinary(ops[pc], stack[top - 1], stack[top]);
+                    break;
+            }
+        }
+        return stack[0];
+    }
+
+    static double applyBinary(byte op, double left, double right) {
+        switch (op) {
+            case ADD:
+                return left + right;
+            case SUB:
+                return left - right;
+            case MUL:
+                return left * right;
+            case DIV:
+                return left / right;
+            case MOD:
+                return left % right;
+            case POW:
+                return Math.pow(left, right);
+            default:
+                throw new IllegalStateException("Not a binary operator: " + op);
+        }
+    }
+
+    /**
+     * Maps every variable to its slot in frames of the given layout, reusing the last mapping while the layout is the same
+     */
+    private int[] bindSlots(LocalFrame frame) {
+        if (frame == null || variables.length == 0) {
+            return null;
+        }
+        SlotBinding current = binding;
+        if (current != null && current.layout == frame.getLayout()) {
+            return current.slots;
+        }
+        int[] slots = new int[variables.length];
+        for (int i = 0; i < variables.length; i++) {
+            slots[i] = frame.slotOf(variables[i]);
+        }
+        binding = new SlotBinding(frame.getLayout(), slots);
+        return slots;
+    }
+
+    private static double readNumber(ExecutionContext context, String name) {
+        DataValue value = context.getVariableAsDataValue(name);
+        if (value == null || value.isEmpty()) {
+            return 0;
+        }
+        try {
+            return value.asNumber().doubleValue();
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Supplies variable values by name
+     */
+    @FunctionalInterface
+    public interface Variables {
+        double get(String name);
+    }
+
+    private static final class SlotBinding {
+        private final Map<String, Integer> layout;
+        private final int[] slots;
+
+        private SlotBinding(Map<String, Integer> layout, int[] slots) {
+            this.layout = layout;
+            this.slots = slots;
+        }
+    }
+}
@@ -0,0 +1,408 @@
+package com.megacreative.coding.expressions;
+
+import com.megacreative.exceptions.ScriptException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recursive descent parser turning expression text into a {@link CompiledExpression}.
+ * The text is parsed into a small tree with constants folded, which is then emitted in postfix order.
+ *
+ * Парсер рекурсивного спуска, превращающий текст выражения в {@link CompiledExpression}.
+ * Текст разбирается в небольшое дерево со свернутыми константами, которое затем выводится в постфиксном порядке.
+ */
+final class ExpressionParser {
+
+    /**
+     * Deepest nesting of parentheses, unary operators and calls accepted
+     */
+    private static final int MAX_DEPTH = 64;
+
+    private final String text;
+    private final int parameterCount;
+    private final Map<String, Integer> variables = new LinkedHashMap<>();
+    private int pos;
+    private int depth;
+
+    private ExpressionParser(String text, int parameterCount) {
+        this.text = text;
+        this.parameterCount = parameterCount;
+    }
+
+    static CompiledExpression parse(String text) {
+        return parse(text, 0);
+    }
+
+    /**
+     * Parses an expression that may refer to values supplied at evaluation time as $0 .. $(parameterCount - 1)
+     */
+    static CompiledExpression parse(String text, int parameterCount) {
+        if (text == null || text.isBlank()) {
+            throw new ScriptException("Invalid expression: empty");
+        }
+        ExpressionParser parser = new ExpressionParser(text, parameterCount);
+        Node root = parser.parseAdditive();
+        parser.skipWhitespace();
+        if (parser.pos < text.length()) {
+            throw parser.error("unexpected '" + text.charAt(parser.pos) + "'");
+        }
+
+        Program program = new Program();
+        root.emit(program);
+        return program.build(text, parser.variables.keySet().toArray(new String[0]));
+    }
+
+    private Node parseAdditive() {
+        Node left = parseMultiplicative();
+        while (true) {
+            if (accept('+')) {
+                left = binary(CompiledExpression.ADD, left, parseMultiplicative());
+            } else if (accept('-')) {
+                left = binary(CompiledExpression.SUB, left, parseMultiplicative());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Node parseMultiplicative() {
+        Node left = parseUnary();
+        while (true) {
+            if (accept('*')) {
+                left = binary(CompiledExpression.MUL, left, parseUnary());
+            } else if (accept('/')) {
+                left = binary(CompiledExpression.DIV, left, parseUnary());
+            } else if (accept('%')) {
+                left = binary(CompiledExpression.MOD, left, parseUnary());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Node parseUnary() {
+        enter();
+        try {
+            if (accept('-')) {
+                Node operand = parseUnary();
+                return operand instanceof Constant constant ? new Constant(-constant.value) : new Negate(operand);
+            }
+            if (accept('+')) {
+                return parseUnary();
+            }
+            return parsePower();
+        } finally {
+            depth--;
+        }
+    }
+
+    /**
+     * Exponentiation binds tighter than unary minus on its left and is right-associative: -2^2 is -4, 2^3^2 is 512
+     */
+    private Node parsePower() {
+        Node base = parsePrimary();
+        if (accept('^')) {
+            return binary(CompiledExpression.POW, base, parseUnary());
+        }
+        return base;
+    }
+
+    private Node parsePrimary() {
+        skipWhitespace();
+        if (pos >= text.length()) {
+            throw error("unexpected end");
+        }
+        char c = text.charAt(pos);
+        if (c == '(') {
+            pos++;
+            enter();
+            Node inner = parseAdditive();
+            depth--;
+            expect(')');
+            return inner;
+        }
+        if (isDigit(c) || c == '.') {
+            return parseNumber();
+        }
+        if (Character.isLetter(c) || c == '_') {
+            return parseName();
+        }
+        if (c == '$' && parameterCount > 0) {
+            return parseParameter();
+        }
+        throw error("unexpected '" + c + "'");
+    }
+
+    private Node parseParameter() {
+        int start = ++pos;
+        while (pos < text.length() && isDigit(text.charAt(pos))) {
+            pos++;
+        }
+        if (pos == start) {
+            throw error("expected a parameter index");
+        }
+        int index = Integer.parseInt(text.substring(start, pos));
+        if (index >= parameterCount) {
+            throw error("unknown parameter $" + index);
+        }
+        return new Parameter(index);
+    }
+
+    private Node parseNumber() {
+        int start = pos;
+        while (pos < text.length() && (isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+            pos++;
+        }
+        if (pos < text.length() && (text.charAt(pos) == 'e' || text.charAt(pos) == 'E')) {
+            int exponent = pos + 1;
+            if (exponent < text.length() && (text.charAt(exponent) == '+' || text.charAt(exponent) == '-')) {
+                exponent++;
+            }
+            if (exponent < text.length() && isDigit(text.charAt(exponent))) {
+                pos = exponent;
+                while (pos < text.length() && isDigit(text.charAt(pos))) {
+                    pos++;
+                }
+            }
+        }
+        try {
+            return new Constant(Double.parseDouble(text.substring(start, pos)));
+        } catch (NumberFormatException e) {
+            throw error("bad number '" + text.substring(start, pos) + "'");
+        }
+    }
+
+    private Node parseName() {
+        int start = pos;
+        while (pos < text.length() && isNameChar(text.charAt(pos))) {
+            pos++;
+        }
+        String name = text.substring(start, pos);
+        if (!accept('(')) {
+            return new Variable(variables.computeIfAbsent(name, n -> variables.size()));
+        }
+
+        MathFunction function = MathFunction.byName(name);
+        if (function == null) {
+            throw error("unknown function '" + name + "'");
+        }
+        enter();
+        List<Node> arguments = new ArrayList<>();
+        if (!accept(')')) {
+            do {
+                arguments.add(parseAdditive());
+            } while (accept(','));
+            expect(')');
+        }
+        depth--;
+        if (!function.accepts(arguments.size())) {
+            throw error("wrong number of arguments for '" + name + "'");
+        }
+        return call(function, arguments.toArray(new Node[0]));
+    }
+
+    private static Node binary(byte op, Node left, Node right) {
+        if (left instanceof Constant l && right instanceof Constant r) {
+            return new Constant(CompiledExpression.applyBinary(op, l.value, r.value));
+        }
+        return new Binary(op, left, right);
+    }
+
+    private static Node call(MathFunction function, Node[] arguments) {
+        double[] values = new double[arguments.length];
+        for (int i = 0; i < arguments.length; i++) {
+            if (!(arguments[i] instanceof Constant constant)) {
+                return new Call(function, arguments);
+            }
+            values[i] = constant.value;
+        }
+        return new Constant(function.apply(values, 0, values.length));
+    }
+
+    private boolean accept(char expected) {
+        skipWhitespace();
+        if (pos < text.length() && text.charAt(pos) == expected) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char expected) {
+        if (!accept(expected)) {
+            throw error("expected '" + expected + "'");
+        }
+    }
+
+    private void enter() {
+        if (++depth > MAX_DEPTH) {
+            throw error("nested too deeply");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isNameChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '.';
+    }
+
+    private ScriptException error(String message) {
+        return new ScriptException("Invalid expression '" + text + "' at " + pos + ": " + message);
+    }
+
+    private abstract static class Node {
+        abstract void emit(Program program);
+    }
+
+    private static final class Constant extends Node {
+        private final double value;
+
+        private Constant(double value) {
+            this.value = value;
+        }
+
+        @Override
+        void emit(Program program) {
+            program.add(CompiledExpression.CONST, program.constant(value), 1);
+        }
+    }
+
+    private static final class Variable extends Node {
+        private final int index;
+
+        private Variable(int index) {
+            this.index = index;
+        }
+
+        @Override
+        void emit(Program program) {
+            program.add(CompiledExpression.VAR, index, 1);
+        }
+    }
+
+    private static final class Parameter extends Node {
+        private final int index;
+
+        private Parameter(int index) {
+            this.index = index;
+        }
+
+        @Override
+        void emit(Program program) {
+            program.add(CompiledExpression.PARAM, index, 1);
+        }
+    }
+
+    private static final class Negate extends Node {
+        private final Node operand;
+
+        private Negate(Node operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        void emit(Program program) {
+            operand.emit(program);
+            program.add(CompiledExpression.NEG, 0, 0);
+        }
+    }
+
+    private static final class Binary extends Node {
+        private final byte op;
+        private final Node left;
+        private final Node right;
+
+        private Binary(byte op, Node left, Node right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        void emit(Program program) {
+            left.emit(program);
+            right.emit(program);
+            program.add(op, 0, -1);
+        }
+    }
+
+    private static final class Call extends Node {
+        private final MathFunction function;
+        private final Node[] arguments;
+
+        private Call(MathFunction function, Node[] arguments) {
+            this.function = function;
+            this.arguments = arguments;
+        }
+
+        @Override
+        void emit(Program program) {
+            for (Node argument : arguments) {
+                argument.emit(program);
+            }
+            program.add(CompiledExpression.CALL, program.function(function, arguments.length), 1 - arguments.length);
+        }
+    }
+
+    /**
+     * Accumulates the postfix program and tracks the deepest operand stack it needs
+     */
+    private static final class Program {
+        private byte[] ops = new byte[8];
+        private int[] operands = new int[8];
+        private int size;
+        private final List<Double> constants = new ArrayList<>();
+        private final List<MathFunction> functions = new ArrayList<>();
+        private final List<Integer> argumentCounts = new ArrayList<>();
+        private int stack;
+        private int maxStack;
+
+        private void add(byte op, int operand, int stackChange) {
+            if (size == ops.length) {
+                ops = Arrays.copyOf(ops, size * 2);
+                operands = Arrays.copyOf(operands, size * 2);
+            }
+            ops[size] = op;
+            operands[size] = operand;
+            size++;
+            stack += stackChange;
+            maxStack = Math.max(maxStack, stack);
+        }
+
+        private int constant(double value) {
+            constants.add(value);
+            return constants.size() - 1;
+        }
+
+        private int function(MathFunction function, int argumentCount) {
+            functions.add(function);
+            argumentCounts.add(argumentCount);
+            return functions.size() - 1;
+        }
+
+        private CompiledExpression build(String source, String[] variables) {
+            double[] constantValues = new double[constants.size()];
+            for (int i = 0; i < constantValues.length; i++) {
+                constantValues[i] = constants.get(i);
+            }
+            int[] counts = new int[argumentCounts.size()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = argumentCounts.get(i);
+            }
+            return new CompiledExpression(source, Arrays.copyOf(ops, size), Arrays.copyOf(operands, size), constantValues,
+                variables, functions.toArray(new MathFunction[0]), counts, Math.max(1, maxStack));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.megacreative.coding.expressions;
+
+import com.megacreative.coding.ExecutionContext;
+import com.megacreative.coding.placeholders.PlaceholderTemplate;
+import com.megacreative.exceptions.ScriptException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An arithmetic expression containing placeholders, e.g. "max(%hp%, 1) * 2".
+ * The text is compiled once with every placeholder turned into a parameter; on evaluation only the
+ * placeholders are rendered and bound to their parameters, so changing placeholder values never
+ * produce new expression texts to compile.
+ *
+ * Арифметическое выражение с плейсхолдерами, например "max(%hp%, 1) * 2".
+ * Текст компилируется один раз, каждый плейсхолдер становится параметром; при вычислении
+ * отрисовываются только плейсхолдеры и подставляются в свои параметры, поэтому меняющиеся значения
+ * плейсхолдеров не порождают новых текстов выражений для компиляции.
+ */
+public final class ExpressionTemplate {
+
+    /**
+     * Compiled templates by source text; dropped wholesale when full, since they are cheap to rebuild
+     */
+    private static final int MAX_CACHED_TEMPLATES = 2048;
+    private static final Map<String, ExpressionTemplate> CACHE = new ConcurrentHashMap<>();
+
+    private final PlaceholderTemplate placeholders;
+    private final CompiledExpression expression;
+
+    private ExpressionTemplate(PlaceholderTemplate placeholders, CompiledExpression expression) {
+        this.placeholders = placeholders;
+        this.expression = expression;
+    }
+
+    /**
+     * Compiles an expression template
+     *
+     * @param source The expression text with placeholders
+     * @return The compiled template
+     * @throws ScriptException if the text is not a valid expression once placeholders stand for numbers
+     */
+    public static ExpressionTemplate compile(String source) {
+        PlaceholderTemplate placeholders = PlaceholderTemplate.compile(source);
+        String text = placeholders.rewrite(literal -> {
+            // '$' marks the parameters below, so it must not come from the written text
+            if (literal.indexOf('$') >= 0) {
+                throw new ScriptException("Invalid expression '" + source + "': unexpected '$'");
+            }
+            return literal;
+        }, index -> "$" + index);
+        return new ExpressionTemplate(placeholders, ExpressionParser.parse(text, placeholders.getPlaceholderCount()));
+    }
+
+    /**
+     * Gets the compiled form of a template, compiling it on first use
+     *
+     * @throws ScriptException if the text is not a valid expression
+     */
+    public static ExpressionTemplate cached(String source) {
+        ExpressionTemplate template = CACHE.get(source);
+        if (template == null) {
+            if (CACHE.size() >= MAX_CACHED_TEMPLATES) {
+                CACHE.clear();
+            }
+            template = compile(source);
+            CACHE.put(source, template);
+        }
+        return template;
+    }
+
+    public String getSource() {
+        return placeholders.getSource();
+    }
+
+    /**
+     * Gets the number of placeholders bound on every evaluation; 0 if '%' only appears as the modulo operator
+     */
+    public int getPlaceholderCount() {
+        return placeholders.getPlaceholderCount();
+    }
+
+    /**
+     * Renders the placeholders and evaluates the expression with their values
+     *
+     * @throws NumberFormatException if a placeholder does not resolve to a number
+     */
+    public double evaluate(ExecutionContext context) {
+        return expression.evaluate(context, renderParameters(context));
+    }
+
+    /**
+     * Renders the placeholders and evaluates the expression with their values and caller supplied variables
+     *
+     * @throws NumberFormatException if a placeholder does not resolve to a number
+     */
+    public double evaluate(ExecutionContext context, CompiledExpression.Variables variables) {
+        return expression.evaluate(variables, renderParameters(context));
+    }
+
+    private double[] renderParameters(ExecutionContext context) {
+        int count = placeholders.getPlaceholderCount();
+        if (count == 0) {
+            return null;
+        }
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            String value = placeholders.renderPlaceholder(i, context);
+            try {
+                values[i] = Double.parseDouble(value.trim());
+            } catch (NumberFormatException e) {
+                throw new NumberFormatException("Placeholder value '" + value + "' in '" + getSource() + "' is not a number");
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,103 @@
+package com.megacreative.coding.expressions;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Functions callable from expressions, e.g. max(a, b) or sqrt(x)
+ *
+ * Функции, доступные в выражениях, например max(a, b) или sqrt(x)
+ */
+enum MathFunction {
+    MIN(1, Integer.MAX_VALUE) {
+        @Override
+        double apply(double[] stack, int base, int count) {
+            double result = stack[base];
+            for (int i = 1; i < count; i++) {
+                result = Math.min(result, stack[base + i]);
+            }
+            return result;
+        }
+    },
+    MAX(1, Integer.MAX_VALUE) {
+        @Override
+        double apply(double[] stack, int base, int count) {
+            double result = stack[base];
+            for (int i = 1; i < count; i++) {
+                result = Math.max(result, stack[base + i]);
+            }
+            return result;
+        }
+    },
+    ABS(1, 1) {
+        @Override
+        double apply(double[] stack, int base, int count) {
+            return Math.abs(stack[base]);
+        }
+    },
+    FLOOR(1, 1) {
+        @Override
+        double apply(double[] stack, int base, int count) {
+            return Math.floor(stack[base]);
+        }
+    },
+    CEIL(1, 1) {
+        @Override
+        double apply(double[] stack, int base, int count) {
+            return Math.ceil(stack[base]);
+        }
+    },
+    ROUND(1, 1) {
+        @Override
+        double apply(double[] stack, int base, int count) {
+            return Math.round(stack[base]);
+        }
+    },
+    SQRT(1, 1) {
+        @Override
+        double apply(double[] stack, int base, int count) {
+            return Math.sqrt(stack[base]);
+        }
+    },
+    POW(2, 2) {
+        @Override
+        double apply(double[] stack, int base, int count) {
+            return Math.pow(stack[base], stack[base + 1]);
+        }
+    };
+
+    private static final Map<String, MathFunction> BY_NAME = new HashMap<>();
+
+    static {
+        for (MathFunction function : values()) {
+            BY_NAME.put(function.name().toLowerCase(Locale.ROOT), function);
+        }
+    }
+
+    private final int minArguments;
+    private final int maxArguments;
+
+    MathFunction(int minArguments, int maxArguments) {
+        this.minArguments = minArguments;
+        this.maxArguments = maxArguments;
+    }
+
+    /**
+     * Looks a function up by its case-insensitive name
+     *
+     * @return The function, or null if there is none with this name
+     */
+    static MathFunction byName(String name) {
+        return BY_NAME.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    boolean accepts(int count) {
+        return count >= minArguments && count <= maxArguments;
+    }
+
+    /**
+     * Applies the function to the arguments stored at stack[base] .. stack[base + count - 1]
+     */
+    abstract double apply(double[] stack, int base, int count);
+}
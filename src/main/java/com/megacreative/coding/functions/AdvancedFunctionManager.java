@@ -2,8 +2,6 @@ package com.megacreative.coding.functions;
 
 import com.megacreative.MegaCreative;
 import com.megacreative.coding.CodeBlock;
-import com.megacreative.coding.CodeScript;
-import com.megacreative.coding.ExecutionContext;
 import com.megacreative.coding.ScriptEngine;
 import com.megacreative.coding.executors.ExecutionResult;
 import com.megacreative.coding.values.DataValue;
@@ -15,6 +13,7 @@ import org.bukkit.entity.Player;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.Arrays;
 
@@ -41,7 +40,9 @@ public class AdvancedFunctionManager {
     private final Map<String, Map<String, FunctionDefinition>> worldFunctions = new ConcurrentHashMap<>();
     
     
-    private final Map<UUID, FunctionExecutionContext> activeExecutions = new ConcurrentHashMap<>();
+    private final FunctionSymbolTable symbols = new FunctionSymbolTable(this::getPlayerWorldId);
+    private final Map<UUID, FunctionCallStack> callStacks = new ConcurrentHashMap<>();
+    private final AtomicInteger busyCallers = new AtomicInteger();
     private final Map<String, FunctionLibrary> libraries = new ConcurrentHashMap<>();
     
     
@@ -96,22 +97,26 @@ public class AdvancedFunctionManager {
         switch (function.getScope()) {
             case GLOBAL:
                 globalFunctions.put(function.getName(), function);
+                symbols.add(function, null);
                 break;
             case PLAYER:
                 playerFunctions.computeIfAbsent(function.getOwner().getUniqueId(), k -> new ConcurrentHashMap<>())
                     .put(function.getName(), function);
+                symbols.add(function, null);
                 break;
             case WORLD:
                 String worldId = getPlayerWorldId(function.getOwner());
                 if (worldId != null) {
                     worldFunctions.computeIfAbsent(worldId, k -> new ConcurrentHashMap<>())
                         .put(function.getName(), function);
+                    symbols.add(function, worldId);
                 }
                 break;
             case SHARED:
                 
                 playerFunctions.computeIfAbsent(function.getOwner().getUniqueId(), k -> new ConcurrentHashMap<>())
                     .put(function.getName(), function);
+                symbols.add(function, null);
                 break;
         }
         
@@ -120,55 +125,22 @@ public class AdvancedFunctionManager {
     }
     
     /**
-     * Finds a function definition by name and context
+     * Finds a function definition by name and context.
+     * Order: the caller's own functions, shared functions, functions of the caller's world,
+     * global functions and finally the built-in libraries.
      */
     public FunctionDefinition findFunction(String name, Player caller) {
         if (name == null || caller == null) {
             return null;
         }
-        
-        
-        
-        
-        Map<String, FunctionDefinition> playerFuncs = playerFunctions.get(caller.getUniqueId());
-        if (playerFuncs != null && playerFuncs.containsKey(name)) {
-            return playerFuncs.get(name);
-        }
-        
-        
-        for (Map<String, FunctionDefinition> funcs : playerFunctions.values()) {
-            FunctionDefinition func = funcs.get(name);
-            if (func != null && func.getScope() == FunctionDefinition.FunctionScope.SHARED && func.canCall(caller)) {
-                return func;
-            }
-        }
-        
-        
-        String worldId = getPlayerWorldId(caller);
-        if (worldId != null) {
-            Map<String, FunctionDefinition> worldFuncs = worldFunctions.get(worldId);
-            if (worldFuncs != null && worldFuncs.containsKey(name)) {
-                FunctionDefinition func = worldFuncs.get(name);
-                if (func.canCall(caller)) {
-                    return func;
-                }
-            }
-        }
-        
-        
-        FunctionDefinition globalFunc = globalFunctions.get(name);
-        if (globalFunc != null && globalFunc.canCall(caller)) {
-            return globalFunc;
-        }
-        
-        return null;
+        return symbols.resolve(name, caller);
     }
     
     /**
      * Executes a function with given arguments
      */
     public CompletableFuture<ExecutionResult> executeFunction(String functionName, Player caller, DataValue[] arguments) {
-        return executeFunction(functionName, caller, arguments, new HashMap<>());
+        return executeFunction(functionName, caller, arguments, Collections.emptyMap());
     }
     
     /**
@@ -203,30 +175,49 @@ public class AdvancedFunctionManager {
         }
         
         
-        UUID executionId = UUID.randomUUID();
-        FunctionExecutionContext execContext = activeExecutions.get(caller.getUniqueId());
-        if (execContext != null && execContext.getRecursionDepth() >= function.getMaxRecursionDepth()) {
-            return CompletableFuture.completedFuture(
-                ExecutionResult.error("Maximum recursion depth exceeded: " + function.getMaxRecursionDepth()));
-        }
-        
-        
-        if (activeExecutions.size() >= MAX_CONCURRENT_EXECUTIONS) {
-            return CompletableFuture.completedFuture(
-                ExecutionResult.error("Maximum concurrent executions exceeded"));
+        UUID callerId = caller.getUniqueId();
+        FunctionCallStack candidate;
+        FunctionCallFrame opened;
+        do {
+            candidate = callStacks.computeIfAbsent(callerId, k -> new FunctionCallStack());
+            int depth = candidate.depth();
+            if (depth >= function.getMaxRecursionDepth()) {
+                return CompletableFuture.completedFuture(
+                    ExecutionResult.error("Maximum recursion depth exceeded: " + function.getMaxRecursionDepth()));
+            }
+            
+            
+            if (depth == 0 && busyCallers.get() >= MAX_CONCURRENT_EXECUTIONS) {
+                return CompletableFuture.completedFuture(
+                    ExecutionResult.error("Maximum concurrent executions exceeded"));
+            }
+            
+            
+            opened = candidate.push(function, arguments, contextData);
+            if (opened == null) {
+                // The stack emptied and was retired after the lookup; drop it so the next lookup opens a new one
+                callStacks.remove(callerId, candidate);
+            }
+        } while (opened == null);
+        FunctionCallStack stack = candidate;
+        FunctionCallFrame frame = opened;
+        if (frame.getDepth() == 0) {
+            busyCallers.incrementAndGet();
         }
         
-        
-        FunctionExecutionContext newContext = new FunctionExecutionContext(
-            executionId, function, caller, arguments, contextData);
-        newContext.setRecursionDepth(execContext != null ? execContext.getRecursionDepth() + 1 : 0);
-        
-        activeExecutions.put(caller.getUniqueId(), newContext);
-        
         long startTime = System.currentTimeMillis();
         
+        CompletableFuture<ExecutionResult> execution;
+        try {
+            execution = function.isBuiltIn()
+                ? executeBuiltInFunction(function, arguments)
+                : executeFunctionBody(function, caller, frame);
+        } catch (Exception e) {
+            execution = CompletableFuture.completedFuture(
+                ExecutionResult.error("Function execution failed: " + e.getMessage()));
+        }
         
-        return executeFunctionBlocks(function, newContext)
+        return execution
             .whenComplete((result, throwable) -> {
                 long executionTime = System.currentTimeMillis() - startTime;
                 
@@ -234,88 +225,43 @@ public class AdvancedFunctionManager {
                 function.recordExecution(executionTime, throwable == null && result.isSuccess());
                 
                 
-                activeExecutions.remove(caller.getUniqueId());
-                
-                
-                if (execContext != null) {
-                    activeExecutions.put(caller.getUniqueId(), execContext);
+                if (stack.release(frame)) {
+                    busyCallers.decrementAndGet();
+                    // Idle callers keep no stack, so players who leave do not stay in the map
+                    callStacks.remove(callerId, stack);
                 }
             });
     }
     
     /**
-     * Executes the code blocks of a function
+     * Runs the blocks of a function in a reused call frame.
+     * The body script is built and compiled once per function; the parameters reach it through the frame
+     * and a value stored into "return" becomes the return value of the call.
      */
-    private CompletableFuture<ExecutionResult> executeFunctionBlocks(FunctionDefinition function, 
-                                                                 FunctionExecutionContext context) {
-        try {
-            
-            if (function.getFunctionBlocks().isEmpty() || 
-                (function.getFunctionBlocks().size() == 1 && 
-                 "return".equals(function.getFunctionBlocks().get(0).getAction()))) {
+    private CompletableFuture<ExecutionResult> executeFunctionBody(FunctionDefinition function, Player caller,
+                                                                   FunctionCallFrame frame) {
+        return scriptEngine.executeFunctionBody(function.getBody(), caller, frame)
+            .thenApply(result -> {
                 
-                return executeBuiltInFunction(function, context);
-            }
-            
-            
-            Map<String, DataValue> localScope = function.createLocalScope(context.getArguments());
-            
-            
-            ExecutionContext scriptContext = new ExecutionContext.Builder()
-                .plugin(plugin)
-                .player(context.getCaller())
-                .creativeWorld(plugin.getServiceRegistry().getWorldManager().findCreativeWorldByBukkit(context.getCaller().getWorld()))
-                .currentBlock(function.getFunctionBlocks().get(0))
-                .build();
-            
-            
-            for (Map.Entry<String, DataValue> entry : localScope.entrySet()) {
-                scriptContext.setVariable(entry.getKey(), entry.getValue().getValue());
-            }
-            
-            
-            for (Map.Entry<String, Object> entry : context.getContextData().entrySet()) {
-                scriptContext.setVariable(entry.getKey(), entry.getValue());
-            }
-            
-            
-            CodeScript functionScript = new CodeScript(
-                "Function: " + function.getName(), true, function.getFunctionBlocks().get(0));
-            
-            
-            for (int i = 0; i < function.getFunctionBlocks().size() - 1; i++) {
-                function.getFunctionBlocks().get(i).setNextBlock(function.getFunctionBlocks().get(i + 1));
-            }
-            
-            
-            return scriptEngine.executeScript(functionScript, context.getCaller(), "function_call")
-                .thenApply(result -> {
+                Object returnValue = frame.getReturnValue();
+                if (returnValue != null) {
+                    ExecutionResult newResult = ExecutionResult.success("Function executed with return value: " + returnValue);
+                    newResult.setReturnValue(returnValue);
                     
-                    Object returnValue = scriptContext.getVariable("return");
-                    if (returnValue != null) {
-                        ExecutionResult newResult = ExecutionResult.success("Function executed with return value: " + returnValue);
-                        newResult.setReturnValue(returnValue);
-                        
-                        newResult.setTerminated(result.isTerminated());
-                        return newResult;
-                    }
-                    return result;
-                });
-            
-        } catch (Exception e) {
-            return CompletableFuture.completedFuture(
-                ExecutionResult.error("Function execution failed: " + e.getMessage()));
-        }
+                    newResult.setTerminated(result.isTerminated());
+                    return newResult;
+                }
+                return result;
+            });
     }
     
     /**
      * Executes a built-in function directly
      */
     private CompletableFuture<ExecutionResult> executeBuiltInFunction(FunctionDefinition function, 
-                                                                    FunctionExecutionContext context) {
+                                                                    DataValue[] arguments) {
         try {
             String functionName = function.getName();
-            DataValue[] arguments = context.getArguments();
             
             
             Object result = null;
@@ -628,6 +574,7 @@ public class AdvancedFunctionManager {
             FunctionDefinition func = playerFuncs.get(name);
             if (func.getOwner().getUniqueId().equals(player.getUniqueId())) {
                 playerFuncs.remove(name);
+                symbols.remove(func, null);
                 plugin.getLogger().fine(".EVT Removed function: " + name + " by " + player.getName());
                 return true;
             }
@@ -641,6 +588,7 @@ public class AdvancedFunctionManager {
                 FunctionDefinition func = worldFuncs.get(name);
                 if (func.getOwner().getUniqueId().equals(player.getUniqueId())) {
                     worldFuncs.remove(name);
+                    symbols.remove(func, worldId);
                     plugin.getLogger().fine(".EVT Removed world function: " + name + " by " + player.getName());
                     return true;
                 }
@@ -674,7 +622,7 @@ public class AdvancedFunctionManager {
         stats.put("global_functions", globalFunctions.size());
         stats.put("player_functions", playerFunctionCount);
         stats.put("world_functions", worldFunctionCount);
-        stats.put("active_executions", activeExecutions.size());
+        stats.put("active_executions", busyCallers.get());
         stats.put("libraries", libraries.size());
         
         return stats;
@@ -741,6 +689,7 @@ public class AdvancedFunctionManager {
             mathLib.addFunction(createMathFunction("toRadians", "Converts an angle measured in degrees to an approximately equivalent angle measured in radians", ValueType.NUMBER, 1));
             
             libraries.put("math", mathLib);
+            symbols.addLibrary(mathLib);
         } catch (Exception e) {
             plugin.getLogger().warning("Failed to initialize math library: " + e.getMessage());
         }
@@ -767,6 +716,7 @@ public class AdvancedFunctionManager {
             stringLib.addFunction(createStringFunction("repeat", "Repeats a string a specified number of times", ValueType.TEXT, 2));
             
             libraries.put("string", stringLib);
+            symbols.addLibrary(stringLib);
         } catch (Exception e) {
             plugin.getLogger().warning("Failed to initialize string library: " + e.getMessage());
         }
@@ -791,6 +741,7 @@ public class AdvancedFunctionManager {
             utilLib.addFunction(createUtilityFunction("shuffle", "Shuffles a list randomly", ValueType.LIST, 1));
             
             libraries.put("util", utilLib);
+            symbols.addLibrary(utilLib);
         } catch (Exception e) {
             plugin.getLogger().warning("Failed to initialize utility library: " + e.getMessage());
         }
@@ -828,40 +779,6 @@ public class AdvancedFunctionManager {
         return libraries.values();
     }
     
-    /**
-     * Function execution context
-     */
-    private static class FunctionExecutionContext {
-        private final UUID executionId;
-        private final FunctionDefinition function;
-        private final Player caller;
-        private final DataValue[] arguments;
-        private final Map<String, Object> contextData;
-        private final long startTime;
-        private int recursionDepth = 0;
-        
-        public FunctionExecutionContext(UUID executionId, FunctionDefinition function, Player caller,
-                                      DataValue[] arguments, Map<String, Object> contextData) {
-            this.executionId = executionId;
-            this.function = function;
-            this.caller = caller;
-            this.arguments = arguments;
-            this.contextData = contextData;
-            this.startTime = System.currentTimeMillis();
-        }
-        
-        
-        public UUID getExecutionId() { return executionId; }
-        public FunctionDefinition getFunction() { return function; }
-        public Player getCaller() { return caller; }
-        public DataValue[] getArguments() { return arguments; }
-        public Map<String, Object> getContextData() { return contextData; }
-        public long getStartTime() { return startTime; }
-        public int getRecursionDepth() { return recursionDepth; }
-        
-        public void setRecursionDepth(int recursionDepth) { this.recursionDepth = recursionDepth; }
-    }
-    
     /**
      * Function library for organizing related functions
      */
@@ -902,7 +819,9 @@ public class AdvancedFunctionManager {
      */
     public void shutdown() {
         
-        activeExecutions.clear();
+        callStacks.clear();
+        busyCallers.set(0);
+        symbols.clear();
         
         
         globalFunctions.clear();
@@ -0,0 +1,131 @@
+package com.megacreative.coding.functions;
+
+import com.megacreative.coding.values.DataValue;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * One active function call: the arguments in positional slots, the caller's context data and the return value.
+ * Frames belong to a {@link FunctionCallStack} and are reused by later calls at the same depth,
+ * so a hot or recursive helper does not allocate a scope map per call.
+ * The function body sees its parameters as variables through the execution context.
+ *
+ * Один активный вызов функции: аргументы в позиционных слотах, данные контекста вызывающего и возвращаемое значение.
+ * Кадры принадлежат {@link FunctionCallStack} и переиспользуются следующими вызовами на той же глубине,
+ * поэтому часто вызываемая или рекурсивная функция не создает карту области видимости на каждый вызов.
+ * Тело функции видит параметры как переменные через контекст выполнения.
+ */
+public final class FunctionCallFrame {
+
+    private static final DataValue[] NO_SLOTS = new DataValue[0];
+
+    private final int depth;
+    private FunctionDefinition function;
+    private DataValue[] slots = NO_SLOTS;
+    private int slotCount;
+    private Map<String, Object> contextData = Collections.emptyMap();
+    private Object returnValue;
+    private boolean released;
+
+    FunctionCallFrame(int depth) {
+        this.depth = depth;
+    }
+
+    /**
+     * Binds the frame to a new call; missing arguments take the parameter defaults
+     */
+    void enter(FunctionDefinition function, DataValue[] arguments, Map<String, Object> contextData) {
+        int count = function.getParameterCount();
+        if (slots.length < count) {
+            slots = new DataValue[count];
+        }
+        for (int i = 0; i < count; i++) {
+            DataValue argument = i < arguments.length ? arguments[i] : null;
+            slots[i] = argument != null ? argument : function.getParameter(i).getDefaultValue();
+        }
+        for (int i = count; i < slotCount; i++) {
+            slots[i] = null;
+        }
+        this.slotCount = count;
+        this.function = function;
+        this.contextData = contextData != null ? contextData : Collections.emptyMap();
+        this.returnValue = null;
+        this.released = false;
+    }
+
+    /**
+     * Drops every reference of the finished call, so an idle frame keeps no values alive
+     */
+    void clear() {
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = null;
+        }
+        slotCount = 0;
+        function = null;
+        contextData = Collections.emptyMap();
+        returnValue = null;
+    }
+
+    void release() {
+        released = true;
+    }
+
+    boolean isReleased() {
+        return released;
+    }
+
+    public FunctionDefinition getFunction() {
+        return function;
+    }
+
+    /**
+     * Gets the nesting depth of the call, 0 for a call made outside any function
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public DataValue getArgument(int slot) {
+        return slot >= 0 && slot < slotCount ? slots[slot] : null;
+    }
+
+    /**
+     * Gets a parameter, or else a context data entry, by name
+     *
+     * @return The value, or null if the call defines neither
+     */
+    public DataValue getArgument(String name) {
+        if (function == null || name == null) {
+            return null;
+        }
+        int slot = function.slotOf(name);
+        if (slot >= 0) {
+            return slots[slot];
+        }
+        Object data = contextData.get(name);
+        return data != null ? DataValue.fromObject(data) : null;
+    }
+
+    /**
+     * Assigns a parameter of the call
+     *
+     * @return true if the name is a parameter and was assigned
+     */
+    public boolean setArgument(String name, DataValue value) {
+        int slot = function != null ? function.slotOf(name) : -1;
+        if (slot < 0) {
+            return false;
+        }
+        slots[slot] = value;
+        return true;
+    }
+
+    public Object getReturnValue() {
+        return returnValue;
+    }
+
+    public void setReturnValue(Object returnValue) {
+        this.returnValue = returnValue;
+    }
+}
@@ -0,0 +1,68 @@
+package com.megacreative.coding.functions;
+
+import com.megacreative.coding.values.DataValue;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Call frames of one caller, innermost last.
+ * A call that finishes while calls above it still wait (because a body paused) is only marked released;
+ * it leaves the stack together with them. Frames that left the stack are cleared and reused.
+ * A stack that becomes empty is retired, so its owner can drop it; a call that still reaches it opens no frame.
+ *
+ * Кадры вызовов одного вызывающего, самый вложенный последним.
+ * Вызов, завершившийся, пока вызовы над ним еще ждут (тело функции на паузе), только помечается освобожденным;
+ * он покидает стек вместе с ними. Покинувшие стек кадры очищаются и переиспользуются.
+ * Опустевший стек выводится из работы, чтобы владелец мог его отбросить; вызов, все же попавший в него, не открывает кадр.
+ */
+final class FunctionCallStack {
+
+    private FunctionCallFrame[] frames = new FunctionCallFrame[4];
+    private int depth;
+    private boolean retired;
+
+    /**
+     * Gets the number of calls on the stack
+     */
+    synchronized int depth() {
+        return depth;
+    }
+
+    /**
+     * Opens a frame for a new innermost call
+     *
+     * @return The frame, or null if the stack was retired and the call needs a new stack
+     */
+    synchronized FunctionCallFrame push(FunctionDefinition function, DataValue[] arguments, Map<String, Object> contextData) {
+        if (retired) {
+            return null;
+        }
+        if (depth == frames.length) {
+            frames = Arrays.copyOf(frames, depth * 2);
+        }
+        FunctionCallFrame frame = frames[depth];
+        if (frame == null) {
+            frame = new FunctionCallFrame(depth);
+            frames[depth] = frame;
+        }
+        frame.enter(function, arguments, contextData);
+        depth++;
+        return frame;
+    }
+
+    /**
+     * Ends a call and pops every released frame from the top, retiring the stack once it is empty
+     *
+     * @return true if the stack is empty afterwards
+     */
+    synchronized boolean release(FunctionCallFrame frame) {
+        frame.release();
+        while (depth > 0 && frames[depth - 1].isReleased()) {
+            depth--;
+            frames[depth].clear();
+        }
+        retired = depth == 0;
+        return retired;
+    }
+}
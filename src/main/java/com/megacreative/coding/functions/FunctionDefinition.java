@@ -1,6 +1,7 @@
 package com.megacreative.coding.functions;
 
 import com.megacreative.coding.CodeBlock;
+import com.megacreative.coding.CodeScript;
 import com.megacreative.coding.values.DataValue;
 import com.megacreative.coding.values.ValueType;
 import org.bukkit.entity.Player;
@@ -36,6 +37,9 @@ public class FunctionDefinition {
     private final ValueType returnType;
     private final FunctionScope scope;
     private final FunctionVisibility visibility;
+    private final Map<String, Integer> parameterSlots;
+    private final boolean builtIn;
+    private volatile CodeScript body;
     
     
     private boolean enabled = true;
@@ -76,6 +80,13 @@ public class FunctionDefinition {
         
         
         validateFunction();
+        
+        Map<String, Integer> slots = new HashMap<>();
+        for (int i = 0; i < this.parameters.size(); i++) {
+            slots.put(this.parameters.get(i).getName(), i);
+        }
+        this.parameterSlots = Collections.unmodifiableMap(slots);
+        this.builtIn = this.functionBlocks.size() == 1 && "return".equals(this.functionBlocks.get(0).getAction());
     }
     
     /**
@@ -176,6 +187,56 @@ public class FunctionDefinition {
         return localScope;
     }
     
+    /**
+     * Gets the positional slot of a parameter
+     *
+     * @return The slot, or -1 if the function has no such parameter
+     */
+    public int slotOf(String parameterName) {
+        Integer slot = parameterName != null ? parameterSlots.get(parameterName) : null;
+        return slot != null ? slot : -1;
+    }
+    
+    public int getParameterCount() {
+        return parameters.size();
+    }
+    
+    public FunctionParameter getParameter(int slot) {
+        return parameters.get(slot);
+    }
+    
+    /**
+     * Checks if the function is implemented natively: its only block is a bare return
+     */
+    public boolean isBuiltIn() {
+        return builtIn;
+    }
+    
+    /**
+     * Gets the script the function blocks run as.
+     * The blocks are linked into a chain once, on first use; later calls reuse the script and its compiled form.
+     */
+    public CodeScript getBody() {
+        CodeScript script = body;
+        if (script == null) {
+            synchronized (this) {
+                script = body;
+                if (script == null) {
+                    for (int i = 0; i < functionBlocks.size() - 1; i++) {
+                        CodeBlock next = functionBlocks.get(i + 1);
+                        // Relinking an unchanged link would still move the body onto a new structural version
+                        if (functionBlocks.get(i).getNextBlock() != next) {
+                            functionBlocks.get(i).setNextBlock(next);
+                        }
+                    }
+                    script = new CodeScript("Function: " + name, true, functionBlocks.get(0));
+                    body = script;
+                }
+            }
+        }
+        return script;
+    }
+    
     /**
      * Records function execution statistics
      */
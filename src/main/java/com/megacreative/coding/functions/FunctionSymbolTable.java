@@ -0,0 +1,209 @@
+package com.megacreative.coding.functions;
+
+import com.megacreative.coding.functions.AdvancedFunctionManager.FunctionLibrary;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * Functions indexed by name, then by visibility: owner, shared, world, global and library.
+ * Resolving a call is one lookup by name followed by at most one lookup per visibility,
+ * instead of a scan over every player's functions. The entry of a name is immutable and replaced
+ * whenever a function of that name is registered or removed, so calls resolve without locking.
+ *
+ * Функции, проиндексированные по имени, затем по видимости: владелец, общие, мир, глобальные и библиотеки.
+ * Разрешение вызова - один поиск по имени и не более одного поиска на видимость
+ * вместо перебора функций всех игроков. Запись имени неизменяема и заменяется
+ * при каждой регистрации или удалении функции с этим именем, поэтому вызовы разрешаются без блокировок.
+ */
+final class FunctionSymbolTable {
+
+    private static final FunctionDefinition[] NO_FUNCTIONS = new FunctionDefinition[0];
+
+    private final Map<String, Symbol> symbols = new ConcurrentHashMap<>();
+    private final List<FunctionLibrary> libraries = new CopyOnWriteArrayList<>();
+    private final Function<Player, String> worldIdOf;
+
+    /**
+     * @param worldIdOf Gets the creative world a player is in, or null; only asked for names with world functions
+     */
+    FunctionSymbolTable(Function<Player, String> worldIdOf) {
+        this.worldIdOf = worldIdOf;
+    }
+
+    /**
+     * Indexes a registered function
+     *
+     * @param worldId World of a WORLD function, ignored for other scopes
+     */
+    synchronized void add(FunctionDefinition function, String worldId) {
+        Symbol symbol = symbols.get(function.getName());
+        symbols.put(function.getName(), (symbol != null ? symbol : Symbol.EMPTY).with(function, worldId));
+    }
+
+    /**
+     * Removes a function from the index
+     *
+     * @param worldId World of a WORLD function, ignored for other scopes
+     */
+    synchronized void remove(FunctionDefinition function, String worldId) {
+        Symbol symbol = symbols.get(function.getName());
+        if (symbol == null) {
+            return;
+        }
+        Symbol updated = symbol.without(function, worldId);
+        if (updated.isEmpty()) {
+            symbols.remove(function.getName());
+        } else {
+            symbols.put(function.getName(), updated);
+        }
+    }
+
+    /**
+     * Adds a library searched after every other visibility; its functions are read live
+     */
+    void addLibrary(FunctionLibrary library) {
+        libraries.add(library);
+    }
+
+    synchronized void clear() {
+        symbols.clear();
+        libraries.clear();
+    }
+
+    /**
+     * Finds the function a call resolves to.
+     * Order: the caller's own function, a shared function the caller may call,
+     * a function of the caller's world, a global function, a library function.
+     *
+     * @return The function, or null if none is visible to the caller
+     */
+    FunctionDefinition resolve(String name, Player caller) {
+        Symbol symbol = symbols.get(name);
+        if (symbol != null) {
+            FunctionDefinition own = symbol.owned.get(caller.getUniqueId());
+            if (own != null) {
+                return own;
+            }
+            for (FunctionDefinition shared : symbol.shared) {
+                if (shared.canCall(caller)) {
+                    return shared;
+                }
+            }
+            if (!symbol.byWorld.isEmpty()) {
+                String worldId = worldIdOf.apply(caller);
+                FunctionDefinition worldFunction = worldId != null ? symbol.byWorld.get(worldId) : null;
+                if (worldFunction != null && worldFunction.canCall(caller)) {
+                    return worldFunction;
+                }
+            }
+            if (symbol.global != null && symbol.global.canCall(caller)) {
+                return symbol.global;
+            }
+        }
+        for (FunctionLibrary library : libraries) {
+            FunctionDefinition libraryFunction = library.getFunction(name);
+            if (libraryFunction != null && libraryFunction.canCall(caller)) {
+                return libraryFunction;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Every function registered under one name
+     */
+    private static final class Symbol {
+        private static final Symbol EMPTY = new Symbol(Collections.emptyMap(), NO_FUNCTIONS, Collections.emptyMap(), null);
+
+        /** PLAYER and SHARED functions by owner */
+        private final Map<UUID, FunctionDefinition> owned;
+        /** SHARED functions in registration order */
+        private final FunctionDefinition[] shared;
+        private final Map<String, FunctionDefinition> byWorld;
+        private final FunctionDefinition global;
+
+        private Symbol(Map<UUID, FunctionDefinition> owned, FunctionDefinition[] shared,
+                       Map<String, FunctionDefinition> byWorld, FunctionDefinition global) {
+            this.owned = owned;
+            this.shared = shared;
+            this.byWorld = byWorld;
+            this.global = global;
+        }
+
+        private Symbol with(FunctionDefinition function, String worldId) {
+            switch (function.getScope()) {
+                case GLOBAL:
+                    return new Symbol(owned, shared, byWorld, function);
+                case WORLD:
+                    if (worldId == null) {
+                        return this;
+                    }
+                    Map<String, FunctionDefinition> worlds = new HashMap<>(byWorld);
+                    worlds.put(worldId, function);
+                    return new Symbol(owned, shared, worlds, global);
+                case PLAYER:
+                case SHARED:
+                    Map<UUID, FunctionDefinition> owners = new HashMap<>(owned);
+                    FunctionDefinition replaced = owners.put(function.getOwner().getUniqueId(), function);
+                    FunctionDefinition[] sharedFunctions = replaced != null ? removed(shared, replaced) : shared;
+                    if (function.getScope() == FunctionDefinition.FunctionScope.SHARED) {
+                        sharedFunctions = Arrays.copyOf(sharedFunctions, sharedFunctions.length + 1);
+                        sharedFunctions[sharedFunctions.length - 1] = function;
+                    }
+                    return new Symbol(owners, sharedFunctions, byWorld, global);
+                default:
+                    return this;
+            }
+        }
+
+        private Symbol without(FunctionDefinition function, String worldId) {
+            switch (function.getScope()) {
+                case GLOBAL:
+                    return global == function ? new Symbol(owned, shared, byWorld, null) : this;
+                case WORLD:
+                    if (worldId == null || byWorld.get(worldId) != function) {
+                        return this;
+                    }
+                    Map<String, FunctionDefinition> worlds = new HashMap<>(byWorld);
+                    worlds.remove(worldId);
+                    return new Symbol(owned, shared, worlds, global);
+                case PLAYER:
+                case SHARED:
+                    UUID ownerId = function.getOwner().getUniqueId();
+                    if (owned.get(ownerId) != function) {
+                        return this;
+                    }
+                    Map<UUID, FunctionDefinition> owners = new HashMap<>(owned);
+                    owners.remove(ownerId);
+                    return new Symbol(owners, removed(shared, function), byWorld, global);
+                default:
+                    return this;
+            }
+        }
+
+        private boolean isEmpty() {
+            return owned.isEmpty() && byWorld.isEmpty() && global == null;
+        }
+
+        private static FunctionDefinition[] removed(FunctionDefinition[] functions, FunctionDefinition function) {
+            for (int i = 0; i < functions.length; i++) {
+                if (functions[i] == function) {
+                    FunctionDefinition[] copy = new FunctionDefinition[functions.length - 1];
+                    System.arraycopy(functions, 0, copy, 0, i);
+                    System.arraycopy(functions, i + 1, copy, i, functions.length - i - 1);
+                    return copy;
+                }
+            }
+            return functions;
+        }
+    }
+}
@@ -2,19 +2,23 @@ package com.megacreative.coding.monitoring;
 
 import com.megacreative.coding.CodeScript;
 import com.megacreative.coding.monitoring.model.*;
+import com.megacreative.core.DependencyContainer;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.*;
+import java.util.function.LongSupplier;
 
 
 /**
  * Advanced performance monitoring system for visual programming scripts
- * Tracks execution times, memory usage, and provides optimization recommendations
+ * Tracks execution times, memory usage, and provides optimization recommendations.
+ * Recording an execution only looks up and bumps striped counters and histograms;
+ * bottlenecks are detected periodically on a snapshot of the script profiles.
  */
-public class ScriptPerformanceMonitor {
+public class ScriptPerformanceMonitor implements DependencyContainer.Disposable {
     private final Plugin plugin;
     private final long startTime;
     
@@ -24,8 +28,13 @@ public class ScriptPerformanceMonitor {
     private final Map<UUID, PlayerScriptMetrics> playerMetrics = new ConcurrentHashMap<>();
     private final Map<String, ActionPerformanceData> actionPerformance = new ConcurrentHashMap<>();
     private final Map<String, ScriptPerformanceProfile> scriptProfiles = new ConcurrentHashMap<>();
-    private final AtomicLong totalExecutions = new AtomicLong(0);
-    private final AtomicLong totalExecutionTime = new AtomicLong(0);
+    private final LongAdder totalExecutions = new LongAdder();
+    private final LongAdder totalExecutionTime = new LongAdder();
+    private final MemoryMonitor memoryMonitor = new MemoryMonitor();
+    private final ExecutionSampler executionSampler = new ExecutionSampler();
+    private final BottleneckDetector bottleneckDetector = new BottleneckDetector(this::getAllScriptProfiles);
+    /** Caches whose hits and misses are read into the system report, by name */
+    private final Map<String, LongSupplier[]> cacheMetrics = new ConcurrentHashMap<>();
     
     
 
@@ -52,8 +61,8 @@ public class ScriptPerformanceMonitor {
                 long executionTime = endTime - startTime;
                 
                 // Update metrics
-                monitor.totalExecutions.incrementAndGet();
-                monitor.totalExecutionTime.addAndGet(executionTime);
+                monitor.totalExecutions.increment();
+                monitor.totalExecutionTime.add(executionTime);
                 
                 completed = true;
             }
@@ -64,12 +73,8 @@ public class ScriptPerformanceMonitor {
         this.plugin = plugin;
         this.startTime = System.currentTimeMillis();
         
-        MemoryMonitor memoryMonitor = new MemoryMonitor();
-        ExecutionSampler executionSampler = new ExecutionSampler();
         executionSampler.start();
         memoryMonitor.start();
-        
-        BottleneckDetector bottleneckDetector = new BottleneckDetector();
         bottleneckDetector.start();
     }
     
@@ -85,34 +90,27 @@ public class ScriptPerformanceMonitor {
     public void recordExecution(Player player, String scriptName, String actionType, 
                                long executionTime, boolean success, String errorMessage) {
         if (player != null) {
-            
-            PlayerScriptMetrics metrics = playerMetrics.computeIfAbsent(
-                player.getUniqueId(), PlayerScriptMetrics::new);
+            // get before computeIfAbsent: the common case is a present entry and creates no lambda or lock
+            UUID playerId = player.getUniqueId();
+            PlayerScriptMetrics metrics = playerMetrics.get(playerId);
+            if (metrics == null) {
+                metrics = playerMetrics.computeIfAbsent(playerId, PlayerScriptMetrics::new);
+            }
             metrics.recordExecution(scriptName, actionType, executionTime, success);
             
+            ActionPerformanceData actionData = actionPerformance.get(actionType);
+            if (actionData == null) {
+                actionData = actionPerformance.computeIfAbsent(actionType, ActionPerformanceData::new);
+            }
+            actionData.recordExecution(executionTime, success);
             
-            actionPerformance.computeIfAbsent(actionType, k -> new ActionPerformanceData(actionType))
-                .recordExecution(executionTime, success);
-            
-            
-            ScriptPerformanceProfile profile = scriptProfiles.computeIfAbsent(
-                scriptName, ScriptPerformanceProfile::new);
+            ScriptPerformanceProfile profile = scriptProfiles.get(scriptName);
+            if (profile == null) {
+                profile = scriptProfiles.computeIfAbsent(scriptName, ScriptPerformanceProfile::new);
+            }
             profile.recordExecution(actionType, executionTime, success);
             
-            
-            ExecutionSampler executionSampler = new ExecutionSampler();
             executionSampler.recordExecution(scriptName, actionType, executionTime);
-            
-            
-            List<ScriptMetrics> metricsList = new ArrayList<>();
-            for (ScriptPerformanceProfile scriptProfile : scriptProfiles.values()) {
-                metricsList.add(new ScriptMetrics(scriptProfile));
-            }
-            BottleneckDetector bottleneckDetector = new BottleneckDetector();
-            bottleneckDetector.detectBottlenecks(metricsList);
-            
-            
-
         }
     }
     
@@ -167,7 +165,16 @@ public class ScriptPerformanceMonitor {
     }
     
     /**
-     * Gets performance data for all scripts, converting it to the ScriptMetrics type.
+     * Gets performance data for a specific action type across all scripts
+     * @param actionType The action type
+     * @return Action performance data or null if not found
+     */
+    public ActionPerformanceData getActionPerformance(String actionType) {
+        return actionPerformance.get(actionType);
+    }
+    
+    /**
+     * Gets a snapshot of the performance data for all scripts, converted to the ScriptMetrics type.
      * @return Collection of all script performance metrics.
      */
     public Collection<ScriptMetrics> getAllScriptProfiles() {
@@ -178,24 +185,46 @@ public class ScriptPerformanceMonitor {
         return metricsList;
     }
     
+    /**
+     * Registers a cache whose hit and miss counters are shown in the system report.
+     * The counters stay with their owner and are only read when a report is built.
+     * @param name Name of the cache in the report
+     * @param hits Reads the number of lookups answered from the cache
+     * @param misses Reads the number of lookups that had to compute the value
+     */
+    public void registerCacheMetric(String name, LongSupplier hits, LongSupplier misses) {
+        cacheMetrics.put(name, new LongSupplier[] { hits, misses });
+    }
+    
+    /**
+     * Gets the current hit statistics of every registered cache
+     * @return Statistics sorted by cache name
+     */
+    public List<CacheStatistics> getCacheStatistics() {
+        List<CacheStatistics> statistics = new ArrayList<>(cacheMetrics.size());
+        for (Map.Entry<String, LongSupplier[]> entry : cacheMetrics.entrySet()) {
+            LongSupplier[] counters = entry.getValue();
+            statistics.add(new CacheStatistics(entry.getKey(), counters[0].getAsLong(), counters[1].getAsLong()));
+        }
+        statistics.sort(Comparator.comparing(CacheStatistics::getName));
+        return statistics;
+    }
+    
     /**
      * Gets a system-wide performance report
      * @return System performance report
      */
     public SystemPerformanceReport getSystemPerformanceReport() {
-        MemoryMonitor memoryMonitor = new MemoryMonitor();
-        GarbageCollectionMonitor gcMonitor = new GarbageCollectionMonitor();
-        BottleneckDetector bottleneckDetector = new BottleneckDetector();
-        
         return new SystemPerformanceReport(
-            totalExecutions.get(),
-            totalExecutionTime.get(),
+            totalExecutions.sum(),
+            totalExecutionTime.sum(),
             playerMetrics.size(),
             scriptProfiles.size(),
             memoryMonitor.getCurrentUsage(),
-            gcMonitor.getCurrentStatistics(),
+            memoryMonitor.getGcStatistics(),
             bottleneckDetector.getBottlenecks(),
-            System.currentTimeMillis() - startTime
+            System.currentTimeMillis() - startTime,
+            getCacheStatistics()
         );
     }
     
@@ -206,23 +235,26 @@ public class ScriptPerformanceMonitor {
         playerMetrics.clear();
         actionPerformance.clear();
         scriptProfiles.clear();
-        totalExecutions.set(0);
-        totalExecutionTime.set(0);
+        executionSampler.clear();
+        bottleneckDetector.clear();
+        totalExecutions.reset();
+        totalExecutionTime.reset();
     }
     
     /**
      * Shuts down the performance monitor and cleans up resources
      */
     public void shutdown() {
-        ExecutionSampler executionSampler = new ExecutionSampler();
-        MemoryMonitor memoryMonitor = new MemoryMonitor();
-        BottleneckDetector bottleneckDetector = new BottleneckDetector();
-        
         executionSampler.stop();
         memoryMonitor.stop();
         bottleneckDetector.stop();
     }
     
+    @Override
+    public void dispose() {
+        shutdown();
+    }
+    
     /**
      * Gets the uptime of the performance monitor in milliseconds
      * @return Uptime in milliseconds
@@ -1,48 +1,23 @@
 package com.megacreative.coding.monitoring.model;
 
-import java.util.*;
-import java.util.concurrent.*;
-import java.util.concurrent.atomic.*;
-
 /**
  * Represents metrics for a specific action type
  */
 public class ActionMetrics {
     private final String actionType;
-    private final AtomicLong executionCount = new AtomicLong(0);
-    private final AtomicLong totalExecutionTime = new AtomicLong(0);
-    private final AtomicLong peakExecutionTime = new AtomicLong(0);
-    private final AtomicLong minExecutionTime = new AtomicLong(Long.MAX_VALUE);
-    private final AtomicLong successCount = new AtomicLong(0);
-    private final AtomicLong failureCount = new AtomicLong(0);
-    private final List<Long> executionTimes = new CopyOnWriteArrayList<>();
+    private final ExecutionStats stats;
     
     public ActionMetrics(String actionType) {
+        this(actionType, new ExecutionStats());
+    }
+    
+    ActionMetrics(String actionType, ExecutionStats stats) {
         this.actionType = actionType;
+        this.stats = stats;
     }
     
     public void recordExecution(long executionTime, boolean success) {
-        executionCount.incrementAndGet();
-        totalExecutionTime.addAndGet(executionTime);
-        
-        if (executionTime > peakExecutionTime.get()) {
-            peakExecutionTime.set(executionTime);
-        }
-        
-        if (executionTime < minExecutionTime.get()) {
-            minExecutionTime.set(executionTime);
-        }
-        
-        if (success) {
-            successCount.incrementAndGet();
-        } else {
-            failureCount.incrementAndGet();
-        }
-        
-        executionTimes.add(executionTime);
-        if (executionTimes.size() > 1000) {
-            executionTimes.remove(0);
-        }
+        stats.record(executionTime, success);
     }
     
     public String getActionType() {
@@ -50,34 +25,38 @@ public class ActionMetrics {
     }
     
     public long getExecutionCount() {
-        return executionCount.get();
+        return stats.getExecutionCount();
     }
     
     public long getTotalExecutionTime() {
-        return totalExecutionTime.get();
+        return stats.getTotalExecutionTime();
     }
     
     public double getAverageExecutionTime() {
-        return executionCount.get() > 0 
-            ? (double) totalExecutionTime.get() / executionCount.get() 
-            : 0.0;
+        return stats.getAverageExecutionTime();
     }
     
     public long getPeakExecutionTime() {
-        return peakExecutionTime.get();
+        return stats.getPeakExecutionTime();
     }
     
     public long getMinExecutionTime() {
-        return minExecutionTime.get() == Long.MAX_VALUE ? 0 : minExecutionTime.get();
+        return stats.getMinExecutionTime();
+    }
+    
+    public long getP50ExecutionTime() {
+        return stats.getP50ExecutionTime();
+    }
+    
+    public long getP99ExecutionTime() {
+        return stats.getP99ExecutionTime();
     }
     
     public double getSuccessRate() {
-        return executionCount.get() > 0 
-            ? (successCount.get() * 100.0) / executionCount.get() 
-            : 0.0;
+        return stats.getExecutionCount() > 0 ? (1.0 - stats.getErrorRate()) * 100.0 : 0.0;
     }
     
-    public List<Long> getExecutionTimes() {
-        return new ArrayList<>(executionTimes);
+    public ExecutionStats getStats() {
+        return stats;
     }
 }
@@ -5,36 +5,14 @@ package com.megacreative.coding.monitoring.model;
  */
 public class ActionPerformanceData {
     private final String actionType;
-    private long executionCount = 0;
-    private long totalExecutionTime = 0;
-    private long lastExecutionTime = 0;
-    private long peakExecutionTime = 0;
-    private long minExecutionTime = Long.MAX_VALUE;
-    private long successCount = 0;
-    private long failureCount = 0;
+    private final ExecutionStats stats = new ExecutionStats();
     
     public ActionPerformanceData(String actionType) {
         this.actionType = actionType;
     }
     
     public void recordExecution(long executionTime, boolean success) {
-        executionCount++;
-        totalExecutionTime += executionTime;
-        lastExecutionTime = System.currentTimeMillis();
-        
-        if (executionTime > peakExecutionTime) {
-            peakExecutionTime = executionTime;
-        }
-        
-        if (executionTime < minExecutionTime) {
-            minExecutionTime = executionTime;
-        }
-        
-        if (success) {
-            successCount++;
-        } else {
-            failureCount++;
-        }
+        stats.record(executionTime, success);
     }
     
     public String getActionType() {
@@ -42,30 +20,42 @@ public class ActionPerformanceData {
     }
     
     public long getExecutionCount() {
-        return executionCount;
+        return stats.getExecutionCount();
     }
     
     public long getTotalExecutionTime() {
-        return totalExecutionTime;
+        return stats.getTotalExecutionTime();
     }
     
     public double getAverageExecutionTime() {
-        return executionCount > 0 ? (double) totalExecutionTime / executionCount : 0.0;
+        return stats.getAverageExecutionTime();
     }
     
     public long getLastExecutionTime() {
-        return lastExecutionTime;
+        return stats.getLastExecutionTime();
     }
     
     public long getPeakExecutionTime() {
-        return peakExecutionTime;
+        return stats.getPeakExecutionTime();
     }
     
     public long getMinExecutionTime() {
-        return minExecutionTime == Long.MAX_VALUE ? 0 : minExecutionTime;
+        return stats.getMinExecutionTime();
+    }
+    
+    public long getP50ExecutionTime() {
+        return stats.getP50ExecutionTime();
+    }
+    
+    public long getP99ExecutionTime() {
+        return stats.getP99ExecutionTime();
     }
     
     public double getSuccessRate() {
-        return executionCount > 0 ? (successCount * 100.0) / executionCount : 0.0;
+        return stats.getExecutionCount() > 0 ? (1.0 - stats.getErrorRate()) * 100.0 : 0.0;
+    }
+    
+    public ExecutionStats getStats() {
+        return stats;
     }
 }
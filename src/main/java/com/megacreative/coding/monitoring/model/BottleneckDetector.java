@@ -2,31 +2,49 @@ package com.megacreative.coding.monitoring.model;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.function.Supplier;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Detects performance bottlenecks in script execution
+ * Detects performance bottlenecks in script execution.
+ * Detection runs periodically on a snapshot of the script metrics, never on the recording path.
  */
 public class BottleneckDetector {
     private static final Logger log = Logger.getLogger(BottleneckDetector.class.getName());
     
-    private final Map<String, Bottleneck> bottlenecks = new ConcurrentHashMap<>();
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    private final Supplier<? extends Collection<ScriptMetrics>> metricsSource;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "MegaCreative-BottleneckDetector");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile Map<String, Bottleneck> bottlenecks = Collections.emptyMap();
     private volatile boolean isRunning = false;
     private ScheduledFuture<?> detectionTask;
     
+    public BottleneckDetector() {
+        this(null);
+    }
+    
+    /**
+     * @param metricsSource Supplies a snapshot of the script metrics for every periodic detection, or null
+     */
+    public BottleneckDetector(Supplier<? extends Collection<ScriptMetrics>> metricsSource) {
+        this.metricsSource = metricsSource;
+    }
+    
     /**
      * Detects bottlenecks in the provided script metrics
      * @param metrics Collection of script metrics to analyze
      */
     public void detectBottlenecks(Collection<ScriptMetrics> metrics) {
-        if (metrics == null || metrics.isEmpty()) {
-            return;
+        // Built aside and published at once, so readers never see a half-filled result
+        Map<String, Bottleneck> bottlenecks = new HashMap<>();
+        if (metrics == null) {
+            metrics = Collections.emptyList();
         }
         
-        
-        bottlenecks.clear();
-        
         for (ScriptMetrics metric : metrics) {
             
             double avgTime = metric.getAverageExecutionTime();
@@ -68,6 +86,7 @@ public class BottleneckDetector {
             }
         }
         
+        this.bottlenecks = bottlenecks;
         log.fine("Detected " + bottlenecks.size() + " potential bottlenecks");
     }
     
@@ -92,12 +111,25 @@ public class BottleneckDetector {
     }
     
     /**
-     * Performs periodic bottleneck detection
-     * This would be called periodically to check for new bottlenecks
+     * Forgets all detected bottlenecks
+     */
+    public void clear() {
+        bottlenecks = Collections.emptyMap();
+    }
+    
+    /**
+     * Performs periodic bottleneck detection on a fresh snapshot of the metrics source
      */
     private void performPeriodicDetection() {
-        
-        
+        if (metricsSource == null) {
+            return;
+        }
+        try {
+            detectBottlenecks(metricsSource.get());
+        } catch (Exception e) {
+            // An exception would cancel the periodic task
+            log.log(Level.WARNING, "Bottleneck detection failed", e);
+        }
     }
     
     /**
@@ -0,0 +1,39 @@
+package com.megacreative.coding.monitoring.model;
+
+/**
+ * Hits and misses of one cache, read when a performance report is built.
+ *
+ * Попадания и промахи одного кэша, прочитанные при построении отчета о производительности.
+ */
+public final class CacheStatistics {
+
+    private final String name;
+    private final long hits;
+    private final long misses;
+
+    public CacheStatistics(String name, long hits, long misses) {
+        this.name = name;
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the share of lookups answered from the cache, in percent
+     */
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups > 0 ? hits * 100.0 / lookups : 0.0;
+    }
+}
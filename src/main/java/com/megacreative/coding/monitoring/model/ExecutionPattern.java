@@ -1,14 +1,16 @@
 package com.megacreative.coding.monitoring.model;
 
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * Represents an execution pattern for sampling
  */
 public class ExecutionPattern {
     private final String scriptName;
     private final String actionType;
-    private int frequency = 0;
-    private long totalExecutionTime = 0;
-    private long lastExecutionTime = 0;
+    private final LongAdder frequency = new LongAdder();
+    private final LongAdder totalExecutionTime = new LongAdder();
+    private volatile long lastExecutionTime = 0;
     
     public ExecutionPattern(String scriptName, String actionType) {
         this.scriptName = scriptName;
@@ -16,8 +18,8 @@ public class ExecutionPattern {
     }
     
     public void recordExecution(long executionTime) {
-        frequency++;
-        totalExecutionTime += executionTime;
+        frequency.increment();
+        totalExecutionTime.add(executionTime);
         lastExecutionTime = System.currentTimeMillis();
     }
     
@@ -30,11 +32,12 @@ public class ExecutionPattern {
     }
     
     public int getFrequency() {
-        return frequency;
+        return frequency.intValue();
     }
     
     public double getAverageExecutionTime() {
-        return frequency > 0 ? (double) totalExecutionTime / frequency : 0.0;
+        long count = frequency.sum();
+        return count > 0 ? (double) totalExecutionTime.sum() / count : 0.0;
     }
     
     public long getLastExecutionTime() {
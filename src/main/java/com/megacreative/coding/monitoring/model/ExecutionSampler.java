@@ -7,7 +7,7 @@ import java.util.concurrent.*;
  * Samples and analyzes execution patterns
  */
 public class ExecutionSampler {
-    private final Map<String, ExecutionPattern> patterns = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, ExecutionPattern>> patterns = new ConcurrentHashMap<>();
     private volatile boolean isRunning = true;
     
     /**
@@ -17,9 +17,16 @@ public class ExecutionSampler {
      * @param executionTime Execution time in milliseconds
      */
     public void recordExecution(String scriptName, String actionType, long executionTime) {
-        String key = scriptName + "::" + actionType;
-        patterns.computeIfAbsent(key, k -> new ExecutionPattern(scriptName, actionType))
-               .recordExecution(executionTime);
+        // Nested lookups instead of a combined key, so recording builds no string
+        Map<String, ExecutionPattern> byAction = patterns.get(scriptName);
+        if (byAction == null) {
+            byAction = patterns.computeIfAbsent(scriptName, name -> new ConcurrentHashMap<>());
+        }
+        ExecutionPattern pattern = byAction.get(actionType);
+        if (pattern == null) {
+            pattern = byAction.computeIfAbsent(actionType, type -> new ExecutionPattern(scriptName, type));
+        }
+        pattern.recordExecution(executionTime);
     }
     
     /**
@@ -27,7 +34,18 @@ public class ExecutionSampler {
      * @return Collection of execution patterns
      */
     public Collection<ExecutionPattern> getExecutionPatterns() {
-        return new ArrayList<>(patterns.values());
+        List<ExecutionPattern> result = new ArrayList<>();
+        for (Map<String, ExecutionPattern> byAction : patterns.values()) {
+            result.addAll(byAction.values());
+        }
+        return result;
+    }
+    
+    /**
+     * Removes all recorded patterns
+     */
+    public void clear() {
+        patterns.clear();
     }
     
     /**
@@ -0,0 +1,119 @@
+package com.megacreative.coding.monitoring.model;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histogram shared by the per-action, per-script and per-player metrics.
+ * All counters are striped, so threads recording at the same time do not contend on one field
+ * and recording never allocates. Readers see each counter up to date, but not necessarily all
+ * counters as of the same instant.
+ *
+ * Счетчики и гистограмма задержек, общие для метрик действий, скриптов и игроков.
+ * Все счетчики распределены по ячейкам, поэтому одновременно записывающие потоки не соревнуются за одно поле,
+ * а запись никогда не создает объектов. Каждый счетчик читается актуальным, но не обязательно
+ * все счетчики на один и тот же момент.
+ */
+public final class ExecutionStats {
+
+    private final LongAdder executionCount = new LongAdder();
+    private final LongAdder totalExecutionTime = new LongAdder();
+    private final LongAdder failureCount = new LongAdder();
+    private final LongAccumulator minExecutionTime = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private volatile long lastExecutionTime;
+
+    public void record(long executionTime, boolean success) {
+        executionCount.increment();
+        totalExecutionTime.add(executionTime);
+        if (!success) {
+            failureCount.increment();
+        }
+        minExecutionTime.accumulate(executionTime);
+        histogram.record(executionTime);
+        lastExecutionTime = System.currentTimeMillis();
+    }
+
+    public long getExecutionCount() {
+        return executionCount.sum();
+    }
+
+    public long getTotalExecutionTime() {
+        return totalExecutionTime.sum();
+    }
+
+    public long getFailureCount() {
+        return failureCount.sum();
+    }
+
+    public long getSuccessCount() {
+        return Math.max(0, getExecutionCount() - getFailureCount());
+    }
+
+    public double getAverageExecutionTime() {
+        long count = getExecutionCount();
+        return count > 0 ? (double) getTotalExecutionTime() / count : 0.0;
+    }
+
+    /**
+     * Gets the fraction of failed executions, 0.0 if nothing was recorded
+     */
+    public double getErrorRate() {
+        long count = getExecutionCount();
+        return count > 0 ? Math.min(1.0, (double) getFailureCount() / count) : 0.0;
+    }
+
+    public long getMinExecutionTime() {
+        long min = minExecutionTime.get();
+        return min == Long.MAX_VALUE ? 0 : min;
+    }
+
+    public long getPeakExecutionTime() {
+        return histogram.getMax();
+    }
+
+    public long getP50ExecutionTime() {
+        return histogram.getP50();
+    }
+
+    public long getP99ExecutionTime() {
+        return histogram.getP99();
+    }
+
+    /**
+     * Gets the wall clock time of the last recorded execution
+     */
+    public long getLastExecutionTime() {
+        return lastExecutionTime;
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * Copies the current values into a new, independent instance
+     */
+    public ExecutionStats snapshot() {
+        ExecutionStats copy = new ExecutionStats();
+        copy.executionCount.add(getExecutionCount());
+        copy.totalExecutionTime.add(getTotalExecutionTime());
+        copy.failureCount.add(getFailureCount());
+        copy.minExecutionTime.accumulate(minExecutionTime.get());
+        copy.histogram.addAll(histogram);
+        copy.lastExecutionTime = lastExecutionTime;
+        return copy;
+    }
+
+    /**
+     * Adds totals known only in aggregate; the histogram keeps only the peak
+     */
+    void addTotals(long executions, long executionTime, long failures, long peakExecutionTime) {
+        executionCount.add(executions);
+        totalExecutionTime.add(executionTime);
+        failureCount.add(failures);
+        if (peakExecutionTime > 0) {
+            histogram.record(peakExecutionTime);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.megacreative.coding.monitoring.model;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Fixed-bucket histogram of execution times in milliseconds.
+ * Every power of two is split into four buckets, so a percentile is exact up to 3 ms and
+ * within 25% above that. Recording is a bucket increment and a max update; nothing is allocated
+ * and no sample list grows. Percentiles are computed from a copy of the buckets when read.
+ *
+ * Гистограмма времени выполнения в миллисекундах с фиксированными корзинами.
+ * Каждая степень двойки делится на четыре корзины, поэтому перцентиль точен до 3 мс и
+ * отклоняется не более чем на 25% выше. Запись - это инкремент корзины и обновление максимума;
+ * ничего не создается и список замеров не растет. Перцентили считаются по копии корзин при чтении.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /** Highest power of two with its own buckets; longer times land in the last bucket (about 4.6 hours) */
+    private static final int MAX_EXPONENT = 24;
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records one execution time; negative times count as 0
+     */
+    public void record(long millis) {
+        long value = Math.max(0, millis);
+        buckets.incrementAndGet(bucketOf(value));
+        max.accumulate(value);
+    }
+
+    /**
+     * Gets the number of recorded times
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += buckets.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Gets the longest recorded time
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    public long getP50() {
+        return getPercentile(0.50);
+    }
+
+    public long getP99() {
+        return getPercentile(0.99);
+    }
+
+    /**
+     * Gets the time below which the given fraction of executions finished
+     *
+     * @param fraction Fraction between 0 and 1
+     * @return The upper bound of the bucket holding the percentile, never above the max; 0 if nothing was recorded
+     */
+    public long getPercentile(double fraction) {
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(Math.min(1.0, Math.max(0.0, fraction)) * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                // The last bucket also holds every longer time, so it has no upper bound of its own
+                return i == BUCKET_COUNT - 1 ? max.get() : Math.min(upperBoundOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Adds the recorded times of another histogram to this one
+     */
+    public void addAll(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = other.buckets.get(i);
+            if (count != 0) {
+                buckets.addAndGet(i, count);
+            }
+        }
+        max.accumulate(other.max.get());
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        max.reset();
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = bucket % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return ((long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS)) + width - 1;
+    }
+}
@@ -10,8 +10,7 @@ import java.util.concurrent.atomic.*;
 public class PlayerScriptMetrics {
     private final UUID playerId;
     private final Map<String, ScriptMetrics> scriptMetrics = new ConcurrentHashMap<>();
-    private final AtomicLong totalExecutions = new AtomicLong(0);
-    private final AtomicLong totalExecutionTime = new AtomicLong(0);
+    private final ExecutionStats stats = new ExecutionStats();
     private final AtomicInteger activeScripts = new AtomicInteger(0);
     private final AtomicInteger maxConcurrentScripts = new AtomicInteger(0);
     
@@ -20,11 +19,13 @@ public class PlayerScriptMetrics {
     }
     
     public void recordExecution(String scriptName, String actionType, long executionTime, boolean success) {
-        scriptMetrics.computeIfAbsent(scriptName, ScriptMetrics::new)
-                   .recordExecution(actionType, executionTime, success);
+        ScriptMetrics metrics = scriptMetrics.get(scriptName);
+        if (metrics == null) {
+            metrics = scriptMetrics.computeIfAbsent(scriptName, ScriptMetrics::new);
+        }
+        metrics.recordExecution(actionType, executionTime, success);
         
-        totalExecutions.incrementAndGet();
-        totalExecutionTime.addAndGet(executionTime);
+        stats.record(executionTime, success);
         
         int active = activeScripts.incrementAndGet();
         maxConcurrentScripts.accumulateAndGet(active, Math::max);
@@ -41,17 +42,31 @@ public class PlayerScriptMetrics {
     }
     
     public long getTotalExecutions() {
-        return totalExecutions.get();
+        return stats.getExecutionCount();
     }
     
     public long getTotalExecutionTime() {
-        return totalExecutionTime.get();
+        return stats.getTotalExecutionTime();
     }
     
     public double getAverageExecutionTime() {
-        return totalExecutions.get() > 0 
-            ? (double) totalExecutionTime.get() / totalExecutions.get() 
-            : 0.0;
+        return stats.getAverageExecutionTime();
+    }
+    
+    public long getP50ExecutionTime() {
+        return stats.getP50ExecutionTime();
+    }
+    
+    public long getP99ExecutionTime() {
+        return stats.getP99ExecutionTime();
+    }
+    
+    public long getPeakExecutionTime() {
+        return stats.getPeakExecutionTime();
+    }
+    
+    public ExecutionStats getStats() {
+        return stats;
     }
     
     public int getActiveScripts() {
@@ -2,44 +2,32 @@ package com.megacreative.coding.monitoring.model;
 
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.*;
 
 /**
  * Represents metrics for a specific script
  */
 public class ScriptMetrics {
     private final String scriptName;
-    private final AtomicLong executionCount = new AtomicLong(0);
-    private final AtomicLong totalExecutionTime = new AtomicLong(0);
-    private final AtomicLong peakExecutionTime = new AtomicLong(0);
-    private final AtomicLong minExecutionTime = new AtomicLong(Long.MAX_VALUE);
-    private final AtomicLong successCount = new AtomicLong(0);
-    private final AtomicLong failureCount = new AtomicLong(0);
+    private final ExecutionStats stats;
     private final Map<String, ActionMetrics> actionMetrics = new ConcurrentHashMap<>();
-    private final List<Long> executionTimes = new CopyOnWriteArrayList<>();
     
     public ScriptMetrics(String scriptName) {
         this.scriptName = scriptName;
+        this.stats = new ExecutionStats();
     }
     
     /**
-     * Constructor that creates ScriptMetrics from ScriptPerformanceProfile
+     * Constructor that creates a point-in-time snapshot of a ScriptPerformanceProfile;
+     * later executions recorded in the profile do not change it
      * @param profile The profile to convert from
      */
     public ScriptMetrics(ScriptPerformanceProfile profile) {
         this.scriptName = profile.getScriptName();
-        this.executionCount.set(profile.getTotalExecutions());
-        this.totalExecutionTime.set(profile.getTotalExecutionTime());
-        this.peakExecutionTime.set(profile.getPeakExecutionTime());
-        this.minExecutionTime.set(profile.getMinExecutionTime());
-        this.successCount.set((long)(profile.getTotalExecutions() * profile.getSuccessRate()));
-        this.failureCount.set(profile.getTotalExecutions() - successCount.get());
-
+        this.stats = profile.getStats().snapshot();
         
         for (ActionPerformanceData actionData : profile.getAllActionData()) {
-            ActionMetrics actionMetrics = new ActionMetrics(actionData.getActionType());
-            
-            this.actionMetrics.put(actionData.getActionType(), actionMetrics);
+            this.actionMetrics.put(actionData.getActionType(),
+                new ActionMetrics(actionData.getActionType(), actionData.getStats().snapshot()));
         }
     }
     
@@ -50,38 +38,18 @@ public class ScriptMetrics {
                         long totalExecutionTime, long lastExecutionTime,
                         double successRate, double errorRate) {
         this.scriptName = "";
-        this.executionCount.set(totalExecutions);
-        this.totalExecutionTime.set(totalExecutionTime);
-        this.peakExecutionTime.set(lastExecutionTime);
-        this.successCount.set((long)(totalExecutions * successRate));
-        this.failureCount.set((long)(totalExecutions * errorRate));
+        this.stats = new ExecutionStats();
+        this.stats.addTotals(totalExecutions, totalExecutionTime, (long) (totalExecutions * errorRate), lastExecutionTime);
     }
     
     public void recordExecution(String actionType, long executionTime, boolean success) {
-        executionCount.incrementAndGet();
-        totalExecutionTime.addAndGet(executionTime);
-        
-        if (executionTime > peakExecutionTime.get()) {
-            peakExecutionTime.set(executionTime);
-        }
-        
-        if (executionTime < minExecutionTime.get()) {
-            minExecutionTime.set(executionTime);
-        }
-        
-        if (success) {
-            successCount.incrementAndGet();
-        } else {
-            failureCount.incrementAndGet();
-        }
-        
-        actionMetrics.computeIfAbsent(actionType, ActionMetrics::new)
-                   .recordExecution(executionTime, success);
+        stats.record(executionTime, success);
         
-        executionTimes.add(executionTime);
-        if (executionTimes.size() > 1000) {
-            executionTimes.remove(0);
+        ActionMetrics metrics = actionMetrics.get(actionType);
+        if (metrics == null) {
+            metrics = actionMetrics.computeIfAbsent(actionType, ActionMetrics::new);
         }
+        metrics.recordExecution(executionTime, success);
     }
     
     public String getScriptName() {
@@ -89,35 +57,39 @@ public class ScriptMetrics {
     }
     
     public long getExecutionCount() {
-        return executionCount.get();
+        return stats.getExecutionCount();
     }
     
     public long getTotalExecutionTime() {
-        return totalExecutionTime.get();
+        return stats.getTotalExecutionTime();
     }
     
     public double getAverageExecutionTime() {
-        return executionCount.get() > 0 
-            ? (double) totalExecutionTime.get() / executionCount.get() 
-            : 0.0;
+        return stats.getAverageExecutionTime();
     }
     
     public long getPeakExecutionTime() {
-        return peakExecutionTime.get();
+        return stats.getPeakExecutionTime();
     }
     
     public long getMinExecutionTime() {
-        return minExecutionTime.get() == Long.MAX_VALUE ? 0 : minExecutionTime.get();
+        return stats.getMinExecutionTime();
+    }
+    
+    public long getP50ExecutionTime() {
+        return stats.getP50ExecutionTime();
+    }
+    
+    public long getP99ExecutionTime() {
+        return stats.getP99ExecutionTime();
     }
     
     public double getSuccessRate() {
-        return executionCount.get() > 0 
-            ? (successCount.get() * 100.0) / executionCount.get() 
-            : 0.0;
+        return stats.getExecutionCount() > 0 ? (1.0 - stats.getErrorRate()) * 100.0 : 0.0;
     }
     
-    public List<Long> getExecutionTimes() {
-        return new ArrayList<>(executionTimes);
+    public ExecutionStats getStats() {
+        return stats;
     }
     
     public Collection<ActionMetrics> getActionMetrics() {
@@ -133,8 +105,6 @@ public class ScriptMetrics {
      * @return Error rate
      */
     public double getErrorRate() {
-        return executionCount.get() > 0 
-            ? (double) failureCount.get() / executionCount.get() 
-            : 0.0;
+        return stats.getErrorRate();
     }
 }
@@ -9,39 +9,19 @@ import java.util.concurrent.*;
 public class ScriptPerformanceProfile {
     private final String scriptName;
     private final Map<String, ActionPerformanceData> actionData = new ConcurrentHashMap<>();
-    private long totalExecutions = 0;
-    private long totalExecutionTime = 0;
-    private long lastExecutionTime = 0;
-    private long peakExecutionTime = 0;
-    private long minExecutionTime = Long.MAX_VALUE;
-    private long successCount = 0;
-    private long failureCount = 0;
+    private final ExecutionStats stats = new ExecutionStats();
     
     public ScriptPerformanceProfile(String scriptName) {
         this.scriptName = scriptName;
     }
     
     public void recordExecution(String actionType, long executionTime, boolean success) {
-        actionData.computeIfAbsent(actionType, ActionPerformanceData::new)
-                .recordExecution(executionTime, success);
-        
-        totalExecutions++;
-        totalExecutionTime += executionTime;
-        lastExecutionTime = System.currentTimeMillis();
-        
-        if (executionTime > peakExecutionTime) {
-            peakExecutionTime = executionTime;
-        }
-        
-        if (executionTime < minExecutionTime) {
-            minExecutionTime = executionTime;
-        }
-        
-        if (success) {
-            successCount++;
-        } else {
-            failureCount++;
+        ActionPerformanceData data = actionData.get(actionType);
+        if (data == null) {
+            data = actionData.computeIfAbsent(actionType, ActionPerformanceData::new);
         }
+        data.recordExecution(executionTime, success);
+        stats.record(executionTime, success);
     }
     
     public String getScriptName() {
@@ -49,35 +29,47 @@ public class ScriptPerformanceProfile {
     }
     
     public long getTotalExecutions() {
-        return totalExecutions;
+        return stats.getExecutionCount();
     }
     
     public long getTotalExecutionTime() {
-        return totalExecutionTime;
+        return stats.getTotalExecutionTime();
     }
     
     public long getLastExecutionTime() {
-        return lastExecutionTime;
+        return stats.getLastExecutionTime();
     }
     
     public long getPeakExecutionTime() {
-        return peakExecutionTime;
+        return stats.getPeakExecutionTime();
     }
     
     public long getMinExecutionTime() {
-        return minExecutionTime == Long.MAX_VALUE ? 0 : minExecutionTime;
+        return stats.getMinExecutionTime();
+    }
+    
+    public long getP50ExecutionTime() {
+        return stats.getP50ExecutionTime();
+    }
+    
+    public long getP99ExecutionTime() {
+        return stats.getP99ExecutionTime();
     }
     
     public double getAverageExecutionTime() {
-        return totalExecutions > 0 ? (double) totalExecutionTime / totalExecutions : 0.0;
+        return stats.getAverageExecutionTime();
     }
     
     public double getSuccessRate() {
-        return totalExecutions > 0 ? (double) successCount / totalExecutions : 1.0;
+        return stats.getExecutionCount() > 0 ? 1.0 - stats.getErrorRate() : 1.0;
     }
     
     public double getErrorRate() {
-        return totalExecutions > 0 ? (double) failureCount / totalExecutions : 0.0;
+        return stats.getErrorRate();
+    }
+    
+    public ExecutionStats getStats() {
+        return stats;
     }
     
     public Map<String, ActionPerformanceData> getActionData() {
@@ -15,6 +15,7 @@ public class SystemPerformanceReport {
     private final Collection<Bottleneck> bottlenecks;
     private final int uniqueActionTypes;
     private final long uptimeMs;
+    private final List<CacheStatistics> caches;
     
     public SystemPerformanceReport(long totalExecutions, long totalExecutionTime, 
                                  int activePlayerCount, int scriptProfilesCount,
@@ -22,6 +23,16 @@ public class SystemPerformanceReport {
                                  GarbageCollectionMonitor.GcStatistics gcStatistics,
                                  Collection<Bottleneck> bottlenecks,
                                  long uptimeMs) {
+        this(totalExecutions, totalExecutionTime, activePlayerCount, scriptProfilesCount,
+            memoryUsage, gcStatistics, bottlenecks, uptimeMs, Collections.emptyList());
+    }
+    
+    public SystemPerformanceReport(long totalExecutions, long totalExecutionTime, 
+                                 int activePlayerCount, int scriptProfilesCount,
+                                 MemoryUsage memoryUsage, 
+                                 GarbageCollectionMonitor.GcStatistics gcStatistics,
+                                 Collection<Bottleneck> bottlenecks,
+                                 long uptimeMs, List<CacheStatistics> caches) {
         this.totalExecutions = totalExecutions;
         this.totalExecutionTime = totalExecutionTime;
         this.activePlayerCount = activePlayerCount;
@@ -31,6 +42,7 @@ public class SystemPerformanceReport {
         this.bottlenecks = bottlenecks != null ? new ArrayList<>(bottlenecks) : Collections.emptyList();
         this.uniqueActionTypes = 0; 
         this.uptimeMs = uptimeMs;
+        this.caches = caches != null ? new ArrayList<>(caches) : Collections.emptyList();
     }
     
     public long getTotalExecutions() {
@@ -72,4 +84,11 @@ public class SystemPerformanceReport {
     public long getUptimeMs() {
         return uptimeMs;
     }
+    
+    /**
+     * Gets the hit statistics of the registered caches
+     */
+    public List<CacheStatistics> getCaches() {
+        return Collections.unmodifiableList(caches);
+    }
 }
\ No newline at end of file
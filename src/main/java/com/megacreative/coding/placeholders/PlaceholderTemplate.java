@@ -0,0 +1,281 @@
+package com.megacreative.coding.placeholders;
+
+import com.megacreative.coding.ExecutionContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A parameter string parsed once into literal text and placeholder nodes.
+ * Rendering walks the nodes into one pre-sized builder instead of running a regex pass per
+ * placeholder format; text without placeholders is returned as is.
+ * Formats are matched in the same order as before: prefix[content]~, then ${name}, then %name%.
+ * Resolved values are inserted verbatim and are not scanned for placeholders again.
+ *
+ * Строка параметра, разобранная один раз на литеральный текст и узлы плейсхолдеров.
+ * Отрисовка проходит по узлам в один заранее выделенный буфер вместо отдельного прохода регулярного
+ * выражения для каждого формата; текст без плейсхолдеров возвращается как есть.
+ * Форматы сопоставляются в прежнем порядке: prefix[content]~, затем ${name}, затем %name%.
+ * Подставленные значения вставляются дословно и повторно не сканируются на плейсхолдеры.
+ */
+public final class PlaceholderTemplate {
+
+    /**
+     * Extra capacity reserved per placeholder when rendering
+     */
+    private static final int EXPECTED_VALUE_LENGTH = 16;
+
+    private final String source;
+    private final Node[] nodes;
+    private final Node[] placeholders;
+    private final int capacity;
+
+    private PlaceholderTemplate(String source, Node[] nodes, int capacity) {
+        this.source = source;
+        this.nodes = nodes;
+        this.capacity = capacity;
+        List<Node> dynamicNodes = new ArrayList<>();
+        if (nodes != null) {
+            for (Node node : nodes) {
+                if (!(node instanceof LiteralNode)) {
+                    dynamicNodes.add(node);
+                }
+            }
+        }
+        this.placeholders = dynamicNodes.toArray(new Node[0]);
+    }
+
+    /**
+     * Parses a text into a template
+     *
+     * @param text The parameter text
+     * @return The template; texts without placeholders produce a constant template
+     */
+    public static PlaceholderTemplate compile(String text) {
+        if (!mayContainPlaceholders(text)) {
+            return new PlaceholderTemplate(text, null, 0);
+        }
+
+        List<Object> parts = new ArrayList<>();
+        parts.add(text);
+        parts = split(parts, ReferenceSystemPlaceholderResolver.REFERENCESYSTEM_PATTERN, PlaceholderTemplate::handlerNode);
+        parts = split(parts, ReferenceSystemPlaceholderResolver.MODERN_PATTERN, PlaceholderTemplate::simpleNode);
+        parts = split(parts, ReferenceSystemPlaceholderResolver.CLASSIC_PATTERN, PlaceholderTemplate::simpleNode);
+
+        List<Node> nodes = new ArrayList<>(parts.size());
+        int capacity = 0;
+        boolean dynamic = false;
+        for (Object part : parts) {
+            if (part instanceof String literal) {
+                nodes.add(new LiteralNode(literal));
+                capacity += literal.length();
+            } else {
+                nodes.add((Node) part);
+                capacity += EXPECTED_VALUE_LENGTH;
+                dynamic = true;
+            }
+        }
+        return dynamic ? new PlaceholderTemplate(text, nodes.toArray(new Node[0]), capacity) : new PlaceholderTemplate(text, null, 0);
+    }
+
+    /**
+     * Quick check for placeholder syntax (%name%, ${name} or name[...]~)
+     *
+     * @return false if the text certainly contains no placeholders
+     */
+    public static boolean mayContainPlaceholders(String text) {
+        return text != null && (text.indexOf('%') >= 0 || text.contains("${") || text.contains("]~"));
+    }
+
+    /**
+     * Gets the text this template was compiled from
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Checks if the template renders to its source text without doing any work
+     */
+    public boolean isConstant() {
+        return nodes == null;
+    }
+
+    /**
+     * Gets the number of placeholders in the template
+     */
+    public int getPlaceholderCount() {
+        return placeholders.length;
+    }
+
+    /**
+     * Renders a single placeholder, counted from the start of the text
+     *
+     * @param index The placeholder index, below {@link #getPlaceholderCount()}
+     * @param context The execution context the placeholder is resolved against
+     * @return The resolved value of that placeholder alone
+     */
+    public String renderPlaceholder(int index, ExecutionContext context) {
+        StringBuilder out = new StringBuilder(EXPECTED_VALUE_LENGTH);
+        placeholders[index].appendTo(out, context);
+        return out.toString();
+    }
+
+    /**
+     * Rebuilds the source text with literal parts and placeholders mapped, e.g. to turn "max(%hp%, 1)"
+     * into an expression over a parameter that is bound on every evaluation
+     *
+     * @param literal Maps a literal part of the text
+     * @param placeholder Gives the text that replaces the placeholder with the given index
+     * @return The rewritten text
+     */
+    public String rewrite(UnaryOperator<String> literal, IntFunction<String> placeholder) {
+        if (nodes == null) {
+            return literal.apply(source);
+        }
+        StringBuilder out = new StringBuilder(capacity);
+        int index = 0;
+        for (Node node : nodes) {
+            if (node instanceof LiteralNode literalNode) {
+                out.append(literal.apply(literalNode.text));
+            } else {
+                out.append(placeholder.apply(index++));
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Renders the template for an execution
+     *
+     * @param context The execution context placeholders are resolved against
+     * @return The resolved text
+     */
+    public String render(ExecutionContext context) {
+        if (nodes == null) {
+            return source;
+        }
+        StringBuilder out = new StringBuilder(capacity);
+        for (Node node : nodes) {
+            node.appendTo(out, context);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Replaces every match of the pattern inside the literal parts with a node
+     */
+    private static List<Object> split(List<Object> parts, Pattern pattern, Function<Matcher, Node> nodeFactory) {
+        List<Object> result = new ArrayList<>(parts.size());
+        for (Object part : parts) {
+            if (!(part instanceof String literal)) {
+                result.add(part);
+                continue;
+            }
+            Matcher matcher = pattern.matcher(literal);
+            int last = 0;
+            while (matcher.find()) {
+                if (matcher.start() > last) {
+                    result.add(literal.substring(last, matcher.start()));
+                }
+                result.add(nodeFactory.apply(matcher));
+                last = matcher.end();
+            }
+            if (last < literal.length()) {
+                result.add(literal.substring(last));
+            }
+        }
+        return result;
+    }
+
+    private static Node handlerNode(Matcher matcher) {
+        String prefix = matcher.group(1);
+        String content = matcher.group(2);
+        String defaultValue = "";
+        int separator = content.indexOf('|');
+        if (separator >= 0) {
+            defaultValue = content.substring(separator + 1);
+            content = content.substring(0, separator);
+        }
+
+        ReferenceSystemPlaceholderResolver.PlaceholderHandler handler = ReferenceSystemPlaceholderResolver.getHandler(prefix);
+        if (handler == null) {
+            // Unknown prefixes read a dotted variable, e.g. stats[kills]~ reads stats.kills
+            handler = ReferenceSystemPlaceholderResolver.getHandler("apple");
+            content = prefix + "." + content;
+        }
+        return new HandlerNode(handler, content, defaultValue, matcher.group(0));
+    }
+
+    private static Node simpleNode(Matcher matcher) {
+        return new SimpleNode(matcher.group(1), matcher.group(0));
+    }
+
+    private interface Node {
+        void appendTo(StringBuilder out, ExecutionContext context);
+    }
+
+    private static final class LiteralNode implements Node {
+        private final String text;
+
+        private LiteralNode(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public void appendTo(StringBuilder out, ExecutionContext context) {
+            out.append(text);
+        }
+    }
+
+    /**
+     * prefix[content|default]~ bound to its handler
+     */
+    private static final class HandlerNode implements Node {
+        private final ReferenceSystemPlaceholderResolver.PlaceholderHandler handler;
+        private final String content;
+        private final String defaultValue;
+        private final String original;
+
+        private HandlerNode(ReferenceSystemPlaceholderResolver.PlaceholderHandler handler, String content,
+                            String defaultValue, String original) {
+            this.handler = handler;
+            this.content = content;
+            this.defaultValue = defaultValue;
+            this.original = original;
+        }
+
+        @Override
+        public void appendTo(StringBuilder out, ExecutionContext context) {
+            String replacement = handler.resolve(content, context, defaultValue);
+            if (replacement == null) {
+                replacement = defaultValue.isEmpty() ? original : defaultValue;
+            }
+            out.append(replacement);
+        }
+    }
+
+    /**
+     * ${name} or %name%; kept as written when nothing resolves it
+     */
+    private static final class SimpleNode implements Node {
+        private final String placeholder;
+        private final String original;
+
+        private SimpleNode(String placeholder, String original) {
+            this.placeholder = placeholder;
+            this.original = original;
+        }
+
+        @Override
+        public void appendTo(StringBuilder out, ExecutionContext context) {
+            String replacement = ReferenceSystemPlaceholderResolver.resolveSimplePlaceholder(placeholder, context);
+            out.append(replacement != null ? replacement : original);
+        }
+    }
+}
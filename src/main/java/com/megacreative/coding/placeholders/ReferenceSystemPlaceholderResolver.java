@@ -1,8 +1,10 @@
 package com.megacreative.coding.placeholders;
 
 import com.megacreative.coding.ExecutionContext;
+import com.megacreative.coding.expressions.ExpressionTemplate;
 import com.megacreative.coding.values.DataValue;
 import com.megacreative.coding.variables.VariableManager;
+import com.megacreative.exceptions.ScriptException;
 import org.bukkit.entity.Player;
 import org.bukkit.Location;
 import org.bukkit.Bukkit;
@@ -11,7 +13,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.regex.Matcher;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 /**
@@ -27,9 +29,16 @@ public class ReferenceSystemPlaceholderResolver {
     
     
     // Fixed redundant character escape - removed unnecessary backslashes
-    private static final Pattern REFERENCESYSTEM_PATTERN = Pattern.compile("([a-zA-Z_][a-zA-Z0-9_]*)\\[([^\\]]+)\\]~");
-    private static final Pattern MODERN_PATTERN = Pattern.compile("\\$\\{([^}]+)\\}");
-    private static final Pattern CLASSIC_PATTERN = Pattern.compile("%([^%]+)%");
+    static final Pattern REFERENCESYSTEM_PATTERN = Pattern.compile("([a-zA-Z_][a-zA-Z0-9_]*)\\[([^\\]]+)\\]~");
+    static final Pattern MODERN_PATTERN = Pattern.compile("\\$\\{([^}]+)\\}");
+    // A name between two '%' only: no whitespace, operators or parentheses, so "x % 2 + y % 3" stays an expression
+    static final Pattern CLASSIC_PATTERN = Pattern.compile("%([a-zA-Z_][^%\\s+*/^(),]*)%");
+    
+    /**
+     * Compiled templates by text; dropped wholesale when full, since they are cheap to rebuild
+     */
+    private static final int MAX_CACHED_TEMPLATES = 4096;
+    private static final Map<String, PlaceholderTemplate> TEMPLATE_CACHE = new ConcurrentHashMap<>();
     
     
     private static final Map<String, PlaceholderHandler> BUILTIN_HANDLERS = new HashMap<>();
@@ -53,113 +62,40 @@ public class ReferenceSystemPlaceholderResolver {
      * Resolves all placeholders in text using reference system-style syntax
      */
     public static String resolvePlaceholders(String text, ExecutionContext context) {
-        if (text == null || text.isEmpty()) {
+        if (!PlaceholderTemplate.mayContainPlaceholders(text)) {
             return text;
         }
-        
-        String result = text;
-        
-        
-        result = resolveReferenceSystemPlaceholders(result, context);
-        
-        
-        result = resolveModernPlaceholders(result, context);
-        
-        
-        result = resolveClassicPlaceholders(result, context);
-        
-        return result;
+        return getTemplate(text).render(context);
     }
     
     /**
-     * Resolves reference system-style placeholders: prefix[content]~
+     * Gets the compiled template for a text, parsing it on first use
      */
-    private static String resolveReferenceSystemPlaceholders(String text, ExecutionContext context) {
-        Matcher matcher = REFERENCESYSTEM_PATTERN.matcher(text);
-        StringBuffer result = new StringBuffer();
-        
-        while (matcher.find()) {
-            String prefix = matcher.group(1);
-            String content = matcher.group(2);
-            
-            
-            String defaultValue = "";
-            if (content.contains("|")) {
-                String[] parts = content.split("\\|", 2);
-                content = parts[0];
-                defaultValue = parts[1];
+    public static PlaceholderTemplate getTemplate(String text) {
+        PlaceholderTemplate template = TEMPLATE_CACHE.get(text);
+        if (template == null) {
+            if (TEMPLATE_CACHE.size() >= MAX_CACHED_TEMPLATES) {
+                TEMPLATE_CACHE.clear();
             }
-            
-            
-            PlaceholderHandler handler = BUILTIN_HANDLERS.get(prefix.toLowerCase());
-            String replacement;
-            
-            if (handler != null) {
-                replacement = handler.resolve(content, context, defaultValue);
-            } else {
-                
-                replacement = BUILTIN_HANDLERS.get("apple").resolve(prefix + "." + content, context, defaultValue);
-            }
-            
-            if (replacement == null) {
-                replacement = defaultValue.isEmpty() ? matcher.group(0) : defaultValue;
-            }
-            
-            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+            template = PlaceholderTemplate.compile(text);
+            TEMPLATE_CACHE.put(text, template);
         }
-        matcher.appendTail(result);
-        
-        return result.toString();
+        return template;
     }
     
     /**
-     * Resolves modern ${} placeholders
+     * Gets the built-in handler for a prefix[content]~ placeholder
+     *
+     * @return The handler, or null for an unknown prefix
      */
-    private static String resolveModernPlaceholders(String text, ExecutionContext context) {
-        Matcher matcher = MODERN_PATTERN.matcher(text);
-        StringBuffer result = new StringBuffer();
-        
-        while (matcher.find()) {
-            String placeholder = matcher.group(1);
-            String replacement = resolveSimplePlaceholder(placeholder, context);
-            
-            if (replacement == null) {
-                replacement = matcher.group(0); 
-            }
-            
-            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
-        }
-        matcher.appendTail(result);
-        
-        return result.toString();
-    }
-    
-    /**
-     * Resolves classic %% placeholders
-     */
-    private static String resolveClassicPlaceholders(String text, ExecutionContext context) {
-        Matcher matcher = CLASSIC_PATTERN.matcher(text);
-        StringBuffer result = new StringBuffer();
-        
-        while (matcher.find()) {
-            String placeholder = matcher.group(1);
-            String replacement = resolveSimplePlaceholder(placeholder, context);
-            
-            if (replacement == null) {
-                replacement = matcher.group(0); 
-            }
-            
-            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
-        }
-        matcher.appendTail(result);
-        
-        return result.toString();
+    static PlaceholderHandler getHandler(String prefix) {
+        return BUILTIN_HANDLERS.get(prefix.toLowerCase());
     }
     
     /**
      * Resolves simple placeholders (backwards compatibility)
      */
-    private static String resolveSimplePlaceholder(String placeholder, ExecutionContext context) {
+    static String resolveSimplePlaceholder(String placeholder, ExecutionContext context) {
         Player player = context.getPlayer();
         
         
@@ -322,186 +258,21 @@ public class ReferenceSystemPlaceholderResolver {
     }
     
     /**
-     * Math placeholder handler: math[variable+5]~, math[10*2]~
+     * Math placeholder handler: math[variable+5]~, math[max(score, 10) * 2]~
+     * Expressions are compiled once and cached; names inside them are read as variables, and placeholders
+     * inside them are bound as parameters, so changing placeholder values do not compile new expressions.
      */
     public static class MathPlaceholderHandler implements PlaceholderHandler {
         @Override
         public String resolve(String content, ExecutionContext context, String defaultValue) {
             try {
-                
-                String expression = ReferenceSystemPlaceholderResolver.resolvePlaceholders(content, context);
-                
-                
-                return evaluateSimpleMath(expression);
+                return String.valueOf(ExpressionTemplate.cached(content.trim()).evaluate(context));
+            } catch (ScriptException e) {
+                return "0";
             } catch (Exception e) {
                 return defaultValue;
             }
         }
-        
-        private String evaluateSimpleMath(String expression) {
-            
-            expression = expression.replaceAll("[^0-9+*/().\\s-]", "");
-            
-            try {
-                
-                return String.valueOf(evaluateExpression(expression.trim()));
-            } catch (Exception e) {
-                return "0";
-            }
-        }
-        
-        /**
-         * Evaluates a mathematical expression with proper operator precedence
-         * Supports +, -, *, /, parentheses, and whitespace
-         */
-        private double evaluateExpression(String expression) {
-            
-            if (expression == null || expression.isEmpty()) {
-                return 0.0;
-            }
-            
-            
-            expression = expression.replaceAll("\\s+", "");
-            
-            
-            int lastOpenParen = expression.lastIndexOf('(');
-            if (lastOpenParen != -1) {
-                int closingParen = findMatchingParen(expression, lastOpenParen);
-                if (closingParen != -1) {
-                    String innerExpression = expression.substring(lastOpenParen + 1, closingParen);
-                    double innerResult = evaluateExpression(innerExpression);
-                    String newExpression = expression.substring(0, lastOpenParen) + 
-                                          innerResult + 
-                                          expression.substring(closingParen + 1);
-                    return evaluateExpression(newExpression);
-                }
-            }
-            
-            
-            for (int i = 0; i < expression.length(); i++) {
-                char c = expression.charAt(i);
-                if (c == '*' || c == '/') {
-                    double left = parseLeftOperand(expression, i);
-                    double right = parseRightOperand(expression, i);
-                    double result = (c == '*') ? left * right : left / right;
-                    
-                    
-                    int leftStart = findLeftOperandStart(expression, i);
-                    int rightEnd = findRightOperandEnd(expression, i);
-                    
-                    String newExpression = expression.substring(0, leftStart) + 
-                                          result + 
-                                          expression.substring(rightEnd);
-                    return evaluateExpression(newExpression);
-                }
-            }
-            
-            
-            for (int i = 0; i < expression.length(); i++) {
-                char c = expression.charAt(i);
-                if (c == '+' || (c == '-' && i > 0)) { 
-                    double left = parseLeftOperand(expression, i);
-                    double right = parseRightOperand(expression, i);
-                    double result = (c == '+') ? left + right : left - right;
-                    
-                    
-                    int leftStart = findLeftOperandStart(expression, i);
-                    int rightEnd = findRightOperandEnd(expression, i);
-                    
-                    String newExpression = expression.substring(0, leftStart) + 
-                                          result + 
-                                          expression.substring(rightEnd);
-                    return evaluateExpression(newExpression);
-                }
-            }
-            
-            
-            return Double.parseDouble(expression);
-        }
-        
-        /**
-         * Finds the matching closing parenthesis for an opening parenthesis
-         */
-        private int findMatchingParen(String expression, int openPos) {
-            int balance = 1;
-            for (int i = openPos + 1; i < expression.length(); i++) {
-                if (expression.charAt(i) == '(') {
-                    balance++;
-                } else if (expression.charAt(i) == ')') {
-                    balance--;
-                    if (balance == 0) {
-                        return i;
-                    }
-                }
-            }
-            return -1; 
-        }
-        
-        /**
-         * Parses the left operand of an operator at the given position
-         */
-        private double parseLeftOperand(String expression, int operatorPos) {
-            int start = findLeftOperandStart(expression, operatorPos);
-            String operandStr = expression.substring(start, operatorPos);
-            return Double.parseDouble(operandStr);
-        }
-        
-        /**
-         * Parses the right operand of an operator at the given position
-         */
-        private double parseRightOperand(String expression, int operatorPos) {
-            int end = findRightOperandEnd(expression, operatorPos);
-            String operandStr = expression.substring(operatorPos + 1, end);
-            return Double.parseDouble(operandStr);
-        }
-        
-        /**
-         * Finds the start position of the left operand
-         */
-        private int findLeftOperandStart(String expression, int operatorPos) {
-            
-            if (operatorPos > 0 && expression.charAt(operatorPos - 1) == '-') {
-                operatorPos--;
-                
-                if (operatorPos == 0 || "+-*/(".indexOf(expression.charAt(operatorPos - 1)) != -1) {
-                    // This is a unary minus, do nothing
-                } else {
-                    // This is a binary minus, adjust position
-                    operatorPos++;
-                }
-            }
-            
-            for (int i = operatorPos - 1; i >= 0; i--) {
-                char c = expression.charAt(i);
-                if ("+-*/".indexOf(c) != -1) {
-                    
-                    if (c == '-' && (i == 0 || "+-*/(".indexOf(expression.charAt(i - 1)) != -1)) {
-                        continue;
-                    }
-                    return i + 1;
-                }
-            }
-            return 0;
-        }
-        
-        /**
-         * Finds the end position of the right operand
-         */
-        private int findRightOperandEnd(String expression, int operatorPos) {
-            for (int i = operatorPos + 1; i < expression.length(); i++) {
-                char c = expression.charAt(i);
-                
-                if ("+-*/()".indexOf(c) != -1) {
-                    
-                    if (c == '-' && (i == operatorPos + 1)) {
-                        
-                        continue;
-                    }
-                    return i;
-                }
-            }
-            return expression.length();
-        }
     }
     
     /**
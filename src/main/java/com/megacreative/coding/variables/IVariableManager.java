@@ -42,6 +42,11 @@ public interface IVariableManager {
             this.lastModified = createdTime;
         }
         
+        public VariableMetadata(String name, VariableScope scope, ValueType type, long createdTime, long lastModified) {
+            this(name, scope, type, createdTime);
+            this.lastModified = lastModified;
+        }
+        
         public String getName() { return name; }
         public VariableScope getScope() { return scope; }
         public ValueType getType() { return type; }
@@ -0,0 +1,204 @@
+package com.megacreative.coding.variables;
+
+import com.megacreative.coding.values.DataValue;
+import com.megacreative.coding.values.types.BooleanValue;
+
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Per-execution storage for the local variables a compiled script refers to by literal name.
+ * Every variable gets an integer slot at compile time; numbers and flags are kept in primitive
+ * arrays, so counters and arithmetic inside a run never box, hash or allocate a DataValue.
+ * Slots are loaded from the VariableManager on first read and written back once when the run ends.
+ *
+ * Хранилище локальных переменных одного выполнения, на которые скомпилированный скрипт ссылается по имени.
+ * Каждая переменная получает целочисленный слот при компиляции; числа и флаги хранятся в примитивных
+ * массивах, поэтому счетчики и арифметика внутри выполнения не упаковываются, не хешируются и не создают DataValue.
+ * Слоты загружаются из VariableManager при первом чтении и записываются обратно один раз в конце выполнения.
+ */
+public final class LocalFrame {
+
+    private static final byte EMPTY = 0;
+    private static final byte DOUBLE = 1;
+    private static final byte LONG = 2;
+    private static final byte BOOLEAN = 3;
+    private static final byte VALUE = 4;
+
+    private final String[] names;
+    private final Map<String, Integer> index;
+    private final byte[] kinds;
+    private final double[] doubles;
+    private final long[] longs;
+    private final boolean[] booleans;
+    private final DataValue[] values;
+    private final boolean[] loaded;
+    private final boolean[] dirty;
+
+    /**
+     * Creates a frame for the given slot layout
+     *
+     * @param names Variable name of every slot
+     * @param index Shared, read-only name to slot mapping
+     */
+    public LocalFrame(String[] names, Map<String, Integer> index) {
+        int size = names.length;
+        this.names = names;
+        this.index = index;
+        this.kinds = new byte[size];
+        this.doubles = new double[size];
+        this.longs = new long[size];
+        this.booleans = new boolean[size];
+        this.values = new DataValue[size];
+        this.loaded = new boolean[size];
+        this.dirty = new boolean[size];
+    }
+
+    /**
+     * Gets the slot of a variable name
+     *
+     * @return The slot, or -1 if the script does not keep this variable in the frame
+     */
+    public int slotOf(String name) {
+        Integer slot = name != null ? index.get(name) : null;
+        return slot != null ? slot : -1;
+    }
+
+    /**
+     * Gets the name to slot mapping, shared by all frames of the same compiled script
+     */
+    public Map<String, Integer> getLayout() {
+        return index;
+    }
+
+    public String getName(int slot) {
+        return names[slot];
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Checks if the slot already holds the variable's value for this run
+     */
+    public boolean isLoaded(int slot) {
+        return loaded[slot];
+    }
+
+    /**
+     * Fills a slot with the value stored outside the frame without marking it for write-back
+     */
+    public void load(int slot, DataValue value) {
+        storeValue(slot, value);
+        loaded[slot] = true;
+    }
+
+    public double getDouble(int slot) {
+        switch (kinds[slot]) {
+            case DOUBLE:
+                return doubles[slot];
+            case LONG:
+                return longs[slot];
+            case BOOLEAN:
+                return booleans[slot] ? 1 : 0;
+            case VALUE:
+                try {
+                    return values[slot].asNumber().doubleValue();
+                } catch (NumberFormatException e) {
+                    // Non-numeric values count as 0, like the variable actions always did
+                    return 0;
+                }
+            default:
+                return 0;
+        }
+    }
+
+    public void setDouble(int slot, double value) {
+        kinds[slot] = DOUBLE;
+        doubles[slot] = value;
+        values[slot] = null;
+        markWritten(slot);
+    }
+
+    public long getLong(int slot) {
+        return kinds[slot] == LONG ? longs[slot] : (long) getDouble(slot);
+    }
+
+    public void setLong(int slot, long value) {
+        kinds[slot] = LONG;
+        longs[slot] = value;
+        values[slot] = null;
+        markWritten(slot);
+    }
+
+    public boolean getBoolean(int slot) {
+        switch (kinds[slot]) {
+            case BOOLEAN:
+                return booleans[slot];
+            case VALUE:
+                return values[slot].asBoolean();
+            case EMPTY:
+                return false;
+            default:
+                return getDouble(slot) != 0;
+        }
+    }
+
+    public void setBoolean(int slot, boolean value) {
+        kinds[slot] = BOOLEAN;
+        booleans[slot] = value;
+        values[slot] = null;
+        markWritten(slot);
+    }
+
+    /**
+     * Gets the slot as a DataValue, materializing primitive slots
+     *
+     * @return The value, or null if the variable is unset
+     */
+    public DataValue get(int slot) {
+        switch (kinds[slot]) {
+            case DOUBLE:
+                return DataValue.of(doubles[slot]);
+            case LONG:
+                return DataValue.of(longs[slot]);
+            case BOOLEAN:
+                return new BooleanValue(booleans[slot]);
+            case VALUE:
+                return values[slot];
+            default:
+                return null;
+        }
+    }
+
+    public void set(int slot, DataValue value) {
+        storeValue(slot, value);
+        markWritten(slot);
+    }
+
+    /**
+     * Passes every slot written during this run to the consumer and clears the dirty marks
+     */
+    public void flush(BiConsumer<String, DataValue> writer) {
+        for (int slot = 0; slot < names.length; slot++) {
+            if (dirty[slot]) {
+                dirty[slot] = false;
+                DataValue value = get(slot);
+                if (value != null) {
+                    writer.accept(names[slot], value);
+                }
+            }
+        }
+    }
+
+    private void storeValue(int slot, DataValue value) {
+        values[slot] = value;
+        kinds[slot] = value != null ? VALUE : EMPTY;
+    }
+
+    private void markWritten(int slot) {
+        loaded[slot] = true;
+        dirty[slot] = true;
+    }
+}
@@ -23,12 +23,12 @@ import java.util.logging.Level;
 public class VariableManager implements IVariableManager {
     
     private final MegaCreative plugin;
-    private final Map<String, DataValue> localVariables = new ConcurrentHashMap<>();
-    private final Map<String, Map<String, DataValue>> globalVariables = new ConcurrentHashMap<>();
-    private final Map<String, DataValue> playerVariables = new ConcurrentHashMap<>();
-    private final Map<String, DataValue> serverVariables = new ConcurrentHashMap<>();
-    private final Map<String, DataValue> persistentVariables = new ConcurrentHashMap<>();
-    private final Map<String, VariableMetadata> variableMetadata = new ConcurrentHashMap<>();
+    // Per-scope stores: owner -> variable table, so no composite keys are built and one owner clears in O(its variables)
+    private final Map<String, VariableTable> localVariables = new ConcurrentHashMap<>();
+    private final VariableTable globalVariables = new VariableTable();
+    private final Map<UUID, VariableTable> playerVariables = new ConcurrentHashMap<>();
+    private final VariableTable serverVariables = new VariableTable();
+    private final VariableTable persistentVariables = new VariableTable();
     private final File dataFolder;
     private final Map<String, DynamicVariable> dynamicVariables = new ConcurrentHashMap<>();
     // According to static analysis, contents of collection dynamicVariables are updated, but never queried
@@ -88,19 +88,15 @@ public class VariableManager implements IVariableManager {
             throw new IllegalArgumentException(Constants.CONTEXT_AND_NAME_CANNOT_BE_NULL);
         }
         
-        String key = Constants.LOCAL_PREFIX + context + "_" + name;
-        localVariables.put(key, value);
-        
-        VariableMetadata metadata = new VariableMetadata(key, VariableScope.LOCAL, value.getType(), System.currentTimeMillis());
-        variableMetadata.put(key, metadata);
+        localVariables.computeIfAbsent(context, k -> new VariableTable()).put(name, value);
     }
 
     public DataValue getLocalVariable(String context, String name) {
         if (context == null || name == null) {
             return null;
         }
-        String key = Constants.LOCAL_PREFIX + context + "_" + name;
-        return localVariables.get(key);
+        VariableTable table = localVariables.get(context);
+        return table != null ? table.get(name) : null;
     }
 
     public void setGlobalVariable(String name, DataValue value) {
@@ -108,43 +104,29 @@ public class VariableManager implements IVariableManager {
             throw new IllegalArgumentException("Name cannot be null");
         }
         
-        globalVariables.compute(Constants.GLOBAL_KEY, (k, globalMap) -> {
-            if (globalMap == null) {
-                globalMap = new HashMap<>();
-            }
-            globalMap.put(name, value);
-            return globalMap;
-        });
-        
-        VariableMetadata metadata = new VariableMetadata(name, VariableScope.GLOBAL, value.getType(), System.currentTimeMillis());
-        variableMetadata.put("global_" + name, metadata);
+        globalVariables.put(name, value);
     }
 
     public DataValue getGlobalVariable(String name) {
         if (name == null) {
             return null;
         }
-        Map<String, DataValue> globalMap = globalVariables.get(Constants.GLOBAL_KEY);
-        return globalMap != null ? globalMap.get(name) : null;
+        return globalVariables.get(name);
     }
 
     public void setPlayerVariable(UUID playerId, String name, DataValue value) {
         if (playerId == null || name == null) {
             throw new IllegalArgumentException(Constants.PLAYER_ID_CANNOT_BE_NULL);
         }
-        String key = Constants.PLAYER_PREFIX + playerId + "_" + name;
-        playerVariables.put(key, value);
-        
-        VariableMetadata metadata = new VariableMetadata(key, VariableScope.PLAYER, value.getType(), System.currentTimeMillis());
-        variableMetadata.put(key, metadata);
+        playerVariables.computeIfAbsent(playerId, k -> new VariableTable()).put(name, value);
     }
 
     public DataValue getPlayerVariable(UUID playerId, String name) {
         if (playerId == null || name == null) {
             return null;
         }
-        String key = Constants.PLAYER_PREFIX + playerId + "_" + name;
-        return playerVariables.get(key);
+        VariableTable table = playerVariables.get(playerId);
+        return table != null ? table.get(name) : null;
     }
 
     public void setServerVariable(String name, DataValue value) {
@@ -152,9 +134,6 @@ public class VariableManager implements IVariableManager {
             throw new IllegalArgumentException(Constants.NAME_VALUE_SCOPE_CANNOT_BE_NULL);
         }
         serverVariables.put(name, value);
-        
-        VariableMetadata metadata = new VariableMetadata(name, VariableScope.SERVER, value.getType(), System.currentTimeMillis());
-        variableMetadata.put("server_" + name, metadata);
     }
 
     public DataValue getServerVariable(String name) {
@@ -169,9 +148,6 @@ public class VariableManager implements IVariableManager {
             throw new IllegalArgumentException(Constants.NAME_VALUE_SCOPE_CANNOT_BE_NULL);
         }
         persistentVariables.put(name, value);
-        
-        VariableMetadata metadata = new VariableMetadata(name, VariableScope.PERSISTENT, value.getType(), System.currentTimeMillis());
-        variableMetadata.put("persistent_" + name, metadata);
     }
 
     public DataValue getPersistentVariable(String name) {
@@ -219,10 +195,14 @@ public class VariableManager implements IVariableManager {
                 globalVariables.clear();
                 break;
             case LOCAL:
-                localVariables.entrySet().removeIf(entry -> entry.getKey().startsWith(Constants.LOCAL_PREFIX + identifier + "_"));
+                localVariables.remove(identifier);
                 break;
             case PLAYER:
-                playerVariables.entrySet().removeIf(entry -> entry.getKey().startsWith(Constants.PLAYER_PREFIX + identifier + "_"));
+                try {
+                    playerVariables.remove(UUID.fromString(identifier));
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().log(Level.WARNING, Constants.INVALID_PLAYER_UUID + identifier, e);
+                }
                 break;
             case SERVER:
                 serverVariables.clear();
@@ -240,9 +220,7 @@ public class VariableManager implements IVariableManager {
         try {
             Map<String, Object> dataToSave = new HashMap<>();
             
-            for (Map.Entry<String, DataValue> entry : persistentVariables.entrySet()) {
-                dataToSave.put(entry.getKey(), serializeDataValue(entry.getValue()));
-            }
+            persistentVariables.forEachSlot((name, slot) -> dataToSave.put(name, serializeDataValue(slot.getValue())));
             
             String json = toJson(dataToSave);
             java.nio.file.Files.write(persistentFile.toPath(), json.getBytes(java.nio.charset.StandardCharsets.UTF_8));
@@ -421,12 +399,18 @@ public class VariableManager implements IVariableManager {
                     globalVariables.remove(name);
                     break;
                 case LOCAL:
-                    localVariables.remove(Constants.LOCAL_PREFIX + context + "_" + name);
+                    VariableTable localTable = context != null ? localVariables.get(context) : null;
+                    if (localTable != null) {
+                        localTable.remove(name);
+                    }
                     break;
                 case PLAYER:
                     
                     UUID playerId = UUID.fromString(context);
-                    playerVariables.remove(Constants.PLAYER_PREFIX + playerId + "_" + name);
+                    VariableTable playerTable = playerVariables.get(playerId);
+                    if (playerTable != null) {
+                        playerTable.remove(name);
+                    }
                     break;
                 case SERVER:
                     serverVariables.remove(name);
@@ -457,14 +441,74 @@ public class VariableManager implements IVariableManager {
         setPlayerVariable(playerId, name, DataValue.of(newValue));
     }
     
+    /**
+     * Gets metadata by its key (local_&lt;context&gt;_&lt;name&gt;, player_&lt;uuid&gt;_&lt;name&gt;,
+     * global_&lt;name&gt;, server_&lt;name&gt; or persistent_&lt;name&gt;). Metadata is built on request from the stored slot.
+     */
     @Override
     public VariableMetadata getVariableMetadata(String name) {
-        return variableMetadata.get(name);
+        if (name == null) {
+            return null;
+        }
+        if (name.startsWith("global_")) {
+            String variableName = name.substring("global_".length());
+            return createMetadata(variableName, VariableScope.GLOBAL, globalVariables.getSlot(variableName));
+        }
+        if (name.startsWith(Constants.SERVER_PREFIX)) {
+            String variableName = name.substring(Constants.SERVER_PREFIX.length());
+            return createMetadata(variableName, VariableScope.SERVER, serverVariables.getSlot(variableName));
+        }
+        if (name.startsWith(Constants.PERSISTENT_PREFIX)) {
+            String variableName = name.substring(Constants.PERSISTENT_PREFIX.length());
+            return createMetadata(variableName, VariableScope.PERSISTENT, persistentVariables.getSlot(variableName));
+        }
+        if (name.startsWith(Constants.PLAYER_PREFIX)) {
+            int uuidEnd = Constants.PLAYER_PREFIX.length() + 36;
+            if (name.length() > uuidEnd && name.charAt(uuidEnd) == '_') {
+                try {
+                    VariableTable table = playerVariables.get(UUID.fromString(name.substring(Constants.PLAYER_PREFIX.length(), uuidEnd)));
+                    return table != null ? createMetadata(name, VariableScope.PLAYER, table.getSlot(name.substring(uuidEnd + 1))) : null;
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+            }
+            return null;
+        }
+        if (name.startsWith(Constants.LOCAL_PREFIX)) {
+            // Script contexts may contain '_', so try every split between context and variable name
+            for (int split = name.indexOf('_', Constants.LOCAL_PREFIX.length()); split > 0; split = name.indexOf('_', split + 1)) {
+                VariableTable table = localVariables.get(name.substring(Constants.LOCAL_PREFIX.length(), split));
+                VariableTable.Slot slot = table != null ? table.getSlot(name.substring(split + 1)) : null;
+                if (slot != null) {
+                    return createMetadata(name, VariableScope.LOCAL, slot);
+                }
+            }
+        }
+        return null;
     }
     
     @Override
     public Map<String, VariableMetadata> getAllVariableMetadata() {
-        return new HashMap<>(variableMetadata);
+        Map<String, VariableMetadata> metadata = new HashMap<>();
+        localVariables.forEach((context, table) -> table.forEachSlot((name, slot) -> {
+            String key = Constants.LOCAL_PREFIX + context + "_" + name;
+            metadata.put(key, createMetadata(key, VariableScope.LOCAL, slot));
+        }));
+        playerVariables.forEach((playerId, table) -> table.forEachSlot((name, slot) -> {
+            String key = Constants.PLAYER_PREFIX + playerId + "_" + name;
+            metadata.put(key, createMetadata(key, VariableScope.PLAYER, slot));
+        }));
+        globalVariables.forEachSlot((name, slot) -> metadata.put("global_" + name, createMetadata(name, VariableScope.GLOBAL, slot)));
+        serverVariables.forEachSlot((name, slot) -> metadata.put(Constants.SERVER_PREFIX + name, createMetadata(name, VariableScope.SERVER, slot)));
+        persistentVariables.forEachSlot((name, slot) -> metadata.put(Constants.PERSISTENT_PREFIX + name, createMetadata(name, VariableScope.PERSISTENT, slot)));
+        return metadata;
+    }
+    
+    private VariableMetadata createMetadata(String name, VariableScope scope, VariableTable.Slot slot) {
+        if (slot == null || slot.getValue() == null) {
+            return null;
+        }
+        return new VariableMetadata(name, scope, slot.getValue().getType(), slot.getCreatedTime(), slot.getLastModified());
     }
     
     @Override
@@ -483,24 +527,20 @@ public class VariableManager implements IVariableManager {
     
     @Override
     public Map<String, DataValue> getPlayerVariables(UUID playerId) {
-        Map<String, DataValue> playerVars = new HashMap<>();
-        for (Map.Entry<String, DataValue> entry : playerVariables.entrySet()) {
-            if (entry.getKey().startsWith(Constants.PLAYER_PREFIX + playerId + "_")) {
-                String varName = entry.getKey().substring((Constants.PLAYER_PREFIX + playerId + "_").length());
-                playerVars.put(varName, entry.getValue());
-            }
-        }
-        return playerVars;
+        VariableTable table = playerId != null ? playerVariables.get(playerId) : null;
+        return table != null ? table.toMap() : new HashMap<>();
     }
     
     @Override
     public void clearPlayerVariables(UUID playerId) {
-        playerVariables.entrySet().removeIf(entry -> entry.getKey().startsWith(Constants.PLAYER_PREFIX + playerId + "_"));
+        if (playerId != null) {
+            playerVariables.remove(playerId);
+        }
     }
     
     @Override
     public Map<String, DataValue> getServerVariables() {
-        return new HashMap<>(serverVariables);
+        return serverVariables.toMap();
     }
     
     @Override
@@ -512,8 +552,7 @@ public class VariableManager implements IVariableManager {
      * Gets all global variables
      */
     public Map<String, DataValue> getAllGlobalVariables() {
-        Map<String, DataValue> globalMap = globalVariables.get("global");
-        return globalMap != null ? new HashMap<>(globalMap) : new HashMap<>();
+        return globalVariables.toMap();
     }
     
     /**
@@ -525,7 +564,7 @@ public class VariableManager implements IVariableManager {
     
     @Override
     public Map<String, DataValue> getAllPersistentVariables() {
-        return new HashMap<>(persistentVariables);
+        return persistentVariables.toMap();
     }
     
     @Override
@@ -537,21 +576,16 @@ public class VariableManager implements IVariableManager {
     public Map<String, DataValue> getAllVariables(String context) {
         Map<String, DataValue> allVars = new HashMap<>();
         
-        for (Map.Entry<String, DataValue> entry : localVariables.entrySet()) {
-            if (entry.getKey().startsWith("local_" + context + "_")) {
-                String varName = entry.getKey().substring(("local_" + context + "_").length());
-                allVars.put(varName, entry.getValue());
-            }
+        VariableTable localTable = context != null ? localVariables.get(context) : null;
+        if (localTable != null) {
+            localTable.copyTo(allVars);
         }
         
-        Map<String, DataValue> globalMap = globalVariables.get("global");
-        if (globalMap != null) {
-            allVars.putAll(globalMap);
-        }
+        globalVariables.copyTo(allVars);
         
-        allVars.putAll(serverVariables);
+        serverVariables.copyTo(allVars);
         
-        allVars.putAll(persistentVariables);
+        persistentVariables.copyTo(allVars);
         
         return allVars;
     }
@@ -0,0 +1,94 @@
+package com.megacreative.coding.variables;
+
+import com.megacreative.coding.values.DataValue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Variables of one owner (a script context, a player or a shared scope).
+ * Each variable lives in a slot that is allocated once and then updated in place,
+ * so repeated sets and all gets allocate nothing.
+ *
+ * Переменные одного владельца (контекст скрипта, игрок или общая область).
+ * Каждая переменная хранится в ячейке, которая создается один раз и затем обновляется на месте,
+ * поэтому повторные записи и все чтения ничего не выделяют.
+ */
+final class VariableTable {
+
+    /**
+     * A single variable value with the times needed to build its metadata on request
+     */
+    static final class Slot {
+        private volatile DataValue value;
+        private final long createdTime;
+        private volatile long lastModified;
+
+        private Slot(long createdTime) {
+            this.createdTime = createdTime;
+        }
+
+        DataValue getValue() { return value; }
+        long getCreatedTime() { return createdTime; }
+        long getLastModified() { return lastModified; }
+    }
+
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+
+    DataValue get(String name) {
+        Slot slot = slots.get(name);
+        return slot != null ? slot.value : null;
+    }
+
+    Slot getSlot(String name) {
+        return slots.get(name);
+    }
+
+    void put(String name, DataValue value) {
+        long now = System.currentTimeMillis();
+        Slot slot = slots.get(name);
+        if (slot == null) {
+            // Names are interned once per variable, so equal names share one key string
+            slot = slots.computeIfAbsent(name.intern(), n -> new Slot(now));
+        }
+        slot.value = value;
+        slot.lastModified = now;
+    }
+
+    void remove(String name) {
+        slots.remove(name);
+    }
+
+    boolean isEmpty() {
+        return slots.isEmpty();
+    }
+
+    int size() {
+        return slots.size();
+    }
+
+    void clear() {
+        slots.clear();
+    }
+
+    /**
+     * Copies the values into the given map
+     */
+    void copyTo(Map<String, DataValue> target) {
+        for (Map.Entry<String, Slot> entry : slots.entrySet()) {
+            target.put(entry.getKey(), entry.getValue().value);
+        }
+    }
+
+    Map<String, DataValue> toMap() {
+        Map<String, DataValue> copy = new HashMap<>(slots.size());
+        copyTo(copy);
+        return copy;
+    }
+
+    void forEachSlot(BiConsumer<String, Slot> consumer) {
+        slots.forEach(consumer);
+    }
+}
@@ -111,7 +111,7 @@ public class CreateScriptCommand implements CommandExecutor {
         // The check has been removed as it's redundant
         var world = plugin.getServiceRegistry().getWorldManager().getWorld(player.getWorld().getName());
         if (world != null) {
-            world.getScripts().add(script);
+            world.addScript(script);
             plugin.getServiceRegistry().getWorldManager().saveWorld(world);
             plugin.getServiceRegistry().getCodingManager().loadScriptsForWorld(world);
             player.sendMessage("§a✓ Скрипт '" + scriptType + "' создан!");
@@ -98,6 +98,12 @@ public class PerformanceCommand implements CommandExecutor, TabCompleter {
         player.sendMessage("§7Uptime: §f" + formatUptime(report.getUptimeMs()));
         
         
+        for (CacheStatistics cache : report.getCaches()) {
+            player.sendMessage("§7Cache " + cache.getName() + ": §f" + cache.getHits() + " hits / " + cache.getMisses() + " misses " +
+                             "(" + String.format("%.1f", cache.getHitRate()) + "%)");
+        }
+        
+        
         MemoryUsage memory = report.getMemoryUsage();
         if (memory != null) {
             player.sendMessage("§7Memory Usage: §f" + String.format("%.1f", memory.getUsedMemoryMB()) + "MB / " + 
@@ -148,6 +154,7 @@ public class PerformanceCommand implements CommandExecutor, TabCompleter {
         player.sendMessage("§7Average Execution Time: §f" + String.format("%.2f", profile.getAverageExecutionTime()) + "ms");
         player.sendMessage("§7Peak Execution Time: §f" + profile.getPeakExecutionTime() + "ms");
         player.sendMessage("§7Min Execution Time: §f" + profile.getMinExecutionTime() + "ms");
+        player.sendMessage("§7Latency p50 / p99: §f" + profile.getP50ExecutionTime() + "ms / " + profile.getP99ExecutionTime() + "ms");
         player.sendMessage("§7Success Rate: §f" + String.format("%.1f", profile.getSuccessRate() * 100) + "%");
         player.sendMessage("§7Error Rate: §f" + String.format("%.1f", profile.getErrorRate() * 100) + "%");
         
@@ -10,6 +10,7 @@ import com.megacreative.coding.CodeStructureManager;
 import com.megacreative.coding.WorldCodeRestorer;
 import com.megacreative.coding.CodeBlockSignManager;
 import com.megacreative.coding.ScriptTriggerManager;
+import com.megacreative.coding.CompiledScriptRegistry;
 import com.megacreative.coding.ScriptValidator;
 import com.megacreative.listeners.*;
 import com.megacreative.coding.containers.BlockContainerManager;
@@ -248,12 +249,20 @@ public class ServiceRegistry implements DependencyContainer.Disposable {
         });
         dependencyContainer.registerType(WorldCodeRestorer.class, WorldCodeRestorer.class);
         dependencyContainer.registerType(CodeBlockSignManager.class, CodeBlockSignManager.class);
+        // Register CompiledScriptRegistry as a factory so all triggers share one per-world script cache
+        // Регистрирует CompiledScriptRegistry как фабрику, чтобы все триггеры разделяли один кэш скриптов по мирам
+        // Registriert CompiledScriptRegistry als Factory, damit alle Trigger einen gemeinsamen Skript-Cache pro Welt nutzen
+        dependencyContainer.registerFactory(CompiledScriptRegistry.class, (DependencyContainer.Supplier<CompiledScriptRegistry>) () -> {
+            IWorldManager worldManager = dependencyContainer.resolve(IWorldManager.class);
+            return new CompiledScriptRegistry((MegaCreative) plugin, worldManager);
+        });
         // Register ScriptTriggerManager as a factory since it needs dependencies
         // Регистрирует ScriptTriggerManager как фабрику, так как ему нужны зависимости
         // Registriert ScriptTriggerManager als Factory, da er Abhängigkeiten benötigt
         dependencyContainer.registerFactory(ScriptTriggerManager.class, (DependencyContainer.Supplier<ScriptTriggerManager>) () -> {
             IWorldManager worldManager = dependencyContainer.resolve(IWorldManager.class);
-            return new ScriptTriggerManager((MegaCreative) plugin, worldManager);
+            CompiledScriptRegistry scriptRegistry = dependencyContainer.resolve(CompiledScriptRegistry.class);
+            return new ScriptTriggerManager((MegaCreative) plugin, worldManager, scriptRegistry);
         });
         
         // Register interfaces for factories
@@ -281,7 +290,10 @@ public class ServiceRegistry implements DependencyContainer.Disposable {
         // Registriert ScriptValidator als Singleton, um die Validierungsoberfläche zu konsolidieren
         dependencyContainer.registerFactory(ScriptValidator.class, (DependencyContainer.Supplier<ScriptValidator>) () -> {
             BlockConfigService blockConfigService = dependencyContainer.resolve(BlockConfigService.class);
-            return new ScriptValidator(blockConfigService);
+            ScriptValidator validator = new ScriptValidator(blockConfigService);
+            dependencyContainer.resolve(ScriptPerformanceMonitor.class)
+                .registerCacheMetric("script_validation", validator::getCacheHits, validator::getCacheMisses);
+            return validator;
         });
 
         // Register ScriptEngine as a factory - this is critical for proper initialization
@@ -569,6 +581,10 @@ public class ServiceRegistry implements DependencyContainer.Disposable {
         return dependencyContainer.resolve(CodeBlockSignManager.class);
     }
     
+    public CompiledScriptRegistry getCompiledScriptRegistry() {
+        return dependencyContainer.resolve(CompiledScriptRegistry.class);
+    }
+    
     public ScriptTriggerManager getScriptTriggerManager() {
         return dependencyContainer.resolve(ScriptTriggerManager.class);
     }
@@ -109,6 +109,17 @@ public class WorldSettingsGUI implements GUIManager.ManagedGUIInterface {
         explosions.setItemMeta(expMeta);
         inventory.setItem(12, explosions);
         
+        ItemStack quietScripts = new ItemStack(flags.isQuietScripts() ? Material.GRAY_DYE : Material.SPYGLASS);
+        ItemMeta quietMeta = quietScripts.getItemMeta();
+        quietMeta.setDisplayName("§b§лТихие скрипты");
+        quietMeta.setLore(Arrays.asList(
+            "§7Текущее состояние: " + (flags.isQuietScripts() ? "§aВключено" : "§cВыключено"),
+            "§7Отключает трассировку скриптов в отладчике",
+            "§e▶ Нажмите для изменения"
+        ));
+        quietScripts.setItemMeta(quietMeta);
+        inventory.setItem(13, quietScripts);
+        
         
         ItemStack deleteButton = new ItemStack(Material.RED_STAINED_GLASS);
         ItemMeta deleteMeta = deleteButton.getItemMeta();
@@ -203,6 +214,10 @@ public class WorldSettingsGUI implements GUIManager.ManagedGUIInterface {
             flags.setExplosions(!flags.isExplosions());
             plugin.getServiceRegistry().getWorldManager().saveWorld(world);
             setupInventory();
+        } else if (displayName.contains("Тихие скрипты")) {
+            flags.setQuietScripts(!flags.isQuietScripts());
+            plugin.getServiceRegistry().getWorldManager().saveWorld(world);
+            setupInventory();
         }
     }
 }
\ No newline at end of file
@@ -177,18 +177,8 @@ public class CodingGUIListener implements Listener {
      * @return The location of the block, or null if not found
      */
     private Location findBlockLocation(CodeBlock targetBlock) {
-        // Get all code blocks from the placement handler
-        Map<Location, CodeBlock> allBlocks = plugin.getServiceRegistry()
-            .getBlockPlacementHandler().getBlockCodeBlocks();
-        
-        // Search for the target block
-        for (Map.Entry<Location, CodeBlock> entry : allBlocks.entrySet()) {
-            if (entry.getValue().getId().equals(targetBlock.getId())) {
-                return entry.getKey();
-            }
-        }
-        
-        return null;
+        // Looked up through the placement handler's id index
+        return plugin.getServiceRegistry().getBlockPlacementHandler().findCodeBlockLocation(targetBlock);
     }
     
     /**
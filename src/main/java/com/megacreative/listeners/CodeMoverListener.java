@@ -148,7 +148,7 @@ public class CodeMoverListener implements Listener {
                 removeSignFromBlock(oldLoc);
                 removeContainerAboveBlock(oldLoc);
             }
-            placementHandler.getBlockCodeBlocks().remove(oldLoc);
+            placementHandler.removeCodeBlock(oldLoc);
         }
         
         
@@ -190,7 +190,7 @@ public class CodeMoverListener implements Listener {
             }
             
             
-            placementHandler.getBlockCodeBlocks().put(newLoc, newBlock);
+            placementHandler.putCodeBlock(newLoc, newBlock);
         }
         
         
@@ -245,12 +245,7 @@ public class CodeMoverListener implements Listener {
      * Finds the location of a CodeBlock in the world
      */
     private Location findLocationOfBlock(CodeBlock targetBlock, BlockPlacementHandler placementHandler) {
-        for (Map.Entry<Location, CodeBlock> entry : placementHandler.getBlockCodeBlocks().entrySet()) {
-            if (entry.getValue().equals(targetBlock)) {
-                return entry.getKey();
-            }
-        }
-        return null;
+        return placementHandler.findCodeBlockLocation(targetBlock);
     }
     
     /**
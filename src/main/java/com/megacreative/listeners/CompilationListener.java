@@ -3,6 +3,7 @@ package com.megacreative.listeners;
 import com.megacreative.MegaCreative;
 import com.megacreative.configs.WorldCode;
 import com.megacreative.services.CodeCompiler;
+import com.megacreative.services.WorldStructureScanner;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -11,7 +12,6 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 
-import java.util.List;
 import java.util.logging.Logger;
 
 /**
@@ -54,7 +54,8 @@ public class CompilationListener implements Listener {
     }
     
     /**
-     * Compiles code in a world and saves it to WorldCode configuration
+     * Compiles code in a world and saves it to WorldCode configuration.
+     * The world is scanned off the main thread; the code is saved once the scan is complete.
      */
     private void compileWorldCode(World world) {
         try {
@@ -66,16 +67,20 @@ public class CompilationListener implements Listener {
                 return;
             }
             
-              List<String> codeStrings = codeCompiler.compileWorldToCodeStrings(world);
-            logger.fine("Compiled " + codeStrings.size() + " lines of code from world: " + world.getName());
-            
-              String worldId = world.getName().replace("-code", "");
-            codeCompiler.saveCompiledCode(worldId, codeStrings);
-            
-            logger.fine("Successfully compiled and saved code for world: " + worldId);
+            String worldId = world.getName().replace("-code", "");
+            codeCompiler.compileWorldToCodeStringsAsync(world, WorldStructureScanner.loggingProgress(logger, world.getName()))
+                .whenComplete((codeStrings, error) -> {
+                    if (error != null) {
+                        logger.log(java.util.logging.Level.SEVERE, "Failed to automatically compile world code", error);
+                        return;
+                    }
+                    logger.fine("Compiled " + codeStrings.size() + " lines of code from world: " + world.getName());
+                    codeCompiler.saveCompiledCode(worldId, codeStrings);
+                    logger.fine("Successfully compiled and saved code for world: " + worldId);
+                });
             
         } catch (Exception e) {
             logger.log(java.util.logging.Level.SEVERE, "Failed to automatically compile world code", e);
         }
     }
-}
\ No newline at end of file
+}
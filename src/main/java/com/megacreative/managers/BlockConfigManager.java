@@ -56,7 +56,7 @@ public class BlockConfigManager implements Listener {
      * @param blockLocation Локация блока для настройки
      */
     public void openConfigGUI(Player player, Location blockLocation) {
-        CodeBlock codeBlock = plugin.getServiceRegistry().getBlockPlacementHandler().getBlockCodeBlocks().get(blockLocation);
+        CodeBlock codeBlock = plugin.getServiceRegistry().getBlockPlacementHandler().getCodeBlock(blockLocation);
         if (codeBlock == null) {
             player.sendMessage("§cОшибка: блок кода не найден.");
             return;
@@ -234,7 +234,7 @@ public class BlockConfigManager implements Listener {
         }
 
         Location blockLocation = configuringBlocks.get(playerId);
-        CodeBlock codeBlock = plugin.getServiceRegistry().getBlockPlacementHandler().getBlockCodeBlocks().get(blockLocation);
+        CodeBlock codeBlock = plugin.getServiceRegistry().getBlockPlacementHandler().getCodeBlock(blockLocation);
         
         if (codeBlock != null) {
             
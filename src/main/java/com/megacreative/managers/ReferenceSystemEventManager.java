@@ -1,6 +1,7 @@
 package com.megacreative.managers;
 
 import com.megacreative.MegaCreative;
+import com.megacreative.coding.events.RegionSpatialIndex;
 import com.megacreative.events.ReferenceSystemCustomEvents.*;
 import com.megacreative.listeners.ReferenceSystemEventsListener;
 import com.megacreative.listeners.ReferenceSystemCustomEventsListener;
@@ -36,6 +37,9 @@ public class ReferenceSystemEventManager {
     // This field needs to remain as a class field since it maintains state across method calls
     // Static analysis flags it as convertible to a local variable, but this is a false positive
     private final Map<String, RegionData> definedRegions = new ConcurrentHashMap<>();
+    // Chunk buckets of the defined regions and the block each player was last checked at
+    private final RegionSpatialIndex<String> regionIndex = new RegionSpatialIndex<>();
+    private final Map<UUID, RegionSpatialIndex.BlockPosition> playerPositions = new ConcurrentHashMap<>();
     
     
     // This field needs to remain as a class field since it maintains state across method calls
@@ -83,6 +87,12 @@ public class ReferenceSystemEventManager {
     public void defineRegion(String regionName, Location corner1, Location corner2) {
         RegionData region = new RegionData(regionName, corner1, corner2);
         definedRegions.put(regionName, region);
+        if (corner1.getWorld() != null) {
+            regionIndex.putCuboid(regionName, corner1.getWorld().getName(),
+                region.minX, region.minY, region.minZ, region.maxX, region.maxY, region.maxZ);
+        } else {
+            regionIndex.remove(regionName);
+        }
         // Use rate-limited logging for frequent events to reduce log spam
         com.megacreative.utils.LogUtils.infoRateLimited(
             "🎆 Defined region: " + regionName, 
@@ -95,6 +105,7 @@ public class ReferenceSystemEventManager {
      */
     public void removeRegion(String regionName) {
         definedRegions.remove(regionName);
+        regionIndex.remove(regionName);
         
         playerRegions.values().forEach(regions -> regions.remove(regionName));
         // Use rate-limited logging for frequent events to reduce log spam
@@ -129,25 +140,26 @@ public class ReferenceSystemEventManager {
     }
     
     /**
-     * Check if player has entered or left any regions
+     * Check if player has entered or left any regions.
+     * Only the regions of the player's chunk are tested, and only after the player moved to another block.
      */
     private void checkPlayerRegions(Player player) {
         UUID playerId = player.getUniqueId();
-        Set<String> currentRegions = playerRegions.computeIfAbsent(playerId, k -> new HashSet<>());
-        Set<String> newRegions = new HashSet<>();
-        
         Location playerLoc = player.getLocation();
+        String worldName = playerLoc.getWorld() != null ? playerLoc.getWorld().getName() : null;
+        RegionSpatialIndex.BlockPosition position = playerPositions.computeIfAbsent(playerId, k -> new RegionSpatialIndex.BlockPosition());
+        if (!position.moveTo(worldName, playerLoc.getBlockX(), playerLoc.getBlockY(), playerLoc.getBlockZ(), regionIndex.getVersion())) {
+            return;
+        }
+        
+        Set<String> currentRegions = playerRegions.computeIfAbsent(playerId, k -> new HashSet<>());
+        Set<String> newRegions = regionIndex.query(worldName, playerLoc.getX(), playerLoc.getY(), playerLoc.getZ(), new HashSet<>());
         
         
-        for (String regionName : definedRegions.keySet()) {
-            if (isLocationInRegion(playerLoc, regionName)) {
-                newRegions.add(regionName);
-                
-                
-                if (!currentRegions.contains(regionName)) {
-                    PlayerEnterRegionEvent event = new PlayerEnterRegionEvent(player, regionName, playerLoc);
-                    Bukkit.getPluginManager().callEvent(event);
-                }
+        for (String regionName : newRegions) {
+            if (!currentRegions.contains(regionName)) {
+                PlayerEnterRegionEvent event = new PlayerEnterRegionEvent(player, regionName, playerLoc);
+                Bukkit.getPluginManager().callEvent(event);
             }
         }
         
@@ -351,8 +363,10 @@ public class ReferenceSystemEventManager {
         
         
         playerRegions.clear();
+        playerPositions.clear();
         playerVariables.clear();
         definedRegions.clear();
+        regionIndex.clear();
         
         plugin.getLogger().fine("🎆 Reference System Event Manager shut down");
     }
@@ -17,8 +17,25 @@ import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 
 /**
@@ -44,6 +61,37 @@ public class WorldManagerImpl implements IWorldManager {
     private final Object worldSaveLock = new Object();
     private final Object worldCreationLock = new Object();
     
+    private static final int WORLD_IO_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final long SHUTDOWN_FLUSH_TIMEOUT_SECONDS = 30;
+    
+    // World files are written off the main thread; only the latest snapshot of a world waits in pendingWrites
+    private final ExecutorService worldIoExecutor = Executors.newFixedThreadPool(WORLD_IO_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "MegaCreative-WorldIO");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, String> pendingWrites = new ConcurrentHashMap<>();
+    private final Map<String, Object> worldWriteLocks = new ConcurrentHashMap<>();
+    // Ids of deleted worlds; a save that races with the deletion must not recreate their files
+    private final Set<String> deletedWorldIds = ConcurrentHashMap.newKeySet();
+    
+    private static final String WORLD_INDEX_FILE = "world-index.json";
+    
+    // Every known world has an index entry; its full body is loaded in the background or on first access
+    private final Map<String, WorldIndexEntry> worldIndex = new ConcurrentHashMap<>();
+    private final Map<String, Object> worldLoadLocks = new ConcurrentHashMap<>();
+    
+    // Secondary indexes over worldIndex pointing to world ids; only changed together with worldIndex under worldIndexLock
+    private final Map<String, String> worldIdsByBukkitName = new ConcurrentHashMap<>();
+    private final Map<String, String> worldIdsByName = new ConcurrentHashMap<>();
+    private final Set<String> publicWorldIds = ConcurrentHashMap.newKeySet();
+    private final Object worldIndexLock = new Object();
+    private final Object worldIndexWriteLock = new Object();
+    private final AtomicBoolean indexWriteQueued = new AtomicBoolean();
+    private final WorldLoadMetrics onDemandLoads = new WorldLoadMetrics();
+    private volatile ScriptEngine loadScriptEngine;
+    private volatile boolean shuttingDown;
+    
     /**
      * Constructor with specific dependencies (no God Object)
      *
@@ -55,8 +103,8 @@ public class WorldManagerImpl implements IWorldManager {
         this.plugin = plugin;
         this.codingManager = codingManager;
         this.configManager = configManager;
-        this.worlds = new HashMap<>();
-        this.playerWorlds = new HashMap<>();
+        this.worlds = new ConcurrentHashMap<>();
+        this.playerWorlds = new ConcurrentHashMap<>();
         
         
         if (configManager != null) {
@@ -83,8 +131,8 @@ public class WorldManagerImpl implements IWorldManager {
         this.plugin = plugin;
         this.codingManager = plugin.getServiceRegistry().getCodingManager();
         this.configManager = plugin.getServiceRegistry().getConfigManager();
-        this.worlds = new HashMap<>();
-        this.playerWorlds = new HashMap<>();
+        this.worlds = new ConcurrentHashMap<>();
+        this.playerWorlds = new ConcurrentHashMap<>();
         this.maxWorldsPerPlayer = 5; 
         this.worldBorderSize = 300; 
     }
@@ -100,8 +148,8 @@ public class WorldManagerImpl implements IWorldManager {
         this.plugin = plugin; 
         this.codingManager = null; 
         this.configManager = configManager;
-        this.worlds = new HashMap<>();
-        this.playerWorlds = new HashMap<>();
+        this.worlds = new ConcurrentHashMap<>();
+        this.playerWorlds = new ConcurrentHashMap<>();
         
         
         if (configManager != null) {
@@ -127,8 +175,8 @@ public class WorldManagerImpl implements IWorldManager {
         this.plugin = null; 
         this.codingManager = null; 
         this.configManager = configManager;
-        this.worlds = new HashMap<>();
-        this.playerWorlds = new HashMap<>();
+        this.worlds = new ConcurrentHashMap<>();
+        this.playerWorlds = new ConcurrentHashMap<>();
         
         
         if (configManager != null) {
@@ -204,7 +252,9 @@ public class WorldManagerImpl implements IWorldManager {
     }
     
     /**
-     * Loads all worlds from storage
+     * Loads the world index and starts loading the world bodies in the background.
+     * Worlds can be used right away: a world whose body is not loaded yet is read on first access.
+     * Worlds missing from the index (first start, files copied in by hand) are read in parallel before returning.
      */
     public void loadWorlds() {
         Plugin plugin = getPlugin();
@@ -222,18 +272,72 @@ public class WorldManagerImpl implements IWorldManager {
                 return;
             }
             
+            if (plugin instanceof MegaCreative) {
+                loadScriptEngine = ((MegaCreative) plugin).getServiceRegistry().getScriptEngine();
+            }
+            
+            long indexStart = System.nanoTime();
+            readWorldIndex();
+            long indexNanos = System.nanoTime() - indexStart;
+            
+            long scanStart = System.nanoTime();
             File[] worldFiles = worldsDir.listFiles((dir, name) -> name.endsWith(".json"));
             if (worldFiles == null) return;
             
-            int loadedCount = 0;
+            Set<String> presentIds = new HashSet<>();
+            List<String> unindexedIds = new ArrayList<>();
             for (File worldFile : worldFiles) {
-                try {
-                    loadWorldFromFile(worldFile);
-                    loadedCount++;
-                } catch (Exception e) {
-                    plugin.getLogger().warning("Failed to load world from " + worldFile.getName() + ": " + e.getMessage());
+                String worldId = worldFile.getName().substring(0, worldFile.getName().length() - ".json".length());
+                presentIds.add(worldId);
+                if (!worldIndex.containsKey(worldId)) {
+                    unindexedIds.add(worldId);
+                }
+            }
+            // Entries whose world file was removed outside the plugin are dropped
+            boolean indexChanged = false;
+            for (String worldId : new ArrayList<>(worldIndex.keySet())) {
+                if (!presentIds.contains(worldId)) {
+                    removeIndexEntry(worldId);
+                    indexChanged = true;
+                }
+            }
+            for (WorldIndexEntry entry : worldIndex.values()) {
+                indexPlayerWorld(entry.ownerId, entry.id);
+            }
+            long scanNanos = System.nanoTime() - scanStart;
+            
+            long migrationNanos = 0;
+            WorldLoadMetrics migration = new WorldLoadMetrics();
+            if (!unindexedIds.isEmpty()) {
+                long migrationStart = System.nanoTime();
+                loadInParallel(unindexedIds, worldId -> loadUnindexedWorld(worldId, migration)).join();
+                migrationNanos = System.nanoTime() - migrationStart;
+                indexChanged = true;
+            }
+            if (indexChanged) {
+                scheduleIndexWrite();
+            }
+            
+            plugin.getLogger().info(String.format(
+                "World index ready: %d worlds (index read %.1f ms, directory scan %.1f ms, %d unindexed worlds read in %.1f ms)",
+                worldIndex.size(), indexNanos / 1e6, scanNanos / 1e6, migration.loaded.get(), migrationNanos / 1e6));
+            
+            List<String> pendingIds = new ArrayList<>();
+            for (String worldId : worldIndex.keySet()) {
+                if (!worlds.containsKey(worldId)) {
+                    pendingIds.add(worldId);
                 }
             }
+            WorldLoadMetrics background = new WorldLoadMetrics();
+            long backgroundStart = System.nanoTime();
+            loadInParallel(pendingIds, worldId -> {
+                if (!shuttingDown) {
+                    loadWorldBody(worldId, background);
+                }
+            }).whenComplete((ignored, error) -> plugin.getLogger().info(String.format(
+                "Loaded %d world bodies in the background in %.1f ms (%d failed, read+deserialize %.1f ms, scripts %.1f ms, summed over %d threads)",
+                background.loaded.get(), (System.nanoTime() - backgroundStart) / 1e6, background.failed.get(),
+                background.bodyNanos.sum() / 1e6, background.scriptNanos.sum() / 1e6, WORLD_IO_THREADS)));
         } catch (Exception e) {
             if (plugin != null) {
                 plugin.getLogger().log(Level.WARNING, "Error in loadWorlds", e);
@@ -241,49 +345,274 @@ public class WorldManagerImpl implements IWorldManager {
         }
     }
     
+    /**
+     * Runs a loader for every world id on the world I/O executor
+     * @return Future completed when all worlds were processed
+     */
+    private CompletableFuture<Void> loadInParallel(Collection<String> worldIds, Consumer<String> loader) {
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[worldIds.size()];
+        int i = 0;
+        for (String worldId : worldIds) {
+            tasks[i++] = CompletableFuture.runAsync(() -> loader.accept(worldId), worldIoExecutor);
+        }
+        return CompletableFuture.allOf(tasks);
+    }
+    
+    /**
+     * Loads the body of an indexed world unless it is loaded already. Concurrent callers for the same world wait for a single read.
+     * @return The world, or null if it is not indexed (e.g. deleted) or its file could not be read
+     */
+    private CreativeWorld loadWorldBody(String worldId, WorldLoadMetrics metrics) {
+        CreativeWorld world = worlds.get(worldId);
+        if (world != null) {
+            return world;
+        }
+        synchronized (worldLoadLocks.computeIfAbsent(worldId, id -> new Object())) {
+            world = worlds.get(worldId);
+            if (world != null || !worldIndex.containsKey(worldId)) {
+                return world;
+            }
+            world = loadWorldFromFile(new File(getPlugin().getDataFolder(), "worlds/" + worldId + ".json"), metrics);
+            if (world != null) {
+                worlds.put(world.getId(), world);
+            }
+            return world;
+        }
+    }
+    
+    /**
+     * Loads a world that has no index entry yet and adds it to the index
+     */
+    private void loadUnindexedWorld(String worldId, WorldLoadMetrics metrics) {
+        CreativeWorld world = loadWorldFromFile(new File(getPlugin().getDataFolder(), "worlds/" + worldId + ".json"), metrics);
+        if (world != null) {
+            worlds.put(world.getId(), world);
+            putIndexEntry(new WorldIndexEntry(world));
+            indexPlayerWorld(world.getOwnerId(), world.getId());
+        }
+    }
+    
     /**
      * Loads a single world from a JSON file
      * @param worldFile The JSON file containing world data
+     * @param metrics Timings of this load phase
+     * @return The loaded world, or null if it could not be read
      */
-    private void loadWorldFromFile(File worldFile) {
+    private CreativeWorld loadWorldFromFile(File worldFile, WorldLoadMetrics metrics) {
         Plugin plugin = getPlugin();
         if (plugin == null || !(plugin instanceof MegaCreative)) {
-            return;
+            return null;
         }
         
         try {
+            long start = System.nanoTime();
+            String jsonContent = new String(Files.readAllBytes(worldFile.toPath()), StandardCharsets.UTF_8);
+            CreativeWorld world = com.megacreative.utils.JsonSerializer.deserializeWorld(jsonContent, (MegaCreative) plugin);
+            long deserialized = System.nanoTime();
+            metrics.bodyNanos.add(deserialized - start);
             
-            String jsonContent = new String(java.nio.file.Files.readAllBytes(worldFile.toPath()));
+            if (world == null) {
+                metrics.failed.incrementAndGet();
+                plugin.getLogger().warning("Failed to deserialize world from file: " + worldFile.getName());
+                return null;
+            }
             
+            ScriptEngine scriptEngine = loadScriptEngine;
+            if (scriptEngine == null) {
+                scriptEngine = ((MegaCreative) plugin).getServiceRegistry().getScriptEngine();
+            }
+            world.setScriptEngine(scriptEngine);
             
-            CreativeWorld world = com.megacreative.utils.JsonSerializer.deserializeWorld(jsonContent, (MegaCreative) plugin);
+            if (codingManager != null) {
+                codingManager.loadScriptsForWorld(world);
+            }
+            metrics.scriptNanos.add(System.nanoTime() - deserialized);
             
-            if (world != null) {
-                
-                MegaCreative megaPlugin = (MegaCreative) plugin;
-                ScriptEngine scriptEngine = megaPlugin.getServiceRegistry().getScriptEngine();
-                world.setScriptEngine(scriptEngine);
-
-                
-                worlds.put(world.getId(), world);
-                
-                
-                playerWorlds.computeIfAbsent(world.getOwnerId(), k -> new ArrayList<>()).add(world.getId());
-                
-                
-                if (codingManager != null) {
-                    codingManager.loadScriptsForWorld(world);
+            // Freshly loaded state matches the file on disk
+            world.clearDirty();
+            metrics.loaded.incrementAndGet();
+            
+            plugin.getLogger().fine("Successfully loaded world: " + world.getName() + " (ID: " + world.getId() + ")");
+            return world;
+        } catch (Exception e) {
+            metrics.failed.incrementAndGet();
+            plugin.getLogger().log(Level.WARNING, "Error loading world from file " + worldFile.getName(), e);
+            return null;
+        }
+    }
+    
+    /**
+     * Loads every indexed world that is not loaded yet. Used by calls that need all worlds at once.
+     */
+    private void ensureAllWorldsLoaded() {
+        if (worlds.size() >= worldIndex.size()) {
+            return;
+        }
+        for (String worldId : worldIndex.keySet()) {
+            if (!worlds.containsKey(worldId)) {
+                loadWorldBody(worldId, onDemandLoads);
+            }
+        }
+    }
+    
+    /**
+     * Adds a world to the world list of its owner
+     */
+    private void indexPlayerWorld(UUID ownerId, String worldId) {
+        if (ownerId == null) {
+            return;
+        }
+        playerWorlds.compute(ownerId, (owner, worldIds) -> {
+            List<String> updated = worldIds != null ? worldIds : new CopyOnWriteArrayList<>();
+            if (!updated.contains(worldId)) {
+                updated.add(worldId);
+            }
+            return updated;
+        });
+    }
+    
+    /**
+     * Adds or replaces the index entry of a world and re-keys the secondary indexes,
+     * so a renamed or re-published world is found under its new name and visibility only
+     */
+    private void putIndexEntry(WorldIndexEntry entry) {
+        synchronized (worldIndexLock) {
+            WorldIndexEntry previous = worldIndex.put(entry.id, entry);
+            if (previous != null) {
+                unlinkIndexEntry(previous);
+            }
+            linkIndexEntry(entry);
+        }
+    }
+    
+    /**
+     * Replaces the index entry of a world that is still indexed
+     * @return false if the world is not indexed (e.g. deleted)
+     */
+    private boolean replaceIndexEntry(WorldIndexEntry entry) {
+        synchronized (worldIndexLock) {
+            if (!worldIndex.containsKey(entry.id)) {
+                return false;
+            }
+            putIndexEntry(entry);
+            return true;
+        }
+    }
+    
+    private void removeIndexEntry(String worldId) {
+        synchronized (worldIndexLock) {
+            WorldIndexEntry previous = worldIndex.remove(worldId);
+            if (previous != null) {
+                unlinkIndexEntry(previous);
+            }
+        }
+    }
+    
+    private void clearIndex() {
+        synchronized (worldIndexLock) {
+            worldIndex.clear();
+            worldIdsByBukkitName.clear();
+            worldIdsByName.clear();
+            publicWorldIds.clear();
+        }
+    }
+    
+    private void linkIndexEntry(WorldIndexEntry entry) {
+        if (entry.worldName != null) {
+            worldIdsByBukkitName.put(entry.worldName, entry.id);
+        }
+        if (entry.devWorldName != null) {
+            worldIdsByBukkitName.put(entry.devWorldName, entry.id);
+        }
+        if (entry.name != null) {
+            worldIdsByName.put(nameKey(entry.name), entry.id);
+        }
+        if (!entry.isPrivate) {
+            publicWorldIds.add(entry.id);
+        }
+    }
+    
+    private void unlinkIndexEntry(WorldIndexEntry entry) {
+        // Keys are only removed while they still point to this world
+        if (entry.worldName != null) {
+            worldIdsByBukkitName.remove(entry.worldName, entry.id);
+        }
+        if (entry.devWorldName != null) {
+            worldIdsByBukkitName.remove(entry.devWorldName, entry.id);
+        }
+        if (entry.name != null) {
+            worldIdsByName.remove(nameKey(entry.name), entry.id);
+        }
+        publicWorldIds.remove(entry.id);
+    }
+    
+    /**
+     * World names are matched case-insensitively
+     */
+    private static String nameKey(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Reads the world index file; a missing or broken index is rebuilt from the world files
+     */
+    private void readWorldIndex() {
+        Path indexFile = new File(getPlugin().getDataFolder(), WORLD_INDEX_FILE).toPath();
+        if (!Files.exists(indexFile)) {
+            return;
+        }
+        try {
+            String json = new String(Files.readAllBytes(indexFile), StandardCharsets.UTF_8);
+            WorldIndexEntry[] entries = com.megacreative.utils.JsonSerializer.fromJson(json, WorldIndexEntry[].class);
+            if (entries != null) {
+                for (WorldIndexEntry entry : entries) {
+                    if (entry != null && entry.id != null) {
+                        putIndexEntry(entry);
+                    }
                 }
-                
-                plugin.getLogger().fine("Successfully loaded world: " + world.getName() + " (ID: " + world.getId() + ")");
-            } else {
-                plugin.getLogger().warning("Failed to deserialize world from file: " + worldFile.getName());
             }
         } catch (Exception e) {
-            plugin.getLogger().log(Level.WARNING, "Error loading world from file " + worldFile.getName(), e);
+            getPlugin().getLogger().log(Level.WARNING, "World index is unreadable, rebuilding it from the world files", e);
+            clearIndex();
+        }
+    }
+    
+    /**
+     * Queues a write of the world index; writes requested while one is queued are merged into it
+     */
+    private void scheduleIndexWrite() {
+        if (indexWriteQueued.compareAndSet(false, true)) {
+            try {
+                worldIoExecutor.execute(this::writeWorldIndex);
+            } catch (RejectedExecutionException e) {
+                writeWorldIndex();
+            }
         }
     }
     
+    private void writeWorldIndex() {
+        synchronized (worldIndexWriteLock) {
+            indexWriteQueued.set(false);
+            WorldIndexEntry[] entries = worldIndex.values().toArray(new WorldIndexEntry[0]);
+            try {
+                writeAtomically(new File(getPlugin().getDataFolder(), WORLD_INDEX_FILE).toPath(),
+                    writer -> writer.write(com.megacreative.utils.JsonSerializer.toJson(entries)));
+            } catch (IOException e) {
+                getPlugin().getLogger().log(Level.WARNING, "Error writing world index", e);
+            }
+        }
+    }
+    
+    /**
+     * Load counters of one loading phase
+     */
+    private static final class WorldLoadMetrics {
+        private final AtomicInteger loaded = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final LongAdder bodyNanos = new LongAdder();
+        private final LongAdder scriptNanos = new LongAdder();
+    }
+    
     /**
      * Generates a unique ID for worlds
      * @return A unique ID string
@@ -299,12 +628,7 @@ public class WorldManagerImpl implements IWorldManager {
      * @return true if a world with that name exists, false otherwise
      */
     private boolean worldExists(String name) {
-        for (CreativeWorld world : worlds.values()) {
-            if (world.getName().equalsIgnoreCase(name)) {
-                return true;
-            }
-        }
-        return false;
+        return name != null && worldIdsByName.containsKey(nameKey(name));
     }
     
     /**
@@ -338,7 +662,8 @@ public class WorldManagerImpl implements IWorldManager {
     }
     
     /**
-     * Saves a world to storage
+     * Saves a world to storage. The world is serialized on the calling thread so the snapshot is consistent,
+     * the file is written on the world I/O executor.
      * @param world The world to save
      */
     @Override
@@ -349,19 +674,21 @@ public class WorldManagerImpl implements IWorldManager {
         }
         
         try {
-            
+            world.clearDirty();
+            // A deleted world keeps no index entry even if someone still saves it
+            if (replaceIndexEntry(new WorldIndexEntry(world))) {
+                scheduleIndexWrite();
+            }
             String json = com.megacreative.utils.JsonSerializer.serializeWorld(world);
             
-            
-            File worldsDir = new File(plugin.getDataFolder(), "worlds");
-            if (!worldsDir.exists()) {
-                if (!worldsDir.mkdirs()) {
-                    plugin.getLogger().warning("Failed to create worlds directory: " + worldsDir.getAbsolutePath());
+            // A write already queued for this world picks up the newest snapshot instead of writing twice
+            if (pendingWrites.put(world.getId(), json) == null) {
+                try {
+                    worldIoExecutor.execute(() -> writePendingWorld(world.getId()));
+                } catch (RejectedExecutionException e) {
+                    writePendingWorld(world.getId());
                 }
             }
-            
-            File worldFile = new File(worldsDir, world.getId() + ".json");
-            java.nio.file.Files.write(worldFile.toPath(), json.getBytes(java.nio.charset.StandardCharsets.UTF_8));
         } catch (Exception e) {
             plugin.getLogger().log(Level.WARNING, "Error saving world " + world.getName(), e);
         }
@@ -374,27 +701,78 @@ public class WorldManagerImpl implements IWorldManager {
      */
     @Override
     public void saveWorldAsync(CreativeWorld world, Player player) {
-        Plugin plugin = getPlugin();
-        if (plugin == null) {
-            return;
-        }
-        
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            saveWorld(world);
-        });
+        saveWorld(world);
     }
     
     /**
-     * Saves all worlds
+     * Saves all worlds that changed since their last save
      */
     @Override
     public void saveAllWorlds() {
         
+        int saved = 0;
         for (CreativeWorld world : worlds.values()) {
-            saveWorld(world);
+            if (world.isDirty()) {
+                saveWorld(world);
+                saved++;
+            }
+        }
+        if (getPlugin() != null) {
+            getPlugin().getLogger().fine("Queued " + saved + " of " + worlds.size() + " worlds for saving");
+        }
+    }
+    
+    /**
+     * Writes the latest queued snapshot of a world, if any
+     */
+    private void writePendingWorld(String worldId) {
+        synchronized (worldWriteLocks.computeIfAbsent(worldId, id -> new Object())) {
+            String json = pendingWrites.remove(worldId);
+            if (json == null || deletedWorldIds.contains(worldId)) {
+                return;
+            }
+            try {
+                writeWorldFile(worldId, writer -> writer.write(json));
+            } catch (IOException e) {
+                getPlugin().getLogger().log(Level.WARNING, "Error writing world file " + worldId, e);
+            }
+        }
+    }
+    
+    /**
+     * Streams a world file into a temporary file and atomically renames it over worlds/&lt;id&gt;.json,
+     * so a crash mid-write never leaves a truncated world file behind
+     */
+    private void writeWorldFile(String worldId, WorldFileContent content) throws IOException {
+        Path worldsDir = new File(getPlugin().getDataFolder(), "worlds").toPath();
+        Files.createDirectories(worldsDir);
+        
+        writeAtomically(worldsDir.resolve(worldId + ".json"), content);
+    }
+    
+    /**
+     * Writes a file through a temporary sibling that is renamed over the target
+     */
+    private static void writeAtomically(Path target, WorldFileContent content) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            content.writeTo(writer);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
         }
     }
     
+    /**
+     * Writes the content of a world file
+     */
+    @FunctionalInterface
+    private interface WorldFileContent {
+        void writeTo(Writer writer) throws IOException;
+    }
+    
     /**
      * Creates a world for a player
      * @param player the player
@@ -521,7 +899,8 @@ public class WorldManagerImpl implements IWorldManager {
 
                     
                     worlds.put(worldId, creativeWorld);
-                    playerWorlds.computeIfAbsent(player.getUniqueId(), k -> new ArrayList<>()).add(worldId);
+                    putIndexEntry(new WorldIndexEntry(creativeWorld));
+                    indexPlayerWorld(player.getUniqueId(), worldId);
 
                     
                     if (codingManager != null) {
@@ -632,7 +1011,7 @@ public class WorldManagerImpl implements IWorldManager {
     
     @Override
     public void deleteWorld(String worldId, Player requester) {
-        CreativeWorld world = worlds.get(worldId);
+        CreativeWorld world = getWorld(worldId);
         if (world == null || !world.isOwner(requester)) {
             return;
         }
@@ -666,13 +1045,15 @@ public class WorldManagerImpl implements IWorldManager {
 
         
         worlds.remove(worldId);
-        if (playerWorlds.containsKey(world.getOwnerId())) {
-            List<String> playerWorldList = playerWorlds.get(world.getOwnerId());
-            playerWorldList.remove(worldId);
-            
-            if (playerWorldList.isEmpty()) {
-                playerWorlds.remove(world.getOwnerId());
-            }
+        // A queued save must not recreate the file of a deleted world, and one already writing must finish first
+        cancelPendingWrite(worldId);
+        removeIndexEntry(worldId);
+        scheduleIndexWrite();
+        if (world.getOwnerId() != null) {
+            playerWorlds.computeIfPresent(world.getOwnerId(), (owner, playerWorldList) -> {
+                playerWorldList.remove(worldId);
+                return playerWorldList.isEmpty() ? null : playerWorldList;
+            });
         }
         if (codingManager != null) {
             codingManager.unloadScriptsForWorld(world);
@@ -698,6 +1079,18 @@ public class WorldManagerImpl implements IWorldManager {
         requester.sendMessage("§7Файлы мира будут удалены в фоновом режиме.");
     }
     
+    /**
+     * Drops the queued save of a world that is being deleted and waits for a write already in progress,
+     * so the world file cannot reappear after its deletion
+     */
+    private void cancelPendingWrite(String worldId) {
+        deletedWorldIds.add(worldId);
+        synchronized (worldWriteLocks.computeIfAbsent(worldId, id -> new Object())) {
+            pendingWrites.remove(worldId);
+        }
+        worldWriteLocks.remove(worldId);
+    }
+    
     private void deleteWorldFilesInternal(CreativeWorld world, Player requester) {
         File worldFolder = new File(Bukkit.getWorldContainer(), world.getWorldName());
         File devWorldFolder = new File(Bukkit.getWorldContainer(), world.getDevWorldName());
@@ -857,7 +1250,14 @@ public class WorldManagerImpl implements IWorldManager {
     
     @Override
     public CreativeWorld getWorld(String id) {
-        return worlds.get(id);
+        if (id == null) {
+            return null;
+        }
+        CreativeWorld world = worlds.get(id);
+        if (world == null && worldIndex.containsKey(id)) {
+            world = loadWorldBody(id, onDemandLoads);
+        }
+        return world;
     }
     
     /**
@@ -866,6 +1266,7 @@ public class WorldManagerImpl implements IWorldManager {
      */
     @Override
     public List<CreativeWorld> getCreativeWorlds() {
+        ensureAllWorldsLoaded();
         return new ArrayList<>(worlds.values());
     }
     
@@ -1093,9 +1494,11 @@ public class WorldManagerImpl implements IWorldManager {
      */
     @Override
     public List<CreativeWorld> getAllPublicWorlds() {
-        List<CreativeWorld> publicWorlds = new ArrayList<>();
-        for (CreativeWorld world : worlds.values()) {
-            if (world.isPublic()) {
+        List<CreativeWorld> publicWorlds = new ArrayList<>(publicWorldIds.size());
+        for (String worldId : publicWorldIds) {
+            // The live flag still wins, so a world made private since its last save is never listed
+            CreativeWorld world = getWorld(worldId);
+            if (world != null && world.isPublic()) {
                 publicWorlds.add(world);
             }
         }
@@ -1104,25 +1507,18 @@ public class WorldManagerImpl implements IWorldManager {
     
     @Override
     public CreativeWorld getWorldByName(String name) {
-        for (CreativeWorld world : worlds.values()) {
-            if (world.getName().equalsIgnoreCase(name)) {
-                return world;
-            }
-        }
-        return null;
+        if (name == null) return null;
+        
+        String worldId = worldIdsByName.get(nameKey(name));
+        return worldId != null ? getWorld(worldId) : null;
     }
     
     @Override
     public CreativeWorld findCreativeWorldByBukkit(World bukkitWorld) {
         if (bukkitWorld == null) return null;
         
-        String worldName = bukkitWorld.getName();
-        for (CreativeWorld world : worlds.values()) {
-            if (world.getWorldName().equals(worldName) || world.getDevWorldName().equals(worldName)) {
-                return world;
-            }
-        }
-        return null;
+        String worldId = worldIdsByBukkitName.get(bukkitWorld.getName());
+        return worldId != null ? getWorld(worldId) : null;
     }
     
     @Override
@@ -1134,7 +1530,7 @@ public class WorldManagerImpl implements IWorldManager {
         
         List<CreativeWorld> playerWorldsList = new ArrayList<>();
         for (String worldId : worldIds) {
-            CreativeWorld world = worlds.get(worldId);
+            CreativeWorld world = getWorld(worldId);
             if (world != null) {
                 playerWorldsList.add(world);
             }
@@ -1144,11 +1540,43 @@ public class WorldManagerImpl implements IWorldManager {
     
     @Override
     public void shutdown() {
+        shuttingDown = true;
+        
+        // Nothing mutates worlds anymore, so dirty worlds are serialized and streamed to disk in parallel
+        for (CreativeWorld world : worlds.values()) {
+            if (!world.isDirty()) {
+                continue;
+            }
+            try {
+                worldIoExecutor.execute(() -> {
+                    synchronized (worldWriteLocks.computeIfAbsent(world.getId(), id -> new Object())) {
+                        pendingWrites.remove(world.getId());
+                        world.clearDirty();
+                        try {
+                            writeWorldFile(world.getId(), writer -> com.megacreative.utils.JsonSerializer.writeWorld(world, writer));
+                        } catch (Exception e) {
+                            getPlugin().getLogger().log(Level.WARNING, "Error saving world " + world.getName(), e);
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                saveWorld(world);
+            }
+        }
         
-        saveAllWorlds();
+        worldIoExecutor.shutdown();
+        try {
+            if (!worldIoExecutor.awaitTermination(SHUTDOWN_FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                getPlugin().getLogger().warning("Timed out waiting for world files to be written");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writeWorldIndex();
         
         
         worlds.clear();
+        clearIndex();
         playerWorlds.clear();
     }
 }
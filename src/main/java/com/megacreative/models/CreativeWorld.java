@@ -121,6 +121,15 @@ public class CreativeWorld {
      */
     private ScriptEngine scriptEngine;
     
+    /**
+     * Sections changed since the world was last written to disk
+     *
+     * Разделы, измененные с момента последней записи мира на диск
+     *
+     * Seit dem letzten Speichern geänderte Abschnitte
+     */
+    private final transient Set<DirtySection> dirtySections = EnumSet.noneOf(DirtySection.class);
+    
     /**
      * Gets the script engine for this world
      * @return The script engine
@@ -143,6 +152,71 @@ public class CreativeWorld {
         this.scriptEngine = scriptEngine;
     }
     
+    /**
+     * Persisted sections of a world, used to track what changed since the last save
+     *
+     * Сохраняемые разделы мира, используются для отслеживания изменений с последнего сохранения
+     *
+     * Gespeicherte Abschnitte einer Welt, um Änderungen seit dem letzten Speichern zu verfolgen
+     */
+    public enum DirtySection {
+        METADATA,
+        SCRIPTS,
+        PERMISSIONS,
+        COMMENTS,
+        FLAGS
+    }
+    
+    /**
+     * Marks a section as changed so the next save writes this world
+     * @param section Changed section
+     *
+     * Помечает раздел как измененный, чтобы следующее сохранение записало этот мир
+     * @param section Измененный раздел
+     *
+     * Markiert einen Abschnitt als geändert, damit das nächste Speichern diese Welt schreibt
+     * @param section Geänderter Abschnitt
+     */
+    public void markDirty(DirtySection section) {
+        synchronized (dirtySections) {
+            dirtySections.add(section);
+        }
+    }
+    
+    /**
+     * Checks if anything changed since the last save
+     * @return true if the world has unsaved changes
+     *
+     * Проверяет, изменилось ли что-либо с последнего сохранения
+     * @return true, если у мира есть несохраненные изменения
+     *
+     * Prüft, ob sich seit dem letzten Speichern etwas geändert hat
+     * @return true, wenn die Welt ungespeicherte Änderungen hat
+     */
+    public boolean isDirty() {
+        synchronized (dirtySections) {
+            return !dirtySections.isEmpty();
+        }
+    }
+    
+    /**
+     * Clears the change tracking; called when a snapshot of the world is taken for saving
+     * @return Sections that were dirty
+     *
+     * Сбрасывает отслеживание изменений; вызывается при снятии снимка мира для сохранения
+     * @return Разделы, которые были изменены
+     *
+     * Setzt die Änderungsverfolgung zurück; wird beim Erstellen eines Speicher-Snapshots aufgerufen
+     * @return Abschnitte, die geändert waren
+     */
+    public Set<DirtySection> clearDirty() {
+        synchronized (dirtySections) {
+            Set<DirtySection> cleared = dirtySections.isEmpty() ? EnumSet.noneOf(DirtySection.class) : EnumSet.copyOf(dirtySections);
+            dirtySections.clear();
+            return cleared;
+        }
+    }
+    
     /**
      * 🎆 ENHANCED: World dual mode enum
      *
@@ -611,6 +685,7 @@ public class CreativeWorld {
      */
     public void updateActivity() {
         this.lastActivity = System.currentTimeMillis();
+        markDirty(DirtySection.METADATA);
     }
     
     
@@ -638,6 +713,7 @@ public class CreativeWorld {
         }
         likedBy.add(playerId);
         likes++;
+        markDirty(DirtySection.METADATA);
         return true;
     }
     
@@ -664,6 +740,7 @@ public class CreativeWorld {
         }
         dislikedBy.add(playerId);
         dislikes++;
+        markDirty(DirtySection.METADATA);
         return true;
     }
     
@@ -679,6 +756,7 @@ public class CreativeWorld {
      */
     public void addToFavorites(UUID playerId) {
         favoriteBy.add(playerId);
+        markDirty(DirtySection.METADATA);
     }
     
     /**
@@ -693,6 +771,7 @@ public class CreativeWorld {
      */
     public void removeFromFavorites(UUID playerId) {
         favoriteBy.remove(playerId);
+        markDirty(DirtySection.METADATA);
     }
     
     /**
@@ -724,6 +803,7 @@ public class CreativeWorld {
      */
     public void addComment(WorldComment comment) {
         comments.add(comment);
+        markDirty(DirtySection.COMMENTS);
     }
     
     /**
@@ -853,6 +933,7 @@ public class CreativeWorld {
 
     public void setTrustedBuilders(Set<UUID> trustedBuilders) {
         this.trustedBuilders = trustedBuilders != null ? new HashSet<>(trustedBuilders) : new HashSet<>();
+        markDirty(DirtySection.PERMISSIONS);
     }
 
     public Set<UUID> getTrustedCoders() {
@@ -861,6 +942,7 @@ public class CreativeWorld {
 
     public void setTrustedCoders(Set<UUID> trustedCoders) {
         this.trustedCoders = trustedCoders != null ? new HashSet<>(trustedCoders) : new HashSet<>();
+        markDirty(DirtySection.PERMISSIONS);
     }
 
     public Set<UUID> getTrustedAdmins() {
@@ -869,6 +951,7 @@ public class CreativeWorld {
 
     public void setTrustedAdmins(Set<UUID> trustedAdmins) {
         this.trustedAdmins = trustedAdmins;
+        markDirty(DirtySection.PERMISSIONS);
     }
 
     public int getLikes() {
@@ -877,6 +960,7 @@ public class CreativeWorld {
 
     public void setLikes(int likes) {
         this.likes = likes;
+        markDirty(DirtySection.METADATA);
     }
 
     public int getDislikes() {
@@ -885,6 +969,7 @@ public class CreativeWorld {
 
     public void setDislikes(int dislikes) {
         this.dislikes = dislikes;
+        markDirty(DirtySection.METADATA);
     }
 
     public Set<UUID> getLikedBy() {
@@ -893,6 +978,7 @@ public class CreativeWorld {
 
     public void setLikedBy(Set<UUID> likedBy) {
         this.likedBy = likedBy;
+        markDirty(DirtySection.METADATA);
     }
 
     public Set<UUID> getDislikedBy() {
@@ -901,6 +987,7 @@ public class CreativeWorld {
 
     public void setDislikedBy(Set<UUID> dislikedBy) {
         this.dislikedBy = dislikedBy;
+        markDirty(DirtySection.METADATA);
     }
 
     public Set<UUID> getFavoriteBy() {
@@ -909,6 +996,7 @@ public class CreativeWorld {
 
     public void setFavoriteBy(Set<UUID> favoriteBy) {
         this.favoriteBy = favoriteBy;
+        markDirty(DirtySection.METADATA);
     }
 
     public List<WorldComment> getComments() {
@@ -928,6 +1016,7 @@ public class CreativeWorld {
             scripts = new ArrayList<>();
         }
         scripts.add(script);
+        markDirty(DirtySection.SCRIPTS);
     }
     
     public Set<UUID> getOnlinePlayers() {
@@ -947,6 +1036,7 @@ public class CreativeWorld {
     
     public void setDualMode(WorldDualMode dualMode) {
         this.dualMode = dualMode;
+        markDirty(DirtySection.METADATA);
     }
     
     public String getPairedWorldId() {
@@ -955,6 +1045,7 @@ public class CreativeWorld {
     
     public void setPairedWorldId(String pairedWorldId) {
         this.pairedWorldId = pairedWorldId;
+        markDirty(DirtySection.METADATA);
     }
     
     public boolean isPaired() {
@@ -971,6 +1062,7 @@ public class CreativeWorld {
     
     public void setMode(WorldMode mode) {
         this.mode = mode;
+        markDirty(DirtySection.METADATA);
     }
     
     /**
@@ -989,6 +1081,7 @@ public class CreativeWorld {
     
     public void setPermissions(WorldPermissions permissions) {
         this.permissions = permissions;
+        markDirty(DirtySection.PERMISSIONS);
     }
     
     /**
@@ -1004,26 +1097,32 @@ public class CreativeWorld {
     
     public void setDescription(String description) {
         this.description = description;
+        markDirty(DirtySection.METADATA);
     }
     
     public void setName(String name) {
         this.name = name;
+        markDirty(DirtySection.METADATA);
     }
     
     public void setOwnerId(UUID ownerId) {
         this.ownerId = ownerId;
+        markDirty(DirtySection.METADATA);
     }
     
     public void setOwnerName(String ownerName) {
         this.ownerName = ownerName;
+        markDirty(DirtySection.METADATA);
     }
     
     public void setWorldType(CreativeWorldType worldType) {
         this.worldType = worldType;
+        markDirty(DirtySection.METADATA);
     }
     
     public void setPrivate(boolean isPrivate) {
         this.isPrivate = isPrivate;
+        markDirty(DirtySection.METADATA);
     }
     
     public boolean isPublic() {
@@ -1032,22 +1131,27 @@ public class CreativeWorld {
     
     public void setCreatedTime(long createdTime) {
         this.createdTime = createdTime;
+        markDirty(DirtySection.METADATA);
     }
     
     public void setLastActivity(long lastActivity) {
         this.lastActivity = lastActivity;
+        markDirty(DirtySection.METADATA);
     }
     
     public void setFlags(WorldFlags flags) {
         this.flags = flags;
+        markDirty(DirtySection.FLAGS);
     }
     
     public void setComments(List<WorldComment> comments) {
         this.comments = comments;
+        markDirty(DirtySection.COMMENTS);
     }
     
     public void setScripts(List<CodeScript> scripts) {
         this.scripts = scripts;
+        markDirty(DirtySection.SCRIPTS);
     }
     
     public void setOnlinePlayers(Set<UUID> onlinePlayers) {
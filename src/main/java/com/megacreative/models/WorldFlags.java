@@ -20,6 +20,7 @@ public class WorldFlags {
     private boolean mobGriefing;
     private boolean weatherCycle;
     private boolean dayNightCycle;
+    private boolean quietScripts;
     
     /**
      * Creates a new WorldFlags instance with default values.
@@ -228,6 +229,21 @@ public class WorldFlags {
         this.dayNightCycle = dayNightCycle;
     }
     
+    /**
+     * @return true if scripts in this world run without any tracing, even for players with a debug session
+     *
+     * @return true, если скрипты в этом мире выполняются без трассировки, даже для игроков с сессией отладки
+     *
+     * @return true, wenn Skripte in dieser Welt ohne Ablaufverfolgung laufen, auch für Spieler mit Debug-Sitzung
+     */
+    public boolean isQuietScripts() {
+        return quietScripts;
+    }
+    
+    public void setQuietScripts(boolean quietScripts) {
+        this.quietScripts = quietScripts;
+    }
+    
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -239,12 +255,13 @@ public class WorldFlags {
                fireSpread == that.fireSpread &&
                mobGriefing == that.mobGriefing &&
                weatherCycle == that.weatherCycle &&
-               dayNightCycle == that.dayNightCycle;
+               dayNightCycle == that.dayNightCycle &&
+               quietScripts == that.quietScripts;
     }
     
     @Override
     public int hashCode() {
-        return Objects.hash(mobSpawning, pvp, explosions, fireSpread, mobGriefing, weatherCycle, dayNightCycle);
+        return Objects.hash(mobSpawning, pvp, explosions, fireSpread, mobGriefing, weatherCycle, dayNightCycle, quietScripts);
     }
     
     @Override
@@ -257,6 +274,7 @@ public class WorldFlags {
                ", mobGriefing=" + mobGriefing +
                ", weatherCycle=" + weatherCycle +
                ", dayNightCycle=" + dayNightCycle +
+               ", quietScripts=" + quietScripts +
                '}';
     }
 }
\ No newline at end of file
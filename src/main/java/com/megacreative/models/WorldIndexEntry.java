@@ -0,0 +1,65 @@
+package com.megacreative.models;
+
+import java.util.UUID;
+
+/**
+ * Compact summary of a CreativeWorld stored in the world index file.
+ * Holds what lookups, listings and per-player limits need, so the full world file
+ * only has to be read when the world itself is used.
+ *
+ * Краткая сводка CreativeWorld, хранящаяся в файле индекса миров.
+ * Содержит то, что нужно для поиска, списков и лимитов игроков, поэтому полный файл мира
+ * читается только тогда, когда используется сам мир.
+ *
+ * Kompakte Zusammenfassung einer CreativeWorld, die in der Welt-Indexdatei gespeichert wird.
+ * Enthält, was Suchen, Listen und Spielerlimits benötigen, sodass die vollständige Weltdatei
+ * erst gelesen werden muss, wenn die Welt selbst verwendet wird.
+ */
+public class WorldIndexEntry {
+    public String id;
+    public String name;
+    public UUID ownerId;
+    public String ownerName;
+    public boolean isPrivate;
+    public String worldType;
+    public String worldName;
+    public String devWorldName;
+    public int likes;
+    public int dislikes;
+    public long createdTime;
+    public long lastActivity;
+
+    /**
+     * Default constructor
+     *
+     * Конструктор по умолчанию
+     *
+     * Standardkonstruktor
+     */
+    public WorldIndexEntry() {}
+
+    /**
+     * Constructor from CreativeWorld
+     * @param world Source CreativeWorld
+     *
+     * Конструктор из CreativeWorld
+     * @param world Исходный CreativeWorld
+     *
+     * Konstruktor von CreativeWorld
+     * @param world Quell-CreativeWorld
+     */
+    public WorldIndexEntry(CreativeWorld world) {
+        this.id = world.getId();
+        this.name = world.getName();
+        this.ownerId = world.getOwnerId();
+        this.ownerName = world.getOwnerName();
+        this.isPrivate = world.isPrivate();
+        this.worldType = world.getWorldType() != null ? world.getWorldType().name() : null;
+        this.worldName = world.getWorldName();
+        this.devWorldName = world.getDevWorldName();
+        this.likes = world.getLikes();
+        this.dislikes = world.getDislikes();
+        this.createdTime = world.getCreatedTime();
+        this.lastActivity = world.getLastActivity();
+    }
+}
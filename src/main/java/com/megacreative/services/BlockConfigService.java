@@ -8,8 +8,8 @@ import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 import java.util.function.Function;
 
 /**
@@ -29,12 +29,7 @@ public class BlockConfigService {
     
     
     
-    private final Map<String, BlockConfig> blockConfigs = new HashMap<>();
-    private final Map<Material, List<String>> materialToBlockIds = new HashMap<>();
-    
-    
-    
-    private ConfigurationSection actionConfigurations;
+    private final AtomicReference<BlockConfigSnapshot> snapshot = new AtomicReference<>();
 
     /**
      * Инициализирует сервис конфигурации блоков
@@ -61,48 +56,15 @@ public class BlockConfigService {
      */
     public void reload() {
         load();
-        
-        loadActionParametersForAllBlocks();
     }
 
     /**
-     * Loads action parameters for all block configurations
-     * This should be called after the service registry is fully initialized
+     * Gets the compiled configuration currently in effect; it never changes, a reload publishes a new one
+     *
+     * Возвращает действующую скомпилированную конфигурацию; она не меняется, перезагрузка публикует новую
      */
-    public void loadActionParametersForAllBlocks() {
-        if (plugin.getServiceRegistry() == null) {
-            plugin.getLogger().warning("ServiceRegistry not available, deferring action parameter loading");
-            return;
-        }
-        
-        plugin.getLogger().fine("Loading action parameters for all block configurations...");
-        for (BlockConfig config : blockConfigs.values()) {
-            try {
-                config.loadActionParameters(plugin);
-            } catch (Exception e) {
-                plugin.getLogger().warning("Failed to load action parameters for block config " + config.getId() + ": " + e.getMessage());
-            }
-        }
-        plugin.getLogger().fine("Finished loading action parameters for all block configurations");
-    }
-    
-    /**
-     * Ensures all block configurations have their materials properly set
-     * This fixes an issue where materials might not be set correctly during initial loading
-     */
-    public void ensureMaterialsAreSet() {
-        for (BlockConfig config : blockConfigs.values()) {
-            if (config.getMaterial() == null) {
-                
-                Material material = Material.matchMaterial(config.getId());
-                if (material != null) {
-                    config.setMaterial(material);
-                    
-                    materialToBlockIds.computeIfAbsent(material, k -> new ArrayList<>()).add(config.getId());
-                    plugin.getLogger().fine("Set material " + material.name() + " for block config " + config.getId());
-                }
-            }
-        }
+    public BlockConfigSnapshot getSnapshot() {
+        return snapshot.get();
     }
 
     /**
@@ -113,9 +75,6 @@ public class BlockConfigService {
      * Lädt die Blockkonfiguration aus der Datei
      */
     private void load() {
-        blockConfigs.clear();
-        materialToBlockIds.clear();
-
         File configFile = new File(plugin.getDataFolder(), "coding_blocks.yml");
         if (!configFile.exists()) {
             plugin.saveResource("coding_blocks.yml", false);
@@ -127,109 +86,22 @@ public class BlockConfigService {
         plugin.getLogger().fine("Loading coding_blocks.yml from: " + configFile.getAbsolutePath());
         plugin.getLogger().fine("File exists: " + configFile.exists());
         
-        
-        
-        
-        actionConfigurations = config.getConfigurationSection("action_configurations");
-        plugin.getLogger().fine("Action configurations loaded: " + (actionConfigurations != null));
-
-        
-        
-        
-        ConfigurationSection blocksSection = config.getConfigurationSection("blocks");
-        plugin.getLogger().fine("Blocks section exists: " + (blocksSection != null));
-        
-        if (blocksSection != null) {
-            plugin.getLogger().fine("Blocks section keys: " + blocksSection.getKeys(false).size());
-            Set<String> seenIds = new HashSet<>();
-            for (String id : blocksSection.getKeys(false)) {
-                if (!seenIds.add(id)) {
-                    plugin.getLogger().severe("Duplicate block ID detected in coding_blocks.yml: " + id + ". This ID must be unique.");
-                    continue;
-                }
-                ConfigurationSection section = blocksSection.getConfigurationSection(id);
-                if (section != null) {
-                    try {
-                        plugin.getLogger().fine("Loading block config: " + id);
-                        BlockConfig blockConfig = new BlockConfig(id, section, plugin);
-                        blockConfigs.put(id, blockConfig);
-                        
-                        
-                        Material material = Material.matchMaterial(id);
-                        if (material != null) {
-                            
-                            blockConfig.setMaterial(material);
-                            List<String> ids = materialToBlockIds.computeIfAbsent(material, k -> new ArrayList<>());
-                            if (ids.contains(id)) {
-                                plugin.getLogger().severe("Duplicate mapping for material " + material + " to block ID " + id + ". Skipping duplicate.");
-                            } else {
-                                ids.add(id);
-                            }
-                            plugin.getLogger().fine("Successfully loaded block config: " + id + " with material " + material);
-                        } else {
-                            plugin.getLogger().warning("Invalid material for block config: " + id);
-                            
-                            
-                            
-                        }
-                    } catch (Exception e) {
-                        plugin.getLogger().warning("Failed to load block config for ID '" + id + "': " + e.getMessage());
-                        
-                        
-                        // Log exception and continue processing
-                        // This is expected behavior when parsing configuration files
-                        // Silently ignore invalid configuration and continue with other operations 
-                    }
-                } else {
-                    plugin.getLogger().warning("Section is null for ID: " + id);
-                }
-            }
-        }
-        plugin.getLogger().fine("Loaded " + blockConfigs.size() + " block definitions from coding_blocks.yml.");
-        
-        
-        
-        
-        ensureMaterialsAreSet();
-
-        // Validate uniqueness across actions lists
-        validateUniqueActionsPerMaterial();
-        
-        
-        plugin.getLogger().fine("Loaded materials: " + materialToBlockIds.keySet().size());
-        for (Material material : materialToBlockIds.keySet()) {
-            List<String> actions = materialToBlockIds.get(material);
-            plugin.getLogger().fine("Material: " + material.name() + " -> Actions: " + (actions != null ? actions.size() : 0));
-            if (actions != null) {
-                for (String action : actions) {
-                    // Use rate-limited logging for frequent events to reduce log spam
-                    com.megacreative.utils.LogUtils.infoRateLimited(
-                        "  - " + action, 
-                        "block_action_" + material.name() + "_" + action
-                    );
-                }
-            }
-        }
-    }
-
-    /**
-     * Validates that action identifiers are unique per material to avoid ambiguous resolution
-     */
-    private void validateUniqueActionsPerMaterial() {
-        for (Map.Entry<Material, List<String>> entry : materialToBlockIds.entrySet()) {
-            Material material = entry.getKey();
-            Map<String, Integer> counts = new HashMap<>();
-            for (String id : entry.getValue()) {
-                BlockConfig cfg = blockConfigs.get(id);
-                if (cfg == null) continue;
-                for (String action : cfg.getActions()) {
-                    counts.merge(action, 1, Integer::sum);
-                }
-            }
-            for (Map.Entry<String, Integer> c : counts.entrySet()) {
-                if (c.getValue() > 1) {
-                    logger.severe("Duplicate action '" + c.getKey() + "' for material " + material + " across multiple block IDs. Please fix coding_blocks.yml");
-                }
+        // Compiled completely before it is published, so readers switch from the old config to the new one at once
+        BlockConfigSnapshot compiled = BlockConfigSnapshot.compile(config, logger);
+        snapshot.set(compiled);
+        plugin.getLogger().fine("Loaded " + compiled.getAllBlockConfigs().size() + " block definitions from coding_blocks.yml.");
+        
+        
+        plugin.getLogger().fine("Loaded materials: " + compiled.getMaterials().size());
+        for (Material material : compiled.getMaterials()) {
+            BlockConfig[] configs = compiled.getBlockConfigs(material);
+            plugin.getLogger().fine("Material: " + material.name() + " -> Actions: " + configs.length);
+            for (BlockConfig blockConfig : configs) {
+                // Use rate-limited logging for frequent events to reduce log spam
+                com.megacreative.utils.LogUtils.infoRateLimited(
+                    "  - " + blockConfig.getId(), 
+                    "block_action_" + material.name() + "_" + blockConfig.getId()
+                );
             }
         }
     }
@@ -248,7 +120,7 @@ public class BlockConfigService {
      * @return Blockkonfiguration oder null, wenn nicht gefunden
      */
     public BlockConfig getBlockConfig(String id) {
-        return blockConfigs.get(id);
+        return snapshot.get().getBlockConfig(id);
     }
 
     /**
@@ -265,8 +137,7 @@ public class BlockConfigService {
      * @return Liste der Blockkonfigurationen
      */
     public List<BlockConfig> getBlockConfigsForMaterial(Material material) {
-        List<String> ids = materialToBlockIds.getOrDefault(material, Collections.emptyList());
-        return ids.stream().map(this::getBlockConfig).filter(Objects::nonNull).collect(Collectors.toList());
+        return new ArrayList<>(Arrays.asList(snapshot.get().getBlockConfigs(material)));
     }
     
     /**
@@ -283,8 +154,11 @@ public class BlockConfigService {
      * @return Liste der verfügbaren Aktionen
      */
     public List<String> getAvailableActions(Material material) {
-        List<String> ids = materialToBlockIds.getOrDefault(material, Collections.emptyList());
-        return new ArrayList<>(ids);
+        List<String> ids = new ArrayList<>();
+        for (BlockConfig config : snapshot.get().getBlockConfigs(material)) {
+            ids.add(config.getId());
+        }
+        return ids;
     }
     
     /**
@@ -301,10 +175,9 @@ public class BlockConfigService {
      * @return Liste der Aktionen
      */
     public List<String> getActionsForMaterial(Material material) {
-        List<BlockConfig> configs = getBlockConfigsForMaterial(material);
         List<String> actions = new ArrayList<>();
         
-        for (BlockConfig config : configs) {
+        for (BlockConfig config : snapshot.get().getBlockConfigs(material)) {
             actions.addAll(config.getActions());
         }
         
@@ -325,7 +198,7 @@ public class BlockConfigService {
      * @return true, wenn das Material ein Codeblock ist, sonst false
      */
     public boolean isCodeBlock(Material material) {
-        return materialToBlockIds.containsKey(material);
+        return snapshot.get().getBlockConfigs(material).length > 0;
     }
     
     /**
@@ -339,7 +212,7 @@ public class BlockConfigService {
      * @return Menge der Codeblock-Materialien
      */
     public Set<Material> getCodeBlockMaterials() {
-        return new HashSet<>(materialToBlockIds.keySet());
+        return new HashSet<>(snapshot.get().getMaterials());
     }
     
     /**
@@ -353,7 +226,7 @@ public class BlockConfigService {
      * @return Sammlung aller Blockkonfigurationen
      */
     public Collection<BlockConfig> getAllBlockConfigs() {
-        return blockConfigs.values();
+        return snapshot.get().getAllBlockConfigs();
     }
     
     /**
@@ -371,12 +244,7 @@ public class BlockConfigService {
      */
     public BlockConfig getBlockConfigByDisplayName(String displayName) {
         if (displayName == null || displayName.isEmpty()) return null;
-        for (BlockConfig config : blockConfigs.values()) {
-            if (ChatColor.stripColor(config.getDisplayName()).equalsIgnoreCase(displayName)) {
-                return config;
-            }
-        }
-        return null;
+        return snapshot.get().getBlockConfigByDisplayName(displayName);
     }
     
     /**
@@ -393,22 +261,8 @@ public class BlockConfigService {
      * @return Erste Blockkonfiguration oder null, wenn nicht gefunden
      */
     public BlockConfig getFirstBlockConfig(Material material) {
-        List<String> ids = materialToBlockIds.getOrDefault(material, Collections.emptyList());
-        if (!ids.isEmpty()) {
-            BlockConfig config = getBlockConfig(ids.get(0));
-            
-            if (config != null && config.getMaterial() == null) {
-                try {
-                    java.lang.reflect.Field materialField = BlockConfig.class.getDeclaredField("material");
-                    materialField.setAccessible(true);
-                    materialField.set(config, material);
-                } catch (Exception e) {
-                    plugin.getLogger().warning("Failed to set material for block config " + config.getId() + ": " + e.getMessage());
-                }
-            }
-            return config;
-        }
-        return null;
+        BlockConfig[] configs = snapshot.get().getBlockConfigs(material);
+        return configs.length > 0 ? configs[0] : null;
     }
     
     /**
@@ -460,7 +314,7 @@ public class BlockConfigService {
      * @return Der Aktionskonfigurationsabschnitt
      */
     public ConfigurationSection getActionConfigurations() {
-        return actionConfigurations;
+        return snapshot.get().getActionConfigurations();
     }
     
     /**
@@ -477,33 +331,8 @@ public class BlockConfigService {
      * @return Eine Funktion, die Slot-Namen Slot-Indizes zuordnet, oder null, wenn nicht gefunden
      */
     public Function<String, Integer> getSlotResolver(String actionName) {
-        if (actionConfigurations == null) return null;
-        
-        ConfigurationSection actionConfig = actionConfigurations.getConfigurationSection(actionName);
-        if (actionConfig == null) return null;
-        
-        ConfigurationSection slots = actionConfig.getConfigurationSection("slots");
-        if (slots == null) return null;
-        
-        Map<String, Integer> slotMap = new HashMap<>();
-        for (String slotKey : slots.getKeys(false)) {
-            ConfigurationSection slotConfig = slots.getConfigurationSection(slotKey);
-            if (slotConfig != null) {
-                String slotName = slotConfig.getString("slot_name");
-                if (slotName != null) {
-                    try {
-                        int slotIndex = Integer.parseInt(slotKey);
-                        slotMap.put(slotName, slotIndex);
-                    } catch (NumberFormatException e) {
-                        // Log exception and continue processing
-                        // This is expected behavior when parsing slot indices
-                        // Silently ignore invalid slot indices and continue with other operations
-                    }
-                }
-            }
-        }
-        
-        return slotMap::get;
+        BlockConfigSnapshot.ActionLayout action = snapshot.get().getAction(actionName);
+        return action != null ? action.getSlotResolver() : null;
     }
 
     /**
@@ -513,14 +342,8 @@ public class BlockConfigService {
      * @return Parameter name or null if not configured
      */
     public String getParameterNameForSlot(String actionName, int slotIndex) {
-        if (actionConfigurations == null) return null;
-        ConfigurationSection actionConfig = actionConfigurations.getConfigurationSection(actionName);
-        if (actionConfig == null) return null;
-        ConfigurationSection slots = actionConfig.getConfigurationSection("slots");
-        if (slots == null) return null;
-        ConfigurationSection slotSection = slots.getConfigurationSection(String.valueOf(slotIndex));
-        if (slotSection == null) return null;
-        return slotSection.getString("slot_name");
+        BlockConfigSnapshot.ActionLayout action = snapshot.get().getAction(actionName);
+        return action != null ? action.getParameterForSlot(slotIndex) : null;
     }
 
     /**
@@ -530,9 +353,8 @@ public class BlockConfigService {
      * @return Slot index or null if not configured
      */
     public Integer findSlotForParameter(String actionName, String paramName) {
-        Function<String, Integer> resolver = getSlotResolver(actionName);
-        if (resolver == null || paramName == null) return null;
-        return resolver.apply(paramName);
+        BlockConfigSnapshot.ActionLayout action = snapshot.get().getAction(actionName);
+        return action != null ? action.getSlotForParameter(paramName) : null;
     }
     
     /**
@@ -549,24 +371,8 @@ public class BlockConfigService {
      * @return Eine Funktion, die Gruppennamen Slot-Indizes zuordnet, oder null, wenn nicht gefunden
      */
     public Function<String, int[]> getGroupSlotsResolver(String actionName) {
-        if (actionConfigurations == null) return null;
-        
-        ConfigurationSection actionConfig = actionConfigurations.getConfigurationSection(actionName);
-        if (actionConfig == null) return null;
-        
-        ConfigurationSection itemGroups = actionConfig.getConfigurationSection("item_groups");
-        if (itemGroups == null) return null;
-        
-        Map<String, int[]> groupMap = new HashMap<>();
-        for (String groupKey : itemGroups.getKeys(false)) {
-            ConfigurationSection groupConfig = itemGroups.getConfigurationSection(groupKey);
-            if (groupConfig != null) {
-                int[] slots = groupConfig.getIntegerList("slots").stream().mapToInt(Integer::intValue).toArray();
-                groupMap.put(groupKey, slots);
-            }
-        }
-        
-        return groupMap::get;
+        BlockConfigSnapshot.ActionLayout action = snapshot.get().getAction(actionName);
+        return action != null ? action.getGroupSlotsResolver() : null;
     }
 
     /**
@@ -578,7 +384,7 @@ public class BlockConfigService {
      */
     public static class BlockConfig {
         private final String id;
-        private Material material;
+        private final Material material;
         private final String type;
         private final String displayName;
         private final String description;
@@ -591,54 +397,26 @@ public class BlockConfigService {
         private final Map<String, Object> parameters;
         private final List<String> actions;
         private final Map<String, ParameterConfig> actionParameters; 
+        private final Map<String, ParameterConfig> actionParametersView;
 
         /**
          * Creates block configuration from configuration section
          * @param id Block configuration ID
          * @param section Configuration section
-         * @param plugin Main plugin instance
          *
          * Создает конфигурацию блока из секции конфигурации
          * @param id ID конфигурации блока
          * @param section Секция конфигурации
-         * @param plugin Экземпляр основного плагина
          *
          * Erstellt eine Blockkonfiguration aus dem Konfigurationsabschnitt
          * @param id Blockkonfigurations-ID
          * @param section Konfigurationsabschnitt
-         * @param plugin Hauptplugin-Instanz
          */
-        public BlockConfig(String id, ConfigurationSection section, MegaCreative plugin) {
+        public BlockConfig(String id, ConfigurationSection section) {
             this.id = id;
             
-            this.material = Material.matchMaterial(id);
-            
-            if (this.material == null) {
-                String type = section.getString("type", "ACTION").toUpperCase();
-                switch (type) {
-                    case "EVENT":
-                        this.material = Material.DIAMOND_BLOCK;
-                        break;
-                    case "ACTION":
-                        this.material = Material.COBBLESTONE;
-                        break;
-                    case "CONDITION":
-                        this.material = Material.OAK_PLANKS;
-                        break;
-                    case "CONTROL":
-                        this.material = Material.PISTON;
-                        break;
-                    case "FUNCTION":
-                        this.material = Material.LAPIS_BLOCK;
-                        break;
-                    case "VARIABLE":
-                        this.material = Material.IRON_BLOCK;
-                        break;
-                    default:
-                        this.material = Material.STONE; 
-                        break;
-                }
-            }
+            Material idMaterial = Material.matchMaterial(id);
+            this.material = idMaterial != null ? idMaterial : defaultMaterial(section.getString("type", "ACTION").toUpperCase());
             this.type = section.getString("type", "ACTION").toUpperCase();
             
             
@@ -680,93 +458,33 @@ public class BlockConfigService {
             
             
             this.actionParameters = new HashMap<>();
-            
-            
-            
-            
-            
-            
-            
-            
-            
-            
-            
-            
-            
-            
-            
-            
-            
-            
-            
-            
-            
+            this.actionParametersView = Collections.unmodifiableMap(actionParameters);
         }
         
-        /**
-         * Loads action parameters for this block configuration
-         * This should be called after the service registry is fully initialized
-         */
-        public void loadActionParameters(MegaCreative plugin) {
-            try {
-                
-                if (plugin == null || plugin.getServiceRegistry() == null) {
-                    
-                    return;
-                }
-                
-                
-                BlockConfigService blockConfigService = plugin.getServiceRegistry().getBlockConfigService();
-                if (blockConfigService == null) {
-                    return;
-                }
-                
-                ConfigurationSection actionConfigurations = blockConfigService.getActionConfigurations();
-                if (actionConfigurations != null) {
-                    for (String action : this.actions) {
-                        ConfigurationSection actionSection = actionConfigurations.getConfigurationSection(action);
-                        if (actionSection != null) {
-                            ConfigurationSection slots = actionSection.getConfigurationSection("slots");
-                            if (slots != null) {
-                                for (String slotKey : slots.getKeys(false)) {
-                                    ConfigurationSection slotSection = slots.getConfigurationSection(slotKey);
-                                    if (slotSection != null) {
-                                        String slotName = slotSection.getString("slot_name");
-                                        if (slotName != null) {
-                                            ParameterConfig paramConfig = new ParameterConfig(slotSection);
-                                            this.actionParameters.put(slotName, paramConfig);
-                                        }
-                                    }
-                                }
-                            }
-                            
-                            
-                            ConfigurationSection itemGroups = actionSection.getConfigurationSection("item_groups");
-                            if (itemGroups != null) {
-                                for (String groupKey : itemGroups.getKeys(false)) {
-                                    ConfigurationSection groupSection = itemGroups.getConfigurationSection(groupKey);
-                                    if (groupSection != null) {
-                                        
-                                        ParameterConfig paramConfig = new ParameterConfig(groupSection);
-                                        this.actionParameters.put(groupKey, paramConfig);
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                
-                java.util.logging.Logger.getLogger(BlockConfig.class.getName()).warning("Failed to load action parameters: " + e.getMessage());
-                // Log exception and continue processing
-                // This is expected behavior when parsing configuration files
-                // Silently ignore invalid configuration and continue with other operations 
+        private static Material defaultMaterial(String type) {
+            switch (type) {
+                case "EVENT":
+                    return Material.DIAMOND_BLOCK;
+                case "ACTION":
+                    return Material.COBBLESTONE;
+                case "CONDITION":
+                    return Material.OAK_PLANKS;
+                case "CONTROL":
+                    return Material.PISTON;
+                case "FUNCTION":
+                    return Material.LAPIS_BLOCK;
+                case "VARIABLE":
+                    return Material.IRON_BLOCK;
+                default:
+                    return Material.STONE;
             }
         }
         
-        
-        public void setMaterial(Material material) {
-            this.material = material;
+        /**
+         * Adds the slot and group parameters of one of the block's actions; only called while its snapshot is compiled
+         */
+        void putActionParameters(Map<String, ParameterConfig> parameters) {
+            actionParameters.putAll(parameters);
         }
         
         
@@ -785,7 +503,7 @@ public class BlockConfigService {
         public StructureConfig getStructure() { return structure; }
         public Map<String, Object> getParameters() { return parameters; }
         public List<String> getActions() { return actions != null ? new ArrayList<>(actions) : new ArrayList<>(); }
-        public Map<String, ParameterConfig> getActionParameters() { return actionParameters; } 
+        public Map<String, ParameterConfig> getActionParameters() { return actionParametersView; } 
     }
     
     /**
@@ -0,0 +1,321 @@
+package com.megacreative.services;
+
+import com.megacreative.services.BlockConfigService.BlockConfig;
+import com.megacreative.services.BlockConfigService.ParameterConfig;
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * coding_blocks.yml compiled into lookup tables once per load.
+ * Every action gets a dense id with its slot to parameter arrays and group slots precomputed,
+ * and blocks are indexed by id, material and display name. A snapshot never changes after it is
+ * built; a reload compiles a new one and swaps it in, so readers need no lock and never see a half-loaded config.
+ *
+ * coding_blocks.yml, скомпилированный в таблицы поиска один раз при загрузке.
+ * Каждое действие получает плотный id с заранее вычисленными массивами слотов и параметров и слотами групп,
+ * а блоки индексируются по id, материалу и отображаемому имени. Снимок не меняется после создания;
+ * перезагрузка компилирует новый и подменяет его, поэтому читателям не нужна блокировка и они не видят наполовину загруженную конфигурацию.
+ */
+public final class BlockConfigSnapshot {
+
+    private static final BlockConfig[] NO_CONFIGS = new BlockConfig[0];
+
+    private final Map<String, BlockConfig> blocksById;
+    private final Map<Material, BlockConfig[]> blocksByMaterial;
+    private final Set<Material> materials;
+    private final Map<String, BlockConfig> blocksByDisplayName;
+    private final Map<String, Integer> actionIds;
+    private final ActionLayout[] actions;
+    private final ConfigurationSection actionConfigurations;
+
+    private BlockConfigSnapshot(Map<String, BlockConfig> blocksById, Map<Material, BlockConfig[]> blocksByMaterial,
+                                Map<String, BlockConfig> blocksByDisplayName, Map<String, Integer> actionIds,
+                                ActionLayout[] actions, ConfigurationSection actionConfigurations) {
+        this.blocksById = Collections.unmodifiableMap(blocksById);
+        this.blocksByMaterial = blocksByMaterial;
+        this.blocksByDisplayName = blocksByDisplayName;
+        this.actionIds = actionIds;
+        this.actions = actions;
+        this.actionConfigurations = actionConfigurations;
+        this.materials = Collections.unmodifiableSet(blocksByMaterial.keySet());
+    }
+
+    /**
+     * Compiles a loaded coding_blocks.yml
+     *
+     * @param config The parsed file
+     * @param logger Receives problems found in the file
+     */
+    static BlockConfigSnapshot compile(YamlConfiguration config, Logger logger) {
+        ConfigurationSection actionConfigurations = config.getConfigurationSection("action_configurations");
+        logger.fine("Action configurations loaded: " + (actionConfigurations != null));
+
+        Map<String, Integer> actionIds = new HashMap<>();
+        List<ActionLayout> layouts = new ArrayList<>();
+        if (actionConfigurations != null) {
+            for (String actionName : actionConfigurations.getKeys(false)) {
+                ConfigurationSection section = actionConfigurations.getConfigurationSection(actionName);
+                if (section != null) {
+                    actionIds.put(actionName, layouts.size());
+                    layouts.add(ActionLayout.compile(layouts.size(), actionName, section));
+                }
+            }
+        }
+
+        Map<String, BlockConfig> blocksById = new HashMap<>();
+        Map<Material, List<BlockConfig>> blocksByMaterial = new EnumMap<>(Material.class);
+        ConfigurationSection blocksSection = config.getConfigurationSection("blocks");
+        logger.fine("Blocks section exists: " + (blocksSection != null));
+        if (blocksSection != null) {
+            for (String id : blocksSection.getKeys(false)) {
+                ConfigurationSection section = blocksSection.getConfigurationSection(id);
+                if (section == null) {
+                    logger.warning("Section is null for ID: " + id);
+                    continue;
+                }
+                try {
+                    BlockConfig blockConfig = new BlockConfig(id, section);
+                    for (String action : blockConfig.getActions()) {
+                        Integer actionId = actionIds.get(action);
+                        if (actionId != null) {
+                            blockConfig.putActionParameters(layouts.get(actionId).parameters);
+                        }
+                    }
+                    blocksById.put(id, blockConfig);
+
+                    Material material = Material.matchMaterial(id);
+                    if (material != null) {
+                        blocksByMaterial.computeIfAbsent(material, k -> new ArrayList<>()).add(blockConfig);
+                        logger.fine("Successfully loaded block config: " + id + " with material " + material);
+                    } else {
+                        logger.warning("Invalid material for block config: " + id);
+                    }
+                } catch (Exception e) {
+                    logger.warning("Failed to load block config for ID '" + id + "': " + e.getMessage());
+                }
+            }
+        }
+        validateUniqueActionsPerMaterial(blocksByMaterial, logger);
+
+        Map<Material, BlockConfig[]> materialTable = new EnumMap<>(Material.class);
+        blocksByMaterial.forEach((material, configs) -> materialTable.put(material, configs.toArray(NO_CONFIGS)));
+
+        // Same lookup as the former linear search: color-stripped, case-insensitive, first match wins
+        Map<String, BlockConfig> blocksByDisplayName = new HashMap<>();
+        for (BlockConfig blockConfig : blocksById.values()) {
+            String name = ChatColor.stripColor(blockConfig.getDisplayName());
+            if (name != null) {
+                blocksByDisplayName.putIfAbsent(name.toLowerCase(Locale.ROOT), blockConfig);
+            }
+        }
+
+        return new BlockConfigSnapshot(blocksById, materialTable, blocksByDisplayName, actionIds,
+            layouts.toArray(new ActionLayout[0]), actionConfigurations);
+    }
+
+    /**
+     * Logs action identifiers listed by more than one block of the same material, which would resolve ambiguously
+     */
+    private static void validateUniqueActionsPerMaterial(Map<Material, List<BlockConfig>> blocksByMaterial, Logger logger) {
+        for (Map.Entry<Material, List<BlockConfig>> entry : blocksByMaterial.entrySet()) {
+            Map<String, Integer> counts = new HashMap<>();
+            for (BlockConfig blockConfig : entry.getValue()) {
+                for (String action : blockConfig.getActions()) {
+                    counts.merge(action, 1, Integer::sum);
+                }
+            }
+            for (Map.Entry<String, Integer> count : counts.entrySet()) {
+                if (count.getValue() > 1) {
+                    logger.severe("Duplicate action '" + count.getKey() + "' for material " + entry.getKey()
+                        + " across multiple block IDs. Please fix coding_blocks.yml");
+                }
+            }
+        }
+    }
+
+    public BlockConfig getBlockConfig(String id) {
+        return id != null ? blocksById.get(id) : null;
+    }
+
+    public Collection<BlockConfig> getAllBlockConfigs() {
+        return blocksById.values();
+    }
+
+    /**
+     * Gets the blocks of a material in file order; the array must not be modified
+     */
+    public BlockConfig[] getBlockConfigs(Material material) {
+        BlockConfig[] configs = material != null ? blocksByMaterial.get(material) : null;
+        return configs != null ? configs : NO_CONFIGS;
+    }
+
+    public Set<Material> getMaterials() {
+        return materials;
+    }
+
+    /**
+     * Finds a block by its display name, ignoring colors and case
+     */
+    public BlockConfig getBlockConfigByDisplayName(String displayName) {
+        return displayName != null ? blocksByDisplayName.get(displayName.toLowerCase(Locale.ROOT)) : null;
+    }
+
+    /**
+     * Gets the dense id of an action configuration
+     *
+     * @return The id, or -1 if the action has no configuration
+     */
+    public int getActionId(String actionName) {
+        Integer id = actionName != null ? actionIds.get(actionName) : null;
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Gets the layout of an action configuration
+     *
+     * @return The layout, or null if the action has no configuration
+     */
+    public ActionLayout getAction(String actionName) {
+        int id = getActionId(actionName);
+        return id >= 0 ? actions[id] : null;
+    }
+
+    public ActionLayout getAction(int actionId) {
+        return actionId >= 0 && actionId < actions.length ? actions[actionId] : null;
+    }
+
+    public ConfigurationSection getActionConfigurations() {
+        return actionConfigurations;
+    }
+
+    /**
+     * Slot layout of one entry of action_configurations
+     *
+     * Раскладка слотов одной записи action_configurations
+     */
+    public static final class ActionLayout {
+        private final int id;
+        private final String name;
+        private final String[] parameterBySlot;
+        private final Map<String, Integer> slotByParameter;
+        private final Map<String, int[]> groupSlots;
+        private final Map<String, ParameterConfig> parameters;
+        private final Function<String, Integer> slotResolver;
+        private final Function<String, int[]> groupSlotsResolver;
+
+        private ActionLayout(int id, String name, String[] parameterBySlot, Map<String, Integer> slotByParameter,
+                             Map<String, int[]> groupSlots, Map<String, ParameterConfig> parameters,
+                             boolean hasSlots, boolean hasGroups) {
+            this.id = id;
+            this.name = name;
+            this.parameterBySlot = parameterBySlot;
+            this.slotByParameter = slotByParameter;
+            this.groupSlots = groupSlots;
+            this.parameters = parameters;
+            // Resolvers are built once here instead of on every lookup; null keeps "section missing" distinguishable
+            this.slotResolver = hasSlots ? slotByParameter::get : null;
+            this.groupSlotsResolver = hasGroups ? groupSlots::get : null;
+        }
+
+        private static ActionLayout compile(int id, String name, ConfigurationSection section) {
+            Map<String, Integer> slotByParameter = new HashMap<>();
+            Map<Integer, String> names = new HashMap<>();
+            Map<String, ParameterConfig> parameters = new HashMap<>();
+            int maxSlot = -1;
+
+            ConfigurationSection slots = section.getConfigurationSection("slots");
+            if (slots != null) {
+                for (String slotKey : slots.getKeys(false)) {
+                    ConfigurationSection slotSection = slots.getConfigurationSection(slotKey);
+                    String slotName = slotSection != null ? slotSection.getString("slot_name") : null;
+                    if (slotName == null) {
+                        continue;
+                    }
+                    parameters.put(slotName, new ParameterConfig(slotSection));
+                    int slot;
+                    try {
+                        slot = Integer.parseInt(slotKey);
+                    } catch (NumberFormatException e) {
+                        // Slot keys that are no numbers were never resolvable and stay ignored
+                        continue;
+                    }
+                    if (slot >= 0) {
+                        slotByParameter.put(slotName, slot);
+                        names.put(slot, slotName);
+                        maxSlot = Math.max(maxSlot, slot);
+                    }
+                }
+            }
+            String[] parameterBySlot = new String[maxSlot + 1];
+            names.forEach((slot, slotName) -> parameterBySlot[slot] = slotName);
+
+            Map<String, int[]> groupSlots = new HashMap<>();
+            ConfigurationSection itemGroups = section.getConfigurationSection("item_groups");
+            if (itemGroups != null) {
+                for (String groupKey : itemGroups.getKeys(false)) {
+                    ConfigurationSection groupSection = itemGroups.getConfigurationSection(groupKey);
+                    if (groupSection != null) {
+                        groupSlots.put(groupKey, groupSection.getIntegerList("slots").stream().mapToInt(Integer::intValue).toArray());
+                        parameters.put(groupKey, new ParameterConfig(groupSection));
+                    }
+                }
+            }
+
+            return new ActionLayout(id, name, parameterBySlot, slotByParameter, groupSlots,
+                Collections.unmodifiableMap(parameters), slots != null, itemGroups != null);
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the parameter stored in a slot
+         *
+         * @return The parameter name, or null if the slot is not configured
+         */
+        public String getParameterForSlot(int slot) {
+            return slot >= 0 && slot < parameterBySlot.length ? parameterBySlot[slot] : null;
+        }
+
+        /**
+         * Gets the slot of a parameter
+         *
+         * @return The slot, or null if the parameter has no slot
+         */
+        public Integer getSlotForParameter(String parameterName) {
+            return parameterName != null ? slotByParameter.get(parameterName) : null;
+        }
+
+        /**
+         * Gets the slots of an item group; the array must not be modified
+         */
+        public int[] getGroupSlots(String groupName) {
+            return groupName != null ? groupSlots.get(groupName) : null;
+        }
+
+        /**
+         * Gets the parameter to slot resolver, or null if the action configures no slots
+         */
+        public Function<String, Integer> getSlotResolver() {
+            return slotResolver;
+        }
+
+        /**
+         * Gets the group to slots resolver, or null if the action configures no item groups
+         */
+        public Function<String, int[]> getGroupSlotsResolver() {
+            return groupSlotsResolver;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.megacreative.coding.CodeBlock;
 import com.megacreative.coding.CodeScript;
 import com.megacreative.coding.BlockPlacementHandler;
 import com.megacreative.configs.WorldCode;
+import com.megacreative.core.DependencyContainer;
 import org.bukkit.World;
 import org.bukkit.Location;
 import org.bukkit.block.Block;
@@ -17,6 +18,7 @@ import com.megacreative.coding.values.types.*;
 import com.megacreative.coding.ChestParser;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
 import org.bukkit.block.BlockFace;
 
@@ -30,7 +32,7 @@ import org.bukkit.block.BlockFace;
  * CodeCompiler-Dienst, der Weltenstrukturen scannt und in CodeScript-Objekte umwandelt
  * Dies implementiert die Funktion "Kompilierung aus der Welt", die im Vergleich mit dem Referenzsystem erwähnt wird
  */
-public class CodeCompiler implements org.bukkit.event.Listener {
+public class CodeCompiler implements org.bukkit.event.Listener, DependencyContainer.Disposable {
     
     // These fields need to remain as class fields since they are used throughout multiple methods
     // Static analysis flags them as convertible to local variables, but this is a false positive
@@ -38,6 +40,14 @@ public class CodeCompiler implements org.bukkit.event.Listener {
     private final Logger logger;
     private final BlockConfigService blockConfigService;
     private final BlockPlacementHandler blockPlacementHandler;
+    private final WorldStructureScanner structureScanner;
+    
+    // Code area of a dev world scanned by the world compilation
+    private static final int CODE_AREA_MIN = 0;
+    private static final int CODE_AREA_MAX = 255;
+    
+    private static final int[][] SIGN_SIDES = {{0, 0, -1}, {0, 0, 1}, {1, 0, 0}, {-1, 0, 0}};
+    private static final int[][] CHEST_SIDES = {{0, 0, -1}, {0, 0, 1}, {1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}};
     
     /**
      * Инициализирует сервис компилятора кода
@@ -54,6 +64,7 @@ public class CodeCompiler implements org.bukkit.event.Listener {
         this.logger = plugin.getLogger();
         this.blockConfigService = plugin.getServiceRegistry().getBlockConfigService();
         this.blockPlacementHandler = plugin.getServiceRegistry().getBlockPlacementHandler();
+        this.structureScanner = new WorldStructureScanner(plugin);
         try {
             org.bukkit.plugin.PluginManager pm = plugin.getServer().getPluginManager();
             pm.registerEvents(this, plugin);
@@ -245,6 +256,7 @@ public class CodeCompiler implements org.bukkit.event.Listener {
             }
             scripts.removeIf(existing -> existing.getRootBlock() != null && existing.getRootBlock().getId().equals(eventBlock.getId()));
             scripts.add(script);
+            creativeWorld.markDirty(com.megacreative.models.CreativeWorld.DirtySection.SCRIPTS);
             worldManager.saveWorld(creativeWorld);
             logger.fine("Added compiled script to world: " + creativeWorld.getName());
         } catch (Exception e) {
@@ -261,6 +273,7 @@ public class CodeCompiler implements org.bukkit.event.Listener {
             if (scripts == null) return;
             boolean removed = scripts.removeIf(script -> script.getRootBlock() != null && script.getRootBlock().getId().equals(eventBlock.getId()));
             if (removed) {
+                creativeWorld.markDirty(com.megacreative.models.CreativeWorld.DirtySection.SCRIPTS);
                 worldManager.saveWorld(creativeWorld);
                 logger.fine("Removed script for block at: " + formatLocation(location));
             }
@@ -327,7 +340,7 @@ public class CodeCompiler implements org.bukkit.event.Listener {
                         
                         
                         
-                        blockPlacementHandler.getAllCodeBlocks().put(checkLocation, codeBlock);
+                        blockPlacementHandler.putCodeBlock(checkLocation, codeBlock);
                         wasCreated = true;
                     }
                     
@@ -371,7 +384,7 @@ public class CodeCompiler implements org.bukkit.event.Listener {
                         
                         
                         
-                        blockPlacementHandler.getAllCodeBlocks().put(checkLocation, codeBlock);
+                        blockPlacementHandler.putCodeBlock(checkLocation, codeBlock);
                         wasCreated = true;
                     }
                     
@@ -411,7 +424,10 @@ public class CodeCompiler implements org.bukkit.event.Listener {
         // This check has been removed as it's no longer needed
         // Removed redundant null check: if (block == null) return null;
         
-        Material material = block.getType();
+        return createCodeBlock(block.getType());
+    }
+    
+    private CodeBlock createCodeBlock(Material material) {
         String action = "NOT_SET"; 
         
         
@@ -468,17 +484,10 @@ public class CodeCompiler implements org.bukkit.event.Listener {
             
             if (adjacentBlock.getState() instanceof Sign) {
                 Sign sign = (Sign) adjacentBlock.getState();
-                String[] lines = sign.getLines();
-                
-                if (lines.length > 1) {
-                    String line2 = ChatColor.stripColor(lines[1]).trim();
-                    if (line2.contains("{")) {
-                        codeBlock.setBracketType(CodeBlock.BracketType.OPEN);
-                        break;
-                    } else if (line2.contains("}")) {
-                        codeBlock.setBracketType(CodeBlock.BracketType.CLOSE);
-                        break;
-                    }
+                CodeBlock.BracketType bracketType = bracketTypeFromSign(sign.getLines());
+                if (bracketType != null) {
+                    codeBlock.setBracketType(bracketType);
+                    break;
                 }
             }
         }
@@ -487,28 +496,52 @@ public class CodeCompiler implements org.bukkit.event.Listener {
         
         
         if (codeBlock.getBracketType() == null) {
-            if (block.getBlockData() instanceof org.bukkit.block.data.type.Piston pistonData) {
-                BlockFace facing = pistonData.getFacing();
-                
-                
-                
-                
-                
-                if (facing == BlockFace.EAST) {
-                    codeBlock.setBracketType(CodeBlock.BracketType.OPEN);
-                } else if (facing == BlockFace.WEST) {
-                    codeBlock.setBracketType(CodeBlock.BracketType.CLOSE);
-                } else {
-                    codeBlock.setBracketType(CodeBlock.BracketType.OPEN); 
-                    
-                    
-                }
+            CodeBlock.BracketType bracketType = bracketTypeFromFacing(block.getBlockData());
+            if (bracketType != null) {
+                codeBlock.setBracketType(bracketType);
             }
         }
         
         return codeBlock;
     }
     
+    /**
+     * Reads the bracket type from the second line of a bracket sign
+     * @return The bracket type, or null if the sign shows no bracket
+     */
+    private static CodeBlock.BracketType bracketTypeFromSign(String[] lines) {
+        if (lines.length > 1) {
+            String line2 = ChatColor.stripColor(lines[1]).trim();
+            if (line2.contains("{")) {
+                return CodeBlock.BracketType.OPEN;
+            } else if (line2.contains("}")) {
+                return CodeBlock.BracketType.CLOSE;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Derives the bracket type from the direction a piston faces
+     * @return The bracket type, or null if the data is not a piston
+     */
+    private static CodeBlock.BracketType bracketTypeFromFacing(org.bukkit.block.data.BlockData blockData) {
+        if (blockData instanceof org.bukkit.block.data.type.Piston pistonData) {
+            BlockFace facing = pistonData.getFacing();
+            
+            
+            
+            
+            
+            if (facing == BlockFace.WEST) {
+                return CodeBlock.BracketType.CLOSE;
+            }
+            // East and every other direction open a bracket
+            return CodeBlock.BracketType.OPEN;
+        }
+        return null;
+    }
+    
     /**
      * Проверяет, представляет ли CodeBlock событие (начальную точку для скрипта)
      * 
@@ -556,8 +589,8 @@ public class CodeCompiler implements org.bukkit.event.Listener {
         
         
         
-        int minX = 0, maxX = 255;
-        int minZ = 0, maxZ = 255;
+        int minX = CODE_AREA_MIN, maxX = CODE_AREA_MAX;
+        int minZ = CODE_AREA_MIN, maxZ = CODE_AREA_MAX;
         int y = world.getHighestBlockYAt(0, 0); 
         
         
@@ -611,7 +644,7 @@ public class CodeCompiler implements org.bukkit.event.Listener {
                                 
                                 
                                 
-                                blockPlacementHandler.getAllCodeBlocks().put(checkLocation, codeBlock);
+                                blockPlacementHandler.putCodeBlock(checkLocation, codeBlock);
                             }
                             
                             
@@ -657,6 +690,164 @@ public class CodeCompiler implements org.bukkit.event.Listener {
         return scannedBlocks;
     }
 
+    /**
+     * Сканирует мир так же, как {@link #scanWorldStructure(World)}, но не блокирует основной поток:
+     * снимки чанков захватываются по несколько за тик, а кодовые блоки, таблички и сундуки
+     * разбираются параллельно в потоках сканирования. Результаты применяются к кодовым блокам
+     * в основном потоке одним шагом после завершения разбора.
+     *
+     * Scans the world like {@link #scanWorldStructure(World)} without blocking the main thread:
+     * chunk snapshots are captured a few per tick, and code blocks, signs and chests are parsed
+     * in parallel on scan threads. The results are applied to the code blocks on the main thread
+     * in one step once parsing has finished.
+     *
+     * @param world The world to scan; must be called on the main thread
+     * @param progress Progress listener called from scan threads, or null
+     * @return Future completed on the main thread with the code blocks by location
+     */
+    public CompletableFuture<Map<Location, CodeBlock>> scanWorldStructureAsync(World world, WorldStructureScanner.ProgressListener progress) {
+        long started = System.nanoTime();
+        int y = world.getHighestBlockYAt(0, 0);
+        CompletableFuture<Map<Location, CodeBlock>> result = new CompletableFuture<>();
+        
+        structureScanner.scan(world, CODE_AREA_MIN, CODE_AREA_MAX, CODE_AREA_MIN, CODE_AREA_MAX, y, this::parseChunk, progress)
+            .whenComplete((scannedBlocks, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                    return;
+                }
+                try {
+                    plugin.getServer().getScheduler().runTask(plugin, () -> {
+                        try {
+                            Map<Location, CodeBlock> codeBlocks = applyScannedBlocks(world, scannedBlocks);
+                            logger.fine(String.format("Async world scan of %s found %d code blocks in %.1f ms",
+                                world.getName(), codeBlocks.size(), (System.nanoTime() - started) / 1_000_000.0));
+                            result.complete(codeBlocks);
+                        } catch (Exception e) {
+                            result.completeExceptionally(e);
+                        }
+                    });
+                } catch (Exception e) {
+                    // The plugin was disabled while the scan was running
+                    result.completeExceptionally(e);
+                }
+            });
+        return result;
+    }
+
+    /**
+     * Разбирает кодовые блоки одного захваченного чанка; выполняется в потоке сканирования
+     * и не изменяет существующие CodeBlock
+     *
+     * Parses the code blocks of one captured chunk; runs on a scan thread
+     * and does not modify existing CodeBlocks
+     */
+    private List<ScannedCodeBlock> parseChunk(WorldStructureScanner.CapturedChunk chunk) {
+        List<ScannedCodeBlock> found = new ArrayList<>();
+        int y = chunk.getY();
+        
+        for (int x = chunk.getMinX(); x <= chunk.getMaxX(); x++) {
+            for (int z = chunk.getMinZ(); z <= chunk.getMaxZ(); z++) {
+                Material type = chunk.getType(x, y, z);
+                boolean bracket = type == Material.PISTON || type == Material.STICKY_PISTON;
+                if (!bracket && !blockConfigService.isCodeBlock(type)) {
+                    continue;
+                }
+                
+                ScannedCodeBlock scanned = new ScannedCodeBlock(x, y, z, type);
+                for (int[] side : SIGN_SIDES) {
+                    String[] lines = chunk.getSignLines(x + side[0], y + side[1], z + side[2]);
+                    if (lines == null) {
+                        continue;
+                    }
+                    if (bracket) {
+                        scanned.bracketType = bracketTypeFromSign(lines);
+                        if (scanned.bracketType != null) {
+                            break;
+                        }
+                    } else {
+                        scanned.signAction = actionFromSignLines(lines, type, formatPosition(x, y, z));
+                        if (scanned.signAction != null) {
+                            break;
+                        }
+                    }
+                }
+                if (bracket && scanned.bracketType == null) {
+                    scanned.bracketType = bracketTypeFromFacing(chunk.getBlockData(x, y, z));
+                }
+                
+                for (int[] side : CHEST_SIDES) {
+                    ItemStack[] contents = chunk.getChestContents(x + side[0], y + side[1], z + side[2]);
+                    if (contents != null) {
+                        scanned.chestLocation = new Location(chunk.getWorld(), x + side[0], y + side[1], z + side[2]);
+                        scanned.slotValues = readSlotValues(new ChestParser(contents, scanned.chestLocation));
+                        break;
+                    }
+                }
+                found.add(scanned);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Применяет результаты разбора к кодовым блокам; выполняется в основном потоке
+     *
+     * Applies parse results to the code blocks; runs on the main thread
+     */
+    private Map<Location, CodeBlock> applyScannedBlocks(World world, List<ScannedCodeBlock> scannedBlocks) {
+        Map<Location, CodeBlock> codeBlocks = new LinkedHashMap<>();
+        
+        for (ScannedCodeBlock scanned : scannedBlocks) {
+            Location location = new Location(world, scanned.x, scanned.y, scanned.z);
+            CodeBlock codeBlock = blockPlacementHandler.getCodeBlock(location);
+            
+            if (codeBlock == null) {
+                if (scanned.bracketType != null) {
+                    codeBlock = new CodeBlock(scanned.material.name(), "BRACKET");
+                    codeBlock.setBracketType(scanned.bracketType);
+                } else {
+                    codeBlock = createCodeBlock(scanned.material);
+                }
+                blockPlacementHandler.putCodeBlock(location, codeBlock);
+                logger.fine("Discovered new code block at " + formatLocation(location) + 
+                    " with action: " + codeBlock.getAction());
+            }
+            
+            if ((codeBlock.getAction() == null || "NOT_SET".equals(codeBlock.getAction())) && scanned.signAction != null) {
+                codeBlock.setAction(scanned.signAction);
+            }
+            
+            if (scanned.slotValues != null) {
+                applySlotValues(scanned.slotValues, codeBlock);
+                world.spawnParticle(org.bukkit.Particle.ENCHANTMENT_TABLE, 
+                    scanned.chestLocation.clone().add(0.5, 0.5, 0.5), 5, 0.3, 0.3, 0.3, 1.0);
+            }
+            
+            codeBlocks.put(location, codeBlock);
+        }
+        return codeBlocks;
+    }
+
+    /**
+     * Code block found by a scan thread, with everything read from its sign and chest
+     */
+    private static final class ScannedCodeBlock {
+        private final int x, y, z;
+        private final Material material;
+        private String signAction;
+        private CodeBlock.BracketType bracketType;
+        private Location chestLocation;
+        private DataValue[] slotValues;
+
+        private ScannedCodeBlock(int x, int y, int z, Material material) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.material = material;
+        }
+    }
+
     /**
      * Читает тип действия из таблички блока с улучшенным парсингом
      * 
@@ -691,68 +882,83 @@ public class CodeCompiler implements org.bukkit.event.Listener {
             // Removed redundant null check
             if (adjacentBlock.getState() instanceof Sign) {
                 Sign sign = (Sign) adjacentBlock.getState();
-                String[] lines = sign.getLines();
+                String action = actionFromSignLines(sign.getLines(), block.getType(), formatLocation(blockLocation));
+                if (action != null) {
+                    return action;
+                }
+            }
+        }
+        
+        return null;
+    }
+
+    /**
+     * Определяет тип действия по строкам таблички; не обращается к миру
+     *
+     * Determines the action type from the lines of a sign; does not touch the world
+     *
+     * @param lines Lines of the sign
+     * @param blockType Type of the code block the sign belongs to
+     * @param position Block position, for logging
+     * @return The action type, or null if the sign has no meaningful line
+     */
+    private String actionFromSignLines(String[] lines, Material blockType, String position) {
+        for (String line : lines) {
+            String cleanLine = ChatColor.stripColor(line).trim();
+            if (!cleanLine.isEmpty() && !cleanLine.equals("============") && 
+                !cleanLine.contains("Клик") && !cleanLine.contains("Скобка") &&
+                !cleanLine.contains("★★★★★★★★★★★★") && !cleanLine.contains("➜")) {
                 
                 
                 
-                for (String line : lines) {
-                    String cleanLine = ChatColor.stripColor(line).trim();
-                    if (!cleanLine.isEmpty() && !cleanLine.equals("============") && 
-                        !cleanLine.contains("Клик") && !cleanLine.contains("Скобка") &&
-                        !cleanLine.contains("★★★★★★★★★★★★") && !cleanLine.contains("➜")) {
-                        
-                        
-                        
-                        
-                        BlockConfigService.BlockConfig config = blockConfigService.getBlockConfigByMaterial(block.getType());
-                        if (config != null) {
-                            
-                            
-                            
-                            List<String> availableActions = blockConfigService.getActionsForMaterial(block.getType());
-                            for (String action : availableActions) {
-                                if (action.equalsIgnoreCase(cleanLine)) {
-                                    logger.fine("Found exact action match: " + action + " for block at " + formatLocation(blockLocation));
-                                    
-                                    
-                                    return action;
-                                }
-                            }
-                            
-                            
+                
+                BlockConfigService.BlockConfig config = blockConfigService.getBlockConfigByMaterial(blockType);
+                if (config != null) {
+                    
+                    
+                    
+                    List<String> availableActions = blockConfigService.getActionsForMaterial(blockType);
+                    for (String action : availableActions) {
+                        if (action.equalsIgnoreCase(cleanLine)) {
+                            logger.fine("Found exact action match: " + action + " for block at " + position);
                             
                             
-                            for (String action : availableActions) {
-                                if (action.toLowerCase().contains(cleanLine.toLowerCase()) ||
-                                    cleanLine.toLowerCase().contains(action.toLowerCase())) {
-                                    logger.fine("Found partial action match: " + action + " for block at " + formatLocation(blockLocation));
-                                    
-                                    
-                                    return action;
-                                }
-                            }
+                            return action;
                         }
-                        
-                        
-                        
-                        
-                        String determinedAction = determineActionFromContext(cleanLine, block.getType());
-                        if (determinedAction != null) {
-                            logger.fine("Determined action from context: " + determinedAction + " for block at " + formatLocation(blockLocation));
+                    }
+                    
+                    
+                    
+                    
+                    for (String action : availableActions) {
+                        if (action.toLowerCase().contains(cleanLine.toLowerCase()) ||
+                            cleanLine.toLowerCase().contains(action.toLowerCase())) {
+                            logger.fine("Found partial action match: " + action + " for block at " + position);
                             
                             
-                            return determinedAction;
+                            return action;
                         }
-                        
-                        
-                        
-                        
-                        logger.fine("Using raw sign text as action: " + cleanLine + " for block at " + formatLocation(blockLocation));
-                        
-                        
-                        return cleanLine;
                     }
                 }
+                
+                
+                
+                
+                String determinedAction = determineActionFromContext(cleanLine, blockType);
+                if (determinedAction != null) {
+                    logger.fine("Determined action from context: " + determinedAction + " for block at " + position);
+                    
+                    
+                    return determinedAction;
+                }
+                
+                
+                
+                
+                logger.fine("Using raw sign text as action: " + cleanLine + " for block at " + position);
+                
+                
+                return cleanLine;
             }
         }
         
@@ -844,42 +1050,59 @@ public class CodeCompiler implements org.bukkit.event.Listener {
      * Konvertiert Truhengegenstände in DataValue-Parameter im CodeBlock
      */
     private void convertChestItemsToParameters(ChestParser chestParser, CodeBlock codeBlock) {
-        Map<String, DataValue> newParameters = new HashMap<>();
-        int processedItems = 0;
+        applySlotValues(readSlotValues(chestParser), codeBlock);
+    }
+
+    /**
+     * Читает значение каждого слота сундука; не обращается к миру
+     *
+     * Reads the value of every chest slot; does not touch the world
+     *
+     * @return One value per slot, null for empty slots
+     */
+    private DataValue[] readSlotValues(ChestParser chestParser) {
+        DataValue[] slotValues = new DataValue[chestParser.getSize()];
         
         
         
         
-        for (int slot = 0; slot < chestParser.getChestInventory().getSize(); slot++) {
+        for (int slot = 0; slot < slotValues.length; slot++) {
             
             String textParam = chestParser.getText(slot);
             if (textParam != null) {
-                String paramName = getParameterNameForSlot(codeBlock.getAction(), slot);
-                newParameters.put(paramName, new TextValue(textParam));
-                processedItems++;
+                slotValues[slot] = new TextValue(textParam);
                 continue;
             }
             
             double numberParam = chestParser.getNumber(slot);
             if (numberParam != 0) { 
-                String paramName = getParameterNameForSlot(codeBlock.getAction(), slot);
-                newParameters.put(paramName, new NumberValue(numberParam));
-                processedItems++;
+                slotValues[slot] = new NumberValue(numberParam);
                 continue;
             }
             
             Location locationParam = chestParser.getLocation(slot);
             if (locationParam != null) {
-                String paramName = getParameterNameForSlot(codeBlock.getAction(), slot);
-                newParameters.put(paramName, new LocationValue(locationParam));
-                processedItems++;
+                slotValues[slot] = new LocationValue(locationParam);
                 continue;
             }
             
             ItemStack itemParam = chestParser.getItem(slot);
             if (itemParam != null && itemParam.getType() != Material.AIR) {
-                String paramName = getParameterNameForSlot(codeBlock.getAction(), slot);
-                newParameters.put(paramName, convertItemStackToDataValue(itemParam));
+                slotValues[slot] = convertItemStackToDataValue(itemParam);
+            }
+        }
+        return slotValues;
+    }
+
+    /**
+     * Sets slot values as parameters of a CodeBlock, named after the block's action
+     */
+    private void applySlotValues(DataValue[] slotValues, CodeBlock codeBlock) {
+        Map<String, DataValue> newParameters = new HashMap<>();
+        int processedItems = 0;
+        for (int slot = 0; slot < slotValues.length; slot++) {
+            if (slotValues[slot] != null) {
+                newParameters.put(getParameterNameForSlot(codeBlock.getAction(), slot), slotValues[slot]);
                 processedItems++;
             }
         }
@@ -1204,7 +1427,11 @@ public class CodeCompiler implements org.bukkit.event.Listener {
      */
     private String formatLocation(Location location) {
         if (location == null) return "null";
-        return String.format("(%d, %d, %d)", location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        return formatPosition(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+    
+    private static String formatPosition(int x, int y, int z) {
+        return String.format("(%d, %d, %d)", x, y, z);
     }
 
     /**
@@ -1239,44 +1466,52 @@ public class CodeCompiler implements org.bukkit.event.Listener {
      * Diese Methode ahmt den Ansatz des Referenzsystems nach, Weltenstrukturen in Code-Zeichenfolgen umzuwandeln
      */
     public List<String> compileWorldToCodeStrings(World world) {
+        return buildCodeStrings(world, scanWorldStructure(world));
+    }
+
+    /**
+     * Компилирует мир в строки кода, сканируя его вне основного потока
+     *
+     * Compiles a world to code strings, scanning it off the main thread.
+     * The code strings are built and saved on the main thread once the whole scan is complete.
+     *
+     * @param world The world to compile; must be called on the main thread
+     * @param progress Progress listener called from scan threads, or null
+     * @return Future completed on the main thread with the compiled code strings
+     */
+    public CompletableFuture<List<String>> compileWorldToCodeStringsAsync(World world, WorldStructureScanner.ProgressListener progress) {
+        return scanWorldStructureAsync(world, progress).thenApply(scannedBlocks -> buildCodeStrings(world, scannedBlocks));
+    }
+
+    private List<String> buildCodeStrings(World world, Map<Location, CodeBlock> scannedBlocks) {
         List<String> compiledCode = new ArrayList<>();
         
         
         
         
-        Map<Location, CodeBlock> scannedBlocks = scanWorldStructure(world);
-        
-        
-        
-        
-        Map<Integer, List<CodeBlock>> blocksByLine = new HashMap<>();
+        Map<Integer, List<Map.Entry<Location, CodeBlock>>> blocksByLine = new HashMap<>();
         
         for (Map.Entry<Location, CodeBlock> entry : scannedBlocks.entrySet()) {
-            Location location = entry.getKey();
-            CodeBlock block = entry.getValue();
-            
-            int yLevel = location.getBlockY();
-            blocksByLine.computeIfAbsent(yLevel, k -> new ArrayList<>()).add(block);
+            int yLevel = entry.getKey().getBlockY();
+            blocksByLine.computeIfAbsent(yLevel, k -> new ArrayList<>()).add(entry);
         }
         
         
         
         
-        for (Map.Entry<Integer, List<CodeBlock>> lineEntry : blocksByLine.entrySet()) {
-            int yLevel = lineEntry.getKey();
-            List<CodeBlock> lineBlocks = lineEntry.getValue();
+        for (List<Map.Entry<Location, CodeBlock>> lineBlocks : blocksByLine.values()) {
             
             
             
             
-            sortLineBlocks(lineBlocks, scannedBlocks);
+            lineBlocks.sort((a, b) -> Integer.compare(a.getKey().getBlockX(), b.getKey().getBlockX()));
             
             
             
             
             List<String> lineCode = new ArrayList<>();
-            for (CodeBlock block : lineBlocks) {
-                String function = getFunctionFromBlock(block);
+            for (Map.Entry<Location, CodeBlock> entry : lineBlocks) {
+                String function = getFunctionFromBlock(entry.getValue());
                 if (function != null && !function.isEmpty()) {
                     lineCode.add(function);
                 }
@@ -1323,29 +1558,6 @@ public class CodeCompiler implements org.bukkit.event.Listener {
      * Konvertiert einen CodeBlock in seine Funktionsdarstellung
      * Dies ahmt die Methode GetFunc_new.get() des Referenzsystems nach
      */
-    /**
-     * Sorts line blocks by their X coordinate
-     */
-    private void sortLineBlocks(List<CodeBlock> lineBlocks, Map<Location, CodeBlock> scannedBlocks) {
-        lineBlocks.sort((a, b) -> {
-            Location locA = null;
-            Location locB = null;
-            
-            
-            
-            
-            for (Map.Entry<Location, CodeBlock> blockEntry : scannedBlocks.entrySet()) {
-                if (blockEntry.getValue() == a) locA = blockEntry.getKey();
-                if (blockEntry.getValue() == b) locB = blockEntry.getKey();
-            }
-            
-            if (locA != null && locB != null) {
-                return Integer.compare(locA.getBlockX(), locB.getBlockX());
-            }
-            return 0;
-        });
-    }
-    
     private String getFunctionFromBlock(CodeBlock block) {
         // According to static analysis, block is never null when this method is called
         // The condition "block == null" is always false, so this check is redundant
@@ -1442,4 +1654,14 @@ public class CodeCompiler implements org.bukkit.event.Listener {
         
         
     }
-}
\ No newline at end of file
+
+    /**
+     * Останавливает потоки сканирования
+     *
+     * Stops the scan threads
+     */
+    @Override
+    public void dispose() {
+        structureScanner.shutdown();
+    }
+}
@@ -0,0 +1,291 @@
+package com.megacreative.services;
+
+import com.megacreative.coding.CodeBlockStore;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Chest;
+import org.bukkit.block.Sign;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Scans the code area of a dev world without walking it block by block on the main thread.
+ * Chunk snapshots are captured on the main thread a few chunks per tick, together with the sign
+ * text and chest contents around the code line, since a ChunkSnapshot carries no tile entity state.
+ * The captured chunks are then parsed in parallel on scan threads.
+ *
+ * Сканирует область кода мира разработки, не обходя ее поблочно в основном потоке.
+ * Снимки чанков захватываются в основном потоке по несколько чанков за тик вместе с текстом
+ * табличек и содержимым сундуков вокруг линии кода, так как ChunkSnapshot не содержит состояния тайл-сущностей.
+ * Затем захваченные чанки разбираются параллельно в потоках сканирования.
+ */
+public final class WorldStructureScanner {
+
+    private static final Logger LOGGER = Logger.getLogger(WorldStructureScanner.class.getName());
+
+    private static final int CHUNKS_PER_TICK = 16;
+    private static final int SCAN_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    private final Plugin plugin;
+    private final ExecutorService scanExecutor = Executors.newFixedThreadPool(SCAN_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "MegaCreative-CodeScan");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public WorldStructureScanner(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Parses the code blocks of one captured chunk; runs on a scan thread
+     *
+     * Разбирает кодовые блоки одного захваченного чанка; выполняется в потоке сканирования
+     */
+    @FunctionalInterface
+    public interface ChunkParser<T> {
+        List<T> parse(CapturedChunk chunk);
+    }
+
+    /**
+     * Receives the number of parsed chunks; called from scan threads
+     *
+     * Получает количество разобранных чанков; вызывается из потоков сканирования
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(int parsedChunks, int totalChunks);
+    }
+
+    /**
+     * Scans a rectangular area at one height. Must be called on the main thread.
+     *
+     * @param world The world to scan
+     * @param minX Lowest block x of the area
+     * @param maxX Highest block x of the area
+     * @param minZ Lowest block z of the area
+     * @param maxZ Highest block z of the area
+     * @param y The height of the code line
+     * @param parser Parses every captured chunk
+     * @param progress Progress listener, or null
+     * @return Future completed on a scan thread with the parsed results in chunk order
+     */
+    public <T> CompletableFuture<List<T>> scan(World world, int minX, int maxX, int minZ, int maxZ, int y,
+                                               ChunkParser<T> parser, ProgressListener progress) {
+        List<long[]> chunkCoordinates = new ArrayList<>();
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                chunkCoordinates.add(new long[] {chunkX, chunkZ});
+            }
+        }
+
+        CompletableFuture<List<CapturedChunk>> captured = new CompletableFuture<>();
+        TileData tiles = new TileData();
+        new BukkitRunnable() {
+            private final List<CapturedChunk> chunks = new ArrayList<>(chunkCoordinates.size());
+
+            @Override
+            public void run() {
+                try {
+                    if (Bukkit.getWorld(world.getUID()) == null) {
+                        throw new IllegalStateException("World " + world.getName() + " was unloaded during the scan");
+                    }
+                    int end = Math.min(chunks.size() + CHUNKS_PER_TICK, chunkCoordinates.size());
+                    while (chunks.size() < end) {
+                        long[] coordinates = chunkCoordinates.get(chunks.size());
+                        chunks.add(capture(world, (int) coordinates[0], (int) coordinates[1], y, minX, maxX, minZ, maxZ, tiles));
+                    }
+                    if (chunks.size() == chunkCoordinates.size()) {
+                        cancel();
+                        captured.complete(chunks);
+                    }
+                } catch (Exception e) {
+                    cancel();
+                    captured.completeExceptionally(e);
+                }
+            }
+        }.runTaskTimer(plugin, 0L, 1L);
+
+        // Tile data is complete before the first chunk is parsed, so signs and chests across chunk borders are found
+        return captured.thenComposeAsync(chunks -> parseAll(chunks, parser, progress), scanExecutor);
+    }
+
+    private <T> CompletableFuture<List<T>> parseAll(List<CapturedChunk> chunks, ChunkParser<T> parser, ProgressListener progress) {
+        AtomicInteger parsed = new AtomicInteger();
+        List<CompletableFuture<List<T>>> tasks = new ArrayList<>(chunks.size());
+        for (CapturedChunk chunk : chunks) {
+            tasks.add(CompletableFuture.supplyAsync(() -> {
+                List<T> result = parser.parse(chunk);
+                if (progress != null) {
+                    progress.onProgress(parsed.incrementAndGet(), chunks.size());
+                }
+                return result;
+            }, scanExecutor));
+        }
+        return CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            List<T> results = new ArrayList<>();
+            for (CompletableFuture<List<T>> task : tasks) {
+                results.addAll(task.join());
+            }
+            return results;
+        });
+    }
+
+    private CapturedChunk capture(World world, int chunkX, int chunkZ, int y,
+                                  int minX, int maxX, int minZ, int maxZ, TileData tiles) {
+        // getChunkAt loads the chunk if needed, like the block-by-block scan did
+        Chunk chunk = world.getChunkAt(chunkX, chunkZ);
+        ChunkSnapshot snapshot = chunk.getChunkSnapshot(false, false, false);
+        for (BlockState state : chunk.getTileEntities()) {
+            if (state.getY() < y - 1 || state.getY() > y + 1) {
+                continue;
+            }
+            long position = CodeBlockStore.pack(state.getX(), state.getY(), state.getZ());
+            if (state instanceof Sign sign) {
+                tiles.signs.put(position, sign.getLines().clone());
+            } else if (state.getType() == Material.CHEST && state instanceof Chest chest) {
+                ItemStack[] contents = chest.getInventory().getContents();
+                ItemStack[] copy = new ItemStack[contents.length];
+                for (int slot = 0; slot < contents.length; slot++) {
+                    copy[slot] = contents[slot] != null ? contents[slot].clone() : null;
+                }
+                tiles.containers.put(position, copy);
+            }
+        }
+        return new CapturedChunk(world, snapshot, y,
+            Math.max(minX, chunkX << 4), Math.min(maxX, (chunkX << 4) + 15),
+            Math.max(minZ, chunkZ << 4), Math.min(maxZ, (chunkZ << 4) + 15), tiles);
+    }
+
+    /**
+     * Creates a listener that logs every quarter of the scan
+     */
+    public static ProgressListener loggingProgress(Logger logger, String worldName) {
+        return (parsedChunks, totalChunks) -> {
+            if (parsedChunks == totalChunks || parsedChunks * 4 / totalChunks != (parsedChunks - 1) * 4 / totalChunks) {
+                logger.fine("Code scan of " + worldName + ": " + parsedChunks + "/" + totalChunks + " chunks parsed");
+            }
+        };
+    }
+
+    /**
+     * Stops the scan threads; scans still running are abandoned
+     */
+    public void shutdown() {
+        scanExecutor.shutdownNow();
+        LOGGER.log(Level.FINE, "Code scan executor stopped");
+    }
+
+    /**
+     * Sign lines and chest contents of the whole scan, keyed by packed position.
+     * Filled on the main thread and only read once capture has finished.
+     */
+    private static final class TileData {
+        private final Map<Long, String[]> signs = new HashMap<>();
+        private final Map<Long, ItemStack[]> containers = new HashMap<>();
+    }
+
+    /**
+     * One chunk of the scan area as captured on the main thread; safe to read from any thread.
+     * Sign and chest lookups work across the whole scan area, not only inside this chunk.
+     *
+     * Один чанк области сканирования в том виде, в каком он был захвачен в основном потоке; безопасен для чтения из любого потока.
+     * Поиск табличек и сундуков работает по всей области сканирования, а не только внутри этого чанка.
+     */
+    public static final class CapturedChunk {
+        private final World world;
+        private final ChunkSnapshot snapshot;
+        private final int y;
+        private final int minX, maxX, minZ, maxZ;
+        private final TileData tiles;
+
+        private CapturedChunk(World world, ChunkSnapshot snapshot, int y,
+                              int minX, int maxX, int minZ, int maxZ, TileData tiles) {
+            this.world = world;
+            this.snapshot = snapshot;
+            this.y = y;
+            this.minX = minX;
+            this.maxX = maxX;
+            this.minZ = minZ;
+            this.maxZ = maxZ;
+            this.tiles = tiles;
+        }
+
+        /**
+         * Gets the world; only for building locations, the world must not be accessed off the main thread
+         */
+        public World getWorld() {
+            return world;
+        }
+
+        /**
+         * Gets the height of the code line
+         */
+        public int getY() {
+            return y;
+        }
+
+        public int getMinX() {
+            return minX;
+        }
+
+        public int getMaxX() {
+            return maxX;
+        }
+
+        public int getMinZ() {
+            return minZ;
+        }
+
+        public int getMaxZ() {
+            return maxZ;
+        }
+
+        /**
+         * Gets the block type at a position inside this chunk
+         */
+        public Material getType(int x, int y, int z) {
+            return snapshot.getBlockType(x & 15, y, z & 15);
+        }
+
+        /**
+         * Gets the block data at a position inside this chunk
+         */
+        public BlockData getBlockData(int x, int y, int z) {
+            return snapshot.getBlockData(x & 15, y, z & 15);
+        }
+
+        /**
+         * Gets the lines of the sign at a position
+         * @return The lines, or null if there is no sign
+         */
+        public String[] getSignLines(int x, int y, int z) {
+            return tiles.signs.get(CodeBlockStore.pack(x, y, z));
+        }
+
+        /**
+         * Gets a copy of the contents of the chest at a position
+         * @return The contents, or null if there is no chest
+         */
+        public ItemStack[] getChestContents(int x, int y, int z) {
+            return tiles.containers.get(CodeBlockStore.pack(x, y, z));
+        }
+    }
+}
@@ -94,6 +94,23 @@ public class JsonSerializer {
         return toJson(worldData);
     }
     
+    /**
+     * Сериализует CreativeWorld в JSON прямо в поток, без промежуточной строки
+     * @param world CreativeWorld для сериализации
+     * @param writer Поток для записи
+     *
+     * Serializes CreativeWorld to JSON straight into a stream, without an intermediate string
+     * @param world CreativeWorld to serialize
+     * @param writer Stream to write to
+     *
+     * Serialisiert CreativeWorld direkt in einen Stream, ohne Zwischenzeichenfolge
+     * @param world Zu serialisierende CreativeWorld
+     * @param writer Ziel-Stream
+     */
+    public static void writeWorld(CreativeWorld world, java.io.Writer writer) {
+        gson.toJson(new com.megacreative.models.CreativeWorldData(world), writer);
+    }
+    
     /**
      * Десериализует CreativeWorld из JSON
      * @param json JSON строка для десериализации
@@ -0,0 +1,84 @@
+package com.megacreative.coding;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CodeBlockStoreTest {
+
+    private World world;
+    private CodeBlockStore store;
+
+    @BeforeEach
+    public void setUp() {
+        world = mock(World.class);
+        when(world.getName()).thenReturn("dev");
+        store = new CodeBlockStore();
+    }
+
+    @Test
+    public void testPackRoundTrip() {
+        int[] xs = {0, 1, -1, 12345, -12345, (1 << 25) - 1, -(1 << 25)};
+        int[] ys = {0, 1, -1, 64, -64, 319, 2047, -2048};
+        for (int x : xs) {
+            for (int y : ys) {
+                for (int z : xs) {
+                    long position = CodeBlockStore.pack(x, y, z);
+                    assertEquals(x, CodeBlockStore.unpackX(position), "x of " + x + ", " + y + ", " + z);
+                    assertEquals(y, CodeBlockStore.unpackY(position), "y of " + x + ", " + y + ", " + z);
+                    assertEquals(z, CodeBlockStore.unpackZ(position), "z of " + x + ", " + y + ", " + z);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testNeighbouringPositionsDiffer() {
+        long origin = CodeBlockStore.pack(0, 0, 0);
+        assertNotEquals(origin, CodeBlockStore.pack(1, 0, 0));
+        assertNotEquals(origin, CodeBlockStore.pack(0, 1, 0));
+        assertNotEquals(origin, CodeBlockStore.pack(0, 0, 1));
+        assertNotEquals(CodeBlockStore.pack(-1, 0, 0), CodeBlockStore.pack(0, 0, -1));
+        assertNotEquals(CodeBlockStore.NO_POSITION, CodeBlockStore.pack(-(1 << 25), -2048, -(1 << 25)));
+    }
+
+    @Test
+    public void testLineIndexFollowsMoves() {
+        CodeBlock first = new CodeBlock("DIAMOND_BLOCK", "onJoin");
+        CodeBlock second = new CodeBlock("COBBLESTONE", "sendMessage");
+        store.put(new Location(world, 0, 64, 5), first);
+        store.put(new Location(world, 2, 64, 5), second);
+
+        CodeBlockStore.WorldBlocks blocks = store.world("dev");
+        assertSame(first, blocks.firstOnLine(64, 5, 0, 10));
+        assertSame(second, blocks.firstOnLine(64, 5, 1, 10));
+        assertNull(blocks.firstOnLine(64, 5, 3, 10));
+        assertEquals(CodeBlockStore.pack(2, 64, 5), blocks.positionOf(second));
+
+        store.put(new Location(world, 4, 64, 6), second);
+        assertNull(blocks.get(2, 64, 5), "A moved block must leave its old position");
+        assertNull(blocks.firstOnLine(64, 5, 1, 10));
+        assertSame(second, blocks.firstOnLine(64, 6, 0, 10));
+        assertEquals(2, store.size());
+
+        assertSame(first, store.remove(new Location(world, 0, 64, 5)));
+        assertEquals(CodeBlockStore.NO_POSITION, blocks.positionOf(first));
+        assertTrue(blocks.line(64, 5).isEmpty());
+    }
+
+    @Test
+    public void testPutIfAbsentKeepsExistingBlock() {
+        CodeBlock first = new CodeBlock("COBBLESTONE", "sendMessage");
+        CodeBlock second = new CodeBlock("COBBLESTONE", "sendMessage");
+        Location location = new Location(world, 1, 2, 3);
+
+        assertTrue(store.putIfAbsent(location, first));
+        assertFalse(store.putIfAbsent(location, second));
+        assertSame(first, store.get(location));
+        assertEquals(CodeBlockStore.NO_POSITION, store.world("dev").positionOf(second));
+    }
+}
@@ -0,0 +1,200 @@
+package com.megacreative.coding;
+
+import com.megacreative.coding.executors.AdvancedExecutionEngine.Priority;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScriptTickSchedulerTest {
+
+    /** Long enough that every queued slice of a test runs within one tick */
+    private static final long UNLIMITED_BUDGET_MS = 60_000;
+
+    @Test
+    public void testWeightsDoubleWithEachPriority() {
+        assertEquals(1, ScriptTickScheduler.weightOf(Priority.IDLE));
+        assertEquals(2, ScriptTickScheduler.weightOf(Priority.LOW));
+        assertEquals(4, ScriptTickScheduler.weightOf(Priority.NORMAL));
+        assertEquals(8, ScriptTickScheduler.weightOf(Priority.HIGH));
+        assertEquals(16, ScriptTickScheduler.weightOf(Priority.CRITICAL));
+    }
+
+    @Test
+    public void testSlicesAreSharedByWeight() {
+        ScriptTickScheduler scheduler = new ScriptTickScheduler(UNLIMITED_BUDGET_MS);
+        List<Priority> order = new ArrayList<>();
+        for (Priority priority : Priority.values()) {
+            for (int i = 0; i < 40; i++) {
+                scheduler.submit("world", priority, deadline -> order.add(priority));
+            }
+        }
+        scheduler.tick();
+        assertEquals(200, order.size());
+
+        // While every priority waits, each round of 31 slices gives every priority exactly its weight
+        for (int round = 0; round < 2; round++) {
+            Map<Priority, Integer> counts = new EnumMap<>(Priority.class);
+            for (Priority priority : order.subList(round * 31, round * 31 + 31)) {
+                counts.merge(priority, 1, Integer::sum);
+            }
+            for (Priority priority : Priority.values()) {
+                assertEquals(ScriptTickScheduler.weightOf(priority), counts.get(priority).intValue(), priority + " in round " + round);
+            }
+        }
+    }
+
+    @Test
+    public void testLowPriorityIsInterleaved() {
+        ScriptTickScheduler scheduler = new ScriptTickScheduler(UNLIMITED_BUDGET_MS);
+        StringBuilder order = new StringBuilder();
+        for (int i = 0; i < 8; i++) {
+            scheduler.submit("world", Priority.HIGH, deadline -> order.append('H'));
+        }
+        for (int i = 0; i < 2; i++) {
+            scheduler.submit("world", Priority.LOW, deadline -> order.append('L'));
+        }
+        scheduler.tick();
+
+        assertEquals("HHLHHHHLHH", order.toString(), "Low priority slices must be spread out, not run last");
+    }
+
+    @Test
+    public void testWorldsTakeTurns() {
+        ScriptTickScheduler scheduler = new ScriptTickScheduler(UNLIMITED_BUDGET_MS);
+        StringBuilder order = new StringBuilder();
+        for (int i = 0; i < 3; i++) {
+            scheduler.submit("a", Priority.CRITICAL, deadline -> order.append('a'));
+        }
+        scheduler.submit("b", Priority.IDLE, deadline -> order.append('b'));
+        scheduler.submit(null, Priority.IDLE, deadline -> order.append('-'));
+        assertEquals(3, scheduler.getWorldCount());
+
+        scheduler.tick();
+
+        assertEquals("ab-aa", order.toString());
+        assertEquals(0, scheduler.size());
+        assertEquals(0, scheduler.getWorldCount());
+    }
+
+    @Test
+    public void testBudgetCarriesSlicesOver() {
+        ScriptTickScheduler scheduler = new ScriptTickScheduler(1);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            scheduler.submit("world", Priority.NORMAL, deadline -> {
+                deadlines.add(deadline);
+                long end = System.nanoTime() + 5_000_000L;
+                while (System.nanoTime() - end < 0) {
+                    Thread.onSpinWait();
+                }
+            });
+        }
+
+        scheduler.tick();
+        assertEquals(1, deadlines.size(), "A slice that uses up the budget ends the tick");
+        assertEquals(2, scheduler.size());
+
+        scheduler.tick();
+        assertEquals(2, deadlines.size(), "Carried over slices run in the next tick");
+        assertNotEquals(deadlines.get(0), deadlines.get(1));
+    }
+
+    @Test
+    public void testFailingSliceDoesNotStopTheTick() {
+        ScriptTickScheduler scheduler = new ScriptTickScheduler(UNLIMITED_BUDGET_MS);
+        List<String> ran = new ArrayList<>();
+        scheduler.submit("world", Priority.NORMAL, deadline -> {
+            throw new IllegalStateException("broken slice");
+        });
+        scheduler.submit("world", Priority.NORMAL, deadline -> ran.add("next"));
+
+        scheduler.tick();
+
+        assertEquals(List.of("next"), ran);
+    }
+
+    @Test
+    public void testYieldingSliceRunsAgainBehindOthers() {
+        ScriptTickScheduler scheduler = new ScriptTickScheduler(UNLIMITED_BUDGET_MS);
+        StringBuilder order = new StringBuilder();
+        scheduler.submit("world", Priority.NORMAL, new LongConsumer() {
+            private int slices;
+
+            @Override
+            public void accept(long deadline) {
+                order.append('y');
+                if (++slices < 3) {
+                    scheduler.submit("world", Priority.NORMAL, this);
+                }
+            }
+        });
+        scheduler.submit("world", Priority.NORMAL, deadline -> order.append('o'));
+
+        scheduler.tick();
+
+        assertEquals("yoyy", order.toString());
+    }
+
+    private static void spin(long millis) {
+        long end = System.nanoTime() + millis * 1_000_000L;
+        while (System.nanoTime() - end < 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    @Test
+    public void testImmediateSlicesShareTheTickBudget() {
+        ScriptTickScheduler scheduler = new ScriptTickScheduler(2);
+        scheduler.tick();
+
+        long deadline = scheduler.beginSlice("world");
+        assertTrue(deadline - System.nanoTime() > 0, "A fresh tick leaves budget for a new run");
+        spin(5);
+        scheduler.endSlice();
+
+        long late = scheduler.beginSlice("world");
+        assertTrue(late - System.nanoTime() <= 0, "A used up budget must leave no time for another run");
+        scheduler.endSlice();
+
+        scheduler.tick();
+        long next = scheduler.beginSlice("world");
+        assertTrue(next - System.nanoTime() > 0, "The next tick starts a new budget");
+        scheduler.endSlice();
+    }
+
+    @Test
+    public void testNestedSlicesShareTheOuterDeadline() {
+        ScriptTickScheduler scheduler = new ScriptTickScheduler(10);
+        scheduler.tick();
+        long outer = scheduler.beginSlice("world");
+        assertEquals(outer, scheduler.beginSlice("other"), "A function called from a slice runs within it");
+        spin(4);
+        scheduler.endSlice();
+        scheduler.endSlice();
+
+        long remaining = scheduler.beginSlice("world") - System.nanoTime();
+        scheduler.endSlice();
+        assertTrue(remaining > 3_000_000L, "The nested time must be charged once, " + remaining + " ns were left");
+    }
+
+    @Test
+    public void testImmediateSliceMovesItsWorldBack() {
+        ScriptTickScheduler scheduler = new ScriptTickScheduler(UNLIMITED_BUDGET_MS);
+        StringBuilder order = new StringBuilder();
+        scheduler.submit("a", Priority.NORMAL, deadline -> order.append('a'));
+        scheduler.submit("a", Priority.NORMAL, deadline -> order.append('a'));
+        scheduler.submit("b", Priority.NORMAL, deadline -> order.append('b'));
+
+        scheduler.beginSlice("a");
+        scheduler.endSlice();
+        scheduler.tick();
+
+        assertEquals("baa", order.toString(), "A world that just ran must let the others go first");
+    }
+}
@@ -0,0 +1,62 @@
+package com.megacreative.coding;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StructureVersionTest {
+
+    @Test
+    public void testBumpChangesOnlyOwnSet() {
+        StructureVersion a = new StructureVersion();
+        StructureVersion b = new StructureVersion();
+        long stampA = a.current();
+        long stampB = b.current();
+
+        b.bump();
+
+        assertEquals(stampA, a.current(), "Editing another graph must keep this stamp");
+        assertNotEquals(stampB, b.current(), "Editing a block must change its stamp");
+    }
+
+    @Test
+    public void testJoinedVersionsShareEdits() {
+        StructureVersion root = new StructureVersion();
+        StructureVersion child = new StructureVersion();
+        StructureVersion grandChild = new StructureVersion();
+        root.join(child);
+        child.join(grandChild);
+        long stamp = root.current();
+
+        assertTrue(root.isJoinedWith(grandChild));
+        assertEquals(stamp, grandChild.current());
+
+        grandChild.bump();
+
+        assertNotEquals(stamp, root.current(), "Editing a joined block must change the root stamp");
+        assertEquals(root.current(), child.current());
+    }
+
+    @Test
+    public void testDifferentSetsNeverShareStamps() {
+        StructureVersion a = new StructureVersion();
+        StructureVersion b = new StructureVersion();
+        for (int i = 0; i < 100; i++) {
+            a.bump();
+            b.bump();
+            assertNotEquals(a.current(), b.current());
+        }
+    }
+
+    @Test
+    public void testJoinIsIdempotent() {
+        StructureVersion a = new StructureVersion();
+        StructureVersion b = new StructureVersion();
+        a.join(b);
+        long stamp = a.current();
+
+        a.join(b);
+        b.join(a);
+
+        assertEquals(stamp, a.current(), "Joining an already joined set must not change the stamp");
+    }
+}
@@ -0,0 +1,100 @@
+package com.megacreative.coding.events;
+
+import com.megacreative.coding.values.DataValue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class EventCorrelationEngineTest {
+
+    private static final Map<String, DataValue> NO_DATA = Collections.emptyMap();
+    private static final long START = 1_000_000L;
+
+    private EventCorrelationEngine engine;
+    private List<EventCorrelationEngine.PatternInstance> completed;
+
+    @BeforeEach
+    public void setUp() {
+        engine = new EventCorrelationEngine(mock(CustomEventManager.class));
+        completed = new ArrayList<>();
+        engine.addCompletionListener(completed::add);
+    }
+
+    private void register(String id, long timeoutMs) {
+        engine.registerPattern(new EventCorrelationEngine.EventPattern.Builder(id)
+            .patternId(id)
+            .addStep("start")
+            .addStep("finish")
+            .timeout(timeoutMs)
+            .build());
+    }
+
+    private int active() {
+        return engine.getStatistics().getActiveInstances();
+    }
+
+    @Test
+    public void testInstanceExpiresOnceItsDeadlinePassed() {
+        register("short", 1_000);
+        engine.processEvent("start", NO_DATA, null, "world", START);
+        assertEquals(1, active());
+
+        assertEquals(0, engine.cleanupExpiredInstances(START + 500));
+        assertEquals(1, active());
+        assertEquals(1, engine.cleanupExpiredInstances(START + 2_000));
+        assertEquals(0, active());
+
+        engine.processEvent("finish", NO_DATA, null, "world", START + 2_100);
+        assertTrue(completed.isEmpty(), "An expired instance must not complete");
+    }
+
+    @Test
+    public void testDeadlinesBeyondOneTurnWaitForLaterTurns() {
+        // One turn of the wheel is 512 slots of 250 ms
+        register("long", 200_000);
+        engine.processEvent("start", NO_DATA, null, "world", START);
+
+        for (long now = START; now <= START + 199_000; now += 7_000) {
+            assertEquals(0, engine.cleanupExpiredInstances(now), "Expired early at " + (now - START) + " ms");
+        }
+        assertEquals(1, active());
+        assertEquals(1, engine.cleanupExpiredInstances(START + 201_000));
+        assertEquals(0, active());
+    }
+
+    @Test
+    public void testIdleWheelExpiresEverythingDue() {
+        register("short", 1_000);
+        engine.cleanupExpiredInstances(START);
+        engine.processEvent("start", NO_DATA, null, "world", START);
+        engine.processEvent("start", NO_DATA, null, "world", START + 300);
+        assertEquals(2, active());
+
+        // Far more than one turn later, every slot is visited once
+        assertEquals(2, engine.cleanupExpiredInstances(START + 3_600_000));
+        assertEquals(0, active());
+    }
+
+    @Test
+    public void testCompletedAndDiscardedInstancesAreNotExpired() {
+        register("done", 1_000);
+        register("dropped", 1_000);
+        engine.processEvent("start", NO_DATA, null, "world", START);
+        engine.processEvent("finish", NO_DATA, null, "world", START + 100);
+        assertEquals(2, completed.size());
+
+        engine.processEvent("start", NO_DATA, null, "world", START + 200);
+        engine.unregisterPattern("dropped");
+        assertEquals(1, active());
+
+        assertEquals(1, engine.cleanupExpiredInstances(START + 5_000));
+        assertEquals(0, active());
+    }
+}
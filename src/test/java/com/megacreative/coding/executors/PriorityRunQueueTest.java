@@ -0,0 +1,87 @@
+package com.megacreative.coding.executors;
+
+import com.megacreative.coding.executors.AdvancedExecutionEngine.Priority;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PriorityRunQueueTest {
+
+    private static final long AGING_STEP_MS = 100;
+
+    private long now;
+    private PriorityRunQueue<String> queue;
+    private List<String> drained;
+
+    @BeforeEach
+    public void setUp() {
+        now = 0;
+        queue = new PriorityRunQueue<>(AGING_STEP_MS, () -> now);
+        drained = new ArrayList<>();
+    }
+
+    private void advanceClock(long millis) {
+        now += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    @Test
+    public void testHigherPriorityFirstAndFifoWithinPriority() {
+        queue.offer(Priority.LOW, "low");
+        queue.offer(Priority.NORMAL, "normal-1");
+        queue.offer(Priority.CRITICAL, "critical");
+        queue.offer(Priority.NORMAL, "normal-2");
+        queue.offer(null, "default");
+        assertEquals(5, queue.size());
+
+        assertEquals(5, queue.drain(10, drained::add));
+
+        assertEquals(List.of("critical", "normal-1", "normal-2", "default", "low"), drained);
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void testDrainStopsAtMax() {
+        for (int i = 0; i < 5; i++) {
+            queue.offer(Priority.NORMAL, "task-" + i);
+        }
+
+        assertEquals(2, queue.drain(2, drained::add));
+        assertEquals(3, queue.size());
+        assertEquals(List.of("task-0", "task-1"), drained);
+    }
+
+    @Test
+    public void testWaitingTaskClimbsOneLevelPerStep() {
+        queue.offer(Priority.IDLE, "idle");
+        advanceClock(3 * AGING_STEP_MS);
+        queue.offer(Priority.HIGH, "high");
+
+        // IDLE (4) aged three steps ranks 1, level with HIGH, which keeps the turn on a tie
+        queue.drain(1, drained::add);
+        assertEquals(List.of("high"), drained);
+
+        advanceClock(AGING_STEP_MS);
+        queue.offer(Priority.HIGH, "high-2");
+        queue.drain(1, drained::add);
+        assertEquals("idle", drained.get(1), "Aged four steps the idle task must beat a fresh high priority task");
+    }
+
+    @Test
+    public void testStreamOfUrgentWorkCannotStarveLowPriority() {
+        queue.offer(Priority.IDLE, "idle");
+        for (int round = 0; round < 10 && !drained.contains("idle"); round++) {
+            queue.offer(Priority.CRITICAL, "critical-" + round);
+            queue.drain(1, drained::add);
+            advanceClock(AGING_STEP_MS);
+        }
+
+        assertTrue(drained.contains("idle"), "The idle task must be served within a bounded number of steps");
+        assertTrue(drained.indexOf("idle") <= 5, "Served after " + drained.indexOf("idle") + " critical tasks");
+    }
+}
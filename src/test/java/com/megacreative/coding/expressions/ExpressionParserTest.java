@@ -0,0 +1,115 @@
+package com.megacreative.coding.expressions;
+
+import com.megacreative.exceptions.ScriptException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExpressionParserTest {
+
+    private static double eval(String text) {
+        return CompiledExpression.compile(text).evaluate(name -> {
+            throw new AssertionError("Unexpected variable " + name);
+        });
+    }
+
+    private static double eval(String text, Map<String, Double> variables) {
+        return CompiledExpression.compile(text).evaluate(name -> variables.getOrDefault(name, Double.NaN));
+    }
+
+    @Test
+    public void testOperatorPrecedence() {
+        assertEquals(7.0, eval("1 + 2 * 3"));
+        assertEquals(9.0, eval("(1 + 2) * 3"));
+        assertEquals(1.0, eval("7 % 3 * 1"));
+        assertEquals(2.0, eval("8 / 2 / 2"), "Division must be left-associative");
+        assertEquals(-1.0, eval("1 - 1 - 1"), "Subtraction must be left-associative");
+    }
+
+    @Test
+    public void testPowerBindsTighterThanUnaryMinus() {
+        assertEquals(-4.0, eval("-2^2"));
+        assertEquals(512.0, eval("2^3^2"), "Exponentiation must be right-associative");
+        assertEquals(0.25, eval("2^-2"));
+    }
+
+    @Test
+    public void testFunctionsAndVariables() {
+        Map<String, Double> variables = Map.of("score", 4.0, "stats.kills", 3.0);
+        assertEquals(9.0, eval("max(score, 1) * 2 + 1", variables));
+        assertEquals(7.0, eval("score + stats.kills", variables));
+        assertEquals(2.0, eval("sqrt(score)", variables));
+    }
+
+    @Test
+    public void testConstantsAreFolded() {
+        CompiledExpression expression = CompiledExpression.compile("2 * (3 + 4) - max(1, 5)");
+        assertTrue(expression.isConstant());
+        assertEquals(9.0, eval("2 * (3 + 4) - max(1, 5)"));
+    }
+
+    @Test
+    public void testSingleVariable() {
+        CompiledExpression expression = CompiledExpression.compile("score");
+        assertTrue(expression.isVariable());
+        assertFalse(expression.isConstant());
+        assertEquals(java.util.List.of("score"), expression.getVariableNames());
+    }
+
+    @Test
+    public void testDepthLimit() {
+        String nested = "(".repeat(20) + "1" + ")".repeat(20);
+        assertEquals(1.0, eval(nested));
+
+        String tooDeep = "(".repeat(100) + "1" + ")".repeat(100);
+        assertThrows(ScriptException.class, () -> CompiledExpression.compile(tooDeep));
+        assertThrows(ScriptException.class, () -> CompiledExpression.compile("-".repeat(100) + "1"));
+    }
+
+    @Test
+    public void testInvalidExpressions() {
+        assertThrows(ScriptException.class, () -> CompiledExpression.compile(""));
+        assertThrows(ScriptException.class, () -> CompiledExpression.compile("1 +"));
+        assertThrows(ScriptException.class, () -> CompiledExpression.compile("(1 + 2"));
+        assertThrows(ScriptException.class, () -> CompiledExpression.compile("unknown(1)"));
+        assertThrows(ScriptException.class, () -> CompiledExpression.compile("max()"));
+        assertThrows(ScriptException.class, () -> CompiledExpression.compile("$0"), "Parameters are only allowed in templates");
+    }
+
+    @Test
+    public void testParametersAreBoundAtEvaluation() {
+        CompiledExpression expression = ExpressionParser.parse("max($0, 1) * score", 1);
+        assertFalse(expression.isConstant());
+        Map<String, Double> variables = Map.of("score", 2.0);
+
+        assertEquals(10.0, expression.evaluate(variables::get, new double[] {5}));
+        assertEquals(2.0, expression.evaluate(variables::get, new double[] {-3}));
+        assertThrows(ScriptException.class, () -> ExpressionParser.parse("$1", 1));
+    }
+
+    @Test
+    public void testModuloIsNotTakenForPlaceholders() {
+        Map<String, Double> variables = Map.of("x", 7.0, "y", 5.0);
+        ExpressionTemplate spaced = ExpressionTemplate.compile("x % 2 + y % 3");
+        assertEquals(0, spaced.getPlaceholderCount());
+        assertEquals(3.0, spaced.evaluate(null, variables::get));
+
+        ExpressionTemplate compact = ExpressionTemplate.compile("x%2+y%3");
+        assertEquals(0, compact.getPlaceholderCount());
+        assertEquals(3.0, compact.evaluate(null, variables::get));
+
+        assertEquals(1, ExpressionTemplate.compile("%hp% % 2").getPlaceholderCount());
+        assertEquals(2, ExpressionTemplate.compile("max(%hp%, %player_level%) % 3").getPlaceholderCount());
+    }
+
+    @Test
+    public void testCouldBeVariableName() {
+        assertTrue(CompiledExpression.couldBeVariableName("my-var"));
+        assertTrue(CompiledExpression.couldBeVariableName("score*2"));
+        assertFalse(CompiledExpression.couldBeVariableName("score * 2"));
+        assertFalse(CompiledExpression.couldBeVariableName("max(a,b)"));
+        assertFalse(CompiledExpression.couldBeVariableName(""));
+    }
+}
@@ -0,0 +1,83 @@
+package com.megacreative.coding.functions;
+
+import com.megacreative.coding.CodeBlock;
+import com.megacreative.coding.values.DataValue;
+import com.megacreative.coding.values.ValueType;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class FunctionCallStackTest {
+
+    private static final DataValue[] NO_ARGUMENTS = new DataValue[0];
+
+    private FunctionDefinition function;
+    private FunctionCallStack stack;
+
+    @BeforeEach
+    public void setUp() {
+        Player owner = mock(Player.class);
+        when(owner.getUniqueId()).thenReturn(UUID.randomUUID());
+        List<FunctionDefinition.FunctionParameter> parameters = List.of(
+            new FunctionDefinition.FunctionParameter("count", ValueType.NUMBER, false, DataValue.of(1), ""));
+        function = new FunctionDefinition("repeat", "", owner, parameters,
+            List.of(new CodeBlock("COBBLESTONE", "sendMessage")), ValueType.TEXT, FunctionDefinition.FunctionScope.GLOBAL);
+        stack = new FunctionCallStack();
+    }
+
+    @Test
+    public void testFramesLeaveInnermostFirst() {
+        FunctionCallFrame outer = stack.push(function, NO_ARGUMENTS, null);
+        FunctionCallFrame inner = stack.push(function, NO_ARGUMENTS, null);
+        assertEquals(0, outer.getDepth());
+        assertEquals(1, inner.getDepth());
+
+        assertFalse(stack.release(inner));
+        assertEquals(1, stack.depth());
+        assertTrue(stack.release(outer));
+        assertEquals(0, stack.depth());
+    }
+
+    @Test
+    public void testOuterReleaseWaitsForInnerCalls() {
+        FunctionCallFrame outer = stack.push(function, NO_ARGUMENTS, null);
+        FunctionCallFrame inner = stack.push(function, NO_ARGUMENTS, null);
+
+        assertFalse(stack.release(outer), "A call released below a paused call must stay on the stack");
+        assertEquals(2, stack.depth());
+        assertNotNull(outer.getFunction(), "A frame below the top keeps its call until it leaves");
+
+        assertTrue(stack.release(inner));
+        assertEquals(0, stack.depth());
+        assertNull(outer.getFunction(), "Frames that left the stack are cleared");
+    }
+
+    @Test
+    public void testFramesAreReusedAndBindDefaults() {
+        FunctionCallFrame outer = stack.push(function, NO_ARGUMENTS, null);
+        FunctionCallFrame first = stack.push(function, new DataValue[] {DataValue.of(5)}, null);
+        assertEquals(5, first.getArgument("count").asNumber().intValue());
+        stack.release(first);
+
+        FunctionCallFrame second = stack.push(function, NO_ARGUMENTS, null);
+        assertSame(first, second, "A frame at the same depth must be reused");
+        assertEquals(1, second.getArgument("count").asNumber().intValue(), "A missing argument takes the default");
+        stack.release(second);
+        stack.release(outer);
+    }
+
+    @Test
+    public void testEmptyStackIsRetired() {
+        FunctionCallFrame frame = stack.push(function, NO_ARGUMENTS, null);
+        assertTrue(stack.release(frame));
+
+        assertNull(stack.push(function, NO_ARGUMENTS, null), "A retired stack must open no frame");
+        assertEquals(0, stack.depth());
+    }
+}
@@ -0,0 +1,102 @@
+package com.megacreative.coding.functions;
+
+import com.megacreative.coding.CodeBlock;
+import com.megacreative.coding.functions.AdvancedFunctionManager.FunctionLibrary;
+import com.megacreative.coding.values.ValueType;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class FunctionSymbolTableTest {
+
+    private Player caller;
+    private Player other;
+    private FunctionSymbolTable table;
+
+    private static Player player() {
+        Player player = mock(Player.class);
+        UUID id = UUID.randomUUID();
+        when(player.getUniqueId()).thenReturn(id);
+        return player;
+    }
+
+    private static FunctionDefinition function(Player owner, FunctionDefinition.FunctionScope scope) {
+        return new FunctionDefinition("greet", "", owner, Collections.emptyList(),
+            List.of(new CodeBlock("COBBLESTONE", "sendMessage")), ValueType.TEXT, scope);
+    }
+
+    @BeforeEach
+    public void setUp() {
+        caller = player();
+        other = player();
+        table = new FunctionSymbolTable(player -> "world-1");
+    }
+
+    @Test
+    public void testResolutionOrder() {
+        FunctionDefinition own = function(caller, FunctionDefinition.FunctionScope.PLAYER);
+        FunctionDefinition shared = function(other, FunctionDefinition.FunctionScope.SHARED);
+        shared.addAllowedPlayer(caller.getUniqueId());
+        FunctionDefinition world = function(other, FunctionDefinition.FunctionScope.WORLD);
+        FunctionDefinition global = function(other, FunctionDefinition.FunctionScope.GLOBAL);
+        FunctionDefinition library = function(other, FunctionDefinition.FunctionScope.GLOBAL);
+        FunctionLibrary functions = new FunctionLibrary("lib", "");
+        functions.addFunction(library);
+
+        table.addLibrary(functions);
+        table.add(global, null);
+        table.add(world, "world-1");
+        table.add(shared, null);
+        table.add(own, null);
+
+        assertSame(own, table.resolve("greet", caller));
+        table.remove(own, null);
+        assertSame(shared, table.resolve("greet", caller));
+        table.remove(shared, null);
+        assertSame(world, table.resolve("greet", caller));
+        table.remove(world, "world-1");
+        assertSame(global, table.resolve("greet", caller));
+        table.remove(global, null);
+        assertSame(library, table.resolve("greet", caller));
+        assertNull(table.resolve("missing", caller));
+    }
+
+    @Test
+    public void testInvisibleFunctionsAreSkipped() {
+        FunctionDefinition foreign = function(other, FunctionDefinition.FunctionScope.PLAYER);
+        FunctionDefinition shared = function(other, FunctionDefinition.FunctionScope.SHARED);
+        FunctionDefinition otherWorld = function(other, FunctionDefinition.FunctionScope.WORLD);
+        table.add(foreign, null);
+        assertNull(table.resolve("greet", caller), "Another player's function must not resolve");
+
+        table.add(shared, null);
+        table.add(otherWorld, "world-2");
+        assertNull(table.resolve("greet", caller), "A shared function without access and a function of another world must not resolve");
+
+        FunctionDefinition global = function(other, FunctionDefinition.FunctionScope.GLOBAL);
+        table.add(global, null);
+        assertSame(global, table.resolve("greet", caller));
+        assertSame(shared, table.resolve("greet", other), "The owner resolves its own function first");
+    }
+
+    @Test
+    public void testReplacingOwnFunction() {
+        FunctionDefinition first = function(caller, FunctionDefinition.FunctionScope.SHARED);
+        FunctionDefinition second = function(caller, FunctionDefinition.FunctionScope.PLAYER);
+        table.add(first, null);
+        table.add(second, null);
+
+        assertSame(second, table.resolve("greet", caller));
+        table.remove(first, null);
+        assertSame(second, table.resolve("greet", caller), "Removing a replaced function must keep its replacement");
+        table.remove(second, null);
+        assertNull(table.resolve("greet", caller));
+    }
+}
@@ -0,0 +1,86 @@
+package com.megacreative.coding.monitoring.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testSmallValuesHaveOwnBuckets() {
+        for (int value = 0; value < 4; value++) {
+            assertEquals(value, LatencyHistogram.bucketOf(value));
+            assertEquals(value, LatencyHistogram.upperBoundOf(value));
+        }
+    }
+
+    @Test
+    public void testBucketBoundsContainTheirValues() {
+        int previous = -1;
+        for (long value = 0; value < 1 << 16; value++) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(bucket >= previous, "Buckets must not decrease with the value");
+            long upper = LatencyHistogram.upperBoundOf(bucket);
+            assertTrue(upper >= value, "Bucket " + bucket + " must hold " + value);
+            assertTrue(upper <= value + value / 4, "Bucket " + bucket + " is more than 25% wide at " + value);
+            if (bucket != previous && previous >= 0) {
+                assertEquals(LatencyHistogram.upperBoundOf(previous) + 1, value, "Buckets must not leave gaps");
+            }
+            previous = bucket;
+        }
+    }
+
+    @Test
+    public void testPowerOfTwoBoundaries() {
+        assertEquals(4, LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(4)));
+        assertEquals(LatencyHistogram.bucketOf(4) + 1, LatencyHistogram.bucketOf(5));
+        assertEquals(9, LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(8)));
+        assertEquals(LatencyHistogram.bucketOf(1023), LatencyHistogram.bucketOf(1000));
+        assertNotEquals(LatencyHistogram.bucketOf(1023), LatencyHistogram.bucketOf(1024));
+    }
+
+    @Test
+    public void testHugeValuesShareLastBucket() {
+        assertEquals(LatencyHistogram.bucketOf(1L << 40), LatencyHistogram.bucketOf(Long.MAX_VALUE));
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.getP99(), "A percentile in the last bucket is capped by the max");
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getP50());
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        histogram.record(-5);
+
+        assertEquals(101, histogram.getCount());
+        assertEquals(100, histogram.getMax());
+        long p50 = histogram.getP50();
+        assertTrue(p50 >= 50 && p50 <= 63, "p50 was " + p50);
+        long p99 = histogram.getP99();
+        assertTrue(p99 >= 99 && p99 <= 100, "p99 was " + p99);
+        assertEquals(0, histogram.getPercentile(0.0));
+        assertEquals(100, histogram.getPercentile(1.0));
+    }
+
+    @Test
+    public void testAddAllAndReset() {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        a.record(2);
+        b.record(3);
+        b.record(500);
+
+        a.addAll(b);
+        assertEquals(3, a.getCount());
+        assertEquals(500, a.getMax());
+        assertEquals(2, b.getCount(), "The added histogram must not change");
+
+        a.reset();
+        assertEquals(0, a.getCount());
+        assertEquals(0, a.getMax());
+    }
+}